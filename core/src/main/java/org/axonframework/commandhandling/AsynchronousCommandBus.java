@@ -17,6 +17,7 @@
 package org.axonframework.commandhandling;
 
 import org.axonframework.common.Assert;
+import org.axonframework.common.StripedExecutor;
 import org.axonframework.common.transaction.NoTransactionManager;
 import org.axonframework.common.transaction.TransactionManager;
 import org.axonframework.messaging.MessageHandler;
@@ -36,6 +37,17 @@
  * <p/>
  * Each Command is dispatched in a separate task, which is processed by the Executor.
  * <p/>
+ * Alternatively, the AsynchronousCommandBus can be initialized with a {@link StripedExecutor}. In that case, tasks are
+ * assigned to a worker based on the identifier of the aggregate targeted by the command, as resolved by a
+ * {@link CommandTargetResolver}. Commands for the same aggregate are then handled in sequence by the same thread,
+ * without contending for the aggregate's lock, while commands for different aggregates are handled in parallel.
+ * Commands for which no target aggregate can be resolved are assigned to a worker based on their identifier.
+ * <p/>
+ * When using a StripedExecutor, a command handler must never wait for the result of a command it dispatches on this
+ * bus. If that command is assigned to the same worker, the worker deadlocks, as it can't handle the second command
+ * while it waits for it. When the worker's queue is full, a handler dispatching any command to its own worker blocks
+ * in the same way.
+ * <p/>
  * Note that you should call {@link #shutdown()} to stop any threads waiting for new tasks. Failure to do so may cause
  * the JVM to hang for up to 60 seconds on JVM shutdown.
  *
@@ -45,6 +57,8 @@
 public class AsynchronousCommandBus extends SimpleCommandBus {
 
     private final Executor executor;
+    private final StripedExecutor stripedExecutor;
+    private final CommandTargetResolver commandTargetResolver;
 
     /**
      * Initialize the AsynchronousCommandBus, using a Cached Thread Pool.
@@ -76,19 +90,61 @@ public AsynchronousCommandBus(Executor executor,
         super(transactionManager, messageMonitor);
         Assert.notNull(executor, () -> "executor may not be null");
         this.executor = executor;
+        this.stripedExecutor = null;
+        this.commandTargetResolver = null;
+    }
+
+    /**
+     * Initialize the AsynchronousCommandBus using the given {@code stripedExecutor}, assigning commands to its workers
+     * based on the aggregate identifier resolved by given {@code commandTargetResolver}.
+     *
+     * @param stripedExecutor       The executor that processes commands, assigning them to a worker by aggregate
+     * @param commandTargetResolver The resolver providing the identifier of the aggregate targeted by a command
+     * @param transactionManager    The transactionManager to manage transaction with
+     * @param messageMonitor        The message monitor to monitor the command bus
+     */
+    public AsynchronousCommandBus(StripedExecutor stripedExecutor,
+                                  CommandTargetResolver commandTargetResolver,
+                                  TransactionManager transactionManager,
+                                  MessageMonitor<? super CommandMessage<?>> messageMonitor) {
+        super(transactionManager, messageMonitor);
+        Assert.notNull(stripedExecutor, () -> "stripedExecutor may not be null");
+        Assert.notNull(commandTargetResolver, () -> "commandTargetResolver may not be null");
+        this.executor = null;
+        this.stripedExecutor = stripedExecutor;
+        this.commandTargetResolver = commandTargetResolver;
     }
 
     @Override
     protected <C, R> void handle(CommandMessage<C> command, MessageHandler<? super CommandMessage<?>> handler, CommandCallback<? super C, R> callback) {
-        executor.execute(() -> super.handle(command, handler, callback));
+        if (stripedExecutor != null) {
+            stripedExecutor.execute(routingKey(command), () -> super.handle(command, handler, callback));
+        } else {
+            executor.execute(() -> super.handle(command, handler, callback));
+        }
+    }
+
+    private String routingKey(CommandMessage<?> command) {
+        try {
+            String aggregateIdentifier = commandTargetResolver.resolveTarget(command).getIdentifier();
+            if (aggregateIdentifier != null) {
+                return aggregateIdentifier;
+            }
+        } catch (IllegalArgumentException e) {
+            // no target aggregate. Any worker will do.
+        }
+        return command.getIdentifier();
     }
 
     /**
      * Shuts down the Executor used to asynchronously dispatch incoming commands. If the {@code Executor} provided
-     * in the constructor does not implement {@code ExecutorService}, this method does nothing.
+     * in the constructor does not implement {@code ExecutorService}, this method does nothing. A
+     * {@link StripedExecutor} is always shut down.
      */
     public void shutdown() {
-        if (executor instanceof ExecutorService) {
+        if (stripedExecutor != null) {
+            stripedExecutor.shutdown();
+        } else if (executor instanceof ExecutorService) {
             ((ExecutorService) executor).shutdown();
             try {
                 ((ExecutorService) executor).awaitTermination(5, TimeUnit.SECONDS);
@@ -34,6 +34,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.String.format;
 
@@ -52,8 +53,8 @@ public class SimpleCommandBus implements CommandBus {
 
     private final ConcurrentMap<String, MessageHandler<? super CommandMessage<?>>> subscriptions =
             new ConcurrentHashMap<>();
-    private final List<MessageHandlerInterceptor<? super CommandMessage<?>>> handlerInterceptors
-            = new CopyOnWriteArrayList<>();
+    private final AtomicReference<CompiledInterceptorChain<CommandMessage<?>>> handlerInterceptors =
+            new AtomicReference<>(CompiledInterceptorChain.empty());
     private final List<MessageDispatchInterceptor<? super CommandMessage<?>>> dispatchInterceptors
             = new CopyOnWriteArrayList<>();
     private final MessageMonitor<? super CommandMessage<?>> messageMonitor;
@@ -143,9 +144,10 @@ protected <C, R> void handle(CommandMessage<C> command, MessageHandler<? super C
         try {
             UnitOfWork<CommandMessage<?>> unitOfWork = DefaultUnitOfWork.startAndGet(command);
             unitOfWork.attachTransaction(transactionManager);
-            InterceptorChain chain = new DefaultInterceptorChain<>(unitOfWork, handlerInterceptors, handler);
+            CompiledInterceptorChain<CommandMessage<?>> chain = handlerInterceptors.get();
 
-            R result = (R) unitOfWork.executeWithResult(chain::proceed, rollbackConfiguration);
+            R result = (R) unitOfWork.executeWithResult(() -> chain.proceed(unitOfWork, handler),
+                                                        rollbackConfiguration);
 
             callback.onSuccess(command, result);
         } catch (Exception e) {
@@ -172,8 +174,9 @@ public Registration subscribe(String commandName, MessageHandler<? super Command
      */
     @Override
     public Registration registerHandlerInterceptor(MessageHandlerInterceptor<? super CommandMessage<?>> handlerInterceptor) {
-        handlerInterceptors.add(handlerInterceptor);
-        return () -> handlerInterceptors.remove(handlerInterceptor);
+        handlerInterceptors.updateAndGet(chain -> chain.with(handlerInterceptor));
+        return () -> handlerInterceptors.getAndUpdate(chain -> chain.without(handlerInterceptor))
+                                        .contains(handlerInterceptor);
     }
 
     /**
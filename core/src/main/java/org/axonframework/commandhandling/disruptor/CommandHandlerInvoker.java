@@ -273,8 +273,9 @@ public Aggregate<T> load(String aggregateIdentifier) {
             if (aggregateRoot == null) {
                 logger.debug("Aggregate {} not in first level cache, loading fresh one from Event Store",
                              aggregateIdentifier);
-                DomainEventStream eventStream = eventStore.readEvents(aggregateIdentifier);
                 SnapshotTrigger trigger = snapshotTriggerDefinition.prepareTrigger(aggregateFactory.getAggregateType());
+                trigger.initializationStarted();
+                DomainEventStream eventStream = eventStore.readEvents(aggregateIdentifier);
                 if (!eventStream.hasNext()) {
                     throw new AggregateNotFoundException(aggregateIdentifier,
                                                          "The aggregate was not found in the event store");
@@ -47,9 +47,7 @@ public void reset(T message) {
         } else {
             processingContext.reset(message);
         }
-        setPhase(Phase.NOT_STARTED);
-        resources().clear();
-        correlationDataProviders().clear();
+        resetState();
     }
 
     /**
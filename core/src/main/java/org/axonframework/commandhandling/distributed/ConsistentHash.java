@@ -23,6 +23,7 @@
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 /**
  * Component used by command routers to find members capable of handling a given command. Members are selected based on
@@ -34,38 +35,42 @@
  */
 public class ConsistentHash {
 
-    private final SortedMap<String, ConsistentHashMember> hashToMember;
+    private static final long[] NO_POSITIONS = new long[0];
+    private static final ConsistentHashMember[] NO_MEMBERS = new ConsistentHashMember[0];
+
+    private final long[] ringPositions;
+    private final ConsistentHashMember[] ringMembers;
     private final int modCount;
-    private final Function<String, String> hashFunction;
+    private final ToLongFunction<String> hashFunction;
     private final Map<String, ConsistentHashMember> members;
 
     /**
      * Initializes a new {@link ConsistentHash}. To register members use {@link #with(Member, int, Predicate)}.
      */
     public ConsistentHash() {
-        this(ConsistentHash::hash);
+        this(Collections.emptyMap(), ConsistentHash::hashToLong, 0, NO_POSITIONS, NO_MEMBERS);
     }
 
     /**
      * Initializes a new {@link ConsistentHash} using the given {@code hashFunction} to calculate positions for each
      * member on the ring. To register members use {@link #with(Member, int, Predicate)}.
+     * <p>
+     * The position on the ring is the {@link #hashToLong(String) 64 bit hash} of the value returned by the given
+     * function.
      *
      * @param hashFunction The hash function to use to calculate each member's positions on the ring
      */
     public ConsistentHash(Function<String, String> hashFunction) {
-        hashToMember = Collections.emptySortedMap();
-        members = Collections.emptyMap();
-        modCount = 0;
-        this.hashFunction = hashFunction;
+        this(Collections.emptyMap(), key -> hashToLong(hashFunction.apply(key)), 0, NO_POSITIONS, NO_MEMBERS);
     }
 
-    private ConsistentHash(Map<String, ConsistentHashMember> members,
-                           Function<String, String> hashFunction, int modCount) {
+    private ConsistentHash(Map<String, ConsistentHashMember> members, ToLongFunction<String> hashFunction,
+                           int modCount, long[] ringPositions, ConsistentHashMember[] ringMembers) {
         this.hashFunction = hashFunction;
         this.modCount = modCount;
-        this.hashToMember = new TreeMap<>();
         this.members = members;
-        members.values().forEach(m -> m.hashes().forEach(h -> hashToMember.put(h, m)));
+        this.ringPositions = ringPositions;
+        this.ringMembers = ringMembers;
     }
 
     /**
@@ -73,11 +78,31 @@ private ConsistentHash(Map<String, ConsistentHashMember> members,
      *
      * @param routingKey the routing key to hash
      * @return a hash of the input key
+     * @deprecated positions on the ring are calculated using {@link #hashToLong(String)} by default
      */
+    @Deprecated
     protected static String hash(String routingKey) {
         return Digester.md5Hex(routingKey);
     }
 
+    /**
+     * Returns the 64 bit hash of the given {@code routingKey}, used as position on the ring unless another hash
+     * function is configured. This is a FNV-1a hash of the characters of the key, finalized using the mixing function
+     * of MurmurHash3 to spread keys that only differ slightly, such as the segments of a member.
+     *
+     * @param routingKey the routing key to hash
+     * @return a hash of the input key
+     */
+    protected static long hashToLong(String routingKey) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < routingKey.length(); i++) {
+            hash = (hash ^ routingKey.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
     /**
      * Returns the collection of nodes, represented as {@link ConsistentHashMember}, in the order they would be
      * considered for the given routing key. Whether a CommandMessage would be forwarded to each of the candidates,
@@ -87,11 +112,11 @@ protected static String hash(String routingKey) {
      * @return A collection containing each of the nodes, in the order they would be considered
      */
     public Collection<ConsistentHashMember> getEligibleMembers(String routingKey) {
-        String hash = hash(routingKey);
-        Collection<ConsistentHashMember> tail = hashToMember.tailMap(hash).values();
-        Collection<ConsistentHashMember> head = hashToMember.headMap(hash).values();
-        LinkedHashSet<ConsistentHashMember> combined = new LinkedHashSet<>(tail);
-        combined.addAll(head);
+        int start = firstPositionAfter(hashFunction.applyAsLong(routingKey));
+        Set<ConsistentHashMember> combined = new LinkedHashSet<>();
+        for (int i = 0; i < ringMembers.length && combined.size() < members.size(); i++) {
+            combined.add(ringMembers[(start + i) % ringMembers.length]);
+        }
         return combined;
     }
 
@@ -104,27 +129,30 @@ public Collection<ConsistentHashMember> getEligibleMembers(String routingKey) {
      * @return the member that should handle the message or an empty Optional if no suitable member was found
      */
     public Optional<Member> getMember(String routingKey, CommandMessage<?> commandMessage) {
-        String hash = hash(routingKey);
-        SortedMap<String, ConsistentHashMember> tailMap = hashToMember.tailMap(hash);
-        Iterator<Map.Entry<String, ConsistentHashMember>> tailIterator = tailMap.entrySet().iterator();
-        Optional<Member> foundMember = findSuitableMember(commandMessage, tailIterator);
-        if (!foundMember.isPresent()) {
-            Iterator<Map.Entry<String, ConsistentHashMember>> headIterator =
-                    hashToMember.headMap(hash).entrySet().iterator();
-            foundMember = findSuitableMember(commandMessage, headIterator);
+        int start = firstPositionAfter(hashFunction.applyAsLong(routingKey));
+        for (int i = 0; i < ringMembers.length; i++) {
+            ConsistentHashMember candidate = ringMembers[(start + i) % ringMembers.length];
+            if (candidate.commandFilter.test(commandMessage)) {
+                return Optional.of(candidate);
+            }
         }
-        return foundMember;
+        return Optional.empty();
     }
 
-    private Optional<Member> findSuitableMember(CommandMessage<?> commandMessage,
-                                                Iterator<Map.Entry<String, ConsistentHashMember>> iterator) {
-        while (iterator.hasNext()) {
-            Map.Entry<String, ConsistentHashMember> entry = iterator.next();
-            if (entry.getValue().commandFilter.test(commandMessage)) {
-                return Optional.of(entry.getValue());
+    /**
+     * Returns the index of the first position on the ring at or after the given {@code hash}. This is {@code 0} if the
+     * hash is beyond the last position, as the ring wraps around.
+     */
+    private int firstPositionAfter(long hash) {
+        int index = Arrays.binarySearch(ringPositions, hash);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            while (index > 0 && ringPositions[index - 1] == hash) {
+                index--;
             }
         }
-        return Optional.empty();
+        return index == ringPositions.length ? 0 : index;
     }
 
     /**
@@ -151,15 +179,18 @@ public Set<Member> getMembers() {
     public ConsistentHash with(Member member, int loadFactor, Predicate<? super CommandMessage<?>> commandFilter) {
         Assert.notNull(member, () -> "Member may not be null");
 
-        ConsistentHashMember newMember = new ConsistentHashMember(member, loadFactor, commandFilter);
-        if (members.containsKey(member.name()) && newMember.equals(members.get(member.name()))) {
+        ConsistentHashMember current = members.get(member.name());
+        long[] positions = current != null && current.segmentCount == loadFactor
+                ? current.positions : positions(member.name(), loadFactor);
+        ConsistentHashMember newMember = new ConsistentHashMember(member, loadFactor, commandFilter, positions);
+        if (newMember.equals(current)) {
             return this;
         }
 
         Map<String, ConsistentHashMember> newMembers = new TreeMap<>(members);
         newMembers.put(member.name(), newMember);
-
-        return new ConsistentHash(newMembers, hashFunction, modCount + 1);
+        ConsistentHash remaining = current == null ? this : without(current);
+        return remaining.merge(newMembers, newMember, modCount + 1);
     }
 
     /**
@@ -176,7 +207,54 @@ public ConsistentHash without(Member member) {
 
         Map<String, ConsistentHashMember> newMembers = new TreeMap<>(members);
         newMembers.remove(member.name());
-        return new ConsistentHash(newMembers, hashFunction, modCount + 1);
+        long[] newPositions = new long[ringPositions.length - members.get(member.name()).positions.length];
+        ConsistentHashMember[] newRingMembers = new ConsistentHashMember[newPositions.length];
+        int target = 0;
+        for (int i = 0; i < ringMembers.length; i++) {
+            if (!ringMembers[i].name().equals(member.name())) {
+                newPositions[target] = ringPositions[i];
+                newRingMembers[target++] = ringMembers[i];
+            }
+        }
+        return new ConsistentHash(newMembers, hashFunction, modCount + 1, newPositions, newRingMembers);
+    }
+
+    private long[] positions(String memberName, int segmentCount) {
+        long[] positions = new long[Math.max(segmentCount, 0)];
+        for (int t = 0; t < positions.length; t++) {
+            positions[t] = hashFunction.applyAsLong(memberName + " #" + t);
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Merges the sorted positions of the given {@code newMember} into the ring, without recalculating the positions of
+     * the other members. Positions shared by several members are ordered by member name, so that the ring doesn't
+     * depend on the order in which members were added.
+     */
+    private ConsistentHash merge(Map<String, ConsistentHashMember> newMembers, ConsistentHashMember newMember,
+                                 int newModCount) {
+        long[] added = newMember.positions;
+        long[] newPositions = new long[ringPositions.length + added.length];
+        ConsistentHashMember[] newRingMembers = new ConsistentHashMember[newPositions.length];
+        int i = 0;
+        int j = 0;
+        for (int target = 0; target < newPositions.length; target++) {
+            if (j == added.length || (i < ringPositions.length && precedes(i, added[j], newMember))) {
+                newPositions[target] = ringPositions[i];
+                newRingMembers[target] = ringMembers[i++];
+            } else {
+                newPositions[target] = added[j++];
+                newRingMembers[target] = newMember;
+            }
+        }
+        return new ConsistentHash(newMembers, hashFunction, newModCount, newPositions, newRingMembers);
+    }
+
+    private boolean precedes(int index, long position, ConsistentHashMember member) {
+        return ringPositions[index] < position
+                || (ringPositions[index] == position && ringMembers[index].name().compareTo(member.name()) < 0);
     }
 
     @Override
@@ -188,12 +266,12 @@ public boolean equals(Object o) {
             return false;
         }
         ConsistentHash that = (ConsistentHash) o;
-        return Objects.equals(hashToMember, that.hashToMember);
+        return Arrays.equals(ringPositions, that.ringPositions) && Arrays.equals(ringMembers, that.ringMembers);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hashToMember);
+        return 31 * Arrays.hashCode(ringPositions) + Arrays.hashCode(ringMembers);
     }
 
     @Override
@@ -225,9 +303,10 @@ public static class ConsistentHashMember implements Member {
         private final Member member;
         private final int segmentCount;
         private final Predicate<? super CommandMessage<?>> commandFilter;
+        private final long[] positions;
 
         private ConsistentHashMember(Member member, int segmentCount,
-                                     Predicate<? super CommandMessage<?>> commandFilter) {
+                                     Predicate<? super CommandMessage<?>> commandFilter, long[] positions) {
             if (member instanceof ConsistentHashMember) {
                 this.member = ((ConsistentHashMember) member).member;
             } else {
@@ -235,6 +314,7 @@ private ConsistentHashMember(Member member, int segmentCount,
             }
             this.segmentCount = segmentCount;
             this.commandFilter = commandFilter;
+            this.positions = positions;
         }
 
         @Override
@@ -276,7 +356,10 @@ public Predicate<? super CommandMessage<?>> getCommandFilter() {
          * command.
          *
          * @return the hashes covered by this member
+         * @deprecated positions on the ring are no longer derived from MD5 hashes. The returned hashes don't reflect
+         * the positions of the member on the ring.
          */
+        @Deprecated
         public Set<String> hashes() {
             Set<String> newHashes = new TreeSet<>();
             for (int t = 0; t < segmentCount; t++) {
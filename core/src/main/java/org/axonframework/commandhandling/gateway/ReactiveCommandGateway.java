@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.commandhandling.gateway;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.common.Assert;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Command gateway that dispatches commands using Project Reactor types. Commands are dispatched when the returned
+ * {@link Mono} or {@link Flux} is subscribed to, rather than when the method is invoked. As with the
+ * {@link DefaultCommandGateway}, commands are passed through the configured
+ * {@link MessageDispatchInterceptor MessageDispatchInterceptors} before dispatching, and failed commands may be retried
+ * by a {@link RetryScheduler}.
+ * <p/>
+ * A stream of commands may be sent using {@link #sendAll(Publisher, int, boolean)}, which requests commands from the
+ * given publisher as processing capacity becomes available. At most the given number of commands is in progress at any
+ * time, so that a large or infinite publisher of commands doesn't overload the Command Bus.
+ * <p/>
+ * Note that Reactor doesn't allow {@code null} values. Commands that are handled without a result (e.g. by a
+ * {@code void} command handler) complete the returned Mono without a value, and don't emit an element in the Flux
+ * returned by {@link #sendAll(Publisher, int, boolean)}.
+ *
+ * @since 3.4
+ */
+public class ReactiveCommandGateway extends AbstractCommandGateway {
+
+    /**
+     * The maximum number of commands in progress when sending a stream of commands with
+     * {@link #sendAll(Publisher)}.
+     */
+    public static final int DEFAULT_CONCURRENCY = 256;
+
+    /**
+     * Initializes a reactive command gateway that dispatches commands to the given {@code commandBus} after they have
+     * been handled by the given {@code messageDispatchInterceptors}. Commands will not be retried when command
+     * execution fails.
+     *
+     * @param commandBus                  The CommandBus on which to dispatch the Command Messages
+     * @param messageDispatchInterceptors The interceptors to invoke before dispatching commands to the Command Bus
+     */
+    @SafeVarargs
+    public ReactiveCommandGateway(CommandBus commandBus,
+                                  MessageDispatchInterceptor<? super CommandMessage<?>>... messageDispatchInterceptors) {
+        this(commandBus, null, asList(messageDispatchInterceptors));
+    }
+
+    /**
+     * Initializes a reactive command gateway that dispatches commands to the given {@code commandBus} after they have
+     * been handled by the given {@code messageDispatchInterceptors}. When command execution results in an unchecked
+     * exception, the given {@code retryScheduler} is invoked to allow it to retry that command.
+     *
+     * @param commandBus                  The CommandBus on which to dispatch the Command Messages
+     * @param retryScheduler              The scheduler that will decide whether to reschedule commands. May be
+     *                                    {@code null} to prevent retries.
+     * @param messageDispatchInterceptors The interceptors to invoke before dispatching commands to the Command Bus
+     */
+    public ReactiveCommandGateway(CommandBus commandBus, RetryScheduler retryScheduler,
+                                  List<MessageDispatchInterceptor<? super CommandMessage<?>>> messageDispatchInterceptors) {
+        super(commandBus, retryScheduler, messageDispatchInterceptors);
+    }
+
+    /**
+     * Returns a Mono that sends the given {@code command} when subscribed to, and emits the result of handling it. If
+     * the command fails, the Mono completes with the exception that caused the failure. When the given
+     * {@code command} is wrapped in a {@link CommandMessage}, it is dispatched as-is; otherwise it is used as payload
+     * of a new CommandMessage.
+     *
+     * @param command The command to dispatch
+     * @param <R>     The type of result expected from command execution
+     * @return a Mono sending the command and emitting its result
+     */
+    public <R> Mono<R> send(Object command) {
+        return Mono.create(sink -> send(command, new CommandCallback<Object, R>() {
+            @Override
+            public void onSuccess(CommandMessage<?> commandMessage, R result) {
+                sink.success(result);
+            }
+
+            @Override
+            public void onFailure(CommandMessage<?> commandMessage, Throwable cause) {
+                sink.error(cause);
+            }
+        }));
+    }
+
+    /**
+     * Sends the commands emitted by the given {@code commands} publisher, with at most
+     * {@link #DEFAULT_CONCURRENCY} commands in progress at any time. Results are emitted in the order in which the
+     * commands were emitted.
+     *
+     * @param commands The publisher of the commands to dispatch
+     * @param <R>      The type of result expected from command execution
+     * @return a Flux sending the commands and emitting their results
+     * @see #sendAll(Publisher, int, boolean)
+     */
+    public <R> Flux<R> sendAll(Publisher<?> commands) {
+        return sendAll(commands, DEFAULT_CONCURRENCY, true);
+    }
+
+    /**
+     * Returns a Flux that sends the commands emitted by the given {@code commands} publisher when subscribed to, and
+     * emits the results of handling them. At most {@code maxConcurrency} commands are dispatched without their
+     * result being available. Further commands are only requested from the publisher as commands complete.
+     * <p/>
+     * When {@code preserveOrder} is {@code true}, results are emitted in the order in which the commands were emitted
+     * by the publisher, even if the commands complete in a different order. Otherwise, results are emitted as soon as
+     * they are available. Note that commands may be handled in parallel in either case, depending on the Command Bus.
+     * Use a {@code maxConcurrency} of 1 to have commands handled one after the other.
+     * <p/>
+     * The first command failing terminates the returned Flux with the exception that caused the failure, and cancels
+     * the subscription to the publisher of commands.
+     *
+     * @param commands       The publisher of the commands to dispatch
+     * @param maxConcurrency The maximum number of commands in progress at any time
+     * @param preserveOrder  Whether to emit results in the order in which the commands were emitted
+     * @param <R>            The type of result expected from command execution
+     * @return a Flux sending the commands and emitting their results
+     */
+    public <R> Flux<R> sendAll(Publisher<?> commands, int maxConcurrency, boolean preserveOrder) {
+        Assert.isTrue(maxConcurrency > 0, () -> "maxConcurrency must be positive");
+        Flux<?> commandFlux = Flux.from(commands);
+        return preserveOrder
+                ? commandFlux.flatMapSequential(command -> this.<R>send(command), maxConcurrency)
+                : commandFlux.flatMap(command -> this.<R>send(command), maxConcurrency);
+    }
+}
@@ -22,6 +22,7 @@
 
 import java.lang.reflect.Field;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.axonframework.common.annotation.AnnotationUtils.findAnnotationAttributes;
@@ -61,6 +62,21 @@ public <E> Stream<E> filterCandidates(T message, Stream<E> candidates) {
         return candidates.filter(candidate -> matchesInstance(candidate, routingValue));
     }
 
+    /**
+     * Returns the value of the routing key in the given {@code message}, which is matched against the identifier of
+     * the entities to forward the message to. Returns an empty Optional if the message doesn't contain the routing
+     * key, or if its value is {@code null}.
+     *
+     * @param message the message to extract the routing value from
+     * @return an Optional containing the routing value of the message, if any
+     */
+    public Optional<Object> routingValue(T message) {
+        Property routingProperty = getProperty(message.getPayloadType(), routingKey);
+        return routingProperty == null
+                ? Optional.empty()
+                : Optional.ofNullable(routingProperty.getValue(message.getPayload()));
+    }
+
     @SuppressWarnings("unchecked")
     private <E> boolean matchesInstance(E candidate, Object routingValue) {
         Object identifier = childEntity.getIdentifier(candidate);
@@ -18,6 +18,7 @@
 
 import org.axonframework.commandhandling.CommandMessage;
 import org.axonframework.commandhandling.model.AggregateMember;
+import org.axonframework.commandhandling.model.ForwardMatchingInstances;
 import org.axonframework.commandhandling.model.ForwardingMode;
 import org.axonframework.common.AxonConfigurationException;
 import org.axonframework.common.ReflectionUtils;
@@ -25,8 +26,13 @@
 import org.axonframework.eventhandling.EventMessage;
 
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -37,9 +43,17 @@
  * Implementation of a {@link AbstractChildEntityDefinition} that is used to detect Collections of entities
  * (field type assignable to {@link Iterable}) annotated with {@link AggregateMember}. If such a field is found a {@link
  * ChildEntity} is created that delegates to the entities in the annotated collection.
+ * <p>
+ * When the collection is a {@link List} supporting fast random access, the positions of the entities in the list are
+ * indexed by their identifier. Commands, as well as events forwarded using {@link ForwardMatchingInstances}, are then
+ * routed to the entity with a lookup, rather than by inspecting every entity in the list.
  */
 public class AggregateMemberAnnotatedChildEntityCollectionDefinition extends AbstractChildEntityDefinition {
 
+    private final ConcurrentMap<Field, Map<String, Property<Object>>> commandHandlerRoutingKeys =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Field, ChildEntityIndex> childEntityIndexes = new ConcurrentHashMap<>();
+
     @Override
     protected boolean isFieldTypeSupported(Field field) {
         return Iterable.class.isAssignableFrom(field.getType());
@@ -58,7 +72,9 @@ protected <T> EntityModel<Object> extractChildEntityModel(EntityModel<T> declari
                     )));
         }
 
-        return declaringEntity.modelOf(entityType);
+        EntityModel<Object> childEntityModel = declaringEntity.modelOf(entityType);
+        childEntityIndexes.putIfAbsent(field, new ChildEntityIndex(childEntityModel));
+        return childEntityModel;
     }
 
     @Override
@@ -66,12 +82,19 @@ protected <T> Object resolveCommandTarget(CommandMessage<?> msg,
                                               T parent,
                                               Field field,
                                               EntityModel<Object> childEntityModel) {
-        Map<String, Property<Object>> commandHandlerRoutingKeys =
-                extractCommandHandlerRoutingKeys(field, childEntityModel);
+        Map<String, Property<Object>> routingKeys = commandHandlerRoutingKeys.computeIfAbsent(
+                field, f -> extractCommandHandlerRoutingKeys(f, childEntityModel));
 
-        Object routingValue = commandHandlerRoutingKeys.get(msg.getCommandName())
-                                                       .getValue(msg.getPayload());
+        Object routingValue = routingKeys.get(msg.getCommandName())
+                                         .getValue(msg.getPayload());
         Iterable<?> iterable = ReflectionUtils.getFieldValue(field, parent);
+        if (isIndexable(iterable)) {
+            return childEntityIndexes.computeIfAbsent(field, f -> new ChildEntityIndex(childEntityModel))
+                                     .find((List<?>) iterable, routingValue)
+                                     .stream()
+                                     .findFirst()
+                                     .orElse(null);
+        }
 
         return StreamSupport.stream(iterable.spliterator(), false)
                             .filter(i -> Objects.equals(routingValue, childEntityModel.getIdentifier(i)))
@@ -86,8 +109,20 @@ protected <T> Stream<Object> resolveEventTargets(EventMessage message,
                                                      Field field,
                                                      ForwardingMode eventForwardingMode) {
         Iterable<Object> fieldValue = ReflectionUtils.getFieldValue(field, parentEntity);
-        return fieldValue == null
-                ? Stream.empty()
-                : eventForwardingMode.filterCandidates(message, StreamSupport.stream(fieldValue.spliterator(), false));
+        if (fieldValue == null) {
+            return Stream.empty();
+        }
+        if (isIndexable(fieldValue) && eventForwardingMode.getClass() == ForwardMatchingInstances.class) {
+            Optional<Object> routingValue = ((ForwardMatchingInstances) eventForwardingMode).routingValue(message);
+            ChildEntityIndex index = childEntityIndexes.get(field);
+            if (routingValue.isPresent() && index != null) {
+                return index.find((List<?>) fieldValue, routingValue.get()).stream();
+            }
+        }
+        return eventForwardingMode.filterCandidates(message, StreamSupport.stream(fieldValue.spliterator(), false));
+    }
+
+    private boolean isIndexable(Iterable<?> entities) {
+        return entities instanceof List && entities instanceof RandomAccess;
     }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.commandhandling.model.inspection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Index of the positions of child entities in lists annotated with
+ * {@link org.axonframework.commandhandling.model.AggregateMember}, by the identifier of the entity. This allows
+ * messages to be routed to the entity with a given identifier without inspecting every entity in the list.
+ * <p>
+ * As the lists are modified by the aggregate directly, the index can't rely on being notified of changes. Instead,
+ * entities added to the end of the list are indexed when the index is used. Any other change is detected by verifying
+ * the identifier of the entity found at an indexed position, or by a change of the last entity in the list. In these
+ * cases, as well as when an identifier isn't found in the index, the index is rebuilt before answering. Lists
+ * containing multiple entities with the same identifier are searched entirely.
+ * <p>
+ * Indexes of lists are referenced weakly, and are discarded when the list itself is garbage collected. The index
+ * doesn't retain the entities in the list either, as entities referencing their aggregate would keep the list
+ * reachable.
+ */
+final class ChildEntityIndex {
+
+    private final EntityModel<Object> entityModel;
+    private final ConcurrentMap<ListReference, ListIndex> indexes = new ConcurrentHashMap<>();
+    private final ReferenceQueue<List<?>> referenceQueue = new ReferenceQueue<>();
+
+    /**
+     * Initializes an index for lists containing entities described by the given {@code entityModel}.
+     *
+     * @param entityModel the model describing the entities in the indexed lists
+     */
+    ChildEntityIndex(EntityModel<Object> entityModel) {
+        this.entityModel = entityModel;
+    }
+
+    /**
+     * Returns the entities in the given {@code entities} list with given {@code identifier}. Returns an empty list if
+     * no such entity exists.
+     *
+     * @param entities   the list to find the entity in
+     * @param identifier the identifier of the entity to find
+     * @return the entities with the given identifier
+     */
+    List<Object> find(List<?> entities, Object identifier) {
+        expungeStaleIndexes();
+        ListIndex index = indexes.get(new ListReference(entities, null));
+        if (index == null) {
+            index = new ListIndex();
+            ListIndex existing = indexes.putIfAbsent(new ListReference(entities, referenceQueue), index);
+            index = existing == null ? index : existing;
+        }
+        return index.find(entities, identifier);
+    }
+
+    private void expungeStaleIndexes() {
+        Reference<?> reference;
+        while ((reference = referenceQueue.poll()) != null) {
+            indexes.remove(reference);
+        }
+    }
+
+    private final class ListIndex {
+
+        private final Map<Object, Integer> positions = new HashMap<>();
+        private int indexedSize;
+        private Reference<Object> lastIndexed = new WeakReference<>(null);
+        private boolean duplicateIdentifiers;
+
+        private synchronized List<Object> find(List<?> entities, Object identifier) {
+            boolean rebuilt = refresh(entities);
+            while (!duplicateIdentifiers) {
+                Integer position = positions.get(identifier);
+                if (position != null) {
+                    Object entity = entities.get(position);
+                    if (Objects.equals(identifier, entityModel.getIdentifier(entity))) {
+                        return singletonList(entity);
+                    }
+                } else if (rebuilt) {
+                    return emptyList();
+                }
+                if (rebuilt) {
+                    break;
+                }
+                rebuild(entities);
+                rebuilt = true;
+            }
+            List<Object> matches = new ArrayList<>();
+            for (Object entity : entities) {
+                if (Objects.equals(identifier, entityModel.getIdentifier(entity))) {
+                    matches.add(entity);
+                }
+            }
+            return matches;
+        }
+
+        private boolean refresh(List<?> entities) {
+            int size = entities.size();
+            if (size < indexedSize || (indexedSize > 0 && entities.get(indexedSize - 1) != lastIndexed.get())) {
+                rebuild(entities);
+                return true;
+            }
+            for (int i = indexedSize; i < size; i++) {
+                add(entities.get(i), i);
+            }
+            return false;
+        }
+
+        private void rebuild(List<?> entities) {
+            positions.clear();
+            indexedSize = 0;
+            lastIndexed = new WeakReference<>(null);
+            duplicateIdentifiers = false;
+            for (int i = 0; i < entities.size(); i++) {
+                add(entities.get(i), i);
+            }
+        }
+
+        private void add(Object entity, int position) {
+            if (positions.putIfAbsent(entityModel.getIdentifier(entity), position) != null) {
+                duplicateIdentifiers = true;
+            }
+            indexedSize = position + 1;
+            lastIndexed = new WeakReference<>(entity);
+        }
+    }
+
+    private static final class ListReference extends WeakReference<List<?>> {
+
+        private final int hashCode;
+
+        private ListReference(List<?> referent, ReferenceQueue<List<?>> queue) {
+            super(referent, queue);
+            this.hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ListReference)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((ListReference) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
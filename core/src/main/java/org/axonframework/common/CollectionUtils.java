@@ -125,4 +125,31 @@ public static <T, C extends Collection<T>> C intersect(Collection<? extends T> c
         }
         return result;
     }
+
+    /**
+     * Splits the given {@code collection} into consecutive lists of at most {@code maxSize} elements each, in the
+     * iteration order of the collection. The last list may contain fewer elements. Returns an empty list if the given
+     * collection is empty.
+     *
+     * @param collection The collection to split
+     * @param maxSize    The maximum number of elements of each of the returned lists
+     * @param <T>        The type of element contained in the collection
+     * @return a list of lists, containing all elements of the given collection
+     */
+    public static <T> List<List<T>> partition(Collection<? extends T> collection, int maxSize) {
+        Assert.isTrue(maxSize > 0, () -> "maxSize must be positive");
+        List<List<T>> partitions = new ArrayList<>();
+        List<T> partition = new ArrayList<>(Math.min(collection.size(), maxSize));
+        for (T item : collection) {
+            if (partition.size() == maxSize) {
+                partitions.add(partition);
+                partition = new ArrayList<>(maxSize);
+            }
+            partition.add(item);
+        }
+        if (!partition.isEmpty()) {
+            partitions.add(partition);
+        }
+        return partitions;
+    }
 }
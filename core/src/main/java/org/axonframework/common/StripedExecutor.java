@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that divides tasks over a fixed number of workers, each processing the tasks in its queue one by one in a
+ * single thread. Tasks are assigned to a worker based on the hash code of their key, so that tasks with the same key
+ * are always executed sequentially, in the order in which they were submitted, while tasks with different keys may be
+ * executed in parallel.
+ * <p/>
+ * The queue of each worker has a fixed capacity. When a task is submitted to a worker whose queue is full, the
+ * submitting thread blocks until capacity becomes available. This slows down producers that submit tasks faster than
+ * they can be processed. Note that a task should never wait for the completion of another task submitted to the same
+ * worker, as that worker won't be able to process it while executing the waiting task.
+ * <p/>
+ * Workers are started when the executor is created. Call {@link #shutdown()} to stop them.
+ *
+ * @since 3.4
+ */
+public class StripedExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedExecutor.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final Worker[] workers;
+    private volatile boolean running = true;
+
+    /**
+     * Initializes a StripedExecutor with given {@code workerCount} workers, each with a queue that holds at most
+     * {@code queueCapacity} tasks. Worker threads are created using the given {@code threadFactory}.
+     *
+     * @param workerCount   The number of workers to divide tasks over
+     * @param queueCapacity The maximum number of tasks waiting for execution in each worker's queue
+     * @param threadFactory The factory creating the worker threads
+     */
+    public StripedExecutor(int workerCount, int queueCapacity, ThreadFactory threadFactory) {
+        Assert.isTrue(workerCount > 0, () -> "workerCount must be positive");
+        Assert.isTrue(queueCapacity > 0, () -> "queueCapacity must be positive");
+        Assert.notNull(threadFactory, () -> "threadFactory may not be null");
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(queueCapacity);
+            Thread thread = threadFactory.newThread(workers[i]);
+            workers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Submits the given {@code task} for execution by the worker assigned to the given {@code key}. If that worker's
+     * queue is full, this method blocks until the task could be added.
+     *
+     * @param key  The key determining the worker to execute the task
+     * @param task The task to execute
+     * @throws RejectedExecutionException if the executor has been shut down, also when that happened while waiting for
+     *                                    capacity in the worker's queue, or if the thread was interrupted while
+     *                                    waiting for capacity
+     */
+    public void execute(Object key, Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        Worker worker = workers[Math.floorMod(spread(key.hashCode()), workers.length)];
+        try {
+            worker.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Thread was interrupted while waiting to submit task", e);
+        }
+        // the worker may have drained its queue and stopped while this thread was waiting for capacity
+        if (!running && worker.queue.remove(task)) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+    }
+
+    /**
+     * Returns the number of workers tasks are divided over.
+     *
+     * @return the number of workers
+     */
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stops accepting new tasks, and waits at most 5 seconds for the workers to execute the tasks already in their
+     * queues.
+     */
+    public void shutdown() {
+        running = false;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        try {
+            for (Worker worker : workers) {
+                worker.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            // we've been interrupted. Reset the interruption flag and continue
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private class Worker implements Runnable {
+
+        private final BlockingQueue<Runnable> queue;
+        private Thread thread;
+
+        private Worker(int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    Runnable task = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        try {
+                            task.run();
+                        } catch (Throwable e) {
+                            // errors must not end the worker, as its queue would no longer be processed
+                            logger.warn("Exception occurred while executing a task. Continuing with next task.", e);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                logger.info("Worker thread was interrupted. Stopping.");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
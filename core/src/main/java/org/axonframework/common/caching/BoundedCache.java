@@ -0,0 +1,557 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.caching;
+
+import org.axonframework.common.Assert;
+import org.axonframework.common.Registration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Cache implementation that holds at most a configured number of entries, or entries up to a configured total weight.
+ * When the bound is exceeded, entries are evicted using the W-TinyLFU policy: new entries enter a small LRU "window",
+ * and entries leaving the window are only admitted to the main area of the cache if they have been accessed more
+ * frequently than the entry they would replace. Access frequencies are estimated with a compact sketch that
+ * periodically ages, so that the cache adapts to changes in popularity. Compared to a plain LRU cache, this keeps
+ * frequently used entries, such as the aggregates that receive most commands, in the cache when a burst of entries
+ * that are used only once passes through.
+ * <p/>
+ * Reads don't acquire any locks. Accesses are recorded in striped buffers, which are applied to the eviction policy
+ * in batches by the thread that fills up a buffer. When the policy is busy, accesses may be dropped, which only
+ * affects the accuracy of the eviction decisions. Modifications are applied to the eviction policy under a lock.
+ * <p/>
+ * Entries may optionally expire a fixed duration after they have been written or last read. Expired entries are
+ * removed when they are accessed, or when they are evicted. Entry listeners are notified of evicted and expired
+ * entries through {@link EntryListener#onEntryExpired(Object)}.
+ * <p/>
+ * The cache keeps track of the number of hits, misses and evictions, which are available through {@link
+ * #getHitCount()}, {@link #getMissCount()} and {@link #getEvictionCount()}.
+ *
+ * @since 3.4
+ */
+public class BoundedCache implements Cache {
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_STRIPES =
+            Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final ConcurrentMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final Set<EntryListener> adapters = new CopyOnWriteArraySet<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final long maximumWeight;
+    private final ToIntBiFunction<Object, Object> weigher;
+    private final LongSupplier ticker;
+    private volatile long expireAfterWriteNanos;
+    private volatile long expireAfterAccessNanos;
+
+    // the fields below are guarded by the evictionLock
+    private final FrequencySketch sketch;
+    private final AccessOrderQueue window = new AccessOrderQueue();
+    private final AccessOrderQueue probation = new AccessOrderQueue();
+    private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+    private final long maximumWindowWeight;
+    private final long maximumProtectedWeight;
+    private long totalWeight;
+    private long windowWeight;
+    private long protectedWeight;
+
+    /**
+     * Initializes a cache that holds at most the given {@code maximumSize} number of entries.
+     *
+     * @param maximumSize the maximum number of entries in the cache
+     */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, (key, value) -> 1);
+    }
+
+    /**
+     * Initializes a cache that holds entries up to the given {@code maximumWeight}, where the weight of each entry is
+     * determined by the given {@code weigher}. The weight of an entry is determined when it is stored, and must not be
+     * negative.
+     *
+     * @param maximumWeight the maximum total weight of the entries in the cache
+     * @param weigher       the function providing the weight of an entry, given its key and value
+     */
+    public BoundedCache(long maximumWeight, ToIntBiFunction<Object, Object> weigher) {
+        this(maximumWeight, weigher, System::nanoTime);
+    }
+
+    /**
+     * Initializes a weight bound cache using the given {@code ticker} as time source for expiry.
+     *
+     * @param maximumWeight the maximum total weight of the entries in the cache
+     * @param weigher       the function providing the weight of an entry, given its key and value
+     * @param ticker        the source of the current time, in nanoseconds
+     */
+    BoundedCache(long maximumWeight, ToIntBiFunction<Object, Object> weigher, LongSupplier ticker) {
+        Assert.isTrue(maximumWeight > 0, () -> "maximumWeight must be positive");
+        Assert.notNull(weigher, () -> "weigher may not be null");
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.ticker = ticker;
+        this.maximumWindowWeight = Math.max(1, maximumWeight * WINDOW_PERCENTAGE / 100);
+        this.maximumProtectedWeight = (maximumWeight - maximumWindowWeight) * PROTECTED_PERCENTAGE / 100;
+        this.sketch = new FrequencySketch(maximumWeight);
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    /**
+     * Sets the duration after which entries expire once they have been created or updated. A duration of zero or
+     * less disables expiry after write, which is the default.
+     *
+     * @param duration the time entries remain in the cache after they have been written
+     * @param unit     the unit of the given {@code duration}
+     */
+    public void setExpireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+    }
+
+    /**
+     * Sets the duration after which entries expire once they have last been created, updated or read. A duration of
+     * zero or less disables expiry after access, which is the default.
+     *
+     * @param duration the time entries remain in the cache after they have been accessed
+     * @param unit     the unit of the given {@code duration}
+     */
+    public void setExpireAfterAccess(long duration, TimeUnit unit) {
+        this.expireAfterAccessNanos = unit.toNanos(duration);
+    }
+
+    @Override
+    public Registration registerCacheEntryListener(EntryListener entryListener) {
+        adapters.add(entryListener);
+        return () -> adapters.remove(entryListener);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(K key) {
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        long now = ticker.getAsLong();
+        if (isExpired(node, now)) {
+            missCount.increment();
+            expire(node);
+            return null;
+        }
+        Object value = node.value;
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+        recordRead(node);
+        hitCount.increment();
+        for (EntryListener adapter : adapters) {
+            adapter.onEntryRead(key, value);
+        }
+        return (V) value;
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) {
+        doPut(key, value, false);
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    @Override
+    public <K> boolean remove(K key) {
+        Node removed;
+        evictionLock.lock();
+        try {
+            removed = data.remove(key);
+            if (removed != null) {
+                unlink(removed);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (removed != null) {
+            for (EntryListener adapter : adapters) {
+                adapter.onEntryRemoved(key);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public <K> boolean containsKey(K key) {
+        Node node = data.get(key);
+        return node != null && !isExpired(node, ticker.getAsLong());
+    }
+
+    /**
+     * Returns the number of entries currently in the cache, which may include entries that have expired but haven't
+     * been removed yet.
+     *
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns the number of times {@link #get(Object)} returned a cached value.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of times {@link #get(Object)} didn't find a value, or found an expired value.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the ratio of {@link #get(Object)} invocations that returned a cached value, or {@code 1.0} if the cache
+     * hasn't been read from yet.
+     *
+     * @return the hit ratio of the cache, between 0 and 1
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the number of entries that have been evicted because the bound of the cache was exceeded.
+     *
+     * @return the number of evicted entries
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private boolean doPut(Object key, Object value, boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not supported");
+        }
+        int weight = weigher.applyAsInt(key, value);
+        Assert.isTrue(weight >= 0, () -> "The weight of a cache entry may not be negative");
+        long now = ticker.getAsLong();
+        Object expiredKey = null;
+        boolean created;
+        List<Object> evictedKeys;
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node node = data.get(key);
+            if (node != null && isExpired(node, now)) {
+                data.remove(key, node);
+                unlink(node);
+                expiredKey = key;
+                node = null;
+            }
+            if (node == null) {
+                node = new Node(key, value, weight, now);
+                data.put(key, node);
+                link(node);
+                sketch.increment(key);
+                created = true;
+            } else if (onlyIfAbsent) {
+                return false;
+            } else {
+                update(node, value, weight, now);
+                created = false;
+            }
+            evictedKeys = evictIfNecessary();
+        } finally {
+            evictionLock.unlock();
+        }
+        if (expiredKey != null) {
+            notifyExpired(expiredKey);
+        }
+        for (EntryListener adapter : adapters) {
+            if (created) {
+                adapter.onEntryCreated(key, value);
+            } else {
+                adapter.onEntryUpdated(key, value);
+            }
+        }
+        evictedKeys.forEach(this::notifyExpired);
+        return true;
+    }
+
+    private boolean isExpired(Node node, long now) {
+        long afterWrite = expireAfterWriteNanos;
+        long afterAccess = expireAfterAccessNanos;
+        return (afterWrite > 0 && now - node.writeTime >= afterWrite)
+                || (afterAccess > 0 && now - node.accessTime >= afterAccess);
+    }
+
+    private void expire(Node node) {
+        boolean removed;
+        evictionLock.lock();
+        try {
+            removed = data.remove(node.key, node);
+            if (removed) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (removed) {
+            notifyExpired(node.key);
+        }
+    }
+
+    private void notifyExpired(Object key) {
+        for (EntryListener adapter : adapters) {
+            adapter.onEntryExpired(key);
+        }
+    }
+
+    private void recordRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        int index = buffer.writeIndex.getAndIncrement();
+        if (index < READ_BUFFER_SIZE) {
+            buffer.nodes.lazySet(index, node);
+            if (index < READ_BUFFER_SIZE - 1) {
+                return;
+            }
+        }
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            int count = Math.min(buffer.writeIndex.get(), READ_BUFFER_SIZE);
+            for (int i = 0; i < count; i++) {
+                Node node = buffer.nodes.getAndSet(i, null);
+                if (node != null) {
+                    onAccess(node);
+                }
+            }
+            buffer.writeIndex.set(0);
+        }
+    }
+
+    private void link(Node node) {
+        node.queue = window;
+        window.addLast(node);
+        windowWeight += node.weight;
+        totalWeight += node.weight;
+        // entries leaving the window become candidates for admission to the main area
+        while (windowWeight > maximumWindowWeight && window.first != null) {
+            Node candidate = window.first;
+            window.remove(candidate);
+            windowWeight -= candidate.weight;
+            candidate.queue = probation;
+            probation.addLast(candidate);
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.queue == null) {
+            return;
+        }
+        node.queue.remove(node);
+        adjustQueueWeight(node, -node.weight);
+        totalWeight -= node.weight;
+        node.queue = null;
+    }
+
+    private void update(Node node, Object value, int weight, long now) {
+        int weightDifference = weight - node.weight;
+        node.value = value;
+        node.weight = weight;
+        node.writeTime = now;
+        node.accessTime = now;
+        adjustQueueWeight(node, weightDifference);
+        totalWeight += weightDifference;
+        onAccess(node);
+    }
+
+    private void adjustQueueWeight(Node node, int difference) {
+        if (node.queue == window) {
+            windowWeight += difference;
+        } else if (node.queue == protectedQueue) {
+            protectedWeight += difference;
+        }
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == null) {
+            // the entry has been removed since it was read
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == probation) {
+            // an entry accessed while on probation is promoted to the protected area
+            probation.remove(node);
+            node.queue = protectedQueue;
+            protectedQueue.addLast(node);
+            protectedWeight += node.weight;
+            while (protectedWeight > maximumProtectedWeight && protectedQueue.first != node) {
+                Node demoted = protectedQueue.first;
+                protectedQueue.remove(demoted);
+                protectedWeight -= demoted.weight;
+                demoted.queue = probation;
+                probation.addLast(demoted);
+            }
+        } else {
+            node.queue.moveToBack(node);
+        }
+    }
+
+    private List<Object> evictIfNecessary() {
+        if (totalWeight <= maximumWeight) {
+            return Collections.emptyList();
+        }
+        List<Object> evictedKeys = new ArrayList<>();
+        while (totalWeight > maximumWeight) {
+            Node victim = selectVictim();
+            if (victim == null) {
+                break;
+            }
+            data.remove(victim.key, victim);
+            unlink(victim);
+            evictionCount.increment();
+            evictedKeys.add(victim.key);
+        }
+        return evictedKeys;
+    }
+
+    /**
+     * Selects the entry to evict. The most recent candidate on probation, typically an entry that just left the
+     * window, competes with the least recently used entry on probation, and the entry with the lowest estimated
+     * frequency is evicted. When there are no entries on probation, the least recently used entry of the protected
+     * area or the window is evicted.
+     */
+    private Node selectVictim() {
+        Node victim = probation.first;
+        if (victim == null) {
+            return protectedQueue.first != null ? protectedQueue.first : window.first;
+        }
+        Node candidate = probation.last;
+        if (candidate == victim) {
+            return victim;
+        }
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+    }
+
+    private static final class Node {
+
+        private final Object key;
+        private volatile Object value;
+        private volatile long writeTime;
+        private volatile long accessTime;
+
+        // the fields below are guarded by the evictionLock
+        private int weight;
+        private AccessOrderQueue queue;
+        private Node previous;
+        private Node next;
+
+        private Node(Object key, Object value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes, ordered from least recently used to most recently used.
+     */
+    private static final class AccessOrderQueue {
+
+        private Node first;
+        private Node last;
+
+        private void addLast(Node node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        private void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        private void moveToBack(Node node) {
+            if (last != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    private static final class ReadBuffer {
+
+        private final AtomicReferenceArray<Node> nodes = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicInteger writeIndex = new AtomicInteger();
+    }
+}
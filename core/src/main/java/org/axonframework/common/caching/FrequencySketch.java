@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.caching;
+
+/**
+ * Count-Min sketch estimating how often keys have been accessed, used by the {@link BoundedCache} to decide whether a
+ * new entry is worth keeping over the entry it would replace. Each key has four 4-bit counters, so frequencies are
+ * capped at 15. Once the number of recorded accesses reaches ten times the capacity, all counters are halved, so that
+ * the sketch reflects recent popularity rather than all-time popularity.
+ * <p>
+ * This class is not thread safe.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAXIMUM_CAPACITY = 1 << 20;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Initializes a sketch for the given expected number of distinct keys. The capacity is rounded up to a power of
+     * two, and is capped at {@code 2^20}.
+     *
+     * @param capacity the expected number of distinct keys in the cache
+     */
+    FrequencySketch(long capacity) {
+        int tableSize = Integer.highestOneBit((int) Math.max(16, Math.min(capacity, MAXIMUM_CAPACITY)) - 1) << 1;
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = 10 * tableSize;
+    }
+
+    /**
+     * Returns the estimated number of times the given {@code key} has been accessed, between 0 and 15.
+     *
+     * @param key the key to estimate the frequency of
+     * @return the estimated access frequency
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the given {@code key}.
+     *
+     * @param key the accessed key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (oddCounters >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.axonframework.common.lock;
 
+import java.util.Comparator;
+
 /**
  * Interface to the lock factory. A lock factory produces locks on resources that are shared between threads.
  *
@@ -33,4 +35,16 @@ public interface LockFactory {
      * @return a handle to release the lock.
      */
     Lock obtainLock(String identifier);
+
+    /**
+     * Returns the order in which a thread should obtain the locks for several identifiers at once. Threads that obtain
+     * locks for overlapping sets of identifiers in this order can't deadlock each other. Defaults to the natural order
+     * of the identifiers, which suffices for factories that use a separate lock for each identifier.
+     *
+     * @return the comparator ordering identifiers for lock acquisition
+     * @since 3.4
+     */
+    default Comparator<String> lockOrder() {
+        return Comparator.naturalOrder();
+    }
 }
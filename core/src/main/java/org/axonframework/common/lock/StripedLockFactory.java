@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.lock;
+
+import org.axonframework.common.Assert;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of a {@link LockFactory} that uses a pessimistic locking strategy based on a fixed number of lock
+ * stripes. Each identifier is mapped to one of the stripes based on its hash code. Calls to {@link #obtainLock} block
+ * until the stripe could be locked, after which the thread has guaranteed unique access to all resources with an
+ * identifier mapped to that stripe.
+ * <p/>
+ * Unlike the {@link PessimisticLockFactory}, this factory doesn't allocate a lock for each identifier, nor does it
+ * need to clean up locks that are no longer in use. The price is that different identifiers may share a stripe,
+ * causing threads to wait for each other even though they access different resources. The number of stripes should
+ * therefore be considerably larger than the number of threads obtaining locks concurrently.
+ * <p/>
+ * Each thread can hold the same lock multiple times. The lock will only be released for other threads when the lock
+ * has been released as many times as it was obtained. As stripes are shared, a thread obtaining locks for two
+ * different identifiers may be holding the same stripe twice.
+ * <p/>
+ * Sharing stripes also affects threads that each hold several locks. Obtaining locks in order of their identifier
+ * doesn't prevent deadlocks with this factory, as unrelated identifiers may be mapped to stripes in the opposite
+ * order. Two threads that each lock two different identifiers may then each wait for the stripe held by the other.
+ * With deadlock detection enabled, one of them fails with a {@link DeadlockException}; without it, both threads
+ * block forever. Threads obtaining several locks at once should therefore obtain them in the order returned by
+ * {@link #lockOrder()}, which orders identifiers by their stripe. Threads that obtain additional locks while already
+ * holding others can't be protected this way, so deadlock detection should remain enabled when that happens.
+ * <p/>
+ * A thread that finds a stripe locked by another thread may spin for a configured number of attempts before it
+ * blocks. This avoids the cost of parking and unparking threads when locks are only held for a very short time.
+ * Deadlock detection is optional. When enabled, a thread only checks for deadlocks after having waited for a lock for
+ * 100 milliseconds, so that the cost of detection is only paid when locks are held for a long time. Deadlocks are
+ * detected across instances of this class, but not with locks obtained from other types of lock factory.
+ *
+ * @since 3.4
+ */
+public class StripedLockFactory implements LockFactory {
+
+    /**
+     * The number of stripes used by a StripedLockFactory created with the default constructor.
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 1024;
+
+    private static final long DEADLOCK_CHECK_INTERVAL_MILLIS = 100;
+    private static final ConcurrentMap<Thread, Stripe> WAITING_THREADS = new ConcurrentHashMap<>();
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int spinCount;
+    private final boolean detectDeadlocks;
+
+    /**
+     * Creates a StripedLockFactory with {@link #DEFAULT_STRIPE_COUNT} stripes, which blocks immediately when a lock is
+     * held by another thread, and detects deadlocks.
+     */
+    public StripedLockFactory() {
+        this(DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Creates a StripedLockFactory with at least given {@code stripeCount} stripes, which blocks immediately when a
+     * lock is held by another thread, and detects deadlocks. The number of stripes is rounded up to the next power of
+     * two.
+     *
+     * @param stripeCount The minimum number of stripes to divide identifiers over
+     */
+    public StripedLockFactory(int stripeCount) {
+        this(stripeCount, 0, true);
+    }
+
+    /**
+     * Creates a StripedLockFactory with at least given {@code stripeCount} stripes, which attempts to obtain a lock
+     * held by another thread {@code spinCount} more times before blocking. The number of stripes is rounded up to the
+     * next power of two.
+     *
+     * @param stripeCount     The minimum number of stripes to divide identifiers over
+     * @param spinCount       The number of attempts to obtain a lock before blocking the thread
+     * @param detectDeadlocks Whether to check for deadlocks when waiting for a lock
+     */
+    public StripedLockFactory(int stripeCount, int spinCount, boolean detectDeadlocks) {
+        Assert.isTrue(stripeCount > 0 && stripeCount <= 1 << 30,
+                      () -> "stripeCount must be between 1 and 2^30");
+        Assert.isFalse(spinCount < 0, () -> "spinCount may not be negative");
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = size - 1;
+        this.spinCount = spinCount;
+        this.detectDeadlocks = detectDeadlocks;
+    }
+
+    /**
+     * Obtain a lock for a resource identified by the given {@code identifier}. This method will block until a
+     * lock was successfully obtained.
+     * <p/>
+     * The returned lock is shared by all identifiers mapped to the same stripe. Each call to this method must be
+     * matched by exactly one call to {@link Lock#release()} on the returned lock.
+     *
+     * @param identifier the identifier of the lock to obtain.
+     * @return A handle to release the lock
+     * @throws DeadlockException               when deadlock detection is enabled and obtaining the lock would cause
+     *                                         a deadlock
+     * @throws LockAcquisitionFailedException when the thread was interrupted while waiting for the lock
+     */
+    @Override
+    public Lock obtainLock(String identifier) {
+        Stripe stripe = stripes[stripeIndex(identifier)];
+        if (stripe.tryLock()) {
+            return stripe;
+        }
+        for (int i = 0; i < spinCount; i++) {
+            if (stripe.tryLock()) {
+                return stripe;
+            }
+        }
+        try {
+            if (detectDeadlocks) {
+                lockDetectingDeadlocks(stripe);
+            } else {
+                stripe.lockInterruptibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockAcquisitionFailedException("Thread was interrupted", e);
+        }
+        return stripe;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * This implementation orders identifiers by the index of the stripe they are mapped to, and identifiers sharing a
+     * stripe by their natural order.
+     */
+    @Override
+    public Comparator<String> lockOrder() {
+        return Comparator.comparingInt(this::stripeIndex).thenComparing(Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns the number of stripes identifiers are divided over.
+     *
+     * @return the number of stripes
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private static void lockDetectingDeadlocks(Stripe stripe) throws InterruptedException {
+        Thread current = Thread.currentThread();
+        WAITING_THREADS.put(current, stripe);
+        try {
+            while (!stripe.tryLock(DEADLOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkForDeadlock(current, stripe);
+            }
+        } finally {
+            WAITING_THREADS.remove(current);
+        }
+    }
+
+    private static void checkForDeadlock(Thread current, Stripe stripe) {
+        Set<Thread> visited = new HashSet<>();
+        Stripe awaited = stripe;
+        while (awaited != null) {
+            Thread owner = awaited.owner();
+            if (owner == null || !visited.add(owner)) {
+                return;
+            }
+            if (owner == current) {
+                throw new DeadlockException("An imminent deadlock was detected while attempting to acquire a lock");
+            }
+            awaited = WAITING_THREADS.get(owner);
+        }
+    }
+
+    private int stripeIndex(String identifier) {
+        return spread(identifier.hashCode()) & stripeMask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static final class Stripe extends ReentrantLock implements Lock {
+
+        private static final long serialVersionUID = 4829506457393497862L;
+
+        @Override
+        public void release() {
+            unlock();
+        }
+
+        @Override
+        public boolean isHeld() {
+            return isHeldByCurrentThread();
+        }
+
+        private Thread owner() {
+            return getOwner();
+        }
+    }
+}
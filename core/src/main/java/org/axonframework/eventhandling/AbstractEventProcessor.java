@@ -17,7 +17,7 @@
 package org.axonframework.eventhandling;
 
 import org.axonframework.common.Registration;
-import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.CompiledInterceptorChain;
 import org.axonframework.messaging.MessageHandlerInterceptor;
 import org.axonframework.messaging.unitofwork.RollbackConfiguration;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
@@ -28,8 +28,7 @@
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -51,7 +50,8 @@
 public abstract class AbstractEventProcessor implements EventProcessor {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
-    private final Set<MessageHandlerInterceptor<? super EventMessage<?>>> interceptors = new CopyOnWriteArraySet<>();
+    private final AtomicReference<CompiledInterceptorChain<EventMessage<?>>> interceptors =
+            new AtomicReference<>(CompiledInterceptorChain.empty());
     private final String name;
     private final EventHandlerInvoker eventHandlerInvoker;
     private final RollbackConfiguration rollbackConfiguration;
@@ -88,8 +88,8 @@ public String getName() {
 
     @Override
     public Registration registerInterceptor(MessageHandlerInterceptor<? super EventMessage<?>> interceptor) {
-        interceptors.add(interceptor);
-        return () -> interceptors.remove(interceptor);
+        interceptors.updateAndGet(chain -> chain.contains(interceptor) ? chain : chain.with(interceptor));
+        return () -> interceptors.getAndUpdate(chain -> chain.without(interceptor)).contains(interceptor);
     }
 
     @Override
@@ -134,7 +134,7 @@ protected void processInUnitOfWork(List<? extends EventMessage<?>> eventMessages
         try {
             unitOfWork.executeWithResult(() -> {
                 MessageMonitor.MonitorCallback monitorCallback = messageMonitor.onMessageIngested(unitOfWork.getMessage());
-                return new DefaultInterceptorChain<>(unitOfWork, interceptors, m -> {
+                return interceptors.get().proceed(unitOfWork, m -> {
                     try {
                         eventHandlerInvoker.handle(m, segment);
                         monitorCallback.reportSuccess();
@@ -143,7 +143,7 @@ protected void processInUnitOfWork(List<? extends EventMessage<?>> eventMessages
                         monitorCallback.reportFailure(throwable);
                         throw throwable;
                     }
-                }).proceed();
+                });
             }, rollbackConfiguration);
         } catch (Exception e) {
             if (unitOfWork.isRolledBack()) {
@@ -28,12 +28,22 @@
 import org.axonframework.messaging.Message;
 import org.axonframework.messaging.ScopeAware;
 import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -51,7 +61,9 @@
     private final SagaRepository<T> sagaRepository;
     private final Class<T> sagaType;
     private final Supplier<T> sagaFactory;
+    private final String prefetchedResourceKey;
     private volatile ListenerInvocationErrorHandler listenerInvocationErrorHandler;
+    private volatile Executor parallelInvocationExecutor;
 
     /**
      * Initializes the SagaManager with the given {@code sagaRepository}.
@@ -65,6 +77,7 @@ protected AbstractSagaManager(Class<T> sagaType, SagaRepository<T> sagaRepositor
                                   ListenerInvocationErrorHandler listenerInvocationErrorHandler) {
         this.sagaType = sagaType;
         this.sagaFactory = sagaFactory;
+        this.prefetchedResourceKey = "SagaManager[" + sagaType.getName() + "]/Prefetched";
         Assert.notNull(sagaRepository, () -> "sagaRepository may not be null");
         this.sagaRepository = sagaRepository;
         this.listenerInvocationErrorHandler = listenerInvocationErrorHandler;
@@ -72,6 +85,7 @@ protected AbstractSagaManager(Class<T> sagaType, SagaRepository<T> sagaRepositor
 
     @Override
     public void handle(EventMessage<?> event, Segment segment) throws Exception {
+        prefetchSagas(segment);
         Set<AssociationValue> associationValues = extractAssociationValues(event);
         Set<Saga<T>> sagas =
                 associationValues.stream()
@@ -82,9 +96,14 @@ public void handle(EventMessage<?> event, Segment segment) throws Exception {
                                  .filter(Saga::isActive)
                                  .collect(Collectors.toCollection(HashSet::new));
         boolean sagaOfTypeInvoked = false;
-        for (Saga<T> saga : sagas) {
-            if (doInvokeSaga(event, saga)) {
-                sagaOfTypeInvoked = true;
+        Executor executor = parallelInvocationExecutor;
+        if (executor != null && sagas.size() > 1) {
+            sagaOfTypeInvoked = invokeSagasInParallel(event, sagas, executor);
+        } else {
+            for (Saga<T> saga : sagas) {
+                if (doInvokeSaga(event, saga)) {
+                    sagaOfTypeInvoked = true;
+                }
             }
         }
         SagaInitializationPolicy initializationPolicy = getSagaCreationPolicy(event);
@@ -93,6 +112,31 @@ public void handle(EventMessage<?> event, Segment segment) throws Exception {
         }
     }
 
+    /**
+     * When handling the first event of a batch, the association values of all events in the batch are handed to the
+     * saga repository at once, allowing it to find and load the sagas of the batch with a minimal number of queries.
+     */
+    private void prefetchSagas(Segment segment) {
+        if (!CurrentUnitOfWork.isStarted()) {
+            return;
+        }
+        UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
+        if (!(unitOfWork instanceof BatchingUnitOfWork)
+                || unitOfWork.resources().putIfAbsent(prefetchedResourceKey, Boolean.TRUE) != null) {
+            return;
+        }
+        List<? extends Message<?>> batch = ((BatchingUnitOfWork<?>) unitOfWork).getMessages();
+        if (batch.size() > 1) {
+            Set<AssociationValue> associationValues = new HashSet<>();
+            for (Message<?> message : batch) {
+                if (message instanceof EventMessage) {
+                    associationValues.addAll(extractAssociationValues((EventMessage<?>) message));
+                }
+            }
+            sagaRepository.prefetch(associationValues, sagaId -> matchesSegment(segment, sagaId));
+        }
+    }
+
     private boolean shouldCreateSaga(Segment segment, boolean sagaInvoked,
                                      SagaInitializationPolicy initializationPolicy) {
         return ((initializationPolicy.getCreationPolicy() == SagaCreationPolicy.ALWAYS
@@ -170,6 +214,93 @@ private boolean doInvokeSaga(EventMessage event, Saga<T> saga) throws Exception
         return false;
     }
 
+    /**
+     * Invokes the sagas that can handle the given {@code event} on the given {@code executor}, binding a read-only view
+     * of the current Unit of Work to the executing threads. Returns when all invocations have completed, after
+     * reporting the errors of failed invocations to the error handler on the calling thread.
+     */
+    private boolean invokeSagasInParallel(EventMessage<?> event, Set<Saga<T>> sagas, Executor executor)
+            throws Exception {
+        UnitOfWork<?> unitOfWork = CurrentUnitOfWork.isStarted() ? CurrentUnitOfWork.get() : null;
+        // the resources are created lazily, so they must be accessed before the executing threads read them
+        Map<String, Object> resources = unitOfWork == null ? null : Collections.unmodifiableMap(unitOfWork.resources());
+        List<Saga<T>> handlingSagas = new ArrayList<>();
+        List<CompletableFuture<Throwable>> invocations = new ArrayList<>();
+        for (Saga<T> saga : sagas) {
+            if (saga.canHandle(event)) {
+                handlingSagas.add(saga);
+                try {
+                    invocations.add(CompletableFuture.supplyAsync(
+                            () -> invokeSaga(unitOfWork == null ? null : readOnlyView(unitOfWork, resources),
+                                             event, saga),
+                            executor));
+                } catch (RejectedExecutionException e) {
+                    // the Unit of Work is already bound to this thread
+                    invocations.add(CompletableFuture.completedFuture(invokeSaga(null, event, saga)));
+                }
+            }
+        }
+        List<Throwable> failures = new ArrayList<>(invocations.size());
+        invocations.forEach(invocation -> failures.add(invocation.join()));
+        for (int i = 0; i < failures.size(); i++) {
+            Throwable failure = failures.get(i);
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                listenerInvocationErrorHandler.onError((Exception) failure, event, handlingSagas.get(i));
+            }
+        }
+        return !handlingSagas.isEmpty();
+    }
+
+    private static <M extends Message<?>> ParallelInvocationUnitOfWork<M> readOnlyView(
+            UnitOfWork<M> unitOfWork, Map<String, Object> resources) {
+        return new ParallelInvocationUnitOfWork<>(unitOfWork, resources);
+    }
+
+    private Throwable invokeSaga(ParallelInvocationUnitOfWork<?> unitOfWork, EventMessage<?> event, Saga<T> saga) {
+        if (unitOfWork != null) {
+            CurrentUnitOfWork.set(unitOfWork);
+        }
+        try {
+            saga.handle(event);
+            // the saga may have caught the exception thrown when it attempted to change the Unit of Work
+            return unitOfWork == null ? null : unitOfWork.getViolation();
+        } catch (Throwable e) {
+            return e;
+        } finally {
+            if (unitOfWork != null) {
+                CurrentUnitOfWork.clear(unitOfWork);
+            }
+        }
+    }
+
+    /**
+     * Sets the {@code executor} used to invoke the saga instances that handle the same event in parallel. When
+     * {@code null}, which is the default, saga instances are invoked one after the other.
+     * <p>
+     * Saga instances are found and loaded on the thread handling the event, as they are when invoked sequentially, so
+     * any locks held by the saga repository are acquired and released by that thread. Only the invocation of the
+     * saga's event handlers is performed by the executor. The thread handling the event waits for all invocations to
+     * complete, and then reports failed invocations to the {@link ListenerInvocationErrorHandler}. Unlike sequential
+     * invocation, a failure propagated by the error handler does not prevent other saga instances from handling the
+     * event.
+     * <p>
+     * The Unit of Work of the event is not thread safe, and the transaction it manages is bound to the thread handling
+     * the event. The executing threads are therefore given a read-only view of the Unit of Work, which provides the
+     * event, its correlation data and the resources of the Unit of Work, but rejects any change to it. As a
+     * consequence, the event handlers of sagas invoked in parallel may not dispatch commands, publish events or
+     * schedule deadlines, as these would not be atomic with the processing of the event. Invocations that attempt to
+     * do so are reported as failed, even if the saga catches the exception. Parallel invocation is therefore only
+     * suitable for sagas of which the event handlers only change the state and associations of the saga, which are
+     * persisted by the repository on the thread handling the event.
+     *
+     * @param executor the executor invoking saga instances in parallel, or {@code null} to invoke them sequentially
+     */
+    public void setParallelInvocationExecutor(Executor executor) {
+        this.parallelInvocationExecutor = executor;
+    }
+
     /**
      * Sets whether or not to suppress any exceptions that are cause by invoking Sagas. When suppressed, exceptions are
      * logged. Defaults to {@code true}.
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga;
+
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.correlation.CorrelationDataProvider;
+import org.axonframework.messaging.unitofwork.ExecutionResult;
+import org.axonframework.messaging.unitofwork.RollbackConfiguration;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-only view of the Unit of Work of an event, bound to the threads invoking saga instances in parallel. The view
+ * gives access to the event, its correlation data and the resources of the Unit of Work, but rejects any attempt to
+ * change the Unit of Work, such as registering handlers or resources, or starting a nested Unit of Work. The shared
+ * Unit of Work isn't thread safe, and the transaction it is bound to isn't available to other threads, so that
+ * dispatching commands, publishing events or scheduling deadlines from a saga invoked in parallel would not be
+ * atomic with the processing of the event.
+ * <p/>
+ * The first violation is remembered, so that the invocation can be reported as failed even if the saga catches the
+ * exception.
+ *
+ * @param <T> The type of message handled by the Unit of Work
+ * @since 3.4
+ */
+class ParallelInvocationUnitOfWork<T extends Message<?>> implements UnitOfWork<T> {
+
+    private final UnitOfWork<T> delegate;
+    private final Map<String, Object> resources;
+    private IllegalStateException violation;
+
+    /**
+     * Initializes a view on the given {@code delegate}, giving access to the given {@code resources}. The resources
+     * must be an unmodifiable view of the resources of the delegate, created on the thread handling the event.
+     *
+     * @param delegate  The Unit of Work of the event
+     * @param resources Unmodifiable view of the resources of the delegate
+     */
+    ParallelInvocationUnitOfWork(UnitOfWork<T> delegate, Map<String, Object> resources) {
+        this.delegate = delegate;
+        this.resources = resources;
+    }
+
+    /**
+     * Returns the exception thrown by the first attempt to change the Unit of Work, or {@code null} if the Unit of Work
+     * hasn't been changed.
+     *
+     * @return the first violation of this read-only view, or {@code null}
+     */
+    IllegalStateException getViolation() {
+        return violation;
+    }
+
+    private IllegalStateException reject(String operation) {
+        IllegalStateException exception = new IllegalStateException(String.format(
+                "Sagas invoked in parallel may not %s. The Unit of Work of the event is shared by threads invoking "
+                        + "sagas in parallel, so it doesn't allow changes such as dispatching commands, publishing "
+                        + "events or scheduling deadlines. Invoke the sagas sequentially instead.", operation));
+        if (violation == null) {
+            violation = exception;
+        }
+        return exception;
+    }
+
+    @Override
+    public void start() {
+        throw reject("start the Unit of Work");
+    }
+
+    @Override
+    public void commit() {
+        throw reject("commit the Unit of Work");
+    }
+
+    @Override
+    public void rollback(Throwable cause) {
+        throw reject("roll back the Unit of Work");
+    }
+
+    @Override
+    public Phase phase() {
+        return delegate.phase();
+    }
+
+    @Override
+    public void onPrepareCommit(Consumer<UnitOfWork<T>> handler) {
+        throw reject("register Unit of Work handlers");
+    }
+
+    @Override
+    public void onCommit(Consumer<UnitOfWork<T>> handler) {
+        throw reject("register Unit of Work handlers");
+    }
+
+    @Override
+    public void afterCommit(Consumer<UnitOfWork<T>> handler) {
+        throw reject("register Unit of Work handlers");
+    }
+
+    @Override
+    public void onRollback(Consumer<UnitOfWork<T>> handler) {
+        throw reject("register Unit of Work handlers");
+    }
+
+    @Override
+    public void onCleanup(Consumer<UnitOfWork<T>> handler) {
+        throw reject("register Unit of Work handlers");
+    }
+
+    @Override
+    public Optional<UnitOfWork<?>> parent() {
+        return Optional.empty();
+    }
+
+    @Override
+    public T getMessage() {
+        return delegate.getMessage();
+    }
+
+    @Override
+    public UnitOfWork<T> transformMessage(Function<T, ? extends Message<?>> transformOperator) {
+        throw reject("transform the message of the Unit of Work");
+    }
+
+    @Override
+    public MetaData getCorrelationData() {
+        return delegate.getCorrelationData();
+    }
+
+    @Override
+    public void registerCorrelationDataProvider(CorrelationDataProvider correlationDataProvider) {
+        throw reject("register correlation data providers");
+    }
+
+    @Override
+    public Map<String, Object> resources() {
+        return resources;
+    }
+
+    @Override
+    public <R> R getOrComputeResource(String key, Function<? super String, R> mappingFunction) {
+        throw reject("register Unit of Work resources");
+    }
+
+    @Override
+    public <R> R executeWithResult(Callable<R> task, RollbackConfiguration rollbackConfiguration) {
+        throw reject("execute tasks in the Unit of Work");
+    }
+
+    @Override
+    public ExecutionResult getExecutionResult() {
+        return delegate.getExecutionResult();
+    }
+
+    @Override
+    public boolean isRolledBack() {
+        return delegate.isRolledBack();
+    }
+}
@@ -17,6 +17,7 @@
 package org.axonframework.eventhandling.saga;
 
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 /**
@@ -40,6 +41,22 @@
      */
     Set<String> find(AssociationValue associationValue);
 
+    /**
+     * Notifies the repository that Sagas associated with any of the given {@code associationValues} are about to be
+     * looked up and loaded in the current Unit of Work. This allows repositories to resolve the associations and load
+     * the Sagas of a whole batch of events with a minimal number of round trips to the underlying storage, instead of
+     * doing so per event. Only Sagas of which the identifier matches the given {@code sagaIdentifierFilter} need to be
+     * loaded.
+     * <p>
+     * Calls to {@link #find(AssociationValue)} and {@link #load(String)} must return the same results regardless of
+     * whether this method was invoked. The default implementation does nothing.
+     *
+     * @param associationValues    The association values that will be looked up in the current Unit of Work
+     * @param sagaIdentifierFilter The filter that the identifiers of Sagas to load must match
+     */
+    default void prefetch(Set<AssociationValue> associationValues, Predicate<String> sagaIdentifierFilter) {
+    }
+
     /**
      * Loads a known Saga instance by its unique identifier.
      * Due to the concurrent nature of Sagas, it is not unlikely for a Saga to have ceased to exist after it has been
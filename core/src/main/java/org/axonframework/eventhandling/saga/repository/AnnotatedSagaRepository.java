@@ -21,10 +21,12 @@
 import org.axonframework.common.lock.PessimisticLockFactory;
 import org.axonframework.eventhandling.saga.AnnotatedSaga;
 import org.axonframework.eventhandling.saga.AssociationValue;
+import org.axonframework.eventhandling.saga.AssociationValues;
 import org.axonframework.eventhandling.saga.ResourceInjector;
 import org.axonframework.eventhandling.saga.Saga;
 import org.axonframework.eventhandling.saga.metamodel.AnnotationSagaMetaModelFactory;
 import org.axonframework.eventhandling.saga.metamodel.SagaModel;
+import org.axonframework.eventsourcing.eventstore.TrackingToken;
 import org.axonframework.messaging.annotation.HandlerDefinition;
 import org.axonframework.messaging.annotation.ParameterResolverFactory;
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
@@ -32,8 +34,8 @@
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * Abstract implementation for saga repositories. This (partial) implementation will take care of the uniqueness of
@@ -47,7 +49,12 @@
 public class AnnotatedSagaRepository<T> extends LockingSagaRepository<T> {
 
     private final String unsavedSagasResourceKey;
+    private final String prefetchedAssociationsResourceKey;
+    private final String prefetchedSagasResourceKey;
     private final Map<String, AnnotatedSaga<T>> managedSagas;
+    private final AssociationValueMap managedAssociations = new AssociationValueMap();
+    private final Set<String> unindexedSagas = ConcurrentHashMap.newKeySet();
+    private final String sagaTypeName;
     private final Class<T> sagaType;
     private final SagaStore<? super T> sagaStore;
     private final SagaModel<T> sagaModel;
@@ -145,7 +152,11 @@ public AnnotatedSagaRepository(Class<T> sagaType, SagaStore<? super T> sagaStore
         this.sagaStore = sagaStore;
         this.sagaModel = sagaModel;
         this.managedSagas = new ConcurrentHashMap<>();
+        this.sagaTypeName = sagaType.getName();
         this.unsavedSagasResourceKey = "Repository[" + sagaType.getSimpleName() + "]/UnsavedSagas";
+        this.prefetchedAssociationsResourceKey =
+                "Repository[" + sagaType.getSimpleName() + "]/PrefetchedAssociations";
+        this.prefetchedSagasResourceKey = "Repository[" + sagaType.getSimpleName() + "]/PrefetchedSagas";
     }
 
     @Override
@@ -156,7 +167,8 @@ public AnnotatedSaga<T> doLoad(String sagaIdentifier) {
         AnnotatedSaga<T> loadedSaga = managedSagas.computeIfAbsent(sagaIdentifier, id -> {
             AnnotatedSaga<T> result = doLoadSaga(sagaIdentifier);
             if (result != null) {
-                processRoot.onCleanup(u -> managedSagas.remove(id));
+                indexManagedSaga(result);
+                processRoot.onCleanup(u -> removeManagedSaga(id));
             }
             return result;
         });
@@ -176,8 +188,7 @@ public AnnotatedSaga<T> doCreateInstance(String sagaIdentifier, Supplier<T> saga
             UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get(), processRoot = unitOfWork.root();
             T sagaRoot = sagaFactory.get();
             injector.injectResources(sagaRoot);
-            AnnotatedSaga<T> saga =
-                    new AnnotatedSaga<>(sagaIdentifier, Collections.emptySet(), sagaRoot, null, sagaModel);
+            AnnotatedSaga<T> saga = new IndexedSaga(sagaIdentifier, Collections.emptySet(), sagaRoot, null);
 
             unsavedSagaResource(processRoot).add(sagaIdentifier);
             unitOfWork.onPrepareCommit(u -> {
@@ -189,7 +200,8 @@ public AnnotatedSaga<T> doCreateInstance(String sagaIdentifier, Supplier<T> saga
             });
 
             managedSagas.put(sagaIdentifier, saga);
-            processRoot.onCleanup(u -> managedSagas.remove(sagaIdentifier));
+            indexManagedSaga(saga);
+            processRoot.onCleanup(u -> removeManagedSaga(sagaIdentifier));
             return saga;
         } catch (Exception e) {
             throw new SagaCreationException("An error occurred while attempting to create a new managed instance", e);
@@ -222,16 +234,86 @@ protected void commit(AnnotatedSaga<T> saga) {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the given {@code associationValues} with a single call to the saga store. It then
+     * locks the matching sagas, in the order prescribed by the lock factory, and loads the ones that aren't managed by
+     * this repository yet with another single call to the saga store. The results are kept in the root of the current
+     * Unit of Work and used by subsequent calls to {@link #find(AssociationValue)} and {@link #load(String)}. As changes
+     * to sagas are only stored when the Unit of Work commits, the prefetched results remain valid while it is
+     * processed.
+     */
+    @Override
+    public void prefetch(Set<AssociationValue> associationValues, Predicate<String> sagaIdentifierFilter) {
+        if (associationValues.isEmpty()) {
+            return;
+        }
+        UnitOfWork<?> processRoot = CurrentUnitOfWork.get().root();
+        Map<AssociationValue, Set<String>> associations =
+                sagaStore.findSagasForAssociations(sagaType, associationValues);
+        prefetchedAssociations(processRoot).putAll(associations);
+
+        Set<String> sagaIdentifiers = new HashSet<>();
+        associations.values().forEach(ids -> ids.stream().filter(sagaIdentifierFilter).forEach(sagaIdentifiers::add));
+        lockSagaAccess(sagaIdentifiers);
+        sagaIdentifiers.removeIf(managedSagas::containsKey);
+        if (!sagaIdentifiers.isEmpty()) {
+            prefetchedSagas(processRoot).putAll(sagaStore.loadSagas(sagaType, sagaIdentifiers));
+        }
+    }
+
+    private Map<AssociationValue, Set<String>> prefetchedAssociations(UnitOfWork<?> processRoot) {
+        return processRoot.getOrComputeResource(prefetchedAssociationsResourceKey, k -> new HashMap<>());
+    }
+
+    private Map<String, SagaStore.Entry<T>> prefetchedSagas(UnitOfWork<?> processRoot) {
+        return processRoot.getOrComputeResource(prefetchedSagasResourceKey, k -> new HashMap<>());
+    }
+
     @Override
     public Set<String> find(AssociationValue associationValue) {
         Set<String> sagasFound = new TreeSet<>();
-        sagasFound.addAll(managedSagas.values().stream()
-                                  .filter(saga -> saga.getAssociationValues().contains(associationValue))
-                                  .map(Saga::getSagaIdentifier).collect(Collectors.toList()));
-        sagasFound.addAll(sagaStore.findSagas(sagaType, associationValue));
+        for (String sagaIdentifier : managedAssociations.findSagas(sagaTypeName, associationValue)) {
+            addIfManagedAndAssociated(sagaIdentifier, associationValue, sagasFound);
+        }
+        for (String sagaIdentifier : unindexedSagas) {
+            addIfManagedAndAssociated(sagaIdentifier, associationValue, sagasFound);
+        }
+        Set<String> prefetched = null;
+        if (CurrentUnitOfWork.isStarted()) {
+            Map<AssociationValue, Set<String>> prefetchedAssociations =
+                    CurrentUnitOfWork.get().root().getResource(prefetchedAssociationsResourceKey);
+            prefetched = prefetchedAssociations == null ? null : prefetchedAssociations.get(associationValue);
+        }
+        sagasFound.addAll(prefetched != null ? prefetched : sagaStore.findSagas(sagaType, associationValue));
         return sagasFound;
     }
 
+    private void addIfManagedAndAssociated(String sagaIdentifier, AssociationValue associationValue,
+                                           Set<String> sagasFound) {
+        AnnotatedSaga<T> saga = managedSagas.get(sagaIdentifier);
+        if (saga != null && saga.getAssociationValues().contains(associationValue)) {
+            sagasFound.add(sagaIdentifier);
+        }
+    }
+
+    private void indexManagedSaga(AnnotatedSaga<T> saga) {
+        String sagaIdentifier = saga.getSagaIdentifier();
+        if (saga instanceof AnnotatedSagaRepository.IndexedSaga) {
+            saga.getAssociationValues().forEach(av -> managedAssociations.add(av, sagaTypeName, sagaIdentifier));
+        } else {
+            unindexedSagas.add(sagaIdentifier);
+        }
+    }
+
+    private void removeManagedSaga(String sagaIdentifier) {
+        AnnotatedSaga<T> saga = managedSagas.remove(sagaIdentifier);
+        if (saga != null && !unindexedSagas.remove(sagaIdentifier)) {
+            saga.getAssociationValues().forEach(av -> managedAssociations.remove(av, sagaTypeName, sagaIdentifier));
+        }
+    }
+
     /**
      * Remove the given saga as well as all known association values pointing to it from the repository. If no such
      * saga exists, nothing happens.
@@ -267,20 +349,122 @@ protected void storeSaga(AnnotatedSaga<T> saga) {
 
     /**
      * Loads the saga with given {@code sagaIdentifier} from the underlying saga store and returns it as a {@link
-     * AnnotatedSaga}. Resources of the saga will be injected using the {@link ResourceInjector} configured with the
-     * repository.
+     * AnnotatedSaga}. If the saga has been {@link #prefetch(Set, Predicate) prefetched} in the current Unit of Work,
+     * the prefetched entry is used instead. Resources of the saga will be injected using the {@link ResourceInjector}
+     * configured with the repository.
      *
      * @param sagaIdentifier the identifier of the saga to load
      * @return AnnotatedSaga instance with the loaded saga
      */
     protected AnnotatedSaga<T> doLoadSaga(String sagaIdentifier) {
-        SagaStore.Entry<T> entry = sagaStore.loadSaga(sagaType, sagaIdentifier);
+        SagaStore.Entry<T> entry = null;
+        if (CurrentUnitOfWork.isStarted()) {
+            Map<String, SagaStore.Entry<T>> prefetchedSagas =
+                    CurrentUnitOfWork.get().root().getResource(prefetchedSagasResourceKey);
+            entry = prefetchedSagas == null ? null : prefetchedSagas.remove(sagaIdentifier);
+        }
+        if (entry == null) {
+            entry = sagaStore.loadSaga(sagaType, sagaIdentifier);
+        }
         if (entry != null) {
             T saga = entry.saga();
             injector.injectResources(saga);
-            return new AnnotatedSaga<>(sagaIdentifier, entry.associationValues(), saga, entry.trackingToken(),
-                                       sagaModel);
+            return new IndexedSaga(sagaIdentifier, entry.associationValues(), saga, entry.trackingToken());
         }
         return null;
     }
+
+    /**
+     * AnnotatedSaga that keeps the index of association values of managed sagas up to date when associations are
+     * added or removed while the saga is being handled.
+     */
+    private class IndexedSaga extends AnnotatedSaga<T> {
+
+        private final IndexingAssociationValues associationValues;
+
+        private IndexedSaga(String sagaId, Set<AssociationValue> associationValues, T annotatedSaga,
+                            TrackingToken trackingToken) {
+            super(sagaId, associationValues, annotatedSaga, trackingToken, sagaModel);
+            this.associationValues = new IndexingAssociationValues(sagaId, super.getAssociationValues());
+        }
+
+        @Override
+        public AssociationValues getAssociationValues() {
+            return associationValues;
+        }
+
+        @Override
+        protected void doAssociateWith(AssociationValue property) {
+            associationValues.add(property);
+        }
+
+        @Override
+        protected void doRemoveAssociation(AssociationValue property) {
+            associationValues.remove(property);
+        }
+    }
+
+    private class IndexingAssociationValues implements AssociationValues {
+
+        private final String sagaIdentifier;
+        private final AssociationValues delegate;
+
+        private IndexingAssociationValues(String sagaIdentifier, AssociationValues delegate) {
+            this.sagaIdentifier = sagaIdentifier;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean add(AssociationValue associationValue) {
+            boolean added = delegate.add(associationValue);
+            if (added) {
+                managedAssociations.add(associationValue, sagaTypeName, sagaIdentifier);
+            }
+            return added;
+        }
+
+        @Override
+        public boolean remove(AssociationValue associationValue) {
+            boolean removed = delegate.remove(associationValue);
+            if (removed) {
+                managedAssociations.remove(associationValue, sagaTypeName, sagaIdentifier);
+            }
+            return removed;
+        }
+
+        @Override
+        public Set<AssociationValue> removedAssociations() {
+            return delegate.removedAssociations();
+        }
+
+        @Override
+        public Set<AssociationValue> addedAssociations() {
+            return delegate.addedAssociations();
+        }
+
+        @Override
+        public void commit() {
+            delegate.commit();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean contains(AssociationValue associationValue) {
+            return delegate.contains(associationValue);
+        }
+
+        @Override
+        public Set<AssociationValue> asSet() {
+            return delegate.asSet();
+        }
+
+        @Override
+        public Iterator<AssociationValue> iterator() {
+            return delegate.iterator();
+        }
+    }
 }
@@ -18,9 +18,11 @@
 
 import org.axonframework.eventhandling.saga.AssociationValue;
 
-import java.io.Serializable;
-import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -30,20 +32,21 @@
  * Note that this "map" does not implement the Map interface. This is mainly due to the specific nature and intent of
  * this implementation. For example, the Map interface does not allow a single key to point to more than one value.
  * <p/>
- * This implementation is thread safe and has an expected average time cost of {@code log(n)}.
+ * This implementation is thread safe. Mappings are indexed by hash on the combination of saga type and association
+ * value, giving an expected constant time cost for lookups, additions and removals.
  *
  * @author Allard Buijze
  * @since 0.7
  */
 public class AssociationValueMap {
 
-    private final NavigableSet<SagaAssociationValue> mappings;
+    private final ConcurrentMap<SagaAssociationValue, Set<String>> mappings;
 
     /**
      * Initializes a new and empty AssociationValueMap.
      */
     public AssociationValueMap() {
-        mappings = new ConcurrentSkipListSet<>(new AssociationValueComparator());
+        mappings = new ConcurrentHashMap<>();
     }
 
     /**
@@ -54,17 +57,8 @@ public AssociationValueMap() {
      * @return A set of Saga identifiers
      */
     public Set<String> findSagas(String sagaType, AssociationValue associationValue) {
-        Set<String> identifiers = new HashSet<>();
-        for (SagaAssociationValue item : mappings.tailSet(new SagaAssociationValue(associationValue, sagaType, null))) {
-            if (!item.getKey().equals(associationValue.getKey())) {
-                // we've had all relevant items
-                break;
-            }
-            if (associationValue.equals(item.getAssociationValue()) && sagaType.equals(item.getSagaType())) {
-                identifiers.add(item.getSagaIdentifier());
-            }
-        }
-        return identifiers;
+        Set<String> identifiers = mappings.get(new SagaAssociationValue(associationValue, sagaType));
+        return identifiers == null ? new HashSet<>() : new HashSet<>(identifiers);
     }
 
     /**
@@ -75,7 +69,11 @@ public Set<String> findSagas(String sagaType, AssociationValue associationValue)
      * @param sagaIdentifier   The identifier of the associated Saga
      */
     public void add(AssociationValue associationValue, String sagaType, String sagaIdentifier) {
-        mappings.add(new SagaAssociationValue(associationValue, sagaType, sagaIdentifier));
+        mappings.compute(new SagaAssociationValue(associationValue, sagaType), (key, identifiers) -> {
+            Set<String> result = identifiers == null ? ConcurrentHashMap.newKeySet() : identifiers;
+            result.add(sagaIdentifier);
+            return result;
+        });
     }
 
     /**
@@ -86,7 +84,10 @@ public void add(AssociationValue associationValue, String sagaType, String sagaI
      * @param sagaIdentifier   The identifier of the associated Saga
      */
     public void remove(AssociationValue associationValue, String sagaType, String sagaIdentifier) {
-        mappings.remove(new SagaAssociationValue(associationValue, sagaType, sagaIdentifier));
+        mappings.computeIfPresent(new SagaAssociationValue(associationValue, sagaType), (key, identifiers) -> {
+            identifiers.remove(sagaIdentifier);
+            return identifiers.isEmpty() ? null : identifiers;
+        });
     }
 
     /**
@@ -110,89 +111,48 @@ public boolean isEmpty() {
      * an
      * accurate value.
      * <p/>
-     * This is not a constant-time operation. The backing store of this map requires full traversal of elements to
-     * calculate this size.
+     * This is not a constant-time operation. The backing store of this map requires traversal of all association
+     * values to calculate this size.
      *
      * @return an approximation of the number of elements in this map
      */
     public int size() {
-        return mappings.size();
+        int size = 0;
+        for (Set<String> identifiers : mappings.values()) {
+            size += identifiers.size();
+        }
+        return size;
     }
 
     private static final class SagaAssociationValue {
 
         private final AssociationValue associationValue;
         private final String sagaType;
-        private final String sagaIdentifier;
+        private final int hashCode;
 
-        private SagaAssociationValue(AssociationValue associationValue, String sagaType, String sagaIdentifier) {
+        private SagaAssociationValue(AssociationValue associationValue, String sagaType) {
             this.associationValue = associationValue;
             this.sagaType = sagaType;
-            this.sagaIdentifier = sagaIdentifier;
-        }
-
-        public AssociationValue getAssociationValue() {
-            return associationValue;
-        }
-
-        public String getSagaIdentifier() {
-            return sagaIdentifier;
-        }
-
-        public String getKey() {
-            return associationValue.getKey();
-        }
-
-        public Object getValue() {
-            return associationValue.getValue();
-        }
-
-        public String getSagaType() {
-            return sagaType;
+            this.hashCode = Objects.hash(associationValue, sagaType);
         }
-    }
-
-    private static class AssociationValueComparator implements Comparator<SagaAssociationValue>, Serializable {
-
-        private static final long serialVersionUID = -8733800489211327001L;
 
-        @SuppressWarnings({"unchecked"})
         @Override
-        public int compare(SagaAssociationValue o1, SagaAssociationValue o2) {
-            int value = o1.getKey().compareTo(o2.getKey());
-            if (value == 0 && !Objects.equals(o1.getValue(), o2.getValue())) {
-                value = o1.getValue().getClass().getName().compareTo(o2.getValue().getClass().getName());
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
-            if (value == 0 && !Objects.equals(o1.getValue(), o2.getValue())) {
-                // the objects are of the same class
-                if (o1.getValue() instanceof Comparable) {
-                    value = ((Comparable) o1.getValue()).compareTo(o2.getValue());
-                } else {
-                    value = o1.getValue().hashCode() - o2.getValue().hashCode();
-                    if (value == 0 && o1.getValue() != o2.getValue()) {
-                        value = o1.getValue().toString().compareTo(o2.getValue().toString());
-                    }
-                }
-            }
-
-            if (value == 0 && !Objects.equals(o1.getSagaType(), o2.getSagaType())) {
-                if (o1.getSagaType() == null) {
-                    return -1;
-                } else if (o2.getSagaType() == null) {
-                    return 1;
-                }
-                return o1.getSagaType().compareTo(o2.getSagaType());
+            if (o == null || getClass() != o.getClass()) {
+                return false;
             }
+            SagaAssociationValue that = (SagaAssociationValue) o;
+            return hashCode == that.hashCode
+                    && Objects.equals(associationValue, that.associationValue)
+                    && Objects.equals(sagaType, that.sagaType);
+        }
 
-            if (value == 0 && !Objects.equals(o1.getSagaIdentifier(), o2.getSagaIdentifier())) {
-                if (o1.getSagaIdentifier() == null) {
-                    return -1;
-                } else if (o2.getSagaIdentifier() == null) {
-                    return 1;
-                }
-                return o1.getSagaIdentifier().compareTo(o2.getSagaIdentifier());
-            }
-            return value;
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe Bloom filter for String values. A Bloom filter may report that it contains a value that was never added
+ * (a false positive), but never reports that it doesn't contain a value that has been added. Values cannot be
+ * removed.
+ * <p>
+ * The size of the filter and the number of hash functions are derived from the expected number of insertions and the
+ * desired false positive probability. Adding more values than expected increases the false positive probability.
+ */
+final class BloomFilter {
+
+    // the hash functions address at most 2^31 bits
+    private static final int MAX_WORDS = 1 << 25;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Initializes an empty Bloom filter, sized to hold the given {@code expectedInsertions} with the given {@code
+     * falsePositiveProbability}.
+     *
+     * @param expectedInsertions       the number of values expected to be added to the filter
+     * @param falsePositiveProbability the desired probability of false positives, between 0 and 1 (exclusive)
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        long bits = (long) Math.ceil(-Math.max(1, expectedInsertions) * Math.log(falsePositiveProbability)
+                                             / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(MAX_WORDS, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashFunctions = (int) Math.max(1, Math.round((double) bitCount / Math.max(1, expectedInsertions)
+                                                                  * Math.log(2)));
+    }
+
+    /**
+     * Adds the given {@code value} to the filter.
+     *
+     * @param value the value to add
+     */
+    void put(String value) {
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(hash1 + i * hash2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the given {@code value} may have been added to the filter. If {@code false}, the value has
+     * definitely not been added.
+     *
+     * @param value the value to check
+     * @return {@code false} if the value has not been added, {@code true} if it may have been
+     */
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(hash1 + i * hash2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private static long hash(String value) {
+        // 64-bit FNV-1a, followed by the MurmurHash3 finalizer to spread the bits over both halves
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
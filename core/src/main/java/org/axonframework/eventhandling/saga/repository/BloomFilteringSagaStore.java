@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import org.axonframework.common.Assert;
+import org.axonframework.eventhandling.saga.AssociationValue;
+import org.axonframework.eventhandling.saga.AssociationValues;
+import org.axonframework.eventsourcing.eventstore.TrackingToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * SagaStore implementation that keeps a Bloom filter of the association values of the sagas in the store it wraps,
+ * per saga type and association key. Lookups of association values that no saga has ever been associated with are
+ * answered from the filter, without consulting the wrapped store. Other lookups, as well as all loads and
+ * modifications, are delegated.
+ * <p/>
+ * The filter of a saga type is built from the {@link SagaStore#forEachAssociationValue(Class, Consumer) association
+ * values} in the wrapped store the first time that saga type is used. After that, it is kept up to date with the
+ * associations of inserted and updated sagas. As values cannot be removed from a Bloom filter, associations of deleted
+ * sagas remain in the filter, only affecting its false positive rate. If the wrapped store cannot provide its
+ * association values, all lookups for the saga type are delegated.
+ * <p/>
+ * Since the filter is only updated through this instance, it must be the only component that adds sagas of the
+ * filtered types to the underlying storage. It is unsafe to use this store when sagas of the same type are stored by
+ * other processes, such as other instances of the application sharing the same database.
+ *
+ * @param <T> The saga type
+ * @since 3.4
+ */
+public class BloomFilteringSagaStore<T> implements SagaStore<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomFilteringSagaStore.class);
+
+    private static final int DEFAULT_EXPECTED_INSERTIONS = 100_000;
+    private static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final SagaStore<T> delegate;
+    private final int expectedInsertions;
+    private final double falsePositiveProbability;
+    private final ConcurrentMap<Class<?>, SagaTypeFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * Initializes an instance delegating to the given {@code delegate}, using filters sized for 100,000 association
+     * values per saga type and association key with a false positive probability of 1%.
+     *
+     * @param delegate The store providing access to the (persisted) sagas
+     */
+    public BloomFilteringSagaStore(SagaStore<T> delegate) {
+        this(delegate, DEFAULT_EXPECTED_INSERTIONS, DEFAULT_FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * Initializes an instance delegating to the given {@code delegate}, using filters sized for the given {@code
+     * expectedInsertions} per saga type and association key with the given {@code falsePositiveProbability}. Each
+     * filter uses about {@code -expectedInsertions * ln(falsePositiveProbability) / 3.85} bits of memory.
+     *
+     * @param delegate                 The store providing access to the (persisted) sagas
+     * @param expectedInsertions       The expected number of association values per saga type and association key
+     * @param falsePositiveProbability The probability that a lookup is delegated to the wrapped store while no saga
+     *                                 is associated with the value, between 0 and 1 (exclusive)
+     */
+    public BloomFilteringSagaStore(SagaStore<T> delegate, int expectedInsertions, double falsePositiveProbability) {
+        Assert.notNull(delegate, () -> "You must provide a SagaStore instance to delegate to");
+        Assert.isTrue(expectedInsertions > 0, () -> "expectedInsertions must be positive");
+        Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+                      () -> "falsePositiveProbability must be between 0 and 1");
+        this.delegate = delegate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @Override
+    public Set<String> findSagas(Class<? extends T> sagaType, AssociationValue associationValue) {
+        if (!initializedFilter(sagaType).mightContain(associationValue)) {
+            return new HashSet<>();
+        }
+        return delegate.findSagas(sagaType, associationValue);
+    }
+
+    @Override
+    public Map<AssociationValue, Set<String>> findSagasForAssociations(Class<? extends T> sagaType,
+                                                                       Set<AssociationValue> associationValues) {
+        SagaTypeFilter filter = initializedFilter(sagaType);
+        Map<AssociationValue, Set<String>> result = new HashMap<>();
+        Set<AssociationValue> candidates = new HashSet<>();
+        for (AssociationValue associationValue : associationValues) {
+            if (filter.mightContain(associationValue)) {
+                candidates.add(associationValue);
+            } else {
+                result.put(associationValue, new HashSet<>());
+            }
+        }
+        if (!candidates.isEmpty()) {
+            result.putAll(delegate.findSagasForAssociations(sagaType, candidates));
+        }
+        return result;
+    }
+
+    @Override
+    public <S extends T> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
+        return delegate.loadSaga(sagaType, sagaIdentifier);
+    }
+
+    @Override
+    public <S extends T> Map<String, Entry<S>> loadSagas(Class<S> sagaType, Set<String> sagaIdentifiers) {
+        return delegate.loadSagas(sagaType, sagaIdentifiers);
+    }
+
+    @Override
+    public void forEachAssociationValue(Class<? extends T> sagaType, Consumer<AssociationValue> consumer) {
+        delegate.forEachAssociationValue(sagaType, consumer);
+    }
+
+    @Override
+    public void deleteSaga(Class<? extends T> sagaType, String sagaIdentifier,
+                           Set<AssociationValue> associationValues) {
+        delegate.deleteSaga(sagaType, sagaIdentifier, associationValues);
+    }
+
+    @Override
+    public void insertSaga(Class<? extends T> sagaType, String sagaIdentifier, T saga, TrackingToken token,
+                           Set<AssociationValue> associationValues) {
+        // the filter is updated first, so that the saga is never filtered out once it is visible in the store
+        SagaTypeFilter filter = filter(sagaType);
+        associationValues.forEach(filter::add);
+        delegate.insertSaga(sagaType, sagaIdentifier, saga, token, associationValues);
+    }
+
+    @Override
+    public void updateSaga(Class<? extends T> sagaType, String sagaIdentifier, T saga, TrackingToken token,
+                           AssociationValues associationValues) {
+        SagaTypeFilter filter = filter(sagaType);
+        associationValues.addedAssociations().forEach(filter::add);
+        delegate.updateSaga(sagaType, sagaIdentifier, saga, token, associationValues);
+    }
+
+    private SagaTypeFilter filter(Class<? extends T> sagaType) {
+        return filters.computeIfAbsent(sagaType, type -> new SagaTypeFilter(sagaType));
+    }
+
+    private SagaTypeFilter initializedFilter(Class<? extends T> sagaType) {
+        SagaTypeFilter filter = filter(sagaType);
+        filter.ensureInitialized();
+        return filter;
+    }
+
+    private class SagaTypeFilter {
+
+        private final Class<? extends T> sagaType;
+        private final ConcurrentMap<String, BloomFilter> filtersPerKey = new ConcurrentHashMap<>();
+        private volatile boolean initialized;
+        private volatile boolean supported = true;
+
+        private SagaTypeFilter(Class<? extends T> sagaType) {
+            this.sagaType = sagaType;
+        }
+
+        private void ensureInitialized() {
+            if (!initialized) {
+                synchronized (this) {
+                    if (!initialized) {
+                        try {
+                            delegate.forEachAssociationValue(sagaType, this::add);
+                        } catch (UnsupportedOperationException e) {
+                            logger.warn("The association values of saga type [{}] cannot be read from the store. "
+                                                + "All lookups for this type will be delegated.", sagaType.getName());
+                            supported = false;
+                        }
+                        initialized = true;
+                    }
+                }
+            }
+        }
+
+        private void add(AssociationValue associationValue) {
+            filtersPerKey.computeIfAbsent(associationValue.getKey(),
+                                          key -> new BloomFilter(expectedInsertions, falsePositiveProbability))
+                         .put(associationValue.getValue());
+        }
+
+        private boolean mightContain(AssociationValue associationValue) {
+            if (!supported) {
+                return true;
+            }
+            BloomFilter filter = filtersPerKey.get(associationValue.getKey());
+            return filter != null && filter.mightContain(associationValue.getValue());
+        }
+    }
+}
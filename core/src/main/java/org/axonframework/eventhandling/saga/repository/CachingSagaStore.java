@@ -23,8 +23,11 @@
 import org.axonframework.eventsourcing.eventstore.TrackingToken;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Saga Repository implementation that adds caching behavior to the repository it wraps. Both associations and sagas
@@ -85,6 +88,54 @@ public <S extends T> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier)
         return saga;
     }
 
+    @Override
+    public Map<AssociationValue, Set<String>> findSagasForAssociations(Class<? extends T> sagaType,
+                                                                       Set<AssociationValue> associationValues) {
+        Map<AssociationValue, Set<String>> result = new HashMap<>();
+        Set<AssociationValue> misses = new HashSet<>();
+        for (AssociationValue associationValue : associationValues) {
+            Set<String> associations = associationsCache.get(cacheKey(associationValue, sagaType));
+            if (associations == null) {
+                misses.add(associationValue);
+            } else {
+                result.put(associationValue, new HashSet<>(associations));
+            }
+        }
+        if (!misses.isEmpty()) {
+            delegate.findSagasForAssociations(sagaType, misses).forEach((associationValue, associations) -> {
+                associationsCache.put(cacheKey(associationValue, sagaType), associations);
+                result.put(associationValue, new HashSet<>(associations));
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public <S extends T> Map<String, Entry<S>> loadSagas(Class<S> sagaType, Set<String> sagaIdentifiers) {
+        Map<String, Entry<S>> result = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String sagaIdentifier : sagaIdentifiers) {
+            Entry<S> saga = sagaCache.get(sagaIdentifier);
+            if (saga == null) {
+                misses.add(sagaIdentifier);
+            } else {
+                result.put(sagaIdentifier, saga);
+            }
+        }
+        if (!misses.isEmpty()) {
+            delegate.loadSagas(sagaType, misses).forEach((sagaIdentifier, saga) -> {
+                sagaCache.put(sagaIdentifier, new CacheEntry<T>(saga));
+                result.put(sagaIdentifier, saga);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachAssociationValue(Class<? extends T> sagaType, Consumer<AssociationValue> consumer) {
+        delegate.forEachAssociationValue(sagaType, consumer);
+    }
+
     @Override
     public void insertSaga(Class<? extends T> sagaType, String sagaIdentifier, T saga, TrackingToken token,
                            Set<AssociationValue> associationValues) {
@@ -22,6 +22,9 @@
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -66,12 +69,32 @@ public Saga<T> createInstance(String sagaIdentifier, Supplier<T> factoryMethod)
         return doCreateInstance(sagaIdentifier, factoryMethod);
     }
 
-    private void lockSagaAccess(String sagaIdentifier) {
+    /**
+     * Obtains the lock for the saga with given {@code sagaIdentifier} and registers its release in the clean-up phase
+     * of the root of the current {@link UnitOfWork}. Locks are reentrant, allowing this method to be invoked multiple
+     * times for the same saga in one Unit of Work.
+     *
+     * @param sagaIdentifier the identifier of the saga to lock
+     */
+    protected void lockSagaAccess(String sagaIdentifier) {
         UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
         Lock lock = lockFactory.obtainLock(sagaIdentifier);
         unitOfWork.root().onCleanup(u -> lock.release());
     }
 
+    /**
+     * Obtains the locks for the sagas with given {@code sagaIdentifiers}, in the order prescribed by the
+     * {@link LockFactory#lockOrder() lock factory}, and registers their release in the clean-up phase of the root of
+     * the current {@link UnitOfWork}.
+     *
+     * @param sagaIdentifiers the identifiers of the sagas to lock
+     */
+    protected void lockSagaAccess(Collection<String> sagaIdentifiers) {
+        List<String> orderedIdentifiers = new ArrayList<>(sagaIdentifiers);
+        orderedIdentifiers.sort(lockFactory.lockOrder());
+        orderedIdentifiers.forEach(this::lockSagaAccess);
+    }
+
     /**
      * Loads a known Saga instance by its unique identifier.
      * Due to the concurrent nature of Sagas, it is not unlikely for a Saga to have ceased to exist after it has been
@@ -20,7 +20,10 @@
 import org.axonframework.eventhandling.saga.AssociationValues;
 import org.axonframework.eventsourcing.eventstore.TrackingToken;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Provides a mechanism to find, load update and delete sagas of type {@code T} from an underlying storage like a
@@ -53,6 +56,65 @@
      */
     <S extends T> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier);
 
+    /**
+     * Returns the identifiers of saga instances of the given {@code sagaType} for each of the given {@code
+     * associationValues}. This allows the associations of a whole batch of events to be resolved at once.
+     * <p>
+     * The returned map contains an entry for each of the given association values, mapping to an empty set if no
+     * sagas have been associated with that value. The default implementation invokes {@link #findSagas(Class,
+     * AssociationValue)} for each of the given values. Stores that can resolve multiple association values in a single
+     * round trip should override this method.
+     *
+     * @param sagaType          The type of the returned sagas
+     * @param associationValues The values to find associated sagas for
+     * @return A map containing, for each of the given association values, the identifiers of associated sagas
+     */
+    default Map<AssociationValue, Set<String>> findSagasForAssociations(Class<? extends T> sagaType,
+                                                                        Set<AssociationValue> associationValues) {
+        Map<AssociationValue, Set<String>> result = new HashMap<>();
+        for (AssociationValue associationValue : associationValues) {
+            result.put(associationValue, findSagas(sagaType, associationValue));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the saga {@link Entry entries} with given {@code sagaType} and {@code sagaIdentifiers}. Identifiers of
+     * sagas that don't exist (anymore) are absent from the returned map.
+     * <p>
+     * The default implementation invokes {@link #loadSaga(Class, String)} for each of the given identifiers. Stores
+     * that can load multiple sagas in a single round trip should override this method.
+     *
+     * @param sagaType        The type of the returned saga entries
+     * @param sagaIdentifiers The unique identifiers of the saga entries to load
+     * @return A map of saga identifier to saga entry, for each of the sagas found
+     */
+    default <S extends T> Map<String, Entry<S>> loadSagas(Class<S> sagaType, Set<String> sagaIdentifiers) {
+        Map<String, Entry<S>> result = new HashMap<>();
+        for (String sagaIdentifier : sagaIdentifiers) {
+            Entry<S> entry = loadSaga(sagaType, sagaIdentifier);
+            if (entry != null) {
+                result.put(sagaIdentifier, entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes each association value of each stored saga of given {@code sagaType} to the given {@code consumer}. This
+     * allows components to build an index of all associations in the store, for example to avoid looking up
+     * association values that no saga is associated with.
+     * <p>
+     * The default implementation throws an {@link UnsupportedOperationException}.
+     *
+     * @param sagaType The type of sagas to read the association values of
+     * @param consumer The consumer to pass the association values to
+     * @throws UnsupportedOperationException if this store cannot provide all of its association values
+     */
+    default void forEachAssociationValue(Class<? extends T> sagaType, Consumer<AssociationValue> consumer) {
+        throw new UnsupportedOperationException("This saga store cannot provide all of its association values");
+    }
+
     /**
      * Deletes a Saga with given {@code sagaType} and {@code sagaIdentifier} and all its associations. For convenience
      * all known association values are passed along as well, which has the  advantage that the saga store is not
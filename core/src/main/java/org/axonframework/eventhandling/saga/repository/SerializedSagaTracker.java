@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of the serialized form of sagas loaded by a {@link SagaStore}, allowing the store to detect that a saga
+ * hasn't changed when it is updated, and to skip writing its serialized form.
+ * <p>
+ * Serialized sagas are kept as a resource of the root of the current Unit of Work, so they are discarded when the Unit
+ * of Work completes. Outside of a Unit of Work, nothing is tracked and all sagas are considered changed.
+ *
+ * @since 3.4
+ */
+public class SerializedSagaTracker {
+
+    private static final AtomicInteger instanceCounter = new AtomicInteger();
+
+    private final String resourceKey;
+
+    /**
+     * Initializes a tracker that keeps serialized sagas in a Unit of Work resource that is unique to this instance.
+     */
+    public SerializedSagaTracker() {
+        this.resourceKey = "SerializedSagaTracker[" + instanceCounter.incrementAndGet() + "]/SerializedSagas";
+    }
+
+    /**
+     * Registers the given {@code serializedSaga} as the current stored form of the saga with given {@code
+     * sagaIdentifier}.
+     *
+     * @param sagaIdentifier The identifier of the saga
+     * @param serializedSaga The data of the serialized saga, as stored
+     */
+    public void track(String sagaIdentifier, Object serializedSaga) {
+        if (CurrentUnitOfWork.isStarted()) {
+            serializedSagas().put(sagaIdentifier, serializedSaga);
+        }
+    }
+
+    /**
+     * Indicates whether the given {@code serializedSaga} is equal to the stored form of the saga with given {@code
+     * sagaIdentifier}, as registered in the current Unit of Work. Arrays are compared by their content.
+     *
+     * @param sagaIdentifier The identifier of the saga
+     * @param serializedSaga The data of the serialized saga to compare
+     * @return {@code true} if the saga is known to be unchanged, {@code false} otherwise
+     */
+    public boolean isUnchanged(String sagaIdentifier, Object serializedSaga) {
+        if (!CurrentUnitOfWork.isStarted()) {
+            return false;
+        }
+        Map<String, Object> tracked = CurrentUnitOfWork.get().root().getResource(resourceKey);
+        return tracked != null && tracked.containsKey(sagaIdentifier)
+                && Objects.deepEquals(tracked.get(sagaIdentifier), serializedSaga);
+    }
+
+    /**
+     * Stops tracking the saga with given {@code sagaIdentifier} in the current Unit of Work.
+     *
+     * @param sagaIdentifier The identifier of the saga
+     */
+    public void forget(String sagaIdentifier) {
+        if (CurrentUnitOfWork.isStarted()) {
+            Map<String, Object> tracked = CurrentUnitOfWork.get().root().getResource(resourceKey);
+            if (tracked != null) {
+                tracked.remove(sagaIdentifier);
+            }
+        }
+    }
+
+    private Map<String, Object> serializedSagas() {
+        return CurrentUnitOfWork.get().root().getOrComputeResource(resourceKey, k -> new ConcurrentHashMap<>());
+    }
+}
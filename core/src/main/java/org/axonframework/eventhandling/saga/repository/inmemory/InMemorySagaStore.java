@@ -18,14 +18,15 @@
 
 import org.axonframework.eventhandling.saga.AssociationValue;
 import org.axonframework.eventhandling.saga.AssociationValues;
+import org.axonframework.eventhandling.saga.repository.AssociationValueMap;
 import org.axonframework.eventhandling.saga.repository.SagaStore;
 import org.axonframework.eventsourcing.eventstore.TrackingToken;
 
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * SagaRepository implementation that stores all Saga instances in memory.
@@ -35,21 +36,35 @@
  */
 public class InMemorySagaStore implements SagaStore<Object> {
 
+    private static final String ALL_SAGA_TYPES = "";
+
     private final ConcurrentMap<String, ManagedSaga> managedSagas = new ConcurrentHashMap<>();
+    private final AssociationValueMap associations = new AssociationValueMap();
 
     @Override
     public Set<String> findSagas(Class<?> sagaType, AssociationValue associationValue) {
-        return managedSagas.entrySet()
-                .stream()
-                .filter(avEntry -> sagaType.isInstance(avEntry.getValue().saga()))
-                .filter(avEntry -> avEntry.getValue().associationValues().contains(associationValue))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+        Set<String> sagaIdentifiers = associations.findSagas(ALL_SAGA_TYPES, associationValue);
+        sagaIdentifiers.removeIf(sagaIdentifier -> {
+            ManagedSaga managedSaga = managedSagas.get(sagaIdentifier);
+            return managedSaga == null || !sagaType.isInstance(managedSaga.saga())
+                    || !managedSaga.associationValues().contains(associationValue);
+        });
+        return sagaIdentifiers;
+    }
+
+    @Override
+    public void forEachAssociationValue(Class<?> sagaType, Consumer<AssociationValue> consumer) {
+        managedSagas.values().stream()
+                    .filter(managedSaga -> sagaType.isInstance(managedSaga.saga()))
+                    .forEach(managedSaga -> managedSaga.associationValues().forEach(consumer));
     }
 
     @Override
     public void deleteSaga(Class<?> sagaType, String sagaIdentifier, Set<AssociationValue> associationValues) {
-        managedSagas.remove(sagaIdentifier);
+        ManagedSaga removed = managedSagas.remove(sagaIdentifier);
+        if (removed != null) {
+            removed.associationValues().forEach(av -> associations.remove(av, ALL_SAGA_TYPES, sagaIdentifier));
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -60,12 +75,22 @@ public <S> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
 
     @Override
     public void insertSaga(Class<?> sagaType, String sagaIdentifier, Object saga, TrackingToken token, Set<AssociationValue> associationValues) {
-        managedSagas.put(sagaIdentifier, new ManagedSaga(saga, associationValues));
+        store(sagaIdentifier, new ManagedSaga(saga, new HashSet<>(associationValues)));
     }
 
     @Override
     public void updateSaga(Class<?> sagaType, String sagaIdentifier, Object saga, TrackingToken token, AssociationValues associationValues) {
-        managedSagas.put(sagaIdentifier, new ManagedSaga(saga, associationValues.asSet()));
+        store(sagaIdentifier, new ManagedSaga(saga, new HashSet<>(associationValues.asSet())));
+    }
+
+    private void store(String sagaIdentifier, ManagedSaga managedSaga) {
+        managedSaga.associationValues().forEach(av -> associations.add(av, ALL_SAGA_TYPES, sagaIdentifier));
+        ManagedSaga previous = managedSagas.put(sagaIdentifier, managedSaga);
+        if (previous != null) {
+            previous.associationValues().stream()
+                    .filter(av -> !managedSaga.associationValues().contains(av))
+                    .forEach(av -> associations.remove(av, ALL_SAGA_TYPES, sagaIdentifier));
+        }
     }
 
     /**
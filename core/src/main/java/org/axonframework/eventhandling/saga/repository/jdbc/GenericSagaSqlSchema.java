@@ -23,7 +23,12 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -117,6 +122,87 @@ public PreparedStatement sql_findAssociations(Connection connection, String saga
         return preparedStatement;
     }
 
+    @Override
+    public PreparedStatement sql_findAssocSagaIdentifiers(Connection connection,
+                                                          Collection<AssociationValue> associationValues,
+                                                          String sagaType) throws SQLException {
+        Map<String, List<String>> valuesByKey = new LinkedHashMap<>();
+        for (AssociationValue associationValue : associationValues) {
+            valuesByKey.computeIfAbsent(associationValue.getKey(), k -> new ArrayList<>())
+                       .add(associationValue.getValue());
+        }
+        StringBuilder sql = new StringBuilder("SELECT associationKey, associationValue, sagaId FROM ")
+                .append(sagaSchema.associationValueEntryTable())
+                .append(" WHERE sagaType = ? AND (");
+        boolean first = true;
+        for (List<String> values : valuesByKey.values()) {
+            if (!first) {
+                sql.append(" OR ");
+            }
+            sql.append("(associationKey = ? AND associationValue IN (")
+               .append(placeholders(values.size()))
+               .append("))");
+            first = false;
+        }
+        sql.append(")");
+        PreparedStatement preparedStatement = connection.prepareStatement(sql.toString());
+        int index = 1;
+        preparedStatement.setString(index++, sagaType);
+        for (Map.Entry<String, List<String>> entry : valuesByKey.entrySet()) {
+            preparedStatement.setString(index++, entry.getKey());
+            for (String value : entry.getValue()) {
+                preparedStatement.setString(index++, value);
+            }
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public PreparedStatement sql_loadSagas(Connection connection, Collection<String> sagaIdentifiers)
+            throws SQLException {
+        final String sql = "SELECT serializedSaga, sagaType, revision, sagaId FROM " + sagaSchema.sagaEntryTable()
+                + " WHERE sagaId IN (" + placeholders(sagaIdentifiers.size()) + ")";
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        int index = 1;
+        for (String sagaIdentifier : sagaIdentifiers) {
+            preparedStatement.setString(index++, sagaIdentifier);
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public PreparedStatement sql_findAssociations(Connection connection, Collection<String> sagaIdentifiers,
+                                                  String sagaType) throws SQLException {
+        final String sql = "SELECT associationKey, associationValue, sagaId FROM "
+                + sagaSchema.associationValueEntryTable()
+                + " WHERE sagaType = ?"
+                + " AND sagaId IN (" + placeholders(sagaIdentifiers.size()) + ")";
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        preparedStatement.setString(1, sagaType);
+        int index = 2;
+        for (String sagaIdentifier : sagaIdentifiers) {
+            preparedStatement.setString(index++, sagaIdentifier);
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public PreparedStatement sql_findAllAssociations(Connection connection, String sagaType) throws SQLException {
+        final String sql = "SELECT associationKey, associationValue FROM " + sagaSchema.associationValueEntryTable()
+                + " WHERE sagaType = ?";
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        preparedStatement.setString(1, sagaType);
+        return preparedStatement;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
     @Override
     public String readToken(ResultSet resultSet) {
         // tokens not supported by this implementation
@@ -23,6 +23,7 @@
 import org.axonframework.eventhandling.saga.AssociationValues;
 import org.axonframework.eventhandling.saga.SagaStorageException;
 import org.axonframework.eventhandling.saga.repository.SagaStore;
+import org.axonframework.eventhandling.saga.repository.SerializedSagaTracker;
 import org.axonframework.eventhandling.saga.repository.jpa.SagaEntry;
 import org.axonframework.eventsourcing.eventstore.TrackingToken;
 import org.axonframework.serialization.SerializedObject;
@@ -37,9 +38,15 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
+import static org.axonframework.common.CollectionUtils.partition;
 import static org.axonframework.common.jdbc.JdbcUtils.closeQuietly;
 
 
@@ -56,10 +63,16 @@ public class JdbcSagaStore implements SagaStore<Object> {
 
     private static final Logger logger = LoggerFactory.getLogger(JdbcSagaStore.class);
 
+    // keeps the number of parameters per statement well within the limits of common databases
+    private static final int MAX_BATCH_QUERY_SIZE = 500;
+
     private Serializer serializer;
     private final ConnectionProvider connectionProvider;
 
     private final SagaSqlSchema sqldef;
+    private final SerializedSagaTracker serializedSagaTracker = new SerializedSagaTracker();
+    private volatile boolean batchQueriesSupported = true;
+    private volatile boolean skipUnchangedSagaUpdates = true;
 
     /**
      * Initializes a Saga Repository, using given {@code connectionProvider} to obtain connections to the
@@ -126,6 +139,7 @@ public <S> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
             if (serializedSaga == null) {
                 return null;
             }
+            serializedSagaTracker.track(sagaIdentifier, serializedSaga.getData());
             S loadedSaga = serializer.deserialize(serializedSaga);
             if (logger.isDebugEnabled()) {
                 logger.debug("Loaded saga id [{}] of type [{}]", sagaIdentifier, loadedSaga.getClass().getName());
@@ -167,11 +181,144 @@ public Set<String> findSagas(Class<?> sagaType, AssociationValue associationValu
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the association values with a single query per (at most) 500 values, unless the
+     * configured {@link SagaSqlSchema} doesn't support it.
+     */
+    @Override
+    public Map<AssociationValue, Set<String>> findSagasForAssociations(Class<?> sagaType,
+                                                                       Set<AssociationValue> associationValues) {
+        if (batchQueriesSupported && associationValues.size() > 1) {
+            Connection conn = null;
+            try {
+                conn = connectionProvider.getConnection();
+                String sagaTypeName = sagaTypeName(sagaType);
+                Map<AssociationValue, Set<String>> result = new HashMap<>();
+                associationValues.forEach(associationValue -> result.put(associationValue, new TreeSet<>()));
+                for (List<AssociationValue> chunk : partition(associationValues, MAX_BATCH_QUERY_SIZE)) {
+                    PreparedStatement statement = sqldef.sql_findAssocSagaIdentifiers(conn, chunk, sagaTypeName);
+                    ResultSet resultSet = null;
+                    try {
+                        resultSet = statement.executeQuery();
+                        while (resultSet.next()) {
+                            Set<String> sagaIdentifiers = result.get(
+                                    new AssociationValue(resultSet.getString(1), resultSet.getString(2)));
+                            if (sagaIdentifiers != null) {
+                                sagaIdentifiers.add(resultSet.getString(3));
+                            }
+                        }
+                    } finally {
+                        closeQuietly(resultSet);
+                        closeQuietly(statement);
+                    }
+                }
+                return result;
+            } catch (UnsupportedOperationException e) {
+                logger.debug("SQL schema does not support batch queries. Falling back to a query per association.");
+                batchQueriesSupported = false;
+            } catch (SQLException e) {
+                throw new SagaStorageException("Exception while reading saga associations", e);
+            } finally {
+                closeQuietly(conn);
+            }
+        }
+        return SagaStore.super.findSagasForAssociations(sagaType, associationValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation loads the sagas and their associations with two queries per (at most) 500 sagas, unless the
+     * configured {@link SagaSqlSchema} doesn't support it.
+     */
+    @Override
+    public <S> Map<String, Entry<S>> loadSagas(Class<S> sagaType, Set<String> sagaIdentifiers) {
+        if (batchQueriesSupported && sagaIdentifiers.size() > 1) {
+            Connection conn = null;
+            try {
+                conn = connectionProvider.getConnection();
+                Map<String, SerializedObject<?>> serializedSagas = new HashMap<>();
+                for (List<String> chunk : partition(sagaIdentifiers, MAX_BATCH_QUERY_SIZE)) {
+                    PreparedStatement statement = sqldef.sql_loadSagas(conn, chunk);
+                    ResultSet resultSet = null;
+                    try {
+                        resultSet = statement.executeQuery();
+                        while (resultSet.next()) {
+                            serializedSagas.put(resultSet.getString(4), sqldef.readSerializedSaga(resultSet));
+                        }
+                    } finally {
+                        closeQuietly(resultSet);
+                        closeQuietly(statement);
+                    }
+                }
+                String sagaTypeName = sagaTypeName(sagaType);
+                Map<String, Set<AssociationValue>> associations = new HashMap<>();
+                for (List<String> chunk : partition(serializedSagas.keySet(), MAX_BATCH_QUERY_SIZE)) {
+                    PreparedStatement statement = sqldef.sql_findAssociations(conn, chunk, sagaTypeName);
+                    ResultSet resultSet = null;
+                    try {
+                        resultSet = statement.executeQuery();
+                        while (resultSet.next()) {
+                            associations.computeIfAbsent(resultSet.getString(3), id -> new HashSet<>())
+                                        .add(new AssociationValue(resultSet.getString(1), resultSet.getString(2)));
+                        }
+                    } finally {
+                        closeQuietly(resultSet);
+                        closeQuietly(statement);
+                    }
+                }
+                Map<String, Entry<S>> result = new HashMap<>();
+                serializedSagas.forEach((sagaIdentifier, serializedSaga) -> {
+                    serializedSagaTracker.track(sagaIdentifier, serializedSaga.getData());
+                    S loadedSaga = serializer.deserialize(serializedSaga);
+                    result.put(sagaIdentifier, new EntryImpl<>(
+                            associations.getOrDefault(sagaIdentifier, new HashSet<>()), loadedSaga));
+                });
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Loaded {} sagas of type [{}]", result.size(), sagaType.getName());
+                }
+                return result;
+            } catch (UnsupportedOperationException e) {
+                logger.debug("SQL schema does not support batch queries. Falling back to a query per saga.");
+                batchQueriesSupported = false;
+            } catch (SQLException e) {
+                throw new SagaStorageException("Exception while loading Sagas", e);
+            } finally {
+                closeQuietly(conn);
+            }
+        }
+        return SagaStore.super.loadSagas(sagaType, sagaIdentifiers);
+    }
+
+    @Override
+    public void forEachAssociationValue(Class<?> sagaType, Consumer<AssociationValue> consumer) {
+        ResultSet resultSet = null;
+        PreparedStatement statement = null;
+        Connection conn = null;
+        try {
+            conn = connectionProvider.getConnection();
+            statement = sqldef.sql_findAllAssociations(conn, sagaTypeName(sagaType));
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                consumer.accept(new AssociationValue(resultSet.getString(1), resultSet.getString(2)));
+            }
+        } catch (SQLException e) {
+            throw new SagaStorageException("Exception while reading saga associations", e);
+        } finally {
+            closeQuietly(statement);
+            closeQuietly(resultSet);
+            closeQuietly(conn);
+        }
+    }
+
     @Override
     public void deleteSaga(Class<?> sagaType, String sagaIdentifier, Set<AssociationValue> associationValues) {
         PreparedStatement statement1 = null;
         PreparedStatement statement2 = null;
         Connection conn = null;
+        serializedSagaTracker.forget(sagaIdentifier);
         try {
             conn = connectionProvider.getConnection();
             statement1 = sqldef.sql_deleteAssociationEntries(conn, sagaIdentifier);
@@ -200,14 +347,21 @@ public void updateSaga(Class<?> sagaType, String sagaIdentifier, Object saga, Tr
         Connection conn = null;
         try {
             conn = connectionProvider.getConnection();
-            statement = sqldef.sql_updateSaga(conn,
-                                              entry.getSagaId(),
-                                              entry.getSerializedSaga(),
-                                              entry.getSagaType(),
-                                              entry.getRevision()
-            );
-            updateCount = statement.executeUpdate();
+            if (skipUnchangedSagaUpdates
+                    && serializedSagaTracker.isUnchanged(sagaIdentifier, entry.getSerializedSaga())) {
+                logger.debug("Saga id {} has not changed. Skipping update of its serialized form.", sagaIdentifier);
+                updateCount = 1;
+            } else {
+                statement = sqldef.sql_updateSaga(conn,
+                                                  entry.getSagaId(),
+                                                  entry.getSerializedSaga(),
+                                                  entry.getSagaType(),
+                                                  entry.getRevision()
+                );
+                updateCount = statement.executeUpdate();
+            }
             if (updateCount != 0) {
+                serializedSagaTracker.track(sagaIdentifier, entry.getSerializedSaga());
                 for (AssociationValue associationValue : associationValues.addedAssociations()) {
                     closeQuietly(statement);
                     statement = sqldef.sql_storeAssocValue(conn,
@@ -255,6 +409,7 @@ public void insertSaga(Class<?> sagaType, String sagaIdentifier, Object saga, Tr
             statement = sqldef.sql_storeSaga(conn, entry.getSagaId(), entry.getRevision(), entry.getSagaType(),
                                              entry.getSerializedSaga());
             statement.executeUpdate();
+            serializedSagaTracker.track(sagaIdentifier, entry.getSerializedSaga());
 
             for (AssociationValue associationValue : associationValues) {
                 closeQuietly(statement);
@@ -287,6 +442,17 @@ public void setSerializer(Serializer serializer) {
         this.serializer = serializer;
     }
 
+    /**
+     * Sets whether updates of sagas of which the serialized form is equal to the form they were loaded with in the
+     * current Unit of Work should skip writing the serialized saga. Changes to the associations of such sagas are
+     * always written. Defaults to {@code true}.
+     *
+     * @param skipUnchangedSagaUpdates whether to skip writing unchanged sagas
+     */
+    public void setSkipUnchangedSagaUpdates(boolean skipUnchangedSagaUpdates) {
+        this.skipUnchangedSagaUpdates = skipUnchangedSagaUpdates;
+    }
+
     /**
      * Creates the SQL Schema required to store Sagas and their associations,.
      *
@@ -22,6 +22,7 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -102,6 +103,78 @@ PreparedStatement sql_findAssocSagaIdentifiers(Connection connection, String key
     PreparedStatement sql_findAssociations(Connection connection, String sagaIdentifier,
                                            String sagaType) throws SQLException;
 
+    /**
+     * Creates a PreparedStatement that finds identifiers of Sagas of given {@code sagaType} associated with any of the
+     * given {@code associationValues}. The ResultSet created by the statement must contain the association key, the
+     * association value and the saga identifier, in that order.
+     * <p>
+     * The default implementation throws an {@link UnsupportedOperationException}, causing the {@link JdbcSagaStore}
+     * to look up each association value with a separate query instead.
+     *
+     * @param connection        The connection to create the PreparedStatement for
+     * @param associationValues The association values to find saga identifiers for
+     * @param sagaType          The type of saga to find associations for
+     * @return a PreparedStatement that creates a ResultSet containing association keys, values and saga identifiers
+     * @throws SQLException when an error occurs creating the PreparedStatement
+     */
+    default PreparedStatement sql_findAssocSagaIdentifiers(Connection connection,
+                                                           Collection<AssociationValue> associationValues,
+                                                           String sagaType) throws SQLException {
+        throw new UnsupportedOperationException("This schema does not support finding multiple associations at once");
+    }
+
+    /**
+     * Creates a PreparedStatement that loads the Sagas with given {@code sagaIdentifiers}. The ResultSet created by
+     * the statement must be readable by {@link #readSerializedSaga(ResultSet)} and must contain the saga identifier as
+     * its fourth column.
+     * <p>
+     * The default implementation throws an {@link UnsupportedOperationException}, causing the {@link JdbcSagaStore}
+     * to load each saga with a separate query instead.
+     *
+     * @param connection      The connection to create the PreparedStatement for
+     * @param sagaIdentifiers The identifiers of the Sagas to load
+     * @return a statement that creates a result set containing the serialized sagas and their identifiers
+     * @throws SQLException when an error occurs creating the PreparedStatement
+     */
+    default PreparedStatement sql_loadSagas(Connection connection, Collection<String> sagaIdentifiers)
+            throws SQLException {
+        throw new UnsupportedOperationException("This schema does not support loading multiple sagas at once");
+    }
+
+    /**
+     * Creates a PreparedStatement that finds the associations of the Sagas of given {@code sagaType} and given {@code
+     * sagaIdentifiers}. The ResultSet created by the statement must contain the association key, the association value
+     * and the saga identifier, in that order.
+     * <p>
+     * The default implementation throws an {@link UnsupportedOperationException}, causing the {@link JdbcSagaStore}
+     * to load each saga with a separate query instead.
+     *
+     * @param connection      The connection to create the PreparedStatement for
+     * @param sagaIdentifiers The identifiers of the Sagas
+     * @param sagaType        The type of saga to find associations for
+     * @return a PreparedStatement that creates a ResultSet containing association keys, values and saga identifiers
+     * @throws SQLException when an error occurs while creating the PreparedStatement
+     */
+    default PreparedStatement sql_findAssociations(Connection connection, Collection<String> sagaIdentifiers,
+                                                   String sagaType) throws SQLException {
+        throw new UnsupportedOperationException("This schema does not support loading multiple sagas at once");
+    }
+
+    /**
+     * Creates a PreparedStatement that finds the associations of all Sagas of given {@code sagaType}. The ResultSet
+     * created by the statement must contain the association key and the association value, in that order.
+     * <p>
+     * The default implementation throws an {@link UnsupportedOperationException}.
+     *
+     * @param connection The connection to create the PreparedStatement for
+     * @param sagaType   The type of saga to find associations for
+     * @return a PreparedStatement that creates a ResultSet containing association keys and their values
+     * @throws SQLException when an error occurs while creating the PreparedStatement
+     */
+    default PreparedStatement sql_findAllAssociations(Connection connection, String sagaType) throws SQLException {
+        throw new UnsupportedOperationException("This schema does not support reading all associations");
+    }
+
     /**
      * Creates a PreparedStatement that deletes a Saga with given {@code sagaIdentifier}.
      *
@@ -21,6 +21,7 @@
 import org.axonframework.eventhandling.saga.AssociationValue;
 import org.axonframework.eventhandling.saga.AssociationValues;
 import org.axonframework.eventhandling.saga.repository.SagaStore;
+import org.axonframework.eventhandling.saga.repository.SerializedSagaTracker;
 import org.axonframework.eventsourcing.eventstore.TrackingToken;
 import org.axonframework.serialization.Serializer;
 import org.axonframework.serialization.SimpleSerializedObject;
@@ -29,15 +30,20 @@
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
 
+import static org.axonframework.common.CollectionUtils.partition;
+
 /**
  * JPA implementation of the Saga Store. It uses an {@link javax.persistence.EntityManager} to persist the actual saga
  * in a backing store in serialized form.
@@ -53,6 +59,10 @@ public class JpaSagaStore implements SagaStore<Object> {
 
     private static final Logger logger = LoggerFactory.getLogger(JpaSagaStore.class);
 
+    // keeps the number of parameters per query well within the limits of common databases
+    private static final int MAX_BATCH_QUERY_SIZE = 500;
+    private static final int ASSOCIATIONS_PAGE_SIZE = 1000;
+
 
     // Saga Queries, non-final to inject the return type and table name.
     private final String LOAD_SAGA_QUERY =
@@ -61,6 +71,10 @@ public class JpaSagaStore implements SagaStore<Object> {
                     "WHERE se.sagaId = :sagaId";
 
 
+    private final String LOAD_SAGAS_QUERY =
+            "SELECT se.sagaId, se.serializedSaga, se.sagaType, se.revision FROM " + sagaEntryEntityName() + " se " +
+                    "WHERE se.sagaId IN :sagaIds";
+
     private final String DELETE_SAGA_QUERY = "DELETE FROM " + sagaEntryEntityName() + " se WHERE se.sagaId = :id";
 
     private final String UPDATE_SAGA_QUERY =
@@ -77,6 +91,17 @@ public class JpaSagaStore implements SagaStore<Object> {
             "SELECT ae.sagaId FROM AssociationValueEntry ae WHERE ae.associationKey = :associationKey " +
                     "AND ae.associationValue = :associationValue AND ae.sagaType = :sagaType";
 
+    private static final String FIND_ASSOCIATION_IDS_BATCH_QUERY =
+            "SELECT ae FROM AssociationValueEntry ae WHERE ae.sagaType = :sagaType " +
+                    "AND ae.associationKey IN :associationKeys AND ae.associationValue IN :associationValues";
+
+    private static final String FIND_ASSOCIATIONS_BATCH_QUERY =
+            "SELECT ae FROM AssociationValueEntry ae WHERE ae.sagaType = :sagaType AND ae.sagaId IN :sagaIds";
+
+    private static final String FIND_ALL_ASSOCIATIONS_QUERY =
+            "SELECT ae.associationKey, ae.associationValue FROM AssociationValueEntry ae " +
+                    "WHERE ae.sagaType = :sagaType ORDER BY ae.id";
+
     private static final String FIND_ASSOCIATIONS_QUERY =
             "SELECT ae FROM AssociationValueEntry ae WHERE ae.sagaType = :sagaType AND ae.sagaId = :sagaId";
 
@@ -84,16 +109,22 @@ public class JpaSagaStore implements SagaStore<Object> {
             "DELETE FROM AssociationValueEntry ae WHERE ae.sagaId = :sagaId";
 
     private static final String LOAD_SAGA_NAMED_QUERY = "LOAD_SAGA_NAMED_QUERY";
+    private static final String LOAD_SAGAS_NAMED_QUERY = "LOAD_SAGAS_NAMED_QUERY";
     private static final String DELETE_ASSOCIATION_NAMED_QUERY = "DELETE_ASSOCIATION_NAMED_QUERY";
     private static final String FIND_ASSOCIATION_IDS_NAMED_QUERY = "FIND_ASSOCIATION_IDS_NAMED_QUERY";
     private static final String FIND_ASSOCIATIONS_NAMED_QUERY = "FIND_ASSOCIATIONS_NAMED_QUERY";
+    private static final String FIND_ASSOCIATION_IDS_BATCH_NAMED_QUERY = "FIND_ASSOCIATION_IDS_BATCH_NAMED_QUERY";
+    private static final String FIND_ASSOCIATIONS_BATCH_NAMED_QUERY = "FIND_ASSOCIATIONS_BATCH_NAMED_QUERY";
+    private static final String FIND_ALL_ASSOCIATIONS_NAMED_QUERY = "FIND_ALL_ASSOCIATIONS_NAMED_QUERY";
     private static final String DELETE_ASSOCIATIONS_NAMED_QUERY = "DELETE_ASSOCIATIONS_NAMED_QUERY";
     private static final String DELETE_SAGA_NAMED_QUERY = "DELETE_SAGA_NAMED_QUERY";
     private static final String UPDATE_SAGA_NAMED_QUERY = "UPDATE_SAGA_NAMED_QUERY";
 
     private final EntityManagerProvider entityManagerProvider;
     private final Serializer serializer;
+    private final SerializedSagaTracker serializedSagaTracker = new SerializedSagaTracker();
     private volatile boolean useExplicitFlush = true;
+    private volatile boolean skipUnchangedSagaUpdates = true;
 
     /**
      * Initializes a Saga Repository with an {@link XStreamSerializer} and given {@code entityManagerProvider}.
@@ -119,6 +150,7 @@ public JpaSagaStore(Serializer serializer, EntityManagerProvider entityManagerPr
         EntityManager entityManager = this.entityManagerProvider.getEntityManager();
         EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
         entityManagerFactory.addNamedQuery(LOAD_SAGA_NAMED_QUERY, entityManager.createQuery(LOAD_SAGA_QUERY));
+        entityManagerFactory.addNamedQuery(LOAD_SAGAS_NAMED_QUERY, entityManager.createQuery(LOAD_SAGAS_QUERY));
         entityManagerFactory
                 .addNamedQuery(DELETE_ASSOCIATION_NAMED_QUERY, entityManager.createQuery(DELETE_ASSOCIATION_QUERY));
         entityManagerFactory
@@ -127,6 +159,12 @@ public JpaSagaStore(Serializer serializer, EntityManagerProvider entityManagerPr
                 .addNamedQuery(DELETE_ASSOCIATIONS_NAMED_QUERY, entityManager.createQuery(DELETE_ASSOCIATIONS_QUERY));
         entityManagerFactory
                 .addNamedQuery(FIND_ASSOCIATIONS_NAMED_QUERY, entityManager.createQuery(FIND_ASSOCIATIONS_QUERY));
+        entityManagerFactory.addNamedQuery(FIND_ASSOCIATION_IDS_BATCH_NAMED_QUERY,
+                                           entityManager.createQuery(FIND_ASSOCIATION_IDS_BATCH_QUERY));
+        entityManagerFactory.addNamedQuery(FIND_ASSOCIATIONS_BATCH_NAMED_QUERY,
+                                           entityManager.createQuery(FIND_ASSOCIATIONS_BATCH_QUERY));
+        entityManagerFactory.addNamedQuery(FIND_ALL_ASSOCIATIONS_NAMED_QUERY,
+                                           entityManager.createQuery(FIND_ALL_ASSOCIATIONS_QUERY));
         entityManagerFactory.addNamedQuery(DELETE_SAGA_NAMED_QUERY, entityManager.createQuery(DELETE_SAGA_QUERY));
         entityManagerFactory.addNamedQuery(UPDATE_SAGA_NAMED_QUERY, entityManager.createQuery(UPDATE_SAGA_QUERY));
     }
@@ -147,6 +185,7 @@ public <S> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
         }
 
         final SimpleSerializedObject<?> serializedSaga = serializedSagaList.get(0);
+        serializedSagaTracker.track(sagaIdentifier, serializedSaga.getData());
         S loadedSaga = serializer.deserialize(serializedSaga);
         Set<AssociationValue> associationValues = loadAssociationValues(entityManager, sagaType, sagaIdentifier);
         if (logger.isDebugEnabled()) {
@@ -225,9 +264,110 @@ public Set<String> findSagas(Class<?> sagaType, AssociationValue associationValu
         return new TreeSet<>(entries);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the association values with a single query per (at most) 500 values.
+     */
+    @Override
+    public Map<AssociationValue, Set<String>> findSagasForAssociations(Class<?> sagaType,
+                                                                       Set<AssociationValue> associationValues) {
+        if (associationValues.size() <= 1) {
+            return SagaStore.super.findSagasForAssociations(sagaType, associationValues);
+        }
+        EntityManager entityManager = entityManagerProvider.getEntityManager();
+        Map<AssociationValue, Set<String>> result = new HashMap<>();
+        associationValues.forEach(associationValue -> result.put(associationValue, new TreeSet<>()));
+        for (List<AssociationValue> chunk : partition(associationValues, MAX_BATCH_QUERY_SIZE)) {
+            Set<String> keys = chunk.stream().map(AssociationValue::getKey).collect(Collectors.toSet());
+            Set<String> values = chunk.stream().map(AssociationValue::getValue).collect(Collectors.toSet());
+            List<AssociationValueEntry> entries =
+                    entityManager.createNamedQuery(FIND_ASSOCIATION_IDS_BATCH_NAMED_QUERY, AssociationValueEntry.class)
+                                 .setParameter("sagaType", getSagaTypeName(sagaType))
+                                 .setParameter("associationKeys", keys)
+                                 .setParameter("associationValues", values)
+                                 .getResultList();
+            // the query may return combinations of keys and values that weren't asked for
+            for (AssociationValueEntry entry : entries) {
+                Set<String> sagaIdentifiers = result.get(entry.getAssociationValue());
+                if (sagaIdentifiers != null) {
+                    sagaIdentifiers.add(entry.getSagaIdentifier());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation loads the sagas and their associations with two queries per (at most) 500 sagas.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> Map<String, Entry<S>> loadSagas(Class<S> sagaType, Set<String> sagaIdentifiers) {
+        if (sagaIdentifiers.size() <= 1) {
+            return SagaStore.super.loadSagas(sagaType, sagaIdentifiers);
+        }
+        EntityManager entityManager = entityManagerProvider.getEntityManager();
+        Map<String, Entry<S>> result = new HashMap<>();
+        for (List<String> chunk : partition(sagaIdentifiers, MAX_BATCH_QUERY_SIZE)) {
+            List<Object[]> serializedSagas = entityManager.createNamedQuery(LOAD_SAGAS_NAMED_QUERY, Object[].class)
+                                                          .setParameter("sagaIds", chunk)
+                                                          .getResultList();
+            if (serializedSagas.isEmpty()) {
+                continue;
+            }
+            Map<String, Set<AssociationValue>> associations = new HashMap<>();
+            entityManager.createNamedQuery(FIND_ASSOCIATIONS_BATCH_NAMED_QUERY, AssociationValueEntry.class)
+                         .setParameter("sagaType", getSagaTypeName(sagaType))
+                         .setParameter("sagaIds", chunk)
+                         .getResultList()
+                         .forEach(entry -> associations
+                                 .computeIfAbsent(entry.getSagaIdentifier(), id -> new HashSet<>())
+                                 .add(entry.getAssociationValue()));
+            for (Object[] row : serializedSagas) {
+                String sagaIdentifier = (String) row[0];
+                Object data = row[1];
+                serializedSagaTracker.track(sagaIdentifier, data);
+                S loadedSaga = serializer.deserialize(new SimpleSerializedObject<>(
+                        data, (Class<Object>) data.getClass(), (String) row[2], (String) row[3]));
+                result.put(sagaIdentifier, new EntryImpl<>(
+                        associations.getOrDefault(sagaIdentifier, new HashSet<>()), loadedSaga));
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Loaded {} sagas of type [{}]", result.size(), sagaType.getName());
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the association values in pages of 1000 entries.
+     */
+    @Override
+    public void forEachAssociationValue(Class<?> sagaType, Consumer<AssociationValue> consumer) {
+        EntityManager entityManager = entityManagerProvider.getEntityManager();
+        String sagaTypeName = getSagaTypeName(sagaType);
+        int offset = 0;
+        List<Object[]> page;
+        do {
+            page = entityManager.createNamedQuery(FIND_ALL_ASSOCIATIONS_NAMED_QUERY, Object[].class)
+                                .setParameter("sagaType", sagaTypeName)
+                                .setFirstResult(offset)
+                                .setMaxResults(ASSOCIATIONS_PAGE_SIZE)
+                                .getResultList();
+            page.forEach(row -> consumer.accept(new AssociationValue((String) row[0], (String) row[1])));
+            offset += page.size();
+        } while (page.size() == ASSOCIATIONS_PAGE_SIZE);
+    }
+
     @Override
     public void deleteSaga(Class<?> sagaType, String sagaIdentifier, Set<AssociationValue> associationValues) {
         EntityManager entityManager = entityManagerProvider.getEntityManager();
+        serializedSagaTracker.forget(sagaIdentifier);
         try {
             entityManager.createNamedQuery(DELETE_ASSOCIATIONS_NAMED_QUERY)
                          .setParameter("sagaId", sagaIdentifier)
@@ -254,11 +394,21 @@ public void updateSaga(Class<?> sagaType, String sagaIdentifier, Object saga, Tr
         if (logger.isDebugEnabled()) {
             logger.debug("Updating saga id {} as {}", sagaIdentifier, serializedSagaAsString(entry));
         }
-        int updateCount = entityManager.createNamedQuery(UPDATE_SAGA_NAMED_QUERY)
+        int updateCount;
+        if (skipUnchangedSagaUpdates
+                && serializedSagaTracker.isUnchanged(sagaIdentifier, entry.getSerializedSaga())) {
+            logger.debug("Saga id {} has not changed. Skipping update of its serialized form.", sagaIdentifier);
+            updateCount = 1;
+        } else {
+            updateCount = entityManager.createNamedQuery(UPDATE_SAGA_NAMED_QUERY)
                                        .setParameter("serializedSaga", entry.getSerializedSaga())
                                        .setParameter("revision", entry.getRevision())
                                        .setParameter("sagaId", entry.getSagaId())
                                        .executeUpdate();
+            if (updateCount != 0) {
+                serializedSagaTracker.track(sagaIdentifier, entry.getSerializedSaga());
+            }
+        }
         for (AssociationValue associationValue : associationValues.addedAssociations()) {
             storeAssociationValue(entityManager, sagaType, sagaIdentifier, associationValue);
         }
@@ -287,6 +437,7 @@ public void insertSaga(Class<?> sagaType, String sagaIdentifier, Object saga, Tr
         EntityManager entityManager = entityManagerProvider.getEntityManager();
         AbstractSagaEntry<?> entry = createSagaEntry(saga, sagaIdentifier, serializer);
         entityManager.persist(entry);
+        serializedSagaTracker.track(sagaIdentifier, entry.getSerializedSaga());
         for (AssociationValue associationValue : associationValues) {
             storeAssociationValue(entityManager, sagaType, sagaIdentifier, associationValue);
         }
@@ -308,6 +459,17 @@ public void setUseExplicitFlush(boolean useExplicitFlush) {
         this.useExplicitFlush = useExplicitFlush;
     }
 
+    /**
+     * Sets whether updates of sagas of which the serialized form is equal to the form they were loaded with in the
+     * current Unit of Work should skip writing the serialized saga. Changes to the associations of such sagas are
+     * always written. Defaults to {@code true}.
+     *
+     * @param skipUnchangedSagaUpdates whether to skip writing unchanged sagas
+     */
+    public void setSkipUnchangedSagaUpdates(boolean skipUnchangedSagaUpdates) {
+        this.skipUnchangedSagaUpdates = skipUnchangedSagaUpdates;
+    }
+
     /**
      * Intended for clients to override. Defaults to {@link SagaEntry}.
      *
@@ -22,11 +22,14 @@
 import org.axonframework.common.caching.Cache;
 import org.axonframework.common.lock.LockFactory;
 import org.axonframework.common.lock.PessimisticLockFactory;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
 import org.axonframework.eventsourcing.eventstore.EventStore;
 import org.axonframework.messaging.annotation.ClasspathHandlerDefinition;
 import org.axonframework.messaging.annotation.HandlerDefinition;
 import org.axonframework.messaging.annotation.ParameterResolverFactory;
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.Callable;
 
@@ -37,6 +40,11 @@
  * <p>
  * Note that an entry of a cached aggregate is immediately invalidated when an error occurs while saving that
  * aggregate. This is done to prevent the cache from returning aggregates that may not have fully persisted to disk.
+ * <p>
+ * Optionally, an {@link OffHeapSnapshotCache} can be configured as a second tier, which holds the serialized state of
+ * many more aggregates than the cache of aggregate instances can, without putting pressure on the garbage collector.
+ * The state of an aggregate is written to that tier after each successful commit. When an aggregate is not found in
+ * the cache, it is rebuilt from the state in the second tier and the events stored after it, if available.
  *
  * @param <T> The type of aggregate this repository stores
  * @author Allard Buijze
@@ -44,10 +52,13 @@
  */
 public class CachingEventSourcingRepository<T> extends EventSourcingRepository<T> {
 
+    private static final Logger logger = LoggerFactory.getLogger(CachingEventSourcingRepository.class);
+
     private final EventStore eventStore;
     private final RepositoryProvider repositoryProvider;
     private final Cache cache;
     private final SnapshotTriggerDefinition snapshotTriggerDefinition;
+    private volatile OffHeapSnapshotCache snapshotCache;
 
     /**
      * Initializes a repository with a the given {@code aggregateFactory} and a pessimistic locking strategy. It stores
@@ -232,6 +243,17 @@ public CachingEventSourcingRepository(AggregateFactory<T> aggregateFactory, Even
         this.repositoryProvider = repositoryProvider;
     }
 
+    /**
+     * Sets the off-heap cache holding the serialized state of aggregates that are not available in the cache of
+     * aggregate instances. Defaults to {@code null}, meaning aggregates not found in the cache are loaded from the
+     * event store.
+     *
+     * @param snapshotCache The cache holding serialized aggregate state, or {@code null} to disable the second tier
+     */
+    public void setSnapshotCache(OffHeapSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
     @Override
     protected void prepareForCommit(LockAwareAggregate<T, EventSourcedAggregate<T>> aggregate) {
         super.prepareForCommit(aggregate);
@@ -250,12 +272,59 @@ protected EventSourcedAggregate<T> doCreateNewForLock(Callable<T> factoryMethod)
     protected void doSaveWithLock(EventSourcedAggregate<T> aggregate) {
         super.doSaveWithLock(aggregate);
         cache.put(aggregate.identifierAsString(), new AggregateCacheEntry<>(aggregate));
+        OffHeapSnapshotCache currentSnapshotCache = snapshotCache;
+        if (currentSnapshotCache != null && aggregate.version() != null) {
+            // the aggregate is still locked after commit, so its state is the committed state
+            CurrentUnitOfWork.get().afterCommit(u -> {
+                try {
+                    currentSnapshotCache.put(new GenericDomainEventMessage<>(
+                            aggregate.type(), aggregate.identifierAsString(), aggregate.version(),
+                            aggregate.getAggregateRoot()));
+                } catch (Exception e) {
+                    // the second tier is best effort, the events have been stored already
+                    logger.warn("Failed to write the state of aggregate [{}] to the off-heap snapshot cache",
+                                aggregate.identifierAsString(), e);
+                }
+            });
+        }
     }
 
     @Override
     protected void doDeleteWithLock(EventSourcedAggregate<T> aggregate) {
         super.doDeleteWithLock(aggregate);
         cache.put(aggregate.identifierAsString(), new AggregateCacheEntry<>(aggregate));
+        OffHeapSnapshotCache currentSnapshotCache = snapshotCache;
+        if (currentSnapshotCache != null) {
+            CurrentUnitOfWork.get().afterCommit(u -> {
+                try {
+                    currentSnapshotCache.remove(aggregate.identifierAsString());
+                } catch (Exception e) {
+                    logger.warn("Failed to remove the state of aggregate [{}] from the off-heap snapshot cache",
+                                aggregate.identifierAsString(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads the events of the aggregate with given {@code aggregateIdentifier}. If the off-heap snapshot cache holds
+     * the state of the aggregate, the stream starts with that state as a snapshot, followed by the events stored after
+     * it.
+     *
+     * @param aggregateIdentifier the identifier of the aggregate to load
+     * @return the domain event stream for the given aggregateIdentifier
+     */
+    @Override
+    protected DomainEventStream readEvents(String aggregateIdentifier) {
+        OffHeapSnapshotCache currentSnapshotCache = snapshotCache;
+        DomainEventMessage<?> snapshot =
+                currentSnapshotCache == null ? null : currentSnapshotCache.get(aggregateIdentifier);
+        if (snapshot == null) {
+            return super.readEvents(aggregateIdentifier);
+        }
+        return DomainEventStream.concat(DomainEventStream.of(snapshot),
+                                        eventStore.readEvents(aggregateIdentifier,
+                                                              snapshot.getSequenceNumber() + 1));
     }
 
     /**
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.commandhandling.model.ConcurrencyException;
+import org.axonframework.common.Assert;
+import org.axonframework.common.transaction.TransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Snapshotter that queues snapshot requests and creates the snapshots asynchronously, using the snapshot creation
+ * logic of a delegate {@link AbstractSnapshotter}. A request for an aggregate of which a snapshot is already waiting
+ * to be created is ignored, as the pending snapshot will include the events that caused the new request. This
+ * prevents aggregates that receive bursts of commands from being snapshotted over and over again.
+ * <p/>
+ * The queue of pending requests is bounded. When it is full, new requests are dropped. As the snapshot trigger of a
+ * dropped aggregate keeps counting, the aggregate will request a snapshot again on a later occasion.
+ * <p/>
+ * Pending requests are processed by a single task on the given executor at a time, which takes up to a configured
+ * number of requests from the queue and stores the resulting snapshots in a single transaction. When creating or
+ * storing any of these snapshots fails, that transaction is rolled back and the other snapshots of the batch are
+ * created again, each in a transaction of its own. The delegate
+ * snapshotter is only used to create the snapshots; its own executor and transaction manager are not used.
+ *
+ * @since 3.4
+ */
+public class CoalescingSnapshotter implements Snapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingSnapshotter.class);
+
+    private final AbstractSnapshotter delegate;
+    private final Executor executor;
+    private final TransactionManager transactionManager;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Set<SnapshotRequest> pendingRequests = ConcurrentHashMap.newKeySet();
+    private final Queue<SnapshotRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicBoolean processing = new AtomicBoolean();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder snapshotCount = new LongAdder();
+    private final LongAdder snapshotDurationNanos = new LongAdder();
+
+    /**
+     * Initializes a CoalescingSnapshotter that creates snapshots using given {@code delegate}, in tasks executed by
+     * the given {@code executor}. Snapshots are stored in transactions managed by given {@code transactionManager},
+     * each containing at most {@code batchSize} snapshots. At most {@code queueCapacity} requests are pending at any
+     * time.
+     *
+     * @param delegate           The snapshotter providing the snapshot creation logic
+     * @param executor           The executor to create snapshots with
+     * @param transactionManager The transaction manager to create the surrounding transactions with
+     * @param queueCapacity      The maximum number of pending snapshot requests
+     * @param batchSize          The maximum number of snapshots to store in a single transaction
+     */
+    public CoalescingSnapshotter(AbstractSnapshotter delegate, Executor executor,
+                                 TransactionManager transactionManager, int queueCapacity, int batchSize) {
+        Assert.notNull(delegate, () -> "delegate may not be null");
+        Assert.notNull(executor, () -> "executor may not be null");
+        Assert.notNull(transactionManager, () -> "transactionManager may not be null");
+        Assert.isTrue(queueCapacity > 0, () -> "queueCapacity must be positive");
+        Assert.isTrue(batchSize > 0, () -> "batchSize must be positive");
+        this.delegate = delegate;
+        this.executor = executor;
+        this.transactionManager = transactionManager;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void scheduleSnapshot(Class<?> aggregateType, String aggregateIdentifier) {
+        SnapshotRequest request = new SnapshotRequest(aggregateType, aggregateIdentifier);
+        if (!pendingRequests.add(request)) {
+            coalescedCount.increment();
+            return;
+        }
+        if (queueDepth.incrementAndGet() > queueCapacity) {
+            queueDepth.decrementAndGet();
+            pendingRequests.remove(request);
+            droppedCount.increment();
+            logger.debug("Snapshot queue is full. Dropping snapshot request for aggregate [{}]",
+                         aggregateIdentifier);
+            return;
+        }
+        queue.add(request);
+        scheduleProcessing();
+    }
+
+    /**
+     * Returns the number of snapshot requests waiting to be processed.
+     *
+     * @return the number of pending snapshot requests
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the number of snapshot requests that were ignored because a snapshot of the same aggregate was already
+     * pending.
+     *
+     * @return the number of coalesced snapshot requests
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Returns the number of snapshot requests that were dropped because the queue was full.
+     *
+     * @return the number of dropped snapshot requests
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Returns the number of snapshot requests that have been processed, whether successful or not.
+     *
+     * @return the number of processed snapshot requests
+     */
+    public long getSnapshotCount() {
+        return snapshotCount.sum();
+    }
+
+    /**
+     * Returns the average time it took to create and store a snapshot, in the given {@code timeUnit}. Returns 0 if no
+     * snapshots have been processed yet.
+     *
+     * @param timeUnit The unit in which to express the duration
+     * @return the average duration of processing a snapshot request
+     */
+    public long getAverageSnapshotDuration(TimeUnit timeUnit) {
+        long count = snapshotCount.sum();
+        return count == 0 ? 0 : timeUnit.convert(snapshotDurationNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    private void scheduleProcessing() {
+        if (processing.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::processQueue);
+            } catch (RejectedExecutionException e) {
+                processing.set(false);
+                logger.warn("Executor rejected snapshot processing. {} snapshot requests remain pending.",
+                            queueDepth.get());
+            }
+        }
+    }
+
+    private void processQueue() {
+        try {
+            List<SnapshotRequest> batch = new ArrayList<>(batchSize);
+            SnapshotRequest request;
+            while (batch.size() < batchSize && (request = queue.poll()) != null) {
+                queueDepth.decrementAndGet();
+                // new requests for this aggregate may include events not seen by this snapshot
+                pendingRequests.remove(request);
+                batch.add(request);
+            }
+            if (!batch.isEmpty()) {
+                processBatch(batch);
+            }
+        } finally {
+            processing.set(false);
+        }
+        if (!queue.isEmpty()) {
+            scheduleProcessing();
+        }
+    }
+
+    private void processBatch(List<SnapshotRequest> batch) {
+        if (batch.size() == 1) {
+            processRequest(batch.get(0));
+            return;
+        }
+        long[] durations = new long[batch.size()];
+        int[] current = new int[1];
+        long[] start = new long[1];
+        try {
+            transactionManager.executeInTransaction(() -> {
+                for (current[0] = 0; current[0] < batch.size(); current[0]++) {
+                    start[0] = System.nanoTime();
+                    createSnapshot(batch.get(current[0]));
+                    durations[current[0]] = System.nanoTime() - start[0];
+                }
+            });
+            for (long duration : durations) {
+                recordSnapshot(duration);
+            }
+        } catch (Exception e) {
+            // the failure may have left the transaction unusable, so the others are stored in a transaction each
+            SnapshotRequest failedRequest = current[0] < batch.size() ? batch.get(current[0]) : null;
+            if (failedRequest != null) {
+                logFailure(failedRequest, e);
+                recordSnapshot(System.nanoTime() - start[0]);
+            }
+            batch.stream().filter(request -> request != failedRequest).forEach(this::processRequest);
+        }
+    }
+
+    private void processRequest(SnapshotRequest request) {
+        long start = System.nanoTime();
+        try {
+            transactionManager.executeInTransaction(() -> createSnapshot(request));
+        } catch (Exception e) {
+            logFailure(request, e);
+        } finally {
+            recordSnapshot(System.nanoTime() - start);
+        }
+    }
+
+    private void logFailure(SnapshotRequest request, Exception e) {
+        if (e instanceof ConcurrencyException) {
+            logger.info("An up-to-date snapshot entry already exists, ignoring this attempt.");
+        } else if (logger.isDebugEnabled()) {
+            logger.warn("An attempt to create and store a snapshot of aggregate [{}] resulted in an exception:",
+                        request.aggregateIdentifier, e);
+        } else {
+            logger.warn("An attempt to create and store a snapshot of aggregate [{}] resulted in an exception. " +
+                                "Exception summary: {}", request.aggregateIdentifier, e.getMessage());
+        }
+    }
+
+    private void createSnapshot(SnapshotRequest request) {
+        delegate.createSnapshotterTask(request.aggregateType, request.aggregateIdentifier).run();
+    }
+
+    private void recordSnapshot(long durationNanos) {
+        snapshotDurationNanos.add(durationNanos);
+        snapshotCount.increment();
+    }
+
+    private static final class SnapshotRequest {
+
+        private final Class<?> aggregateType;
+        private final String aggregateIdentifier;
+
+        private SnapshotRequest(Class<?> aggregateType, String aggregateIdentifier) {
+            this.aggregateType = aggregateType;
+            this.aggregateIdentifier = aggregateIdentifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SnapshotRequest that = (SnapshotRequest) o;
+            return Objects.equals(aggregateType, that.aggregateType)
+                    && Objects.equals(aggregateIdentifier, that.aggregateIdentifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(aggregateType, aggregateIdentifier);
+        }
+    }
+}
@@ -376,8 +376,9 @@ public EventSourcingRepository(AggregateFactory<T> aggregateFactory, EventStore
      */
     @Override
     protected EventSourcedAggregate<T> doLoadWithLock(String aggregateIdentifier, Long expectedVersion) {
-        DomainEventStream eventStream = readEvents(aggregateIdentifier);
         SnapshotTrigger trigger = snapshotTriggerDefinition.prepareTrigger(aggregateFactory.getAggregateType());
+        trigger.initializationStarted();
+        DomainEventStream eventStream = readEvents(aggregateIdentifier);
         if (!eventStream.hasNext()) {
             throw new AggregateNotFoundException(aggregateIdentifier, "The aggregate was not found in the event store");
         }
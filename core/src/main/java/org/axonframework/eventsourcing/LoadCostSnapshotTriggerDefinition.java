@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.common.Assert;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.serialization.SerializationAware;
+import org.axonframework.serialization.Serializer;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Snapshotter trigger mechanism that measures the cost of loading an aggregate to decide when to create a snapshot.
+ * A snapshot is triggered when sourcing an aggregate from its past events took longer than the given threshold. The
+ * measured time includes reading the events from the Event Store, as well as applying them on the aggregate, so
+ * aggregates with large events or expensive event sourcing handlers are snapshotted even if they have relatively few
+ * events.
+ * <p/>
+ * Optionally, a snapshot is also triggered when the serialized size of the events read while sourcing the aggregate
+ * exceeds a threshold (see {@link #setByteThreshold(Serializer, long)}), or when the number of events applied on the
+ * aggregate exceeds a threshold, as with the {@link EventCountSnapshotTriggerDefinition} (see
+ * {@link #setEventCountThreshold(int)}). Regardless of the number of thresholds exceeded, at most one snapshot is
+ * triggered per unit of work.
+ * <p/>
+ * The cost of loading is only measured when the Repository notifies the trigger that sourcing of the aggregate
+ * started (see {@link SnapshotTrigger#initializationStarted()}). Newly created aggregates are never measured.
+ *
+ * @since 3.4
+ */
+public class LoadCostSnapshotTriggerDefinition implements SnapshotTriggerDefinition {
+
+    private final Snapshotter snapshotter;
+    private final long loadTimeThresholdNanos;
+    private final LongSupplier clock;
+    private Serializer serializer;
+    private long byteThreshold = Long.MAX_VALUE;
+    private int eventCountThreshold = Integer.MAX_VALUE;
+
+    /**
+     * Initialize the SnapshotTriggerDefinition to trigger snapshots using the given {@code snapshotter} when sourcing
+     * an Aggregate instance takes at least {@code loadTimeThreshold} in the given {@code timeUnit}.
+     *
+     * @param snapshotter       the snapshotter to notify when a snapshot needs to be taken
+     * @param loadTimeThreshold the time sourcing an aggregate may take before a snapshot is triggered
+     * @param timeUnit          the unit of the given {@code loadTimeThreshold}
+     */
+    public LoadCostSnapshotTriggerDefinition(Snapshotter snapshotter, long loadTimeThreshold, TimeUnit timeUnit) {
+        this(snapshotter, timeUnit.toNanos(loadTimeThreshold), System::nanoTime);
+    }
+
+    LoadCostSnapshotTriggerDefinition(Snapshotter snapshotter, long loadTimeThresholdNanos, LongSupplier clock) {
+        Assert.notNull(snapshotter, () -> "snapshotter may not be null");
+        this.snapshotter = snapshotter;
+        this.loadTimeThresholdNanos = loadTimeThresholdNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the serialized size of the events read while sourcing an Aggregate instance at which a snapshot is
+     * triggered. The size of an event is that of its payload, serialized using the given {@code serializer}. This
+     * should be the serializer the Event Store uses for events, as the events read from the Event Store can then
+     * provide their size without serializing them again.
+     *
+     * @param serializer    the serializer to determine the serialized size of events with
+     * @param byteThreshold the number of bytes of events that will trigger the creation of a snapshot
+     */
+    public void setByteThreshold(Serializer serializer, long byteThreshold) {
+        Assert.notNull(serializer, () -> "serializer may not be null");
+        this.serializer = serializer;
+        this.byteThreshold = byteThreshold;
+    }
+
+    /**
+     * Sets the number of events applied on an Aggregate instance at which a snapshot is triggered.
+     *
+     * @param eventCountThreshold the number of events that will trigger the creation of a snapshot
+     */
+    public void setEventCountThreshold(int eventCountThreshold) {
+        this.eventCountThreshold = eventCountThreshold;
+    }
+
+    @Override
+    public SnapshotTrigger prepareTrigger(Class<?> aggregateType) {
+        return new LoadCostSnapshotTrigger(snapshotter, serializer, clock, aggregateType, loadTimeThresholdNanos,
+                                           byteThreshold, eventCountThreshold);
+    }
+
+    @Override
+    public SnapshotTrigger reconfigure(Class<?> aggregateType, SnapshotTrigger trigger) {
+        if (trigger instanceof LoadCostSnapshotTrigger) {
+            ((LoadCostSnapshotTrigger) trigger).setResources(snapshotter, serializer, clock);
+            return trigger;
+        }
+        return prepareTrigger(aggregateType);
+    }
+
+    private static class LoadCostSnapshotTrigger implements SnapshotTrigger, Serializable {
+
+        private static final long serialVersionUID = -3207418375931346574L;
+
+        private final Class<?> aggregateType;
+        private final long loadTimeThresholdNanos;
+        private final long byteThreshold;
+        private final int eventCountThreshold;
+
+        private transient Snapshotter snapshotter;
+        private transient Serializer serializer;
+        private transient LongSupplier clock;
+        private transient long loadStart;
+        private transient long loadedBytes;
+        private transient boolean loading;
+        private transient boolean snapshotScheduled;
+        private int counter = 0;
+        private String aggregateIdentifier;
+
+        private LoadCostSnapshotTrigger(Snapshotter snapshotter, Serializer serializer, LongSupplier clock,
+                                        Class<?> aggregateType, long loadTimeThresholdNanos, long byteThreshold,
+                                        int eventCountThreshold) {
+            this.aggregateType = aggregateType;
+            this.loadTimeThresholdNanos = loadTimeThresholdNanos;
+            this.byteThreshold = byteThreshold;
+            this.eventCountThreshold = eventCountThreshold;
+            setResources(snapshotter, serializer, clock);
+        }
+
+        @Override
+        public void initializationStarted() {
+            loading = true;
+            loadedBytes = 0;
+            loadStart = clock.getAsLong();
+        }
+
+        @Override
+        public void eventHandled(EventMessage<?> msg) {
+            if (msg instanceof DomainEventMessage) {
+                aggregateIdentifier = ((DomainEventMessage<?>) msg).getAggregateIdentifier();
+            }
+            if (loading && serializer != null && msg instanceof SerializationAware) {
+                loadedBytes += ((SerializationAware) msg).serializePayload(serializer, byte[].class).getData().length;
+            }
+            if (++counter >= eventCountThreshold) {
+                scheduleSnapshot();
+            }
+        }
+
+        @Override
+        public void initializationFinished() {
+            if (loading) {
+                loading = false;
+                if (clock.getAsLong() - loadStart >= loadTimeThresholdNanos || loadedBytes >= byteThreshold) {
+                    scheduleSnapshot();
+                }
+            }
+        }
+
+        private void scheduleSnapshot() {
+            if (snapshotScheduled || aggregateIdentifier == null) {
+                return;
+            }
+            counter = 0;
+            if (CurrentUnitOfWork.isStarted()) {
+                snapshotScheduled = true;
+                CurrentUnitOfWork.get().onPrepareCommit(u -> {
+                    snapshotScheduled = false;
+                    snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+                });
+                CurrentUnitOfWork.get().onRollback(u -> snapshotScheduled = false);
+            } else {
+                snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+            }
+        }
+
+        private void setResources(Snapshotter snapshotter, Serializer serializer, LongSupplier clock) {
+            this.snapshotter = snapshotter;
+            this.serializer = serializer;
+            this.clock = clock;
+        }
+    }
+}
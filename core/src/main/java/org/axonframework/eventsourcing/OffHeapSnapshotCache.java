@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.common.Assert;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Cache of aggregate snapshots that stores the serialized state of aggregates outside of the Java heap, in direct
+ * {@link ByteBuffer ByteBuffers}. As the cached state doesn't consist of live objects, its size doesn't affect garbage
+ * collection pauses, allowing for much larger caches than those holding aggregate instances.
+ * <p/>
+ * Each entry holds the state of an aggregate at a certain version, serialized with the configured serializer, which
+ * would typically be the serializer used for snapshots in the event store. The {@link CachingEventSourcingRepository}
+ * rebuilds an aggregate from a cached snapshot by applying the events that were stored after that version.
+ * <p/>
+ * Entries are written to the buffers as a circular log. When the capacity is exhausted, new entries overwrite the
+ * oldest entries, regardless of how often those are used. Entries that are larger than a single buffer (at most 1GB)
+ * are not cached. Aggregate identifiers must be unique within a cache, so each repository requires its own instance.
+ * <p/>
+ * The buffers are allocated when the cache is created, and are only released when the cache itself is garbage
+ * collected. Make sure the JVM allows for enough direct memory (see {@code -XX:MaxDirectMemorySize}).
+ *
+ * @since 3.4
+ */
+public class OffHeapSnapshotCache {
+
+    private static final int MAXIMUM_BUFFER_SIZE = 1 << 30;
+
+    private final Serializer serializer;
+    private final ByteBuffer[] buffers;
+    private final int bufferSize;
+    private final long capacity;
+    private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+    private final StampedLock lock = new StampedLock();
+    // guarded by the lock. The offset in the log at which the next entry is written, which increases indefinitely
+    private long writeOffset;
+
+    /**
+     * Initializes a cache that stores snapshots serialized with given {@code serializer} in at most {@code capacity}
+     * bytes of direct memory.
+     *
+     * @param serializer The serializer to serialize aggregates with
+     * @param capacity   The number of bytes to allocate for storing snapshots
+     */
+    public OffHeapSnapshotCache(Serializer serializer, long capacity) {
+        Assert.notNull(serializer, () -> "serializer may not be null");
+        Assert.isTrue(capacity > 0, () -> "capacity must be positive");
+        this.serializer = serializer;
+        this.bufferSize = (int) Math.min(capacity, MAXIMUM_BUFFER_SIZE);
+        this.buffers = new ByteBuffer[(int) ((capacity + bufferSize - 1) / bufferSize)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(bufferSize);
+        }
+        this.capacity = (long) buffers.length * bufferSize;
+    }
+
+    /**
+     * Stores the state of the aggregate contained in the given {@code snapshot}, replacing any older snapshot of the
+     * same aggregate. If the cache already holds a snapshot of a more recent version, this snapshot is ignored.
+     *
+     * @param snapshot The snapshot event containing the aggregate to cache
+     */
+    public void put(DomainEventMessage<?> snapshot) {
+        SerializedObject<byte[]> serializedAggregate = serializer.serialize(snapshot.getPayload(), byte[].class);
+        byte[] data = serializedAggregate.getData();
+        if (data.length > bufferSize) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            long offset = writeOffset;
+            if (offset % bufferSize + data.length > bufferSize) {
+                // entries don't span buffers. Skip the remainder of the current buffer
+                offset += bufferSize - offset % bufferSize;
+            }
+            long end = offset + data.length;
+            if (end / bufferSize != writeOffset / bufferSize) {
+                // starting to overwrite another buffer. Forget about the entries it holds
+                index.values().removeIf(location -> location.offset < end - capacity);
+            }
+            ByteBuffer target = buffers[bufferIndex(offset)].duplicate();
+            target.position((int) (offset % bufferSize));
+            target.put(data);
+            writeOffset = end;
+            Location location = new Location(offset, data.length, snapshot.getType(),
+                                             snapshot.getSequenceNumber(), serializedAggregate.getType());
+            index.merge(snapshot.getAggregateIdentifier(), location,
+                        (current, candidate) -> current.version > candidate.version
+                                && current.offset >= end - capacity ? current : candidate);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot event containing the cached state of the aggregate with given {@code aggregateIdentifier},
+     * or {@code null} if no state of that aggregate is cached. The sequence number of the event is the version of
+     * the cached state.
+     *
+     * @param aggregateIdentifier The identifier of the aggregate
+     * @return a snapshot event of the aggregate, or {@code null} if none is cached
+     */
+    public DomainEventMessage<?> get(String aggregateIdentifier) {
+        Location location = index.get(aggregateIdentifier);
+        if (location == null) {
+            return null;
+        }
+        byte[] data = new byte[location.length];
+        long stamp = lock.tryOptimisticRead();
+        boolean available = read(location, data);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                available = read(location, data);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (!available) {
+            index.remove(aggregateIdentifier, location);
+            return null;
+        }
+        Object aggregateRoot = serializer.deserialize(new SimpleSerializedObject<>(data, byte[].class,
+                                                                                   location.serializedType));
+        return new GenericDomainEventMessage<>(location.aggregateType, aggregateIdentifier, location.version,
+                                               aggregateRoot);
+    }
+
+    /**
+     * Removes the cached state of the aggregate with given {@code aggregateIdentifier}, if any.
+     *
+     * @param aggregateIdentifier The identifier of the aggregate
+     */
+    public void remove(String aggregateIdentifier) {
+        index.remove(aggregateIdentifier);
+    }
+
+    /**
+     * Returns the number of aggregates of which a snapshot is cached.
+     *
+     * @return the number of cached snapshots
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes of direct memory allocated by this cache.
+     *
+     * @return the capacity of the cache in bytes
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private boolean read(Location location, byte[] target) {
+        if (location.offset < writeOffset - capacity) {
+            // overwritten by more recent entries
+            return false;
+        }
+        ByteBuffer source = buffers[bufferIndex(location.offset)].duplicate();
+        source.position((int) (location.offset % bufferSize));
+        source.get(target);
+        return true;
+    }
+
+    private int bufferIndex(long offset) {
+        return (int) ((offset / bufferSize) % buffers.length);
+    }
+
+    private static final class Location {
+
+        private final long offset;
+        private final int length;
+        private final String aggregateType;
+        private final long version;
+        private final SerializedType serializedType;
+
+        private Location(long offset, int length, String aggregateType, long version,
+                         SerializedType serializedType) {
+            this.offset = offset;
+            this.length = length;
+            this.aggregateType = aggregateType;
+            this.version = version;
+            this.serializedType = serializedType;
+        }
+    }
+}
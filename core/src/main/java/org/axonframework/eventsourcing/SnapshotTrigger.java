@@ -42,6 +42,18 @@ public interface SnapshotTrigger {
      */
     void eventHandled(EventMessage<?> msg);
 
+    /**
+     * Invoked when the aggregate is about to be initialized based on passed events, before these events are read from
+     * the Event Store. This method is not invoked for newly created aggregates, which have no passed events.
+     * <p>
+     * Repositories that don't invoke this method don't inform the trigger about the start of the aggregate's
+     * initialization. Implementations should therefore not rely on it being invoked. Defaults to a no-op.
+     *
+     * @since 3.4
+     */
+    default void initializationStarted() {
+    }
+
     /**
      * Invoked when the initialization of the aggregate based on passed events is completed. Any subsequent invocation
      * of {@link #eventHandled(EventMessage)} involves an event being applied on "current state".
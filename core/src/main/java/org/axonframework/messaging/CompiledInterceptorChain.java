@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.messaging;
+
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, precompiled sequence of {@link MessageHandlerInterceptor MessageHandlerInterceptors}. Components that
+ * accept interceptor registrations keep an instance of this class and replace it whenever the registrations change,
+ * instead of building an {@link InterceptorChain} from a (copied) collection for every message they handle.
+ * <p>
+ * Invoking an empty chain calls the handler directly, without creating an {@link InterceptorChain} at all.
+ *
+ * @param <T> The type of message the interceptors in this chain can process
+ * @since 3.4
+ */
+public final class CompiledInterceptorChain<T extends Message<?>> {
+
+    @SuppressWarnings("unchecked")
+    private static final CompiledInterceptorChain<?> EMPTY =
+            new CompiledInterceptorChain<>(new MessageHandlerInterceptor[0]);
+
+    private final MessageHandlerInterceptor<? super T>[] interceptors;
+
+    /**
+     * Returns a chain that doesn't contain any interceptors.
+     *
+     * @param <T> The type of message the chain can process
+     * @return a chain without interceptors
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Message<?>> CompiledInterceptorChain<T> empty() {
+        return (CompiledInterceptorChain<T>) EMPTY;
+    }
+
+    /**
+     * Compiles the given {@code interceptors} into a chain. The interceptors are invoked in the iteration order of
+     * the given collection. Changes made to the collection after this method returns are not reflected in the
+     * returned chain.
+     *
+     * @param interceptors The interceptors to compile into a chain
+     * @param <T>          The type of message the chain can process
+     * @return a chain containing the given interceptors
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Message<?>> CompiledInterceptorChain<T> compile(
+            Collection<? extends MessageHandlerInterceptor<? super T>> interceptors) {
+        if (interceptors.isEmpty()) {
+            return empty();
+        }
+        return new CompiledInterceptorChain<>(interceptors.toArray(new MessageHandlerInterceptor[0]));
+    }
+
+    private CompiledInterceptorChain(MessageHandlerInterceptor<? super T>[] interceptors) {
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Returns a new chain with the given {@code interceptor} appended to the interceptors of this chain.
+     *
+     * @param interceptor The interceptor to append
+     * @return a new chain containing the interceptors of this chain followed by the given {@code interceptor}
+     */
+    public CompiledInterceptorChain<T> with(MessageHandlerInterceptor<? super T> interceptor) {
+        MessageHandlerInterceptor<? super T>[] newInterceptors = Arrays.copyOf(interceptors, interceptors.length + 1);
+        newInterceptors[interceptors.length] = interceptor;
+        return new CompiledInterceptorChain<>(newInterceptors);
+    }
+
+    /**
+     * Returns a chain without the first occurrence of given {@code interceptor}. If this chain doesn't contain the
+     * interceptor, this instance is returned.
+     *
+     * @param interceptor The interceptor to remove
+     * @return a chain without the first occurrence of the given {@code interceptor}
+     */
+    @SuppressWarnings("unchecked")
+    public CompiledInterceptorChain<T> without(MessageHandlerInterceptor<?> interceptor) {
+        for (int i = 0; i < interceptors.length; i++) {
+            if (interceptors[i].equals(interceptor)) {
+                if (interceptors.length == 1) {
+                    return empty();
+                }
+                MessageHandlerInterceptor<? super T>[] newInterceptors =
+                        new MessageHandlerInterceptor[interceptors.length - 1];
+                System.arraycopy(interceptors, 0, newInterceptors, 0, i);
+                System.arraycopy(interceptors, i + 1, newInterceptors, i, interceptors.length - i - 1);
+                return new CompiledInterceptorChain<>(newInterceptors);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Indicates whether the given {@code interceptor} is part of this chain.
+     *
+     * @param interceptor The interceptor to look for
+     * @return {@code true} if the interceptor is part of this chain, otherwise {@code false}
+     */
+    public boolean contains(MessageHandlerInterceptor<?> interceptor) {
+        for (MessageHandlerInterceptor<? super T> candidate : interceptors) {
+            if (candidate.equals(interceptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether this chain contains any interceptors.
+     *
+     * @return {@code true} if this chain doesn't contain any interceptors, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return interceptors.length == 0;
+    }
+
+    /**
+     * Returns the interceptors in this chain, in the order in which they are invoked.
+     *
+     * @return an unmodifiable list of the interceptors in this chain
+     */
+    public List<MessageHandlerInterceptor<? super T>> interceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    /**
+     * Passes the Message of the given {@code unitOfWork} through the interceptors of this chain, to the given {@code
+     * handler}. If this chain is empty, the handler is invoked directly.
+     *
+     * @param unitOfWork The Unit of Work in which the Message is processed
+     * @param handler    The handler to invoke when all interceptors have proceeded
+     * @param <M>        The type of Message processed
+     * @return the result of the handler, as returned through the interceptors
+     * @throws Exception any exception thrown by the interceptors or the handler
+     */
+    public <M extends T> Object proceed(UnitOfWork<? extends M> unitOfWork, MessageHandler<? super M> handler)
+            throws Exception {
+        if (interceptors.length == 0) {
+            return handler.handle(unitOfWork.getMessage());
+        }
+        return new Invocation<>(interceptors, unitOfWork, handler).proceed();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledInterceptorChain" + Arrays.toString(interceptors);
+    }
+
+    private static final class Invocation<M extends Message<?>> implements InterceptorChain {
+
+        private final MessageHandlerInterceptor<? super M>[] interceptors;
+        private final UnitOfWork<? extends M> unitOfWork;
+        private final MessageHandler<? super M> handler;
+        private int index;
+
+        private Invocation(MessageHandlerInterceptor<? super M>[] interceptors, UnitOfWork<? extends M> unitOfWork,
+                           MessageHandler<? super M> handler) {
+            this.interceptors = interceptors;
+            this.unitOfWork = unitOfWork;
+            this.handler = handler;
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            if (index < interceptors.length) {
+                return interceptors[index++].handle(unitOfWork, this);
+            }
+            return handler.handle(unitOfWork.getMessage());
+        }
+    }
+}
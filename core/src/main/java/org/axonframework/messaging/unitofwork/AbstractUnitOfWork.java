@@ -35,7 +35,7 @@
 public abstract class AbstractUnitOfWork<T extends Message<?>> implements UnitOfWork<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractUnitOfWork.class);
-    private final Map<String, Object> resources = new HashMap<>();
+    private Map<String, Object> resources;
     private final Collection<CorrelationDataProvider> correlationDataProviders = new LinkedHashSet<>();
     private UnitOfWork<?> parentUnitOfWork;
     private Phase phase = Phase.NOT_STARTED;
@@ -48,7 +48,6 @@ public void start() {
         }
         Assert.state(Phase.NOT_STARTED.equals(phase()), () -> "UnitOfWork is already started");
         rolledBack = false;
-        onRollback(u -> rolledBack = true);
         CurrentUnitOfWork.ifStarted(parent -> {
             // we're nesting.
             this.parentUnitOfWork = parent;
@@ -140,6 +139,9 @@ public Optional<UnitOfWork<?>> parent() {
 
     @Override
     public Map<String, Object> resources() {
+        if (resources == null) {
+            resources = new HashMap<>();
+        }
         return resources;
     }
 
@@ -158,6 +160,9 @@ public MetaData getCorrelationData() {
         if (correlationDataProviders.isEmpty()) {
             return MetaData.emptyInstance();
         }
+        if (correlationDataProviders.size() == 1) {
+            return MetaData.from(correlationDataProviders.iterator().next().correlationDataFor(getMessage()));
+        }
         Map<String, Object> result = new HashMap<>();
         for (CorrelationDataProvider correlationDataProvider : correlationDataProviders) {
             final Map<String, ?> extraData = correlationDataProvider.correlationDataFor(getMessage());
@@ -219,7 +224,25 @@ protected void changePhase(Phase... phases) {
         for (Phase phase : phases) {
             setPhase(phase);
             notifyHandlers(phase);
+            if (phase == Phase.ROLLBACK) {
+                rolledBack = true;
+            }
+        }
+    }
+
+    /**
+     * Resets the state of this Unit of Work, so that the instance may be reused to process another Message. This sets
+     * the phase to {@code NOT_STARTED}, detaches the Unit of Work from its parent and clears its resources and
+     * registered Correlation Data Providers.
+     */
+    protected void resetState() {
+        setPhase(Phase.NOT_STARTED);
+        parentUnitOfWork = null;
+        rolledBack = false;
+        if (resources != null) {
+            resources.clear();
         }
+        correlationDataProviders.clear();
     }
 
     /**
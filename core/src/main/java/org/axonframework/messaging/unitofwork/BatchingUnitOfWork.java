@@ -34,7 +34,7 @@
  */
 public class BatchingUnitOfWork<T extends Message<?>> extends AbstractUnitOfWork<T> {
 
-    private final List<MessageProcessingContext<T>> processingContexts;
+    private final List<MessageProcessingContext<T>> processingContexts = new ArrayList<>();
     private MessageProcessingContext<T> processingContext;
 
     /**
@@ -54,7 +54,9 @@ public BatchingUnitOfWork(T... messages) {
      */
     public BatchingUnitOfWork(List<T> messages) {
         Assert.isFalse(messages.isEmpty(), () -> "The list of Messages to process is empty");
-        processingContexts = messages.stream().map(MessageProcessingContext::new).collect(Collectors.toList());
+        for (T message : messages) {
+            processingContexts.add(new MessageProcessingContext<>(message));
+        }
         processingContext = processingContexts.get(0);
     }
 
@@ -134,10 +136,15 @@ protected void setExecutionResult(ExecutionResult executionResult) {
 
     @Override
     protected void notifyHandlers(Phase phase) {
-        Iterator<MessageProcessingContext<T>> iterator =
-                phase.isReverseCallbackOrder() ? new LinkedList<>(processingContexts).descendingIterator() :
-                        processingContexts.iterator();
-        iterator.forEachRemaining(context -> (processingContext = context).notifyHandlers(this, phase));
+        if (phase.isReverseCallbackOrder()) {
+            for (int i = processingContexts.size() - 1; i >= 0; i--) {
+                (processingContext = processingContexts.get(i)).notifyHandlers(this, phase);
+            }
+        } else {
+            for (MessageProcessingContext<T> context : processingContexts) {
+                (processingContext = context).notifyHandlers(this, phase);
+            }
+        }
     }
 
     @Override
@@ -18,8 +18,8 @@
 
 import org.axonframework.messaging.MetaData;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -42,7 +42,8 @@ public abstract class CurrentUnitOfWork {
      * @return whether a UnitOfWork has already been started.
      */
     public static boolean isStarted() {
-        return CURRENT.get() != null && !CURRENT.get().isEmpty();
+        Deque<UnitOfWork<?>> unitsOfWork = CURRENT.get();
+        return unitsOfWork != null && !unitsOfWork.isEmpty();
     }
 
     /**
@@ -53,8 +54,9 @@ public static boolean isStarted() {
      * @return {@code true} if a unit of work is active, {@code false} otherwise
      */
     public static boolean ifStarted(Consumer<UnitOfWork<?>> consumer) {
-        if (isStarted()) {
-            consumer.accept(get());
+        UnitOfWork<?> unitOfWork = peek();
+        if (unitOfWork != null) {
+            consumer.accept(unitOfWork);
             return true;
         }
         return false;
@@ -84,15 +86,16 @@ public static <T> Optional<T> map(Function<UnitOfWork<?>, T> function) {
      * @throws IllegalStateException if no UnitOfWork is active
      */
     public static UnitOfWork<?> get() {
-        if (isEmpty()) {
+        UnitOfWork<?> unitOfWork = peek();
+        if (unitOfWork == null) {
             throw new IllegalStateException("No UnitOfWork is currently started for this thread.");
         }
-        return CURRENT.get().peek();
+        return unitOfWork;
     }
 
-    private static boolean isEmpty() {
+    private static UnitOfWork<?> peek() {
         Deque<UnitOfWork<?>> unitsOfWork = CURRENT.get();
-        return unitsOfWork == null || unitsOfWork.isEmpty();
+        return unitsOfWork == null ? null : unitsOfWork.peek();
     }
 
     /**
@@ -112,10 +115,12 @@ public static void commit() {
      * @param unitOfWork The UnitOfWork to bind to the current thread.
      */
     public static void set(UnitOfWork<?> unitOfWork) {
-        if (CURRENT.get() == null) {
-            CURRENT.set(new LinkedList<>());
+        Deque<UnitOfWork<?>> unitsOfWork = CURRENT.get();
+        if (unitsOfWork == null) {
+            unitsOfWork = new ArrayDeque<>(4);
+            CURRENT.set(unitsOfWork);
         }
-        CURRENT.get().push(unitOfWork);
+        unitsOfWork.push(unitOfWork);
     }
 
     /**
@@ -127,12 +132,13 @@ public static void set(UnitOfWork<?> unitOfWork) {
      *                               indicates a potentially wrong nesting of Units Of Work.
      */
     public static void clear(UnitOfWork<?> unitOfWork) {
-        if (!isStarted()) {
+        Deque<UnitOfWork<?>> unitsOfWork = CURRENT.get();
+        if (unitsOfWork == null || unitsOfWork.isEmpty()) {
             throw new IllegalStateException("Could not clear this UnitOfWork. There is no UnitOfWork active.");
         }
-        if (CURRENT.get().peek() == unitOfWork) {
-            CURRENT.get().pop();
-            if (CURRENT.get().isEmpty()) {
+        if (unitsOfWork.peek() == unitOfWork) {
+            unitsOfWork.pop();
+            if (unitsOfWork.isEmpty()) {
                 CURRENT.remove();
             }
         } else {
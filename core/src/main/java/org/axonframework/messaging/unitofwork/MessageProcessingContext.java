@@ -22,7 +22,6 @@
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.EnumMap;
-import java.util.LinkedList;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -36,10 +35,7 @@
 public class MessageProcessingContext<T extends Message<?>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageProcessingContext.class);
-    @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-    private static final Deque EMPTY = new LinkedList<>();
-
-    private final EnumMap<Phase, Deque<Consumer<UnitOfWork<T>>>> handlers = new EnumMap<>(Phase.class);
+    private EnumMap<Phase, Deque<Consumer<UnitOfWork<T>>>> handlers;
     private T message;
     private ExecutionResult executionResult;
 
@@ -58,13 +54,15 @@ public MessageProcessingContext(T message) {
      * @param unitOfWork    The Unit of Work that is changing its phase
      * @param phase         The phase for which attached handlers should be invoked
      */
-    @SuppressWarnings("unchecked")
     public void notifyHandlers(UnitOfWork<T> unitOfWork, Phase phase) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Notifying handlers for phase {}", phase.toString());
         }
-        Deque<Consumer<UnitOfWork<T>>> l = handlers.getOrDefault(phase, EMPTY);
-        while (!l.isEmpty()) {
+        if (handlers == null) {
+            return;
+        }
+        Deque<Consumer<UnitOfWork<T>>> l = handlers.get(phase);
+        while (l != null && !l.isEmpty()) {
             l.remove().accept(unitOfWork);
         }
     }
@@ -80,7 +78,14 @@ public void addHandler(Phase phase, Consumer<UnitOfWork<T>> handler) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Adding handler {} for phase {}", handler.getClass().getName(), phase.toString());
         }
-        final Deque<Consumer<UnitOfWork<T>>> consumers = handlers.computeIfAbsent(phase, p -> new ArrayDeque<>());
+        if (handlers == null) {
+            handlers = new EnumMap<>(Phase.class);
+        }
+        Deque<Consumer<UnitOfWork<T>>> consumers = handlers.get(phase);
+        if (consumers == null) {
+            consumers = new ArrayDeque<>(4);
+            handlers.put(phase, consumers);
+        }
         if (phase.isReverseCallbackOrder()) {
             consumers.addFirst(handler);
         } else {
@@ -138,14 +143,17 @@ public void transformMessage(Function<T, ? extends Message<?>> transformOperator
     }
 
     /**
-     * Reset the processing context. This clears the execution result and map with registered handlers, and replaces
-     * the current Message with the given {@code message}.
+     * Reset the processing context. This clears the execution result and the registered handlers, and replaces the
+     * current Message with the given {@code message}. The collections holding the handlers are retained, so that a
+     * reused context does not need to allocate them again.
      *
      * @param message The new message that is being processed
      */
     public void reset(T message) {
         this.message = message;
-        handlers.clear();
+        if (handlers != null) {
+            handlers.values().forEach(Deque::clear);
+        }
         executionResult = null;
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import org.axonframework.common.Assert;
+import org.axonframework.common.Registration;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.monitoring.MessageMonitor;
+import org.axonframework.monitoring.NoOpMessageMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Specialization of the SimpleQueryBus that executes point-to-point queries asynchronously from the calling thread.
+ * Queries are executed by a {@link QueryBulkhead}: a pool of threads with a bounded queue. Queries are executed by the
+ * default bulkhead, unless their query name is assigned to another bulkhead using
+ * {@link #registerBulkhead(QueryBulkhead, String...)}. Assigning slow queries to their own bulkhead isolates them
+ * from other queries, so that they can't occupy all threads available for queries.
+ * <p/>
+ * Only the invocation of the query handler is executed by a bulkhead. Dispatch interceptors, the message monitor of
+ * the query bus and the lookup of the query handler are invoked on the calling thread, so that they have access to
+ * thread bound state of the caller. Queries for which no handler is subscribed fail immediately, without occupying
+ * the queue of a bulkhead.
+ * <p/>
+ * The initial result of subscription queries is executed by the bulkheads as well. Scatter-gather queries are executed
+ * as by the SimpleQueryBus.
+ * <p/>
+ * Note that you should call {@link #shutdown()} to stop the threads of the bulkheads.
+ *
+ * @since 3.4
+ */
+public class AsynchronousQueryBus extends SimpleQueryBus {
+
+    /**
+     * The number of queries that may wait for a thread of the default bulkhead, when not configured explicitly.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(AsynchronousQueryBus.class);
+
+    private final QueryBulkhead defaultBulkhead;
+    private final ConcurrentMap<String, QueryBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Set<QueryBulkhead> registeredBulkheads = new CopyOnWriteArraySet<>();
+
+    /**
+     * Initialize the AsynchronousQueryBus with a default bulkhead with a thread per available processor, and a queue
+     * of {@link #DEFAULT_QUEUE_CAPACITY} queries.
+     */
+    public AsynchronousQueryBus() {
+        this(new QueryBulkhead("default", Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY));
+    }
+
+    /**
+     * Initialize the AsynchronousQueryBus using the given {@code defaultBulkhead} to execute queries that aren't
+     * assigned to another bulkhead.
+     *
+     * @param defaultBulkhead The bulkhead executing queries that aren't assigned to another bulkhead
+     */
+    public AsynchronousQueryBus(QueryBulkhead defaultBulkhead) {
+        this(defaultBulkhead, NoOpMessageMonitor.INSTANCE, NoTransactionManager.instance(),
+             new LoggingQueryInvocationErrorHandler(logger));
+    }
+
+    /**
+     * Initialize the AsynchronousQueryBus using the given {@code defaultBulkhead} to execute queries that aren't
+     * assigned to another bulkhead, and given {@code messageMonitor}, {@code transactionManager} and {@code
+     * errorHandler}.
+     *
+     * @param defaultBulkhead    The bulkhead executing queries that aren't assigned to another bulkhead
+     * @param messageMonitor     The message monitor notified for incoming messages and their result
+     * @param transactionManager The transaction manager to manage transactions around query execution with
+     * @param errorHandler       The error handler to invoke when query handler report an error
+     */
+    public AsynchronousQueryBus(QueryBulkhead defaultBulkhead,
+                                MessageMonitor<? super QueryMessage<?, ?>> messageMonitor,
+                                TransactionManager transactionManager,
+                                QueryInvocationErrorHandler errorHandler) {
+        super(messageMonitor, transactionManager, errorHandler);
+        Assert.notNull(defaultBulkhead, () -> "defaultBulkhead may not be null");
+        this.defaultBulkhead = defaultBulkhead;
+    }
+
+    /**
+     * Assigns the queries with given {@code queryNames} to the given {@code bulkhead}. A bulkhead may execute queries
+     * with different names, forming a group of queries sharing its threads. A query name can only be assigned to a
+     * single bulkhead.
+     *
+     * @param bulkhead   The bulkhead to execute the queries with
+     * @param queryNames The names of the queries to execute using the bulkhead
+     * @return handle to unregister the bulkhead, after which its queries are executed by the default bulkhead again
+     */
+    public Registration registerBulkhead(QueryBulkhead bulkhead, String... queryNames) {
+        Assert.notNull(bulkhead, () -> "bulkhead may not be null");
+        Collection<String> names = Arrays.asList(queryNames);
+        for (String queryName : names) {
+            QueryBulkhead existing = bulkheads.putIfAbsent(queryName, bulkhead);
+            Assert.state(existing == null || existing == bulkhead,
+                         () -> "Query '" + queryName + "' is already assigned to bulkhead '" + existing.getName() + "'");
+        }
+        registeredBulkheads.add(bulkhead);
+        return () -> {
+            names.forEach(queryName -> bulkheads.remove(queryName, bulkhead));
+            return true;
+        };
+    }
+
+    @Override
+    protected <Q, R> CompletableFuture<QueryResponseMessage<R>> handle(
+            QueryMessage<Q, R> query, List<MessageHandler<? super QueryMessage<?, ?>>> handlers) {
+        return bulkheads.getOrDefault(query.getQueryName(), defaultBulkhead)
+                        .execute(query, () -> super.handle(query, handlers));
+    }
+
+    /**
+     * Shuts down the threads of the default bulkhead and of all bulkheads that have been registered with this query
+     * bus, after they have executed the queries that have already been submitted.
+     */
+    public void shutdown() {
+        defaultBulkhead.shutdown();
+        registeredBulkheads.forEach(QueryBulkhead::shutdown);
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import org.axonframework.common.Assert;
+import org.axonframework.common.Registration;
+import org.axonframework.common.caching.Cache;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.monitoring.MessageMonitor;
+import org.axonframework.monitoring.NoOpMessageMonitor;
+import org.axonframework.queryhandling.responsetypes.ResponseType;
+import org.axonframework.queryhandling.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.responsetypes.StreamingResponseType;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * QueryBus decorator that caches the responses to point-to-point queries. Responses are cached by query name, payload
+ * and expected response type, so the payload of cached queries must properly implement {@code equals} and
+ * {@code hashCode}. The meta data of a query is not taken into account.
+ * <p/>
+ * Caching is enabled per query name, by configuring the time a response may be served from the cache with
+ * {@link #setTimeToLive(String, long, TimeUnit)}. A default for all query names may be configured with
+ * {@link #setDefaultTimeToLive(long, TimeUnit)}. Queries for which no time to live is configured are passed to the
+ * delegate query bus directly. The number of cached responses is bounded by the given {@link Cache}, for example a
+ * {@link org.axonframework.common.caching.BoundedCache}. Scatter-gather and subscription queries are never cached,
+ * nor are queries expecting a {@link StreamingResponseType streaming response}, as that can only be consumed once.
+ * <p/>
+ * This bus also acts as {@link QueryUpdateEmitter}, delegating to the given emitter. Cached responses to queries
+ * matching the filter of an update that is emitted, or of subscription queries that are completed, are removed from
+ * the cache, so that the next query is answered by the query handlers again. To benefit from this, the components
+ * emitting updates must use this bus as their emitter. Updates emitted by routing key, using
+ * {@link #emit(String, Object, SubscriptionQueryUpdateMessage)}, remove the cached responses to queries with that
+ * routing key. This requires the given emitter to be the {@link SimpleQueryBus} with which the routing key extractors
+ * are registered. Cached responses are indexed by query name and routing key, so that such updates don't need to test
+ * every cached response. A response to a query that matched an update while it was being answered isn't cached.
+ * <p/>
+ * For queries that are cached, the given {@link MessageMonitor} is notified of each query. Queries answered from the
+ * cache are reported as successful, while queries passed on to the delegate are reported as ignored once the delegate
+ * answered them, or as failed when the delegate failed to answer them. This provides the hit ratio of the cache, as
+ * well as the latency of hits and misses.
+ * <p/>
+ * Note that queries answered from the cache aren't passed through the dispatch and handler interceptors of the
+ * delegate query bus.
+ *
+ * @since 3.4
+ */
+public class CachingQueryBus implements QueryBus, QueryUpdateEmitter {
+
+    private final QueryBus delegate;
+    private final QueryUpdateEmitter updateEmitter;
+    private final Cache cache;
+    private final MessageMonitor<? super QueryMessage<?, ?>> messageMonitor;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Long> timeToLive = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, QueryIndex> queryIndices = new ConcurrentHashMap<>();
+    private volatile long defaultTimeToLive;
+
+    /**
+     * Initializes a caching query bus that passes queries to the given {@code delegate} and updates to the given
+     * {@code updateEmitter}, and stores responses in the given {@code cache}.
+     *
+     * @param delegate      the query bus to dispatch queries to that aren't answered from the cache
+     * @param updateEmitter the emitter to pass updates to subscription queries to
+     * @param cache         the cache to store responses in
+     */
+    public CachingQueryBus(QueryBus delegate, QueryUpdateEmitter updateEmitter, Cache cache) {
+        this(delegate, updateEmitter, cache, NoOpMessageMonitor.INSTANCE);
+    }
+
+    /**
+     * Initializes a caching query bus that passes queries to the given {@code delegate} and updates to the given
+     * {@code updateEmitter}, and stores responses in the given {@code cache}. The given {@code messageMonitor} is
+     * notified of cache hits and misses.
+     *
+     * @param delegate       the query bus to dispatch queries to that aren't answered from the cache
+     * @param updateEmitter  the emitter to pass updates to subscription queries to
+     * @param cache          the cache to store responses in
+     * @param messageMonitor the message monitor notified of queries that are eligible for caching
+     */
+    public CachingQueryBus(QueryBus delegate, QueryUpdateEmitter updateEmitter, Cache cache,
+                           MessageMonitor<? super QueryMessage<?, ?>> messageMonitor) {
+        this(delegate, updateEmitter, cache, messageMonitor, System::nanoTime);
+    }
+
+    CachingQueryBus(QueryBus delegate, QueryUpdateEmitter updateEmitter, Cache cache,
+                    MessageMonitor<? super QueryMessage<?, ?>> messageMonitor, LongSupplier clock) {
+        Assert.notNull(delegate, () -> "delegate may not be null");
+        Assert.notNull(updateEmitter, () -> "updateEmitter may not be null");
+        Assert.notNull(cache, () -> "cache may not be null");
+        this.delegate = delegate;
+        this.updateEmitter = updateEmitter;
+        this.cache = cache;
+        this.messageMonitor = messageMonitor != null ? messageMonitor : NoOpMessageMonitor.instance();
+        this.clock = clock;
+        cache.registerCacheEntryListener(new Cache.EntryListenerAdapter() {
+            @Override
+            public void onEntryExpired(Object key) {
+                unindex(key);
+            }
+
+            @Override
+            public void onEntryRemoved(Object key) {
+                unindex(key);
+            }
+        });
+    }
+
+    /**
+     * Sets the time during which responses to queries with given {@code queryName} are served from the cache. A
+     * {@code timeToLive} of 0 disables caching for these queries.
+     *
+     * @param queryName  the name of the queries to cache the responses of
+     * @param timeToLive the time during which responses are served from the cache
+     * @param timeUnit   the unit of the given {@code timeToLive}
+     */
+    public void setTimeToLive(String queryName, long timeToLive, TimeUnit timeUnit) {
+        Assert.isFalse(timeToLive < 0, () -> "timeToLive may not be negative");
+        this.timeToLive.put(queryName, timeUnit.toNanos(timeToLive));
+    }
+
+    /**
+     * Sets the time during which responses to queries are served from the cache, for query names for which no time to
+     * live has been set using {@link #setTimeToLive(String, long, TimeUnit)}. Defaults to 0, which means only queries
+     * for which a time to live has been set explicitly are cached.
+     *
+     * @param timeToLive the time during which responses are served from the cache
+     * @param timeUnit   the unit of the given {@code timeToLive}
+     */
+    public void setDefaultTimeToLive(long timeToLive, TimeUnit timeUnit) {
+        Assert.isFalse(timeToLive < 0, () -> "timeToLive may not be negative");
+        this.defaultTimeToLive = timeUnit.toNanos(timeToLive);
+    }
+
+    @Override
+    public <R> Registration subscribe(String queryName, Type responseType,
+                                      MessageHandler<? super QueryMessage<?, R>> handler) {
+        return delegate.subscribe(queryName, responseType, handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Q, R> CompletableFuture<QueryResponseMessage<R>> query(QueryMessage<Q, R> query) {
+        long ttl = timeToLive.getOrDefault(query.getQueryName(), defaultTimeToLive);
+        if (ttl <= 0 || query.getResponseType() instanceof StreamingResponseType) {
+            return delegate.query(query);
+        }
+        MessageMonitor.MonitorCallback monitorCallback = messageMonitor.onMessageIngested(query);
+        CacheKey key = new CacheKey(query);
+        CachedResponse cachedResponse = cache.get(key);
+        if (cachedResponse != null) {
+            if (cachedResponse.expiresAt - clock.getAsLong() > 0) {
+                queryIndex(key.queryName).add(key, cachedResponse.query, false);
+                monitorCallback.reportSuccess();
+                return CompletableFuture.completedFuture((QueryResponseMessage<R>) cachedResponse.response);
+            }
+            cache.remove(key);
+        }
+        QueryIndex queryIndex = queryIndex(key.queryName);
+        PendingQuery pendingQuery = new PendingQuery(asSubscriptionQuery(query));
+        queryIndex.pendingQueries.add(pendingQuery);
+        CompletableFuture<QueryResponseMessage<R>> result = delegate.query(query);
+        result.whenComplete((response, exception) -> {
+            if (exception != null) {
+                queryIndex.pendingQueries.remove(pendingQuery);
+                monitorCallback.reportFailure(exception);
+                return;
+            }
+            long expiresAt = clock.getAsLong() + ttl;
+            cache.put(key, new CachedResponse(response, pendingQuery.query, expiresAt));
+            queryIndex.add(key, pendingQuery.query, true);
+            // invalidations look at pending queries first, so one that misses the indexed response marks it here
+            queryIndex.pendingQueries.remove(pendingQuery);
+            if (pendingQuery.invalidated) {
+                // the response may predate an update, so it can't be served from the cache
+                cache.remove(key);
+            }
+            monitorCallback.reportIgnored();
+        });
+        return result;
+    }
+
+    @Override
+    public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> query, long timeout,
+                                                               TimeUnit unit) {
+        return delegate.scatterGather(query, timeout, unit);
+    }
+
+    @Override
+    public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>> subscriptionQuery(
+            SubscriptionQueryMessage<Q, I, U> query, SubscriptionQueryBackpressure backpressure,
+            int updateBufferSize) {
+        return delegate.subscriptionQuery(query, backpressure, updateBufferSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <U> void emit(Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                         SubscriptionQueryUpdateMessage<U> update) {
+        invalidate(query -> filter.test((SubscriptionQueryMessage<?, ?, U>) query));
+        updateEmitter.emit(filter, update);
+    }
+
+    /**
+     * Emits given incremental update to the subscription queries with given {@code queryName} of which the routing key
+     * equals the given {@code routingKey}, using
+     * {@link SimpleQueryBus#emit(String, Object, SubscriptionQueryUpdateMessage)}. Cached responses to queries with
+     * that name and routing key are removed from the cache.
+     *
+     * @param queryName  the name of the subscription queries to emit the update to
+     * @param routingKey the routing key of the subscription queries to emit the update to
+     * @param update     incremental update message
+     * @param <U>        the type of the update
+     * @throws IllegalStateException when the update emitter of this bus isn't a {@link SimpleQueryBus}, or when no
+     *                               routing key extractor is registered for given {@code queryName}
+     */
+    public <U> void emit(String queryName, Object routingKey, SubscriptionQueryUpdateMessage<U> update) {
+        Assert.state(updateEmitter instanceof SimpleQueryBus,
+                     () -> "Emitting updates by routing key requires a SimpleQueryBus as update emitter");
+        SimpleQueryBus emitter = (SimpleQueryBus) updateEmitter;
+        QueryIndex queryIndex = queryIndices.get(queryName);
+        if (queryIndex != null) {
+            queryIndex.invalidate(routingKey);
+        }
+        emitter.emit(queryName, routingKey, update);
+    }
+
+    /**
+     * Emits given incremental update to the subscription queries with given {@code queryName} of which the routing key
+     * equals the given {@code routingKey}. If an {@code update} is {@code null}, emit will be skipped. Cached responses
+     * to queries with that name and routing key are removed from the cache.
+     *
+     * @param queryName  the name of the subscription queries to emit the update to
+     * @param routingKey the routing key of the subscription queries to emit the update to
+     * @param update     incremental update
+     * @param <U>        the type of the update
+     * @throws IllegalStateException when the update emitter of this bus isn't a {@link SimpleQueryBus}, or when no
+     *                               routing key extractor is registered for given {@code queryName}
+     * @see #emit(String, Object, SubscriptionQueryUpdateMessage)
+     */
+    public <U> void emit(String queryName, Object routingKey, U update) {
+        if (update != null) {
+            emit(queryName, routingKey, GenericSubscriptionQueryUpdateMessage.asUpdateMessage(update));
+        }
+    }
+
+    @Override
+    public void complete(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
+        invalidate(filter);
+        updateEmitter.complete(filter);
+    }
+
+    @Override
+    public void completeExceptionally(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter, Throwable cause) {
+        invalidate(filter);
+        updateEmitter.completeExceptionally(filter, cause);
+    }
+
+    private void invalidate(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
+        queryIndices.values().forEach(queryIndex -> queryIndex.invalidate(filter));
+    }
+
+    private QueryIndex queryIndex(String queryName) {
+        return queryIndices.computeIfAbsent(queryName, name -> new QueryIndex());
+    }
+
+    private void unindex(Object key) {
+        if (key instanceof CacheKey) {
+            QueryIndex queryIndex = queryIndices.get(((CacheKey) key).queryName);
+            if (queryIndex != null) {
+                queryIndex.remove((CacheKey) key);
+            }
+        }
+    }
+
+    private Object routingKeyOf(SubscriptionQueryMessage<?, ?, ?> query) {
+        return updateEmitter instanceof SimpleQueryBus ? ((SimpleQueryBus) updateEmitter).routingKeyOf(query) : null;
+    }
+
+    private static <Q, R> SubscriptionQueryMessage<?, ?, ?> asSubscriptionQuery(QueryMessage<Q, R> query) {
+        if (query instanceof SubscriptionQueryMessage) {
+            return (SubscriptionQueryMessage<?, ?, ?>) query;
+        }
+        return new GenericSubscriptionQueryMessage<>(query, query.getQueryName(), query.getResponseType(),
+                                                     ResponseTypes.instanceOf(Object.class));
+    }
+
+    private static final class CacheKey {
+
+        private final String queryName;
+        private final Object payload;
+        private final Class<?> responseType;
+        private final Class<?> expectedResponseType;
+        private final int hashCode;
+
+        private CacheKey(QueryMessage<?, ?> query) {
+            ResponseType<?> responseType = query.getResponseType();
+            this.queryName = query.getQueryName();
+            this.payload = query.getPayload();
+            this.responseType = responseType.getClass();
+            this.expectedResponseType = responseType.getExpectedResponseType();
+            this.hashCode = Objects.hash(queryName, payload, this.responseType, expectedResponseType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return queryName.equals(other.queryName)
+                    && Objects.equals(payload, other.payload)
+                    && responseType.equals(other.responseType)
+                    && Objects.equals(expectedResponseType, other.expectedResponseType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Index of the cached responses to queries with a single query name, and of the queries with that name that are
+     * being answered by the delegate. Cached responses are also indexed by the routing key of their query, so that
+     * updates emitted by routing key only need to look at the responses to queries with that key.
+     */
+    private final class QueryIndex {
+
+        private final ConcurrentMap<CacheKey, IndexedQuery> queries = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Object, Set<CacheKey>> keysByRoutingKey = new ConcurrentHashMap<>();
+        private final Set<CacheKey> keysWithoutRoutingKey = ConcurrentHashMap.newKeySet();
+        private final Set<PendingQuery> pendingQueries = ConcurrentHashMap.newKeySet();
+
+        private void add(CacheKey key, SubscriptionQueryMessage<?, ?, ?> query, boolean replace) {
+            if (!replace && queries.containsKey(key)) {
+                return;
+            }
+            Object routingKey = routingKeyOf(query);
+            IndexedQuery previous = queries.put(key, new IndexedQuery(query, routingKey));
+            if (previous != null && !Objects.equals(previous.routingKey, routingKey)) {
+                removeFromRoutingIndex(key, previous.routingKey);
+            }
+            if (routingKey == null) {
+                keysWithoutRoutingKey.add(key);
+            } else {
+                keysByRoutingKey.compute(routingKey, (k, keys) -> {
+                    Set<CacheKey> result = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                    result.add(key);
+                    return result;
+                });
+            }
+        }
+
+        private void remove(CacheKey key) {
+            IndexedQuery removed = queries.remove(key);
+            if (removed != null) {
+                removeFromRoutingIndex(key, removed.routingKey);
+            }
+        }
+
+        private void removeFromRoutingIndex(CacheKey key, Object routingKey) {
+            if (routingKey == null) {
+                keysWithoutRoutingKey.remove(key);
+            } else {
+                keysByRoutingKey.computeIfPresent(routingKey, (k, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+
+        private void invalidate(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
+            pendingQueries.stream().filter(pendingQuery -> filter.test(pendingQuery.query))
+                          .forEach(pendingQuery -> pendingQuery.invalidated = true);
+            queries.forEach((key, indexedQuery) -> {
+                if (filter.test(indexedQuery.query)) {
+                    evict(key);
+                }
+            });
+        }
+
+        private void invalidate(Object routingKey) {
+            pendingQueries.stream()
+                          .filter(pendingQuery -> Objects.equals(routingKey, routingKeyOf(pendingQuery.query)))
+                          .forEach(pendingQuery -> pendingQuery.invalidated = true);
+            Set<CacheKey> keys = keysByRoutingKey.get(routingKey);
+            if (keys != null) {
+                keys.forEach(this::evict);
+            }
+            // queries cached before a routing key extractor was registered have not been indexed by routing key
+            keysWithoutRoutingKey.forEach(key -> {
+                IndexedQuery indexedQuery = queries.get(key);
+                if (indexedQuery != null && Objects.equals(routingKey, routingKeyOf(indexedQuery.query))) {
+                    evict(key);
+                }
+            });
+        }
+
+        private void evict(CacheKey key) {
+            remove(key);
+            cache.remove(key);
+        }
+    }
+
+    private static final class IndexedQuery {
+
+        private final SubscriptionQueryMessage<?, ?, ?> query;
+        private final Object routingKey;
+
+        private IndexedQuery(SubscriptionQueryMessage<?, ?, ?> query, Object routingKey) {
+            this.query = query;
+            this.routingKey = routingKey;
+        }
+    }
+
+    private static final class PendingQuery {
+
+        private final SubscriptionQueryMessage<?, ?, ?> query;
+        private volatile boolean invalidated;
+
+        private PendingQuery(SubscriptionQueryMessage<?, ?, ?> query) {
+            this.query = query;
+        }
+    }
+
+    private static final class CachedResponse {
+
+        private final QueryResponseMessage<?> response;
+        private final SubscriptionQueryMessage<?, ?, ?> query;
+        private final long expiresAt;
+
+        private CachedResponse(QueryResponseMessage<?> response, SubscriptionQueryMessage<?, ?, ?> query,
+                               long expiresAt) {
+            this.response = response;
+            this.query = query;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Wrapper around {@link FluxSink} that only passes values to the sink when there is demand for them downstream.
+ * Values that can't be passed on yet are merged with pending values with the same key, so that the number of pending
+ * values is bounded by the number of distinct keys.
+ * <p>
+ * Completion is deferred until all pending values have been passed to the sink. Errors are passed on immediately,
+ * discarding pending values.
+ *
+ * @param <T> The value type
+ * @since 3.4
+ */
+class ConflatingFluxSinkWrapper<T> extends FluxSinkWrapper<T> {
+
+    private final Flux<T> flux;
+    private final AtomicLong requested;
+    private final Function<? super T, ?> keyExtractor;
+    private final BinaryOperator<T> mergeFunction;
+    private final int maxPendingKeys;
+    private final Map<Object, T> pending = new LinkedHashMap<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private volatile boolean completed;
+
+    private ConflatingFluxSinkWrapper(FluxSink<T> fluxSink, Flux<T> flux, AtomicLong requested,
+                                      Function<? super T, ?> keyExtractor, BinaryOperator<T> mergeFunction,
+                                      int maxPendingKeys) {
+        super(fluxSink);
+        this.flux = flux;
+        this.requested = requested;
+        this.keyExtractor = keyExtractor;
+        this.mergeFunction = mergeFunction;
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    /**
+     * Creates a sink conflating values, together with the Flux publishing them. The Flux may be subscribed to multiple
+     * times, in which case values are published to the subscribers that are subscribed at the time. Values are held
+     * back while there are no subscribers, or while any of the subscribers has no demand.
+     *
+     * @param keyExtractor   Function providing the key of values, determining which pending values are merged
+     * @param mergeFunction  Function merging a pending value with a new value with the same key
+     * @param maxPendingKeys The maximum number of distinct keys of pending values
+     * @param <T>            The value type
+     * @return a conflating sink
+     */
+    static <T> ConflatingFluxSinkWrapper<T> create(Function<? super T, ?> keyExtractor,
+                                                   BinaryOperator<T> mergeFunction, int maxPendingKeys) {
+        AtomicReference<FluxSink<T>> sinkReference = new AtomicReference<>();
+        AtomicReference<ConflatingFluxSinkWrapper<T>> wrapperReference = new AtomicReference<>();
+        AtomicLong requested = new AtomicLong();
+        // the processor holds a single value until it is consumed by all subscribers, and requests the next value
+        // when it has been. Subscribing to it right away makes the sink available.
+        EmitterProcessor<T> processor = EmitterProcessor.create(1);
+        Flux.<T>create(sinkReference::set, FluxSink.OverflowStrategy.BUFFER)
+                .doOnRequest(n -> {
+                    requested.accumulateAndGet(n, (current, added) -> current + added < 0
+                            ? Long.MAX_VALUE : current + added);
+                    ConflatingFluxSinkWrapper<T> wrapper = wrapperReference.get();
+                    if (wrapper != null) {
+                        wrapper.drain();
+                    }
+                })
+                .subscribe(processor);
+        ConflatingFluxSinkWrapper<T> wrapper = new ConflatingFluxSinkWrapper<>(
+                sinkReference.get(), processor, requested, keyExtractor, mergeFunction, maxPendingKeys);
+        wrapperReference.set(wrapper);
+        return wrapper;
+    }
+
+    /**
+     * Returns the Flux publishing the values passed to this sink.
+     *
+     * @return the Flux publishing the values passed to this sink
+     */
+    Flux<T> flux() {
+        return flux;
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+        drain();
+    }
+
+    @Override
+    public void next(T value) {
+        Object key = keyExtractor.apply(value);
+        boolean overflow;
+        synchronized (pending) {
+            overflow = !pending.containsKey(key) && pending.size() >= maxPendingKeys;
+            if (!overflow) {
+                pending.merge(key, value, mergeFunction);
+            }
+        }
+        if (overflow) {
+            error(Exceptions.failWithOverflow("The number of distinct pending update keys exceeds " + maxPendingKeys));
+        } else {
+            drain();
+        }
+    }
+
+    @Override
+    public void error(Throwable t) {
+        synchronized (pending) {
+            pending.clear();
+        }
+        super.error(t);
+    }
+
+    private int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            boolean emptied = false;
+            while (!emptied && requested.get() > 0) {
+                T next = null;
+                synchronized (pending) {
+                    Iterator<T> iterator = pending.values().iterator();
+                    if (iterator.hasNext()) {
+                        next = iterator.next();
+                        iterator.remove();
+                    }
+                }
+                if (next == null) {
+                    emptied = true;
+                } else {
+                    requested.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+                    super.next(next);
+                }
+            }
+            if (completed && pendingCount() == 0) {
+                super.complete();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import org.axonframework.common.Assert;
+import org.axonframework.common.AxonThreadFactory;
+import org.axonframework.monitoring.MessageMonitor;
+import org.axonframework.monitoring.NoOpMessageMonitor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * A pool of threads with a bounded queue, dedicated to executing a group of queries. Assigning heavy queries to a
+ * different bulkhead than cheap queries (see {@link AsynchronousQueryBus#registerBulkhead(QueryBulkhead, String...)})
+ * prevents the heavy queries from occupying all threads, and keeps cheap queries responsive when heavy queries pile
+ * up.
+ * <p/>
+ * When all threads are busy and the queue is full, a query is handled according to the bulkhead's
+ * {@link RejectionPolicy}. The given {@link MessageMonitor} is notified of the queries executed by this bulkhead,
+ * including the time they spent waiting in the queue. Rejected queries are reported as failed. Additionally, the
+ * state of the bulkhead is available through {@link #getActiveCount()}, {@link #getQueueSize()},
+ * {@link #getCompletedCount()} and {@link #getRejectedCount()}.
+ *
+ * @since 3.4
+ */
+public class QueryBulkhead {
+
+    /**
+     * Policy determining what happens to queries that are submitted to a bulkhead of which all threads are busy and of
+     * which the queue is full.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * The query fails with a {@link RejectedExecutionException}.
+         */
+        ABORT,
+
+        /**
+         * The query is executed by the thread submitting the query. This slows down the submitting threads, instead of
+         * failing queries.
+         */
+        CALLER_RUNS,
+
+        /**
+         * The query that has been waiting in the queue the longest fails with a
+         * {@link RejectedExecutionException}, making room for the query being submitted. This favors recent queries,
+         * of which the caller is more likely to still be waiting for the result.
+         */
+        DISCARD_OLDEST
+    }
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy rejectionPolicy;
+    private final MessageMonitor<? super QueryMessage<?, ?>> messageMonitor;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Initializes a bulkhead with given {@code name}, executing queries using {@code threadCount} threads. At most
+     * {@code queueCapacity} queries wait for a thread to become available, after which queries fail.
+     *
+     * @param name          the name of the bulkhead, used to name its threads
+     * @param threadCount   the number of threads executing queries
+     * @param queueCapacity the maximum number of queries waiting for a thread
+     */
+    public QueryBulkhead(String name, int threadCount, int queueCapacity) {
+        this(name, threadCount, queueCapacity, RejectionPolicy.ABORT, NoOpMessageMonitor.INSTANCE);
+    }
+
+    /**
+     * Initializes a bulkhead with given {@code name}, executing queries using {@code threadCount} threads. At most
+     * {@code queueCapacity} queries wait for a thread to become available, after which queries are handled according to
+     * the given {@code rejectionPolicy}. The given {@code messageMonitor} is notified of the queries executed by this
+     * bulkhead.
+     *
+     * @param name            the name of the bulkhead, used to name its threads
+     * @param threadCount     the number of threads executing queries
+     * @param queueCapacity   the maximum number of queries waiting for a thread
+     * @param rejectionPolicy the policy for queries submitted when the queue is full
+     * @param messageMonitor  the message monitor notified of queries executed by this bulkhead
+     */
+    public QueryBulkhead(String name, int threadCount, int queueCapacity, RejectionPolicy rejectionPolicy,
+                         MessageMonitor<? super QueryMessage<?, ?>> messageMonitor) {
+        Assert.notNull(name, () -> "name may not be null");
+        Assert.isTrue(threadCount > 0, () -> "threadCount must be positive");
+        Assert.isTrue(queueCapacity > 0, () -> "queueCapacity must be positive");
+        Assert.notNull(rejectionPolicy, () -> "rejectionPolicy may not be null");
+        this.name = name;
+        this.rejectionPolicy = rejectionPolicy;
+        this.messageMonitor = messageMonitor != null ? messageMonitor : NoOpMessageMonitor.instance();
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(queueCapacity),
+                                               new AxonThreadFactory("QueryBulkhead-" + name),
+                                               (task, pool) -> reject((QueryTask) task));
+    }
+
+    /**
+     * Executes the given {@code invocation} of given {@code query} using one of this bulkhead's threads. The returned
+     * future completes with the result of the future returned by the invocation, or exceptionally when the invocation
+     * fails.
+     *
+     * @param query      the query being executed
+     * @param invocation the invocation of the query handler
+     * @param <R>        the type of response of the query
+     * @return a future completing with the response to the query
+     */
+    <R> CompletableFuture<QueryResponseMessage<R>> execute(
+            QueryMessage<?, R> query, Callable<CompletableFuture<QueryResponseMessage<R>>> invocation) {
+        MessageMonitor.MonitorCallback monitorCallback = messageMonitor.onMessageIngested(query);
+        CompletableFuture<QueryResponseMessage<R>> result = new CompletableFuture<>();
+        result.whenComplete((response, exception) -> {
+            if (exception == null) {
+                monitorCallback.reportSuccess();
+            } else {
+                monitorCallback.reportFailure(exception);
+            }
+        });
+        executor.execute(new QueryTask(result, () -> invocation.call().whenComplete((response, exception) -> {
+            if (exception == null) {
+                result.complete(response);
+            } else {
+                result.completeExceptionally(exception);
+            }
+        })));
+        return result;
+    }
+
+    private void reject(QueryTask task) {
+        if (!executor.isShutdown()) {
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                task.run();
+                return;
+            }
+            if (rejectionPolicy == RejectionPolicy.DISCARD_OLDEST) {
+                QueryTask oldest = (QueryTask) executor.getQueue().poll();
+                if (oldest != null) {
+                    rejectedCount.incrementAndGet();
+                    oldest.fail(new RejectedExecutionException(
+                            format("Query discarded from the queue of bulkhead '%s' to make room for another", name)));
+                }
+                executor.execute(task);
+                return;
+            }
+        }
+        rejectedCount.incrementAndGet();
+        task.fail(new RejectedExecutionException(format("Query rejected by bulkhead '%s'", name)));
+    }
+
+    /**
+     * Returns the name of this bulkhead.
+     *
+     * @return the name of this bulkhead
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the approximate number of threads that are executing queries.
+     *
+     * @return the number of threads executing queries
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Returns the number of queries waiting for a thread to become available.
+     *
+     * @return the number of queries waiting for a thread
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the approximate number of queries that have been executed by this bulkhead.
+     *
+     * @return the number of executed queries
+     */
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Returns the number of queries that failed because they were rejected or discarded by this bulkhead.
+     *
+     * @return the number of rejected queries
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Shuts down the threads of this bulkhead, after they have executed the queries that have already been submitted.
+     * Queries submitted after shutdown fail with a {@link RejectedExecutionException}.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class QueryTask implements Runnable {
+
+        private final CompletableFuture<?> result;
+        private final Callable<?> invocation;
+
+        private QueryTask(CompletableFuture<?> result, Callable<?> invocation) {
+            this.result = result;
+            this.invocation = invocation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                invocation.call();
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            result.completeExceptionally(cause);
+        }
+    }
+}
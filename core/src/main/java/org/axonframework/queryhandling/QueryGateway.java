@@ -17,10 +17,13 @@
 
 import org.axonframework.queryhandling.responsetypes.ResponseType;
 import org.axonframework.queryhandling.responsetypes.ResponseTypes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.util.concurrent.Queues;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -99,6 +102,45 @@ default <R, Q> CompletableFuture<R> query(Q query, ResponseType<R> responseType)
      */
     <R, Q> CompletableFuture<R> query(String queryName, Q query, ResponseType<R> responseType);
 
+    /**
+     * Sends given {@code query} over the {@link org.axonframework.queryhandling.QueryBus}, expecting a stream of
+     * instances of the given {@code responseType} from a single source. The query name will be derived from the
+     * provided {@code query}. The query is sent when the returned Flux is subscribed to.
+     *
+     * @param query        The {@code query} to be sent
+     * @param responseType A {@link java.lang.Class} describing the type of the streamed instances
+     * @param <R>          The type of the streamed instances
+     * @param <Q>          The query class
+     * @return A {@link reactor.core.publisher.Flux} streaming the query result
+     * @see #streamingQuery(String, Object, Class)
+     */
+    default <R, Q> Flux<R> streamingQuery(Q query, Class<R> responseType) {
+        return streamingQuery(query.getClass().getName(), query, responseType);
+    }
+
+    /**
+     * Sends given {@code query} over the {@link org.axonframework.queryhandling.QueryBus}, expecting a stream of
+     * instances of the given {@code responseType} from a single source. The query is sent when the returned Flux is
+     * subscribed to.
+     * <p>
+     * Contrary to querying for {@link ResponseTypes#multipleInstancesOf(Class) multiple instances}, the result isn't
+     * collected in a {@link java.util.List}. When the query handler returns a {@link Stream} or a
+     * {@link org.reactivestreams.Publisher}, its elements are retrieved as they are requested by the subscriber of the
+     * returned Flux.
+     *
+     * @param queryName    A {@link java.lang.String} describing the query to be executed
+     * @param query        The {@code query} to be sent
+     * @param responseType A {@link java.lang.Class} describing the type of the streamed instances
+     * @param <R>          The type of the streamed instances
+     * @param <Q>          The query class
+     * @return A {@link reactor.core.publisher.Flux} streaming the query result
+     * @see ResponseTypes#streamOf(Class)
+     */
+    default <R, Q> Flux<R> streamingQuery(String queryName, Q query, Class<R> responseType) {
+        return Mono.defer(() -> Mono.fromFuture(query(queryName, query, ResponseTypes.streamOf(responseType))))
+                   .flatMapMany(Function.identity());
+    }
+
     /**
      * Sends given {@code query} over the {@link org.axonframework.queryhandling.QueryBus}, expecting a response in the
      * form of {@code responseType} from several sources. The stream is completed when a {@code timeout} occurs or when
@@ -15,10 +15,11 @@
  */
 package org.axonframework.queryhandling;
 
+import org.axonframework.common.Assert;
 import org.axonframework.common.Registration;
 import org.axonframework.common.transaction.NoTransactionManager;
 import org.axonframework.common.transaction.TransactionManager;
-import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.CompiledInterceptorChain;
 import org.axonframework.messaging.MessageDispatchInterceptor;
 import org.axonframework.messaging.MessageHandler;
 import org.axonframework.messaging.MessageHandlerInterceptor;
@@ -27,19 +28,25 @@
 import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.axonframework.monitoring.MessageMonitor;
 import org.axonframework.monitoring.NoOpMessageMonitor;
+import org.axonframework.queryhandling.responsetypes.AbstractResponseType;
 import org.axonframework.queryhandling.responsetypes.ResponseType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 
 import java.lang.reflect.Type;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.lang.String.format;
 import static org.axonframework.common.ObjectUtils.getOrDefault;
@@ -63,12 +70,22 @@ public class SimpleQueryBus implements QueryBus, QueryUpdateEmitter {
     private static final Logger logger = LoggerFactory.getLogger(SimpleQueryBus.class);
 
     private final ConcurrentMap<String, CopyOnWriteArrayList<QuerySubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<ResponseType<?>, List<MessageHandler<? super QueryMessage<?, ?>>>>>
+            resolvedHandlers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionChanges = new AtomicLong();
     private final ConcurrentMap<SubscriptionQueryMessage<?, ?, ?>, FluxSinkWrapper<?>> updateHandlers = new ConcurrentHashMap<>();
+    private final Set<String> subscriptionQueryIdentifiers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Function<Object, ?>> routingKeyExtractors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Object, Set<SubscriptionQueryMessage<?, ?, ?>>>> routingIndex =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<SubscriptionQueryMessage<?, ?, ?>, Object> routingKeys = new ConcurrentHashMap<>();
     private final MessageMonitor<? super QueryMessage<?, ?>> messageMonitor;
     private final MessageMonitor<? super SubscriptionQueryUpdateMessage<?>> updateMessageMonitor;
     private final QueryInvocationErrorHandler errorHandler;
-    private final List<MessageHandlerInterceptor<? super QueryMessage<?, ?>>> handlerInterceptors = new CopyOnWriteArrayList<>();
+    private final AtomicReference<CompiledInterceptorChain<QueryMessage<?, ?>>> handlerInterceptors =
+            new AtomicReference<>(CompiledInterceptorChain.empty());
     private final List<MessageDispatchInterceptor<? super QueryMessage<?, ?>>> dispatchInterceptors = new CopyOnWriteArrayList<>();
+    private volatile ExecutorService scatterGatherExecutor;
 
     /**
      * Initialize the query bus without monitoring on messages and a {@link LoggingQueryInvocationErrorHandler}.
@@ -132,6 +149,7 @@ public <R> Registration subscribe(String queryName,
                 subscriptions.computeIfAbsent(queryName, k -> new CopyOnWriteArrayList<>());
         QuerySubscription<R> querySubscription = new QuerySubscription<>(responseType, handler);
         handlers.addIfAbsent(querySubscription);
+        subscriptionsChanged(queryName);
 
         return () -> unsubscribe(queryName, querySubscription);
     }
@@ -145,45 +163,68 @@ private boolean unsubscribe(String queryName,
             }
             return handlers;
         });
+        subscriptionsChanged(queryName);
         return true;
     }
 
+    private void subscriptionsChanged(String queryName) {
+        subscriptionChanges.incrementAndGet();
+        resolvedHandlers.remove(queryName);
+    }
+
     @Override
     public <Q, R> CompletableFuture<QueryResponseMessage<R>> query(QueryMessage<Q, R> query) {
         MessageMonitor.MonitorCallback monitorCallback = messageMonitor.onMessageIngested(query);
         QueryMessage<Q, R> interceptedQuery = intercept(query);
         List<MessageHandler<? super QueryMessage<?, ?>>> handlers = getHandlersForMessage(interceptedQuery);
-        CompletableFuture<QueryResponseMessage<R>> result = new CompletableFuture<>();
+        CompletableFuture<QueryResponseMessage<R>> result;
         try {
             if (handlers.isEmpty()) {
                 throw new NoHandlerForQueryException(format("No handler found for %s with response type %s",
                                                             interceptedQuery.getQueryName(),
                                                             interceptedQuery.getResponseType()));
             }
-            Iterator<MessageHandler<? super QueryMessage<?, ?>>> handlerIterator = handlers.iterator();
-            boolean invocationSuccess = false;
-            while (!invocationSuccess && handlerIterator.hasNext()) {
-                try {
-                    DefaultUnitOfWork<QueryMessage<Q, R>> uow = DefaultUnitOfWork.startAndGet(interceptedQuery);
-                    result = interceptAndInvoke(uow, handlerIterator.next());
-                    invocationSuccess = true;
-                } catch (NoHandlerForQueryException e) {
-                    // Ignore this Query Handler, as we may have another one which is suitable
-                }
-            }
-            if (!invocationSuccess) {
-                throw new NoHandlerForQueryException(format("No suitable handler was found for %s with response type %s",
-                                                            interceptedQuery.getQueryName(),
-                                                            interceptedQuery.getResponseType()));
-            }
-            monitorCallback.reportSuccess();
+            result = handle(interceptedQuery, handlers);
         } catch (Exception e) {
+            result = new CompletableFuture<>();
             result.completeExceptionally(e);
-            monitorCallback.reportFailure(e);
         }
+        result.whenComplete((response, exception) -> {
+            if (exception == null) {
+                monitorCallback.reportSuccess();
+            } else {
+                monitorCallback.reportFailure(exception);
+            }
+        });
         return result;
     }
 
+    /**
+     * Performs the actual handling logic of a point-to-point query. The given {@code handlers} are invoked one after
+     * the other, until one of them is able to handle the query. The given {@code query} has already been intercepted
+     * by the dispatch interceptors, and at least one handler has been found for it.
+     *
+     * @param query    The query to handle
+     * @param handlers The handlers subscribed to the name and response type of the query
+     * @param <Q>      The type of payload of the query
+     * @param <R>      The type of response expected from the query handler
+     * @return a future completing with the response of the handler that handled the query
+     * @throws Exception when none of the handlers is able to handle the query, or when handling the query failed
+     */
+    protected <Q, R> CompletableFuture<QueryResponseMessage<R>> handle(
+            QueryMessage<Q, R> query, List<MessageHandler<? super QueryMessage<?, ?>>> handlers) throws Exception {
+        for (MessageHandler<? super QueryMessage<?, ?>> handler : handlers) {
+            try {
+                DefaultUnitOfWork<QueryMessage<Q, R>> uow = DefaultUnitOfWork.startAndGet(query);
+                return interceptAndInvoke(uow, handler);
+            } catch (NoHandlerForQueryException e) {
+                // Ignore this Query Handler, as we may have another one which is suitable
+            }
+        }
+        throw new NoHandlerForQueryException(format("No suitable handler was found for %s with response type %s",
+                                                    query.getQueryName(), query.getResponseType()));
+    }
+
     @Override
     public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> query, long timeout, TimeUnit unit) {
         MessageMonitor.MonitorCallback monitorCallback = messageMonitor.onMessageIngested(query);
@@ -195,6 +236,10 @@ public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> q
         }
 
         long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        ExecutorService executor = scatterGatherExecutor;
+        if (executor != null) {
+            return parallelScatterGather(executor, interceptedQuery, handlers, deadline, monitorCallback);
+        }
         return handlers.stream()
                        .map(handler -> {
                            try {
@@ -212,16 +257,72 @@ public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> q
                        }).filter(Objects::nonNull);
     }
 
+    private <Q, R> Stream<QueryResponseMessage<R>> parallelScatterGather(
+            ExecutorService executor, QueryMessage<Q, R> interceptedQuery,
+            List<MessageHandler<? super QueryMessage<?, ?>>> handlers, long deadline,
+            MessageMonitor.MonitorCallback monitorCallback) {
+        BlockingQueue<Optional<QueryResponseMessage<R>>> results = new LinkedBlockingQueue<>();
+        List<Future<?>> invocations = new ArrayList<>(handlers.size());
+        for (MessageHandler<? super QueryMessage<?, ?>> handler : handlers) {
+            try {
+                invocations.add(executor.submit(() -> {
+                    QueryResponseMessage<R> response = null;
+                    try {
+                        response = interceptAndInvoke(DefaultUnitOfWork.startAndGet(interceptedQuery), handler)
+                                .get(getRemainingOfDeadline(deadline), TimeUnit.MILLISECONDS);
+                        monitorCallback.reportSuccess();
+                    } catch (Exception e) {
+                        monitorCallback.reportFailure(e);
+                        errorHandler.onError(e, interceptedQuery, handler);
+                    } finally {
+                        results.add(Optional.ofNullable(response));
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                monitorCallback.reportFailure(e);
+                errorHandler.onError(e, interceptedQuery, handler);
+                results.add(Optional.empty());
+            }
+        }
+        Runnable cancelInvocations = () -> invocations.forEach(invocation -> invocation.cancel(true));
+        Spliterator<QueryResponseMessage<R>> spliterator =
+                new Spliterators.AbstractSpliterator<QueryResponseMessage<R>>(handlers.size(), Spliterator.NONNULL) {
+                    private int remaining = handlers.size();
+
+                    @Override
+                    public boolean tryAdvance(Consumer<? super QueryResponseMessage<R>> action) {
+                        while (remaining > 0) {
+                            Optional<QueryResponseMessage<R>> result;
+                            try {
+                                result = results.poll(getRemainingOfDeadline(deadline), TimeUnit.MILLISECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                result = null;
+                            }
+                            if (result == null) {
+                                remaining = 0;
+                                cancelInvocations.run();
+                                return false;
+                            }
+                            remaining--;
+                            if (result.isPresent()) {
+                                action.accept(result.get());
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+                };
+        return StreamSupport.stream(spliterator, false).onClose(cancelInvocations);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>> subscriptionQuery(
             SubscriptionQueryMessage<Q, I, U> query,
             SubscriptionQueryBackpressure backpressure,
             int updateBufferSize) {
-        boolean alreadyExists = updateHandlers.keySet()
-                                              .stream()
-                                              .anyMatch(m -> m.getIdentifier().equals(query.getIdentifier()));
-        if (alreadyExists) {
+        if (!subscriptionQueryIdentifiers.add(query.getIdentifier())) {
             throw new IllegalArgumentException("There is already a subscription with the given message identifier");
         }
 
@@ -234,20 +335,41 @@ public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQu
                     return null;
                 }));
 
-        EmitterProcessor<SubscriptionQueryUpdateMessage<U>> processor = EmitterProcessor.create(updateBufferSize);
-        FluxSink<SubscriptionQueryUpdateMessage<U>> sink = processor.sink(backpressure.getOverflowStrategy());
-        sink.onDispose(() -> updateHandlers.remove(query));
-        FluxSinkWrapper<SubscriptionQueryUpdateMessage<U>> fluxSinkWrapper = new FluxSinkWrapper<>(sink);
-        updateHandlers.put(query, fluxSinkWrapper);
+        Flux<SubscriptionQueryUpdateMessage<U>> updates;
+        FluxSinkWrapper<SubscriptionQueryUpdateMessage<U>> fluxSinkWrapper;
+        try {
+            if (backpressure.isConflating()) {
+                ConflatingFluxSinkWrapper<SubscriptionQueryUpdateMessage<U>> conflatingSink =
+                        ConflatingFluxSinkWrapper.create(
+                                backpressure.getConflationKeyExtractor(),
+                                (pending, update) -> (SubscriptionQueryUpdateMessage<U>) backpressure
+                                        .getMergeFunction().apply(pending, update),
+                                updateBufferSize);
+                conflatingSink.onDispose(() -> removeUpdateHandler(query));
+                fluxSinkWrapper = conflatingSink;
+                updates = conflatingSink.flux();
+            } else {
+                EmitterProcessor<SubscriptionQueryUpdateMessage<U>> processor =
+                        EmitterProcessor.create(updateBufferSize);
+                FluxSink<SubscriptionQueryUpdateMessage<U>> sink = processor.sink(backpressure.getOverflowStrategy());
+                sink.onDispose(() -> removeUpdateHandler(query));
+                fluxSinkWrapper = new FluxSinkWrapper<>(sink);
+                updates = processor.replay(updateBufferSize).autoConnect();
+            }
+            updateHandlers.put(query, fluxSinkWrapper);
+            index(query);
+        } catch (RuntimeException e) {
+            removeUpdateHandler(query);
+            subscriptionQueryIdentifiers.remove(query.getIdentifier());
+            throw e;
+        }
 
         Registration registration = () -> {
             fluxSinkWrapper.complete();
             return true;
         };
 
-        return new DefaultSubscriptionQueryResult<>(initialResult.getMono(),
-                                                    processor.replay(updateBufferSize).autoConnect(),
-                                                    registration);
+        return new DefaultSubscriptionQueryResult<>(initialResult.getMono(), updates, registration);
     }
 
     @SuppressWarnings("unchecked")
@@ -261,6 +383,124 @@ public <U> void emit(Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
                                                 .ifPresent(uh -> doEmit(query, uh, update)));
     }
 
+    /**
+     * Emits given incremental update to the subscription queries with given {@code queryName} of which the routing key
+     * equals the given {@code routingKey}. The routing key of a subscription query is extracted from its payload by
+     * the extractor registered for its query name using {@link #registerRoutingKeyExtractor(String, Function)}.
+     * <p>
+     * Rather than testing every subscription query, as {@link #emit(Predicate, SubscriptionQueryUpdateMessage)}
+     * does, the matching subscription queries are looked up in an index. This makes the cost of emitting an update
+     * independent of the number of subscription queries that are open.
+     *
+     * @param queryName  the name of the subscription queries to emit the update to
+     * @param routingKey the routing key of the subscription queries to emit the update to
+     * @param update     incremental update message
+     * @param <U>        the type of the update
+     * @throws IllegalStateException when no routing key extractor is registered for given {@code queryName}
+     */
+    public <U> void emit(String queryName, Object routingKey, SubscriptionQueryUpdateMessage<U> update) {
+        Assert.state(routingKeyExtractors.containsKey(queryName),
+                     () -> format("No routing key extractor is registered for query '%s'", queryName));
+        ConcurrentMap<Object, Set<SubscriptionQueryMessage<?, ?, ?>>> queryIndex = routingIndex.get(queryName);
+        Set<SubscriptionQueryMessage<?, ?, ?>> queries = queryIndex == null ? null : queryIndex.get(routingKey);
+        if (queries != null) {
+            queries.forEach(query -> Optional.ofNullable(updateHandlers.get(query))
+                                             .ifPresent(uh -> doEmit(query, uh, update)));
+        }
+    }
+
+    /**
+     * Emits given incremental update to the subscription queries with given {@code queryName} of which the routing key
+     * equals the given {@code routingKey}. If an {@code update} is {@code null}, emit will be skipped. In order to send
+     * nullable updates, use {@link #emit(String, Object, SubscriptionQueryUpdateMessage)}.
+     *
+     * @param queryName  the name of the subscription queries to emit the update to
+     * @param routingKey the routing key of the subscription queries to emit the update to
+     * @param update     incremental update
+     * @param <U>        the type of the update
+     * @throws IllegalStateException when no routing key extractor is registered for given {@code queryName}
+     * @see #emit(String, Object, SubscriptionQueryUpdateMessage)
+     */
+    public <U> void emit(String queryName, Object routingKey, U update) {
+        if (update != null) {
+            emit(queryName, routingKey, GenericSubscriptionQueryUpdateMessage.asUpdateMessage(update));
+        }
+    }
+
+    /**
+     * Registers a function that extracts the routing key from the payload of subscription queries with given {@code
+     * queryName}, such as the identifier of the aggregate the query is about. Subscription queries with that name are
+     * indexed by their routing key, allowing updates to be emitted to them using
+     * {@link #emit(String, Object, SubscriptionQueryUpdateMessage)}. Subscription queries for which the extractor
+     * returns {@code null} are not indexed, and only receive updates emitted using a {@link Predicate}.
+     * <p>
+     * Subscription queries with given {@code queryName} that are already open are indexed when the extractor is
+     * registered. Only one extractor may be registered per query name.
+     *
+     * @param queryName    the name of the subscription queries to extract the routing key from
+     * @param keyExtractor function extracting the routing key from the payload of a subscription query
+     * @param <Q>          the type of payload of the subscription queries
+     * @return handle to unregister the extractor
+     */
+    @SuppressWarnings("unchecked")
+    public <Q> Registration registerRoutingKeyExtractor(String queryName, Function<Q, ?> keyExtractor) {
+        Function<Object, ?> extractor = (Function<Object, ?>) keyExtractor;
+        Assert.state(routingKeyExtractors.putIfAbsent(queryName, extractor) == null,
+                     () -> format("A routing key extractor is already registered for query '%s'", queryName));
+        updateHandlers.keySet().stream().filter(query -> queryName.equals(query.getQueryName())).forEach(this::index);
+        return () -> {
+            if (routingKeyExtractors.remove(queryName, extractor)) {
+                routingIndex.remove(queryName);
+                routingKeys.keySet().removeIf(query -> queryName.equals(query.getQueryName()));
+                return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Returns the routing key of the given {@code query}, as extracted from its payload by the extractor registered
+     * for its query name, or {@code null} when no extractor is registered or the extractor returns {@code null}.
+     *
+     * @param query the query to return the routing key of
+     * @return the routing key of the query, or {@code null}
+     */
+    Object routingKeyOf(QueryMessage<?, ?> query) {
+        Function<Object, ?> keyExtractor = routingKeyExtractors.get(query.getQueryName());
+        return keyExtractor == null ? null : keyExtractor.apply(query.getPayload());
+    }
+
+    private void index(SubscriptionQueryMessage<?, ?, ?> query) {
+        Object routingKey = routingKeyOf(query);
+        if (routingKey != null && routingKeys.putIfAbsent(query, routingKey) == null) {
+            routingIndex.computeIfAbsent(query.getQueryName(), k -> new ConcurrentHashMap<>())
+                        .compute(routingKey, (key, queries) -> {
+                            Set<SubscriptionQueryMessage<?, ?, ?>> result =
+                                    queries == null ? ConcurrentHashMap.newKeySet() : queries;
+                            result.add(query);
+                            return result;
+                        });
+        }
+    }
+
+    private void removeUpdateHandler(SubscriptionQueryMessage<?, ?, ?> query) {
+        if (updateHandlers.remove(query) == null) {
+            return;
+        }
+        Object routingKey = routingKeys.remove(query);
+        if (routingKey != null) {
+            ConcurrentMap<Object, Set<SubscriptionQueryMessage<?, ?, ?>>> queryIndex =
+                    routingIndex.get(query.getQueryName());
+            if (queryIndex != null) {
+                queryIndex.computeIfPresent(routingKey, (key, queries) -> {
+                    queries.remove(query);
+                    return queries.isEmpty() ? null : queries;
+                });
+            }
+        }
+        subscriptionQueryIdentifiers.remove(query.getIdentifier());
+    }
+
     @Override
     public void complete(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
         updateHandlers.keySet()
@@ -307,7 +547,7 @@ private <U> void doEmit(SubscriptionQueryMessage<?, ?, ?> query, FluxSinkWrapper
                                 "The subscription will be cancelled. Exception summary: {}",
                         query.getQueryName(), e.toString(), logger.isDebugEnabled() ? e : "");
             monitorCallback.reportFailure(e);
-            updateHandlers.remove(query);
+            removeUpdateHandler(query);
             emitError(query, e, updateHandler);
         }
     }
@@ -328,7 +568,7 @@ private <Q, R> CompletableFuture<QueryResponseMessage<R>> interceptAndInvoke(Uni
             throws Exception {
         return uow.executeWithResult(() -> {
             ResponseType<R> responseType = uow.getMessage().getResponseType();
-            Object queryResponse = new DefaultInterceptorChain<>(uow, handlerInterceptors, handler).proceed();
+            Object queryResponse = handlerInterceptors.get().proceed(uow, handler);
             if (queryResponse instanceof CompletableFuture) {
                 return ((CompletableFuture) queryResponse).thenCompose(
                         result -> buildCompletableFuture(responseType, result));
@@ -371,6 +611,22 @@ protected Map<String, Collection<QuerySubscription>> getSubscriptions() {
         return Collections.unmodifiableMap(subscriptions);
     }
 
+    /**
+     * Sets the executor used to invoke the handlers of scatter-gather queries. When set, all handlers of a
+     * scatter-gather query are invoked concurrently, each in their own unit of work, and the returned stream provides
+     * the responses in the order in which the handlers complete. When the timeout of the query expires, handlers that
+     * haven't completed yet are cancelled, interrupting the threads invoking them.
+     * <p>
+     * By default, no executor is set, and handlers are invoked one after the other by the thread consuming the stream
+     * of responses.
+     *
+     * @param scatterGatherExecutor the executor to invoke the handlers of scatter-gather queries with, or {@code
+     *                              null} to invoke them in the thread consuming the responses
+     */
+    public void setScatterGatherExecutor(ExecutorService scatterGatherExecutor) {
+        this.scatterGatherExecutor = scatterGatherExecutor;
+    }
+
     /**
      * Registers an interceptor that is used to intercept Queries before they are passed to their
      * respective handlers. The interceptor is invoked separately for each handler instance (in a separate unit of work).
@@ -379,8 +635,8 @@ protected Map<String, Collection<QuerySubscription>> getSubscriptions() {
      * @return handle to unregister the interceptor
      */
     public Registration registerHandlerInterceptor(MessageHandlerInterceptor<? super QueryMessage<?, ?>> interceptor) {
-        handlerInterceptors.add(interceptor);
-        return () -> handlerInterceptors.remove(interceptor);
+        handlerInterceptors.updateAndGet(chain -> chain.with(interceptor));
+        return () -> handlerInterceptors.getAndUpdate(chain -> chain.without(interceptor)).contains(interceptor);
     }
 
     /**
@@ -395,15 +651,41 @@ public Registration registerDispatchInterceptor(MessageDispatchInterceptor<? sup
         return () -> dispatchInterceptors.remove(interceptor);
     }
 
-    @SuppressWarnings("unchecked") // Suppresses 'queryHandler' cast to `MessageHandler<? super QueryMessage<?, ?>>`
     private <Q, R> List<MessageHandler<? super QueryMessage<?, ?>>> getHandlersForMessage(
             QueryMessage<Q, R> queryMessage) {
+        String queryName = queryMessage.getQueryName();
         ResponseType<R> responseType = queryMessage.getResponseType();
-        return subscriptions.computeIfAbsent(queryMessage.getQueryName(), k -> new CopyOnWriteArrayList<>())
-                            .stream()
-                            .filter(querySubscription -> responseType.matches(querySubscription.getResponseType()))
-                            .map((Function<QuerySubscription, MessageHandler>) QuerySubscription::getQueryHandler)
-                            .map(queryHandler -> (MessageHandler<? super QueryMessage<?, ?>>) queryHandler)
-                            .collect(Collectors.toList());
+        Map<ResponseType<?>, List<MessageHandler<? super QueryMessage<?, ?>>>> handlersByResponseType =
+                resolvedHandlers.get(queryName);
+        List<MessageHandler<? super QueryMessage<?, ?>>> handlers =
+                handlersByResponseType == null ? null : handlersByResponseType.get(responseType);
+        if (handlers != null) {
+            return handlers;
+        }
+        long changesBeforeResolving = subscriptionChanges.get();
+        CopyOnWriteArrayList<QuerySubscription> querySubscriptions = subscriptions.get(queryName);
+        if (querySubscriptions == null) {
+            return Collections.emptyList();
+        }
+        handlers = Collections.unmodifiableList(resolveHandlers(querySubscriptions, responseType));
+        // only response types with a notion of equality can be used as key
+        if (responseType instanceof AbstractResponseType) {
+            resolvedHandlers.computeIfAbsent(queryName, k -> new ConcurrentHashMap<>()).put(responseType, handlers);
+            if (subscriptionChanges.get() != changesBeforeResolving) {
+                // the handlers may have been resolved from subscriptions that have changed since
+                resolvedHandlers.remove(queryName);
+            }
+        }
+        return handlers;
+    }
+
+    @SuppressWarnings("unchecked") // Suppresses 'queryHandler' cast to `MessageHandler<? super QueryMessage<?, ?>>`
+    private <R> List<MessageHandler<? super QueryMessage<?, ?>>> resolveHandlers(
+            List<QuerySubscription> querySubscriptions, ResponseType<R> responseType) {
+        return querySubscriptions.stream()
+                                 .filter(querySubscription -> responseType.matches(querySubscription.getResponseType()))
+                                 .map((Function<QuerySubscription, MessageHandler>) QuerySubscription::getQueryHandler)
+                                 .map(queryHandler -> (MessageHandler<? super QueryMessage<?, ?>>) queryHandler)
+                                 .collect(Collectors.toList());
     }
 }
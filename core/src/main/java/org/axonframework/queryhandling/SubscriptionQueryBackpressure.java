@@ -16,11 +16,20 @@
 
 package org.axonframework.queryhandling;
 
+import org.axonframework.common.Assert;
 import reactor.core.publisher.FluxSink;
 
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
 /**
  * Backpressure mechanism used for subscription queries. Uses underlying {@link FluxSink.OverflowStrategy} to express
  * the type of backpressure.
+ * <p>
+ * Alternatively, updates may be conflated (see {@link #conflating(Function, BinaryOperator)}). Updates that can't be
+ * delivered yet, because the consumer of the updates is busy, are then merged with pending updates with the same
+ * conflation key. This keeps the number of pending updates bounded by the number of distinct keys, while the consumer
+ * always receives the latest state once it catches up.
  *
  * @author Milan Savic
  * @since 3.3
@@ -28,6 +37,8 @@
 public class SubscriptionQueryBackpressure {
 
     private final FluxSink.OverflowStrategy overflowStrategy;
+    private final Function<? super SubscriptionQueryUpdateMessage<?>, ?> conflationKeyExtractor;
+    private final BinaryOperator<SubscriptionQueryUpdateMessage<?>> mergeFunction;
 
     /**
      * Initializes backpressure with reactor's overflow strategy.
@@ -35,7 +46,63 @@ public class SubscriptionQueryBackpressure {
      * @param overflowStrategy For backpressure handling
      */
     public SubscriptionQueryBackpressure(FluxSink.OverflowStrategy overflowStrategy) {
+        this(overflowStrategy, null, null);
+    }
+
+    private SubscriptionQueryBackpressure(FluxSink.OverflowStrategy overflowStrategy,
+                                          Function<? super SubscriptionQueryUpdateMessage<?>, ?> conflationKeyExtractor,
+                                          BinaryOperator<SubscriptionQueryUpdateMessage<?>> mergeFunction) {
         this.overflowStrategy = overflowStrategy;
+        this.conflationKeyExtractor = conflationKeyExtractor;
+        this.mergeFunction = mergeFunction;
+    }
+
+    /**
+     * Creates backpressure that conflates pending updates. While the consumer is busy, an update is merged with the
+     * pending update that has the same key, as provided by given {@code conflationKeyExtractor}, using given {@code
+     * mergeFunction}. The merge function is invoked with the pending update and the new update, in that order. Pending
+     * updates are delivered in the order in which the first update for each key was emitted.
+     * <p>
+     * The update buffer size of the subscription query limits the number of distinct keys that may be pending. When
+     * an update with a new key exceeds that limit, the subscription query is completed with an error. Updates are not
+     * replayed, so when the updates are subscribed to more than once, later subscribers only receive the updates that
+     * are delivered after they subscribed.
+     *
+     * @param conflationKeyExtractor function providing the key of an update, determining which updates are merged
+     * @param mergeFunction          function merging a pending update with a new update
+     * @return initialized conflating backpressure
+     */
+    public static SubscriptionQueryBackpressure conflating(
+            Function<? super SubscriptionQueryUpdateMessage<?>, ?> conflationKeyExtractor,
+            BinaryOperator<SubscriptionQueryUpdateMessage<?>> mergeFunction) {
+        Assert.notNull(conflationKeyExtractor, () -> "conflationKeyExtractor may not be null");
+        Assert.notNull(mergeFunction, () -> "mergeFunction may not be null");
+        return new SubscriptionQueryBackpressure(FluxSink.OverflowStrategy.BUFFER, conflationKeyExtractor,
+                                                 mergeFunction);
+    }
+
+    /**
+     * Creates backpressure that replaces a pending update with a new update that has the same key, as provided by
+     * given {@code conflationKeyExtractor}, while the consumer is busy.
+     *
+     * @param conflationKeyExtractor function providing the key of an update, determining which updates are replaced
+     * @return initialized conflating backpressure
+     * @see #conflating(Function, BinaryOperator)
+     */
+    public static SubscriptionQueryBackpressure conflatingByKey(
+            Function<? super SubscriptionQueryUpdateMessage<?>, ?> conflationKeyExtractor) {
+        return conflating(conflationKeyExtractor, (pending, update) -> update);
+    }
+
+    /**
+     * Creates backpressure that only keeps the latest update while the consumer is busy. Use this when each update
+     * represents the complete state of the query result.
+     *
+     * @return initialized conflating backpressure
+     * @see #conflating(Function, BinaryOperator)
+     */
+    public static SubscriptionQueryBackpressure conflatingToLatest() {
+        return conflatingByKey(update -> Boolean.TRUE);
     }
 
     /**
@@ -55,4 +122,31 @@ public static SubscriptionQueryBackpressure defaultBackpressure() {
     public FluxSink.OverflowStrategy getOverflowStrategy() {
         return overflowStrategy;
     }
+
+    /**
+     * Indicates whether this backpressure conflates pending updates.
+     *
+     * @return {@code true} if pending updates are conflated, otherwise {@code false}
+     */
+    public boolean isConflating() {
+        return conflationKeyExtractor != null;
+    }
+
+    /**
+     * Gets the function providing the conflation key of an update, or {@code null} if updates aren't conflated.
+     *
+     * @return the function providing the conflation key of an update
+     */
+    public Function<? super SubscriptionQueryUpdateMessage<?>, ?> getConflationKeyExtractor() {
+        return conflationKeyExtractor;
+    }
+
+    /**
+     * Gets the function merging a pending update with a new update, or {@code null} if updates aren't conflated.
+     *
+     * @return the function merging a pending update with a new update
+     */
+    public BinaryOperator<SubscriptionQueryUpdateMessage<?>> getMergeFunction() {
+        return mergeFunction;
+    }
 }
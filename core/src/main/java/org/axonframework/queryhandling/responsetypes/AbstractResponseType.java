@@ -20,6 +20,7 @@
 
 import java.lang.reflect.*;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
@@ -55,6 +56,27 @@ public Class<?> getExpectedResponseType() {
         return expectedResponseType;
     }
 
+    /**
+     * Response types are equal when they are of the same class and expect the same response type, as they match the
+     * same query handlers in that case. Subclasses with additional state that influences matching should override this
+     * method.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(expectedResponseType, ((AbstractResponseType<?>) o).expectedResponseType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), expectedResponseType);
+    }
+
     /**
      * Tries to unwrap generic type if provided {@code type} is of type {@link Future}.
      *
@@ -0,0 +1,108 @@
+package org.axonframework.queryhandling.responsetypes;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.axonframework.common.TypeReflectionUtils;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Type;
+import java.util.stream.Stream;
+
+/**
+ * A {@link org.axonframework.queryhandling.responsetypes.ResponseType} implementation that will match with query
+ * handlers which return multiple instances of the expected response type, and which provides them as a
+ * {@link reactor.core.publisher.Flux}. Contrary to the
+ * {@link org.axonframework.queryhandling.responsetypes.MultipleInstancesResponseType}, the response is not collected in
+ * a {@link java.util.List}: a {@link java.util.stream.Stream} or {@link org.reactivestreams.Publisher} returned by the
+ * query handler is consumed as the subscriber of the Flux requests elements, so that large results don't have to fit
+ * in memory.
+ * <p>
+ * Note that a Flux is not serializable, and that a {@link java.util.stream.Stream} can only be consumed once. This
+ * response type is therefore only suitable for queries handled in the same JVM, and the resulting Flux should be
+ * subscribed to once. Resources held by the Stream, such as a database cursor, are released when the Flux completes
+ * or is cancelled.
+ *
+ * @param <R> The response type which will be matched against and converted to
+ * @since 3.4
+ */
+public class StreamingResponseType<R> extends AbstractResponseType<Flux<R>> {
+
+    /**
+     * Instantiate a {@link org.axonframework.queryhandling.responsetypes.StreamingResponseType} with the given
+     * {@code expectedElementType} as the type to be matched against and which the convert function will use as the
+     * generic for the {@link reactor.core.publisher.Flux} return value.
+     *
+     * @param expectedElementType the response type which is expected to be matched against and returned
+     */
+    @JsonCreator
+    public StreamingResponseType(@JsonProperty("expectedResponseType") Class<R> expectedElementType) {
+        super(expectedElementType);
+    }
+
+    /**
+     * Match the query handler its response {@link java.lang.reflect.Type} with this implementation its responseType
+     * {@code R}.
+     * Will return true in the following scenarios:
+     * <ul>
+     * <li>If the response type is a {@link org.reactivestreams.Publisher} of the expected type. For example a
+     * {@code Flux<ExpectedType>}</li>
+     * <li>If the response type is a {@link java.util.stream.Stream} of the expected type</li>
+     * <li>If the response type is an {@link java.lang.Iterable} of the expected type</li>
+     * <li>If the response type is an array or generic array of the expected type</li>
+     * </ul>
+     *
+     * @param responseType the response {@link java.lang.reflect.Type} of the query handler which is matched against
+     * @return true for publishers, streams, iterables and arrays for which the contained type is assignable to the
+     * expected type
+     */
+    @Override
+    public boolean matches(Type responseType) {
+        Type unwrapped = unwrapIfTypeFuture(responseType);
+        return isPublisherOfExpectedType(unwrapped) ||
+                isStreamOfExpectedType(unwrapped) ||
+                isIterableOfExpectedType(unwrapped) ||
+                isGenericArrayOfExpectedType(unwrapped) ||
+                isArrayOfExpectedType(unwrapped);
+    }
+
+    /**
+     * Converts the given {@code response} into a {@link reactor.core.publisher.Flux} with generic type {@code R}. The
+     * elements of the response are not accessed until they are requested by a subscriber of the Flux. Will throw an
+     * {@link java.lang.IllegalArgumentException} if the given response is not a publisher, stream, iterable or array.
+     * A {@code null} response is converted to an empty Flux.
+     *
+     * @param response the {@link java.lang.Object} to convert into a {@link reactor.core.publisher.Flux} of generic
+     *                 type {@code R}
+     * @return a {@link reactor.core.publisher.Flux} of generic type {@code R}, based on the given {@code response}
+     */
+    @SuppressWarnings("unchecked") // Suppress casts to R, since in proper use of this function it is allowed
+    @Override
+    public Flux<R> convert(Object response) {
+        if (response == null) {
+            return Flux.empty();
+        } else if (response instanceof Publisher) {
+            return Flux.from((Publisher<R>) response);
+        } else if (response instanceof Stream) {
+            return Flux.fromStream((Stream<R>) response);
+        } else if (response instanceof Iterable) {
+            return Flux.fromIterable((Iterable<R>) response);
+        } else if (isArrayOfExpectedType(response.getClass())) {
+            return Flux.fromArray((R[]) response);
+        }
+
+        throw new IllegalArgumentException("Retrieved response [" + response.getClass() + "] is not convertible to a "
+                                                   + "Flux of the expected response type [" + expectedResponseType + "]");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class responseMessagePayloadType() {
+        return Flux.class;
+    }
+
+    private boolean isPublisherOfExpectedType(Type responseType) {
+        Type publisherType = TypeReflectionUtils.getExactSuperType(responseType, Publisher.class);
+        return publisherType != null && isParameterizedTypeOfExpectedType(publisherType);
+    }
+}
@@ -16,19 +16,28 @@
 
 package org.axonframework.commandhandling;
 
+import org.axonframework.common.AxonThreadFactory;
+import org.axonframework.common.StripedExecutor;
+import org.axonframework.common.transaction.NoTransactionManager;
 import org.axonframework.messaging.InterceptorChain;
 import org.axonframework.messaging.MessageDispatchInterceptor;
 import org.axonframework.messaging.MessageHandler;
 import org.axonframework.messaging.MessageHandlerInterceptor;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.monitoring.NoOpMessageMonitor;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InOrder;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -112,4 +121,46 @@ public void testShutdown_ExecutorUsed() {
 
         verify(executor, never()).execute(any(Runnable.class));
     }
+
+    @Test(timeout = 5000)
+    public void testCommandsForSameAggregateHandledBySameWorker() throws Exception {
+        StripedExecutor stripedExecutor = new StripedExecutor(4, 100, new AxonThreadFactory("commands"));
+        AsynchronousCommandBus affinityCommandBus =
+                new AsynchronousCommandBus(stripedExecutor, new AnnotationCommandTargetResolver(),
+                                           NoTransactionManager.INSTANCE, NoOpMessageMonitor.INSTANCE);
+        Map<String, Thread> handlingThreads = new ConcurrentHashMap<>();
+        CountDownLatch handled = new CountDownLatch(40);
+        affinityCommandBus.subscribe(TargetedCommand.class.getName(), command -> {
+            String aggregateIdentifier = ((TargetedCommand) command.getPayload()).aggregateIdentifier;
+            Thread previous = handlingThreads.putIfAbsent(aggregateIdentifier, Thread.currentThread());
+            assertTrue(previous == null || previous == Thread.currentThread());
+            handled.countDown();
+            return null;
+        });
+        affinityCommandBus.subscribe(String.class.getName(), command -> {
+            handled.countDown();
+            return null;
+        });
+
+        for (int i = 0; i < 30; i++) {
+            affinityCommandBus.dispatch(asCommandMessage(new TargetedCommand("aggregate" + (i % 5))));
+        }
+        for (int i = 0; i < 10; i++) {
+            affinityCommandBus.dispatch(asCommandMessage("untargeted"));
+        }
+
+        assertTrue(handled.await(1, TimeUnit.SECONDS));
+        assertEquals(5, handlingThreads.size());
+        affinityCommandBus.shutdown();
+    }
+
+    private static class TargetedCommand {
+
+        @TargetAggregateIdentifier
+        private final String aggregateIdentifier;
+
+        private TargetedCommand(String aggregateIdentifier) {
+            this.aggregateIdentifier = aggregateIdentifier;
+        }
+    }
 }
@@ -38,14 +38,14 @@ public class ConsistentHashTest {
 
     @Before
     public void setUp() {
-        // md5(routingkey) -> de596bb1f674a2c001d807ce1024ae7f
-        // md5(someOtherKey) -> 70ce6e22841006dd1122a89311f7e9fe
-        // 276db5f995e944c0721c3daefb90f2f6 --> member3
-        // 6eb9bb7d7e59cee68eff46dc71a79df4 --> member3
-        // 78af45bdfdbd04abcd2509616175147d --> member2
-        // becb4e793751ef9037620e28ea6f23e5 --> member1
-        // e7fb11cbd06a69cf40e7a73a01deb6e6 --> member1
-        // f5feff8e308a3ac329633844c75e0b25 --> member2
+        // hash(routingKey) -> 2114257062980128625
+        // hash(someOtherKey) -> -4886977368718629117
+        // -8355146547127388503 --> member2
+        // -7555839137237880708 --> member1
+        // -4262314968238909868 --> member3
+        // -939557086784229686 --> member3
+        // -755134963713361716 --> member1
+        // 4572026230317872806 --> member2
 
         member1 = new SimpleMember<>("member1", "", false, null);
         member2 = new SimpleMember<>("member2", "", false, null);
@@ -66,14 +66,14 @@ public void testConsistentHashChangesVersionWhenModified() {
     public void testMessageRoutedToFirstEligibleMember() {
         Optional<Member> actual = testSubject.getMember("routingKey", new GenericCommandMessage<>(new GenericMessage<>("test"), "name1"));
         assertTrue(actual.isPresent());
-        assertEquals("member1", actual.get().name());
+        assertEquals("member2", actual.get().name());
     }
 
     @Test
     public void testMessageRoutedToNextEligibleMemberIfFirstChoiceIsRemoved() {
-        Optional<Member> actual = testSubject.without(member1).getMember("routingKey", new GenericCommandMessage<>(new GenericMessage<>("test"), "name1"));
+        Optional<Member> actual = testSubject.without(member2).getMember("routingKey", new GenericCommandMessage<>(new GenericMessage<>("test"), "name1"));
         assertTrue(actual.isPresent());
-        assertEquals("member2", actual.get().name());
+        assertEquals("member1", actual.get().name());
     }
 
     @Test
@@ -92,7 +92,7 @@ public void testNoMemberReturnedWhenNoEligibleMembers() {
     @Test
     public void testEligibleMembersCorrectlyOrdered() {
         Collection<ConsistentHash.ConsistentHashMember> actual = testSubject.getEligibleMembers("someOtherKey");
-        assertEquals(asList("member2", "member1", "member3"), actual.stream().map(ConsistentHash.ConsistentHashMember::name).collect(Collectors.toList()));
+        assertEquals(asList("member3", "member1", "member2"), actual.stream().map(ConsistentHash.ConsistentHashMember::name).collect(Collectors.toList()));
     }
 
     @Test
@@ -104,4 +104,30 @@ public void testConflictingHashesDoNotImpactMembership() {
         assertEquals(member1.name(), consistentHash.getMembers().iterator().next().name());
         assertEquals(consistentHash.getMembers(), consistentHashModified.getMembers());
     }
+
+    @Test
+    public void testRingDoesNotDependOnOrderOfMembershipChanges() {
+        Member member3 = new SimpleMember<>("member3", "", false, null);
+        ConsistentHash reordered = new ConsistentHash().with(member3, 2, new CommandNameFilter("name3"))
+                                                       .with(member2, 5, new CommandNameFilter("name1"))
+                                                       .with(member1, 2, new CommandNameFilter("name1"))
+                                                       .with(member2, 2, new CommandNameFilter("name1"));
+
+        assertEquals(testSubject, reordered);
+        assertEquals(testSubject.hashCode(), reordered.hashCode());
+        assertEquals(testSubject.without(member1), reordered.without(member1));
+    }
+
+    @Test
+    public void testMembersSharingPositionsAreOrderedByName() {
+        ConsistentHash consistentHash = new ConsistentHash(s -> "fixed").with(member2, 1, AcceptAll.INSTANCE)
+                                                                          .with(member1, 1, AcceptAll.INSTANCE);
+
+        Optional<Member> actual = consistentHash.getMember("routingKey", new GenericCommandMessage<>("test"));
+        assertTrue(actual.isPresent());
+        assertEquals("member1", actual.get().name());
+        assertEquals(asList("member1", "member2"), consistentHash.getEligibleMembers("routingKey").stream()
+                                                                 .map(ConsistentHash.ConsistentHashMember::name)
+                                                                 .collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.commandhandling.gateway;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class ReactiveCommandGatewayTest {
+
+    private CommandBus mockCommandBus;
+    private MessageDispatchInterceptor<CommandMessage<?>> mockDispatchInterceptor;
+    private List<PendingCommand> pendingCommands;
+    private ReactiveCommandGateway testSubject;
+
+    @Before
+    public void setUp() {
+        mockCommandBus = mock(CommandBus.class);
+        mockDispatchInterceptor = mock(MessageDispatchInterceptor.class);
+        when(mockDispatchInterceptor.handle(isA(CommandMessage.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+        pendingCommands = new ArrayList<>();
+        doAnswer(invocation -> pendingCommands.add(new PendingCommand(invocation.getArgument(0),
+                                                                      invocation.getArgument(1))))
+                .when(mockCommandBus).dispatch(any(), any());
+        testSubject = new ReactiveCommandGateway(mockCommandBus, mockDispatchInterceptor);
+    }
+
+    @Test
+    public void testCommandDispatchedOnSubscription() {
+        Mono<String> result = testSubject.send("command");
+        verify(mockCommandBus, never()).dispatch(any(), any());
+
+        StepVerifier.create(result)
+                    .then(() -> pendingCommands.get(0).succeed("result"))
+                    .expectNext("result")
+                    .verifyComplete();
+        verify(mockDispatchInterceptor).handle(isA(CommandMessage.class));
+    }
+
+    @Test
+    public void testCommandWithoutResultCompletesEmpty() {
+        StepVerifier.create(testSubject.send("command"))
+                    .then(() -> pendingCommands.get(0).succeed(null))
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testFailedCommandReportedAsError() {
+        IllegalStateException failure = new IllegalStateException("Mock");
+        StepVerifier.create(testSubject.send("command"))
+                    .then(() -> pendingCommands.get(0).fail(failure))
+                    .expectErrorMatches(e -> e == failure)
+                    .verify();
+    }
+
+    @Test
+    public void testSendAllLimitsConcurrencyAndPreservesOrder() {
+        Flux<String> commands = Flux.range(0, 5).map(i -> "command" + i);
+
+        StepVerifier.create(testSubject.<String>sendAll(commands, 2, true))
+                    .then(() -> {
+                        assertEquals(2, pendingCommands.size());
+                        pendingCommands.get(1).succeed("result1");
+                        pendingCommands.get(0).succeed("result0");
+                    })
+                    .expectNext("result0", "result1")
+                    .then(() -> {
+                        assertEquals(4, pendingCommands.size());
+                        pendingCommands.get(3).succeed("result3");
+                        pendingCommands.get(2).succeed("result2");
+                    })
+                    .expectNext("result2", "result3")
+                    .then(() -> pendingCommands.get(4).succeed("result4"))
+                    .expectNext("result4")
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testSendAllUnorderedEmitsResultsInCompletionOrder() {
+        StepVerifier.create(testSubject.<String>sendAll(Flux.just("command0", "command1"), 2, false))
+                    .then(() -> pendingCommands.get(1).succeed("result1"))
+                    .expectNext("result1")
+                    .then(() -> pendingCommands.get(0).succeed("result0"))
+                    .expectNext("result0")
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testFailedCommandIsRetried() {
+        RetryScheduler mockRetryScheduler = mock(RetryScheduler.class);
+        when(mockRetryScheduler.scheduleRetry(any(), any(), any(), any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(3)).run();
+            return true;
+        });
+        testSubject = new ReactiveCommandGateway(mockCommandBus, mockRetryScheduler,
+                                                 singletonList(mockDispatchInterceptor));
+
+        StepVerifier.create(testSubject.send("command"))
+                    .then(() -> pendingCommands.get(0).fail(new RuntimeException("Mock")))
+                    .then(() -> pendingCommands.get(1).succeed("result"))
+                    .expectNext("result")
+                    .verifyComplete();
+        verify(mockRetryScheduler).scheduleRetry(any(), any(), any(), any());
+    }
+
+    private static class PendingCommand {
+
+        private final CommandMessage<?> command;
+        private final CommandCallback<Object, Object> callback;
+
+        private PendingCommand(CommandMessage<?> command, CommandCallback<Object, Object> callback) {
+            this.command = command;
+            this.callback = callback;
+        }
+
+        private void succeed(Object result) {
+            callback.onSuccess(command, result);
+        }
+
+        private void fail(Throwable cause) {
+            callback.onFailure(command, cause);
+        }
+    }
+}
@@ -109,6 +109,37 @@ public void testExpectEventsToBeRoutedToRightEntityOnlyForEntityCollection() {
         assertEquals(1L, entityThreePayload.get());
     }
 
+    @Test
+    public void testExpectEventsToBeRoutedToRightEntityAfterEntityCollectionIsModified() {
+        AggregateModel<SomeEventForwardingEntityCollectionAggregate> inspector =
+                inspectAggregate(SomeEventForwardingEntityCollectionAggregate.class);
+        SomeEventForwardingEntityCollectionAggregate target = new SomeEventForwardingEntityCollectionAggregate();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId1", new AtomicLong())), target);
+
+        target.entities.add(new SomeEventForwardedEntity("entityId4"));
+        AtomicLong addedEntityPayload = new AtomicLong();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId4", addedEntityPayload)), target);
+        assertEquals(1L, addedEntityPayload.get());
+
+        target.entities.remove(0);
+        AtomicLong removedEntityPayload = new AtomicLong();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId1", removedEntityPayload)), target);
+        assertEquals(0L, removedEntityPayload.get());
+
+        target.entities.set(0, new SomeEventForwardedEntity("entityId5"));
+        AtomicLong replacedEntityPayload = new AtomicLong();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId2", replacedEntityPayload)), target);
+        assertEquals(0L, replacedEntityPayload.get());
+        AtomicLong replacingEntityPayload = new AtomicLong();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId5", replacingEntityPayload)), target);
+        assertEquals(1L, replacingEntityPayload.get());
+
+        target.entities.add(new SomeEventForwardedEntity("entityId5"));
+        AtomicLong duplicateEntityPayload = new AtomicLong();
+        inspector.publish(asEventMessage(new EntityRoutedEvent("entityId5", duplicateEntityPayload)), target);
+        assertEquals(2L, duplicateEntityPayload.get());
+    }
+
     @Test
     public void testExpectEventsToBeRoutedToRightEntityOnlyForEntityMap() {
         AggregateModel<SomeEventForwardingEntityMapAggregate> inspector =
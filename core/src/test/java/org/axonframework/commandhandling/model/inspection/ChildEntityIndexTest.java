@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.commandhandling.model.inspection;
+
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.commandhandling.model.AggregateEntityNotFoundException;
+import org.axonframework.commandhandling.model.AggregateMember;
+import org.axonframework.commandhandling.model.EntityId;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.axonframework.commandhandling.model.inspection.AnnotatedAggregateMetaModelFactory.inspectAggregate;
+import static org.junit.Assert.*;
+
+public class ChildEntityIndexTest {
+
+    private final AggregateModel<StubAggregate> aggregateModel = inspectAggregate(StubAggregate.class);
+
+    @Test
+    public void testCommandsRoutedToRightEntityAfterEntityCollectionIsModified() throws Exception {
+        StubAggregate aggregateRoot = new StubAggregate();
+        aggregateRoot.add("entity1");
+        aggregateRoot.add("entity2");
+        aggregateRoot.add("entity3");
+        AnnotatedAggregate<StubAggregate> aggregate =
+                AnnotatedAggregate.initialize(aggregateRoot, aggregateModel, null);
+        assertEquals("entity2 handled command 1", handle(aggregate, "entity2"));
+
+        aggregateRoot.add("entity4");
+        assertEquals("entity4 handled command 2", handle(aggregate, "entity4"));
+
+        aggregateRoot.entities.remove(0);
+        assertEquals("entity2 handled command 3", handle(aggregate, "entity2"));
+        assertNotRouted(aggregate, "entity1");
+
+        aggregateRoot.entities.set(0, aggregateRoot.new StubEntity("entity5"));
+        assertNotRouted(aggregate, "entity2");
+        assertEquals("entity5 handled command 4", handle(aggregate, "entity5"));
+        assertEquals("entity4 handled command 5", handle(aggregate, "entity4"));
+    }
+
+    @Test
+    public void testIndexDoesNotRetainListOfEntitiesReferencingTheirAggregate() throws Exception {
+        WeakReference<List<?>> entities = handleCommandAndRelease();
+
+        for (int i = 0; i < 100 && entities.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(entities.get());
+        assertNotNull(aggregateModel);
+    }
+
+    private WeakReference<List<?>> handleCommandAndRelease() throws Exception {
+        StubAggregate aggregateRoot = new StubAggregate();
+        aggregateRoot.add("entity1");
+        handle(AnnotatedAggregate.initialize(aggregateRoot, aggregateModel, null), "entity1");
+        return new WeakReference<>(aggregateRoot.entities);
+    }
+
+    private static Object handle(AnnotatedAggregate<StubAggregate> aggregate, String entityId) throws Exception {
+        return aggregate.handle(asCommandMessage(new StubCommand(entityId)));
+    }
+
+    private static void assertNotRouted(AnnotatedAggregate<StubAggregate> aggregate, String entityId)
+            throws Exception {
+        try {
+            handle(aggregate, entityId);
+            fail("Expected command for " + entityId + " not to be routed to an entity");
+        } catch (AggregateEntityNotFoundException e) {
+            // expected
+        }
+    }
+
+    private static class StubAggregate {
+
+        @AggregateMember
+        private final List<StubEntity> entities = new ArrayList<>();
+        private int handledCommands;
+
+        private void add(String id) {
+            entities.add(new StubEntity(id));
+        }
+
+        private class StubEntity {
+
+            @EntityId
+            private final String id;
+
+            private StubEntity(String id) {
+                this.id = id;
+            }
+
+            @CommandHandler
+            public String handle(StubCommand command) {
+                return id + " handled command " + ++handledCommands;
+            }
+        }
+    }
+
+    private static class StubCommand {
+
+        private final String id;
+
+        private StubCommand(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
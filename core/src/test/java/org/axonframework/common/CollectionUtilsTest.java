@@ -54,4 +54,12 @@ public void testIntersect() {
         assertEquals(new TreeSet<>(), result2);
         assertEquals(singletonList(1), result3);
     }
+
+    @Test
+    public void testPartition() {
+        assertEquals(asList(asList(1, 2), asList(3, 4), singletonList(5)),
+                     CollectionUtils.partition(asList(1, 2, 3, 4, 5), 2));
+        assertEquals(singletonList(asList(1, 2)), CollectionUtils.partition(asList(1, 2), 2));
+        assertEquals(emptyList(), CollectionUtils.partition(emptyList(), 2));
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class StripedExecutorTest {
+
+    private StripedExecutor testSubject;
+
+    @Before
+    public void setUp() {
+        testSubject = new StripedExecutor(4, 2, new AxonThreadFactory("striped"));
+    }
+
+    @After
+    public void tearDown() {
+        testSubject.shutdown();
+    }
+
+    @Test(timeout = 5000)
+    public void testTasksWithSameKeyExecutedInOrderBySameThread() throws Exception {
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            testSubject.execute("key", () -> {
+                executed.add(value);
+                threads.add(Thread.currentThread());
+                finished.countDown();
+            });
+        }
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), executed.get(i));
+            assertSame(threads.get(0), threads.get(i));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testTasksWithDifferentKeysExecutedInParallel() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        String[] keys = keysForDifferentWorkers();
+        testSubject.execute(keys[0], () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        testSubject.execute(keys[1], finished::countDown);
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        blocker.countDown();
+    }
+
+    @Test(timeout = 5000)
+    public void testSubmittingThreadBlocksWhenQueueIsFull() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        testSubject.execute("key", () -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        testSubject.execute("key", () -> {
+        });
+        testSubject.execute("key", () -> {
+        });
+
+        AtomicBoolean submitted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            testSubject.execute("key", () -> {
+            });
+            submitted.set(true);
+        });
+        producer.start();
+        producer.join(200);
+        assertFalse(submitted.get());
+
+        blocker.countDown();
+        producer.join();
+        assertTrue(submitted.get());
+    }
+
+    @Test(timeout = 5000)
+    public void testShutdownCompletesQueuedTasksAndRejectsNewTasks() throws Exception {
+        List<String> executed = new CopyOnWriteArrayList<>();
+        testSubject.execute("key", () -> executed.add("first"));
+        testSubject.execute("key", () -> executed.add("second"));
+
+        testSubject.shutdown();
+
+        assertEquals(asList("first", "second"), executed);
+        try {
+            testSubject.execute("key", () -> executed.add("third"));
+            fail("Expected task to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testTasksSubmittedDuringShutdownAreEitherExecutedOrRejected() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            StripedExecutor executor = new StripedExecutor(1, 1, new AxonThreadFactory("striped"));
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger executed = new AtomicInteger();
+            CountDownLatch submitting = new CountDownLatch(1);
+            Thread producer = new Thread(() -> {
+                try {
+                    while (true) {
+                        executor.execute("key", executed::incrementAndGet);
+                        accepted.incrementAndGet();
+                        submitting.countDown();
+                    }
+                } catch (RejectedExecutionException e) {
+                    // expected once the executor has been shut down
+                }
+            });
+            producer.start();
+            submitting.await();
+
+            executor.shutdown();
+            producer.join();
+
+            assertEquals(accepted.get(), executed.get());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testExceptionInTaskDoesNotStopWorker() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        testSubject.execute("key", () -> {
+            throw new MockException();
+        });
+        testSubject.execute("key", finished::countDown);
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void testErrorInTaskDoesNotStopWorker() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        testSubject.execute("key", () -> {
+            throw new AssertionError("Mock error");
+        });
+        testSubject.execute("key", finished::countDown);
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+    }
+
+    private String[] keysForDifferentWorkers() throws InterruptedException {
+        Thread[] threads = new Thread[2];
+        String[] keys = new String[2];
+        for (int i = 0; keys[1] == null; i++) {
+            String key = "key" + i;
+            Thread[] executingThread = new Thread[1];
+            CountDownLatch done = new CountDownLatch(1);
+            testSubject.execute(key, () -> {
+                executingThread[0] = Thread.currentThread();
+                done.countDown();
+            });
+            done.await();
+            if (threads[0] == null) {
+                threads[0] = executingThread[0];
+                keys[0] = key;
+            } else if (threads[0] != executingThread[0]) {
+                keys[1] = key;
+            }
+        }
+        return keys;
+    }
+}
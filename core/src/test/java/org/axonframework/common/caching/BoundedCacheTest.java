@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.caching;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BoundedCacheTest {
+
+    private AtomicLong currentTime;
+    private BoundedCache testSubject;
+    private Cache.EntryListener mockListener;
+
+    @Before
+    public void setUp() {
+        currentTime = new AtomicLong();
+        mockListener = mock(Cache.EntryListener.class);
+        testSubject = new BoundedCache(100, (key, value) -> 1, currentTime::get);
+        testSubject.registerCacheEntryListener(mockListener);
+    }
+
+    @Test
+    public void testEntryListenerNotifiedOfCreationUpdateAndDeletion() {
+        Object value = new Object();
+        Object value2 = new Object();
+        testSubject.put("test1", value);
+        verify(mockListener).onEntryCreated("test1", value);
+
+        testSubject.put("test1", value2);
+        verify(mockListener).onEntryUpdated("test1", value2);
+
+        assertSame(value2, testSubject.get("test1"));
+        verify(mockListener).onEntryRead("test1", value2);
+
+        assertTrue(testSubject.remove("test1"));
+        verify(mockListener).onEntryRemoved("test1");
+
+        assertNull(testSubject.get("test1"));
+        assertFalse(testSubject.remove("test1"));
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test
+    public void testPutIfAbsentDoesNotReplaceExistingValue() {
+        assertTrue(testSubject.putIfAbsent("test1", "value1"));
+        assertFalse(testSubject.putIfAbsent("test1", "value2"));
+
+        assertEquals("value1", testSubject.get("test1"));
+        assertTrue(testSubject.containsKey("test1"));
+        assertFalse(testSubject.containsKey("test2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValuesNotSupported() {
+        testSubject.put("test1", null);
+    }
+
+    @Test
+    public void testSizeIsBoundedByMaximumSize() {
+        for (int i = 0; i < 1000; i++) {
+            testSubject.put(i, "value" + i);
+        }
+
+        assertEquals(100, testSubject.size());
+        assertEquals(900, testSubject.getEvictionCount());
+        verify(mockListener, times(900)).onEntryExpired(any());
+    }
+
+    @Test
+    public void testSizeIsBoundedByMaximumWeight() {
+        BoundedCache weighedCache = new BoundedCache(100, (key, value) -> ((String) value).length());
+        for (int i = 0; i < 100; i++) {
+            weighedCache.put(i, "0123456789");
+        }
+
+        assertEquals(10, weighedCache.size());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScanOfNewEntries() {
+        for (int i = 0; i < 50; i++) {
+            testSubject.put("hot" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                testSubject.get("hot" + i);
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            testSubject.put("cold" + i, "value");
+        }
+
+        int hotEntries = 0;
+        for (int i = 0; i < 50; i++) {
+            if (testSubject.containsKey("hot" + i)) {
+                hotEntries++;
+            }
+        }
+        assertTrue("Expected most frequently used entries to remain cached, but found " + hotEntries,
+                   hotEntries >= 45);
+        assertEquals(100, testSubject.size());
+    }
+
+    @Test
+    public void testEntriesExpireAfterWrite() {
+        testSubject.setExpireAfterWrite(10, TimeUnit.SECONDS);
+        testSubject.put("test1", "value");
+
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("value", testSubject.get("test1"));
+
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(testSubject.containsKey("test1"));
+        assertNull(testSubject.get("test1"));
+        verify(mockListener).onEntryExpired("test1");
+        assertEquals(0, testSubject.size());
+    }
+
+    @Test
+    public void testEntriesExpireAfterAccess() {
+        testSubject.setExpireAfterAccess(10, TimeUnit.SECONDS);
+        testSubject.put("test1", "value");
+
+        for (int i = 0; i < 3; i++) {
+            currentTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+            assertEquals("value", testSubject.get("test1"));
+        }
+
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertNull(testSubject.get("test1"));
+        verify(mockListener).onEntryExpired("test1");
+    }
+
+    @Test
+    public void testExpiredEntryReplacedOnPutIfAbsent() {
+        testSubject.setExpireAfterWrite(10, TimeUnit.SECONDS);
+        testSubject.put("test1", "value1");
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(testSubject.putIfAbsent("test1", "value2"));
+
+        verify(mockListener).onEntryExpired("test1");
+        verify(mockListener).onEntryCreated("test1", "value2");
+        assertEquals("value2", testSubject.get("test1"));
+    }
+
+    @Test
+    public void testHitAndMissStatistics() {
+        assertEquals(1.0, testSubject.getHitRatio(), 0.0);
+        testSubject.put("test1", "value");
+
+        testSubject.get("test1");
+        testSubject.get("test1");
+        testSubject.get("test1");
+        testSubject.get("test2");
+
+        assertEquals(3, testSubject.getHitCount());
+        assertEquals(1, testSubject.getMissCount());
+        assertEquals(0.75, testSubject.getHitRatio(), 0.0);
+    }
+}
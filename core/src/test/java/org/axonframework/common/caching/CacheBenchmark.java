@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.caching;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compares the hit ratio and throughput of the {@link BoundedCache} and the {@link WeakReferenceCache} when used the
+ * way the caching repositories use them: a value is read from the cache, and loaded and stored when it is missing.
+ * Aggregate identifiers are drawn from a Zipf distribution, so that a small number of aggregates receives most of the
+ * accesses, as is common for aggregates handling commands. Each cached value holds 1 KB, to put the garbage collector
+ * under some pressure.
+ * <p>
+ * Run with a limited heap (e.g. {@code -Xmx256m}) to see the effect of garbage collection on the WeakReferenceCache.
+ */
+public class CacheBenchmark {
+
+    private static final int AGGREGATE_COUNT = 100_000;
+    private static final int BOUNDED_CACHE_SIZE = 10_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int THREAD_COUNT = 4;
+    private static final int OPERATIONS_PER_THREAD = 2_000_000;
+    private static final int VALUE_SIZE = 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        double[] cumulativeProbabilities = zipfDistribution(AGGREGATE_COUNT, ZIPF_EXPONENT);
+        for (int run = 0; run < 2; run++) {
+            System.out.println("Run " + (run + 1));
+            execute("WeakReferenceCache", WeakReferenceCache::new, cumulativeProbabilities);
+            execute("BoundedCache(" + BOUNDED_CACHE_SIZE + ")", () -> new BoundedCache(BOUNDED_CACHE_SIZE),
+                    cumulativeProbabilities);
+        }
+    }
+
+    private static void execute(String description, Supplier<Cache> cacheFactory, double[] cumulativeProbabilities)
+            throws InterruptedException {
+        Cache cache = cacheFactory.get();
+        LongAdder hits = new LongAdder();
+        LongAdder misses = new LongAdder();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(THREAD_COUNT);
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            long seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    String aggregateIdentifier = "aggregate-" + sample(cumulativeProbabilities, random);
+                    if (cache.get(aggregateIdentifier) != null) {
+                        hits.increment();
+                    } else {
+                        misses.increment();
+                        cache.put(aggregateIdentifier, new byte[VALUE_SIZE]);
+                    }
+                }
+                finished.countDown();
+            }).start();
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        finished.await();
+        long duration = System.nanoTime() - start;
+        long operations = (long) THREAD_COUNT * OPERATIONS_PER_THREAD;
+        System.out.println(String.format("%-25s hit ratio %6.2f%%  %10.0f ops/s", description,
+                                         100.0 * hits.sum() / operations,
+                                         operations / (duration / 1_000_000_000.0)));
+    }
+
+    private static double[] zipfDistribution(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulativeProbabilities, Random random) {
+        double value = random.nextDouble();
+        int low = 0;
+        int high = cumulativeProbabilities.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeProbabilities[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.lock;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of the {@link PessimisticLockFactory} and the {@link StripedLockFactory} when obtaining and
+ * releasing locks from a number of threads, the way a repository locks aggregates while handling commands. Two
+ * scenarios are measured: one where each lock is obtained for a random aggregate out of a large number of aggregates,
+ * and one where all threads compete for the locks of a handful of aggregates.
+ */
+public class LockFactoryBenchmark {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000_000;
+    private static final int MANY_AGGREGATES = 100_000;
+    private static final int FEW_AGGREGATES = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int run = 0; run < 2; run++) {
+            System.out.println("Run " + (run + 1));
+            for (int aggregateCount : new int[]{MANY_AGGREGATES, FEW_AGGREGATES}) {
+                execute("PessimisticLockFactory", PessimisticLockFactory::new, aggregateCount);
+                execute("StripedLockFactory", StripedLockFactory::new, aggregateCount);
+                execute("StripedLockFactory(spin)", () -> new StripedLockFactory(1024, 100, true),
+                        aggregateCount);
+            }
+        }
+    }
+
+    private static void execute(String description, Supplier<LockFactory> lockFactorySupplier, int aggregateCount)
+            throws InterruptedException {
+        LockFactory lockFactory = lockFactorySupplier.get();
+        String[] identifiers = new String[aggregateCount];
+        for (int i = 0; i < aggregateCount; i++) {
+            identifiers[i] = "aggregate-" + i;
+        }
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(THREAD_COUNT);
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            long seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long counter = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Lock lock = lockFactory.obtainLock(identifiers[random.nextInt(aggregateCount)]);
+                    try {
+                        counter++;
+                    } finally {
+                        lock.release();
+                    }
+                }
+                if (counter != OPERATIONS_PER_THREAD) {
+                    throw new IllegalStateException("Unexpected number of operations");
+                }
+                finished.countDown();
+            }).start();
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        finished.await();
+        long duration = System.nanoTime() - start;
+        long operations = (long) THREAD_COUNT * OPERATIONS_PER_THREAD;
+        System.out.println(String.format("%-25s %7d aggregates  %12.0f ops/s", description, aggregateCount,
+                                         operations / (duration / 1_000_000_000.0)));
+    }
+}
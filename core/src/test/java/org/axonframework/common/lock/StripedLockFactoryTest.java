@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.common.lock;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class StripedLockFactoryTest {
+
+    @Test
+    public void testStripeCountRoundedUpToPowerOfTwo() {
+        assertEquals(1, new StripedLockFactory(1).getStripeCount());
+        assertEquals(64, new StripedLockFactory(64).getStripeCount());
+        assertEquals(128, new StripedLockFactory(65).getStripeCount());
+        assertEquals(StripedLockFactory.DEFAULT_STRIPE_COUNT, new StripedLockFactory().getStripeCount());
+    }
+
+    @Test
+    public void testLockReentrant() {
+        StripedLockFactory testSubject = new StripedLockFactory();
+        Lock lock1 = testSubject.obtainLock("id1");
+        Lock lock2 = testSubject.obtainLock("id1");
+        assertTrue(lock1.isHeld());
+
+        lock2.release();
+        assertTrue(lock1.isHeld());
+
+        lock1.release();
+        assertFalse(lock1.isHeld());
+    }
+
+    @Test(timeout = 5000)
+    public void testLockExcludesOtherThreadsUntilFullyReleased() throws Exception {
+        StripedLockFactory testSubject = new StripedLockFactory(16, 100, false);
+        Lock lock1 = testSubject.obtainLock("id1");
+        Lock lock2 = testSubject.obtainLock("id1");
+        AtomicBoolean obtained = new AtomicBoolean();
+        CountDownLatch released = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            Lock lock = testSubject.obtainLock("id1");
+            obtained.set(true);
+            lock.release();
+            released.countDown();
+        });
+        thread.start();
+
+        lock2.release();
+        assertFalse(released.await(100, TimeUnit.MILLISECONDS));
+        assertFalse(obtained.get());
+
+        lock1.release();
+        assertTrue(released.await(1, TimeUnit.SECONDS));
+        assertTrue(obtained.get());
+    }
+
+    @Test(timeout = 5000)
+    public void testIdentifiersSharingStripeAreHeldIndependentlyByOwner() {
+        StripedLockFactory testSubject = new StripedLockFactory(1);
+        Lock lock1 = testSubject.obtainLock("id1");
+        Lock lock2 = testSubject.obtainLock("id2");
+
+        lock1.release();
+        assertTrue(lock2.isHeld());
+        lock2.release();
+        assertFalse(lock2.isHeld());
+    }
+
+    @Test(timeout = 5000)
+    public void testConcurrentAccessIsMutuallyExclusive() throws Exception {
+        StripedLockFactory testSubject = new StripedLockFactory(4, 10, true);
+        AtomicInteger concurrentHolders = new AtomicInteger();
+        AtomicBoolean overlapDetected = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    Lock lock = testSubject.obtainLock("aggregate");
+                    try {
+                        if (concurrentHolders.incrementAndGet() > 1) {
+                            overlapDetected.set(true);
+                        }
+                        concurrentHolders.decrementAndGet();
+                    } finally {
+                        lock.release();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(overlapDetected.get());
+    }
+
+    @Test
+    public void testReleaseByOtherThreadIsRejected() throws Exception {
+        StripedLockFactory testSubject = new StripedLockFactory();
+        Lock lock = testSubject.obtainLock("id1");
+        AtomicBoolean rejected = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                lock.release();
+            } catch (IllegalMonitorStateException e) {
+                rejected.set(true);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(rejected.get());
+        assertTrue(lock.isHeld());
+        lock.release();
+    }
+
+    @Test(timeout = 5000)
+    public void testDeadlockDetected_TwoDifferentFactories() throws Exception {
+        StripedLockFactory factory1 = new StripedLockFactory();
+        StripedLockFactory factory2 = new StripedLockFactory();
+        CountDownLatch starter = new CountDownLatch(1);
+        CountDownLatch cdl = new CountDownLatch(1);
+        AtomicBoolean deadlockInThread = new AtomicBoolean(false);
+        Thread thread = createThread(starter, cdl, deadlockInThread, factory1, "id1", factory2, "id1");
+        thread.start();
+        Lock lock = factory2.obtainLock("id1");
+        starter.await();
+        cdl.countDown();
+        try {
+            factory1.obtainLock("id1").release();
+            thread.join();
+            assertTrue(deadlockInThread.get());
+        } catch (DeadlockException e) {
+            // this is ok!
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testDeadlockDetected_ThreeThreadsInVector() throws Exception {
+        StripedLockFactory testSubject = new StripedLockFactory(1024);
+        CountDownLatch starter = new CountDownLatch(3);
+        CountDownLatch cdl = new CountDownLatch(1);
+        AtomicBoolean deadlockInThread = new AtomicBoolean(false);
+        String[] identifiers = distinctStripeIdentifiers(testSubject, 4);
+        Thread t1 = createThread(starter, cdl, deadlockInThread, testSubject, identifiers[0],
+                                 testSubject, identifiers[1]);
+        Thread t2 = createThread(starter, cdl, deadlockInThread, testSubject, identifiers[1],
+                                 testSubject, identifiers[2]);
+        Thread t3 = createThread(starter, cdl, deadlockInThread, testSubject, identifiers[2],
+                                 testSubject, identifiers[3]);
+        t1.start();
+        t2.start();
+        t3.start();
+        Lock lock = testSubject.obtainLock(identifiers[3]);
+        starter.await();
+        cdl.countDown();
+        try {
+            testSubject.obtainLock(identifiers[0]).release();
+            t1.join();
+            assertTrue(deadlockInThread.get());
+        } catch (DeadlockException e) {
+            // this is ok!
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testThreadsObtainingSeveralLocksInLockOrderDontDeadlock() throws Exception {
+        StripedLockFactory testSubject = new StripedLockFactory(2);
+        Lock firstStripe = testSubject.obtainLock("id0");
+        firstStripe.release();
+        List<String> onFirstStripe = new ArrayList<>();
+        List<String> onSecondStripe = new ArrayList<>();
+        for (int i = 0; onFirstStripe.size() < 10 || onSecondStripe.size() < 10; i++) {
+            String identifier = "id" + i;
+            Lock lock = testSubject.obtainLock(identifier);
+            (lock == firstStripe ? onFirstStripe : onSecondStripe).add(identifier);
+            lock.release();
+        }
+        // in natural order, the first thread locks the first stripe first, while the second thread locks it last
+        String[] identifiers1 = crossingIdentifiers(onFirstStripe, onSecondStripe);
+        String[] identifiers2 = crossingIdentifiers(onSecondStripe, onFirstStripe);
+
+        CountDownLatch firstLocksObtained = new CountDownLatch(2);
+        AtomicBoolean deadlockInThread = new AtomicBoolean(false);
+        Thread t1 = createOrderedThread(firstLocksObtained, deadlockInThread, testSubject, identifiers1);
+        Thread t2 = createOrderedThread(firstLocksObtained, deadlockInThread, testSubject, identifiers2);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        assertFalse(deadlockInThread.get());
+    }
+
+    private String[] crossingIdentifiers(List<String> lowerCandidates, List<String> higherCandidates) {
+        for (String lower : lowerCandidates) {
+            for (String higher : higherCandidates) {
+                if (lower.compareTo(higher) < 0) {
+                    return new String[]{lower, higher};
+                }
+            }
+        }
+        throw new AssertionError("No crossing identifiers found");
+    }
+
+    private Thread createOrderedThread(CountDownLatch firstLocksObtained, AtomicBoolean deadlockInThread,
+                                       StripedLockFactory lockFactory, String... identifiers) {
+        return new Thread(() -> {
+            List<String> ordered = new ArrayList<>(asList(identifiers));
+            ordered.sort(lockFactory.lockOrder());
+            Lock lock1 = lockFactory.obtainLock(ordered.get(0));
+            firstLocksObtained.countDown();
+            try {
+                firstLocksObtained.await(200, TimeUnit.MILLISECONDS);
+                Lock lock2 = lockFactory.obtainLock(ordered.get(1));
+                lock2.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (DeadlockException e) {
+                deadlockInThread.set(true);
+            } finally {
+                lock1.release();
+            }
+        });
+    }
+
+    private String[] distinctStripeIdentifiers(StripedLockFactory factory, int count) {
+        String[] identifiers = new String[count];
+        Lock[] heldLocks = new Lock[count];
+        int found = 0;
+        for (int i = 0; found < count; i++) {
+            String candidate = "id" + i;
+            Lock lock = factory.obtainLock(candidate);
+            boolean sharesStripe = false;
+            for (int j = 0; j < found; j++) {
+                sharesStripe |= heldLocks[j] == lock;
+            }
+            if (sharesStripe) {
+                lock.release();
+            } else {
+                identifiers[found] = candidate;
+                heldLocks[found++] = lock;
+            }
+        }
+        for (Lock lock : heldLocks) {
+            lock.release();
+        }
+        return identifiers;
+    }
+
+    private Thread createThread(CountDownLatch starter, CountDownLatch cdl, AtomicBoolean deadlockInThread,
+                                StripedLockFactory lockFactory1, String firstId,
+                                StripedLockFactory lockFactory2, String secondId) {
+        return new Thread(() -> {
+            Lock lock1 = lockFactory1.obtainLock(firstId);
+            starter.countDown();
+            try {
+                cdl.await();
+                Lock lock2 = lockFactory2.obtainLock(secondId);
+                lock2.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (DeadlockException e) {
+                deadlockInThread.set(true);
+            } finally {
+                lock1.release();
+            }
+        });
+    }
+}
@@ -16,11 +16,16 @@
 
 package org.axonframework.eventhandling.saga;
 
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
 import org.axonframework.common.MockException;
 import org.axonframework.eventhandling.EventMessage;
 import org.axonframework.eventhandling.GenericEventMessage;
 import org.axonframework.eventhandling.ListenerInvocationErrorHandler;
 import org.axonframework.eventhandling.Segment;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.junit.Before;
@@ -29,8 +34,14 @@
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Collections.singleton;
 import static org.junit.Assert.*;
@@ -98,6 +109,34 @@ public void testSagasLoaded() throws Exception {
         verify(mockSaga3, never()).handle(event);
     }
 
+    @Test
+    public void testSagasOfBatchPrefetchedOnce() throws Exception {
+        EventMessage<?> event1 = new GenericEventMessage<>(new Object());
+        EventMessage<?> event2 = new GenericEventMessage<>(new Object());
+        BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(event1, event2);
+        unitOfWork.executeWithResult(() -> {
+            testSubject.handle(unitOfWork.getMessage(), Segment.ROOT_SEGMENT);
+            return null;
+        });
+
+        verify(mockSagaRepository).prefetch(eq(singleton(associationValue)), any());
+        verify(mockSaga1).handle(event1);
+        verify(mockSaga1).handle(event2);
+    }
+
+    @Test
+    public void testSagasNotPrefetchedForSingleEvent() throws Exception {
+        EventMessage<?> event = new GenericEventMessage<>(new Object());
+        UnitOfWork<? extends EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(event);
+        unitOfWork.executeWithResult(() -> {
+            testSubject.handle(event, Segment.ROOT_SEGMENT);
+            return null;
+        });
+
+        verify(mockSagaRepository, never()).prefetch(any(), any());
+        verify(mockSaga1).handle(event);
+    }
+
     @Test
     public void testExceptionPropagated() throws Exception {
         EventMessage<?> event = new GenericEventMessage<>(new Object());
@@ -171,6 +210,105 @@ public void testExceptionSuppressed() throws Exception {
         verify(mockErrorHandler).onError(toBeThrown, event, mockSaga1);
     }
 
+    @Test
+    public void testSagasInvokedInParallelWithinUnitOfWork() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            testSubject.setParallelInvocationExecutor(executor);
+            EventMessage<?> event = new GenericEventMessage<>(new Object());
+            UnitOfWork<? extends EventMessage<?>> unitOfWork = new DefaultUnitOfWork<>(event);
+            Set<Thread> invokingThreads = ConcurrentHashMap.newKeySet();
+            doAnswer(invocation -> {
+                assertSame(event, CurrentUnitOfWork.get().getMessage());
+                invokingThreads.add(Thread.currentThread());
+                return null;
+            }).when(mockSaga1).handle(event);
+            doAnswer(invocation -> {
+                assertSame(event, CurrentUnitOfWork.get().getMessage());
+                invokingThreads.add(Thread.currentThread());
+                return null;
+            }).when(mockSaga2).handle(event);
+
+            unitOfWork.executeWithResult(() -> {
+                testSubject.handle(event, Segment.ROOT_SEGMENT);
+                return null;
+            });
+
+            verify(mockSaga1).handle(event);
+            verify(mockSaga2).handle(event);
+            verify(mockSaga3, never()).handle(event);
+            assertFalse(invokingThreads.contains(Thread.currentThread()));
+            verifyZeroInteractions(mockErrorHandler);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelInvocationsMayNotChangeUnitOfWork() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            testSubject.setParallelInvocationExecutor(executor);
+            EventMessage<?> event = new GenericEventMessage<>(new Object());
+            SimpleCommandBus commandBus = new SimpleCommandBus();
+            AtomicInteger handledCommands = new AtomicInteger();
+            commandBus.subscribe(String.class.getName(), command -> handledCommands.incrementAndGet());
+            SimpleEventBus eventBus = new SimpleEventBus();
+            List<EventMessage<?>> publishedEvents = new CopyOnWriteArrayList<>();
+            eventBus.subscribe(publishedEvents::addAll);
+            doAnswer(invocation -> {
+                // the failure reported to the callback is ignored, as sagas often do
+                commandBus.dispatch(GenericCommandMessage.asCommandMessage("command"));
+                return null;
+            }).when(mockSaga1).handle(event);
+            doAnswer(invocation -> {
+                eventBus.publish(GenericEventMessage.asEventMessage("event"));
+                return null;
+            }).when(mockSaga2).handle(event);
+            UnitOfWork<? extends EventMessage<?>> unitOfWork = new DefaultUnitOfWork<>(event);
+
+            unitOfWork.executeWithResult(() -> {
+                testSubject.handle(event, Segment.ROOT_SEGMENT);
+                return null;
+            });
+
+            assertEquals(0, handledCommands.get());
+            assertTrue(publishedEvents.isEmpty());
+            verify(mockErrorHandler).onError(isA(IllegalStateException.class), eq(event), eq(mockSaga1));
+            verify(mockErrorHandler).onError(isA(IllegalStateException.class), eq(event), eq(mockSaga2));
+            assertFalse(unitOfWork.isRolledBack());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExceptionsOfParallelInvocationsReportedToErrorHandler() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            testSubject.setParallelInvocationExecutor(executor);
+            EventMessage<?> event = new GenericEventMessage<>(new Object());
+            MockException toBeThrown = new MockException();
+            doThrow(toBeThrown).when(mockSaga1).handle(event);
+            doThrow(toBeThrown).when(mockErrorHandler).onError(toBeThrown, event, mockSaga1);
+
+            try {
+                new DefaultUnitOfWork<>(event).executeWithResult(() -> {
+                    testSubject.handle(event, Segment.ROOT_SEGMENT);
+                    return null;
+                });
+                fail("Expected exception to be propagated");
+            } catch (MockException e) {
+                assertSame(toBeThrown, e);
+            }
+            verify(mockSaga2).handle(event);
+            verify(mockErrorHandler).onError(toBeThrown, event, mockSaga1);
+            assertFalse(CurrentUnitOfWork.isStarted());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @SuppressWarnings({"unchecked"})
     private <T> Set<T> setOf(T... items) {
         return new CopyOnWriteArraySet<>(Arrays.asList(items));
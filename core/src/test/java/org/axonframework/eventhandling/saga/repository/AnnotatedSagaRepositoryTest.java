@@ -17,8 +17,11 @@
 package org.axonframework.eventhandling.saga.repository;
 
 import org.axonframework.common.IdentifierFactory;
+import org.axonframework.common.lock.Lock;
+import org.axonframework.common.lock.LockFactory;
 import org.axonframework.eventhandling.saga.AssociationValue;
 import org.axonframework.eventhandling.saga.Saga;
+import org.axonframework.eventhandling.saga.metamodel.AnnotationSagaMetaModelFactory;
 import org.axonframework.eventhandling.saga.repository.inmemory.InMemorySagaStore;
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
@@ -28,13 +31,18 @@
 import org.junit.Test;
 import org.mockito.InOrder;
 
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static org.axonframework.messaging.unitofwork.DefaultUnitOfWork.startAndGet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 @SuppressWarnings("unchecked")
@@ -148,4 +156,82 @@ public void testSagaAssociationsVisibleInOtherThreadsBeforeSagaIsCommitted() thr
         assertEquals(singleton(sagaId), testSubject.find(associationValue));
     }
 
+    @Test
+    public void testFindReflectsAssociationChangesOfManagedSagas() {
+        AssociationValue first = new AssociationValue("test", "first");
+        AssociationValue second = new AssociationValue("test", "second");
+        Saga<Object> saga = testSubject.createInstance("sagaId", Object::new);
+        saga.getAssociationValues().add(first);
+
+        assertEquals(singleton("sagaId"), testSubject.find(first));
+        assertTrue(testSubject.find(second).isEmpty());
+
+        saga.getAssociationValues().remove(first);
+        saga.getAssociationValues().add(second);
+
+        assertTrue(testSubject.find(first).isEmpty());
+        assertEquals(singleton("sagaId"), testSubject.find(second));
+    }
+
+    @Test
+    public void testManagedSagasNoLongerFoundInMemoryAfterCleanup() {
+        AssociationValue associationValue = new AssociationValue("test", "value");
+        testSubject.createInstance("sagaId", Object::new).getAssociationValues().add(associationValue);
+        currentUnitOfWork.commit();
+        reset(store);
+
+        currentUnitOfWork = startAndGet(null);
+        when(store.findSagas(Object.class, associationValue)).thenReturn(new HashSet<>());
+
+        assertTrue(testSubject.find(associationValue).isEmpty());
+    }
+
+    @Test
+    public void testPrefetchedSagasAreFoundAndLoadedWithoutAccessingTheStore() {
+        AssociationValue first = new AssociationValue("test", "first");
+        AssociationValue second = new AssociationValue("test", "second");
+        testSubject.createInstance("saga1", Object::new).getAssociationValues().add(first);
+        testSubject.createInstance("saga2", Object::new).getAssociationValues().add(second);
+        testSubject.createInstance("otherSegment", Object::new).getAssociationValues().add(second);
+        currentUnitOfWork.commit();
+        currentUnitOfWork = startAndGet(null);
+        reset(store);
+
+        testSubject.prefetch(new HashSet<>(asList(first, second)), id -> !id.equals("otherSegment"));
+
+        verify(store).findSagasForAssociations(Object.class, new HashSet<>(asList(first, second)));
+        verify(store).loadSagas(Object.class, new TreeSet<>(asList("saga1", "saga2")));
+        reset(store);
+
+        assertEquals(singleton("saga1"), testSubject.find(first));
+        assertEquals(new HashSet<>(asList("saga2", "otherSegment")), testSubject.find(second));
+        assertNotNull(testSubject.load("saga1"));
+        assertNotNull(testSubject.load("saga2"));
+        verify(store, never()).findSagas(any(), any());
+        verify(store, never()).loadSaga(any(), any());
+
+        assertNotNull(testSubject.load("otherSegment"));
+        verify(store).loadSaga(Object.class, "otherSegment");
+    }
+
+    @Test
+    public void testPrefetchedSagasAreLockedInLockOrderOfLockFactory() {
+        AssociationValue associationValue = new AssociationValue("test", "value");
+        testSubject.createInstance("saga1", Object::new).getAssociationValues().add(associationValue);
+        testSubject.createInstance("saga2", Object::new).getAssociationValues().add(associationValue);
+        currentUnitOfWork.commit();
+        currentUnitOfWork = startAndGet(null);
+        LockFactory lockFactory = mock(LockFactory.class);
+        when(lockFactory.lockOrder()).thenReturn(Comparator.reverseOrder());
+        when(lockFactory.obtainLock(any())).thenReturn(mock(Lock.class));
+        testSubject = new AnnotatedSagaRepository<>(Object.class, store,
+                                                    new AnnotationSagaMetaModelFactory().modelOf(Object.class),
+                                                    NoResourceInjector.INSTANCE, lockFactory);
+
+        testSubject.prefetch(singleton(associationValue), id -> true);
+
+        InOrder inOrder = inOrder(lockFactory);
+        inOrder.verify(lockFactory).obtainLock("saga2");
+        inOrder.verify(lockFactory).obtainLock("saga1");
+    }
 }
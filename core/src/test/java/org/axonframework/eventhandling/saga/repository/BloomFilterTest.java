@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedValuesAreAlwaysFound() {
+        BloomFilter testSubject = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            testSubject.put("value-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(testSubject.mightContain("value-" + i));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearConfiguredProbability() {
+        BloomFilter testSubject = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            testSubject.put("value-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (testSubject.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 2_000);
+    }
+
+    @Test
+    public void testEmptyFilterContainsNothing() {
+        assertFalse(new BloomFilter(100, 0.01).mightContain("value"));
+    }
+}
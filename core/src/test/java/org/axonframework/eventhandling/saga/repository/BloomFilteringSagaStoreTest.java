@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import org.axonframework.eventhandling.saga.AssociationValue;
+import org.axonframework.eventhandling.saga.AssociationValuesImpl;
+import org.axonframework.eventhandling.saga.repository.inmemory.InMemorySagaStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BloomFilteringSagaStoreTest {
+
+    private InMemorySagaStore delegate;
+    private BloomFilteringSagaStore<Object> testSubject;
+
+    @Before
+    public void setUp() {
+        delegate = spy(new InMemorySagaStore());
+        testSubject = new BloomFilteringSagaStore<>(delegate);
+    }
+
+    @Test
+    public void testLookupOfUnknownAssociationIsNotDelegated() {
+        testSubject.insertSaga(StubSaga.class, "saga1", new StubSaga(), null,
+                               singleton(new AssociationValue("key", "value")));
+
+        assertTrue(testSubject.findSagas(StubSaga.class, new AssociationValue("key", "unknown")).isEmpty());
+        assertTrue(testSubject.findSagas(StubSaga.class, new AssociationValue("unknownKey", "value")).isEmpty());
+        verify(delegate, never()).findSagas(any(), any());
+
+        assertEquals(singleton("saga1"), testSubject.findSagas(StubSaga.class, new AssociationValue("key", "value")));
+        verify(delegate).findSagas(StubSaga.class, new AssociationValue("key", "value"));
+    }
+
+    @Test
+    public void testFilterInitializedFromExistingAssociations() {
+        delegate.insertSaga(StubSaga.class, "saga1", new StubSaga(), null,
+                            singleton(new AssociationValue("key", "existing")));
+
+        assertEquals(singleton("saga1"),
+                     testSubject.findSagas(StubSaga.class, new AssociationValue("key", "existing")));
+        assertTrue(testSubject.findSagas(StubSaga.class, new AssociationValue("key", "unknown")).isEmpty());
+        verify(delegate, times(1)).forEachAssociationValue(eq(StubSaga.class), any());
+        verify(delegate, times(1)).findSagas(any(), any());
+    }
+
+    @Test
+    public void testAssociationsAddedInUpdateArePassedThroughFilter() {
+        AssociationValue initial = new AssociationValue("key", "initial");
+        AssociationValue added = new AssociationValue("key", "added");
+        testSubject.insertSaga(StubSaga.class, "saga1", new StubSaga(), null, singleton(initial));
+        assertTrue(testSubject.findSagas(StubSaga.class, added).isEmpty());
+
+        AssociationValuesImpl associationValues = new AssociationValuesImpl(singleton(initial));
+        associationValues.add(added);
+        testSubject.updateSaga(StubSaga.class, "saga1", new StubSaga(), null, associationValues);
+
+        assertEquals(singleton("saga1"), testSubject.findSagas(StubSaga.class, added));
+    }
+
+    @Test
+    public void testBatchLookupOnlyDelegatesPossibleMatches() {
+        AssociationValue known = new AssociationValue("key", "known");
+        AssociationValue unknown = new AssociationValue("key", "unknown");
+        testSubject.insertSaga(StubSaga.class, "saga1", new StubSaga(), null, singleton(known));
+
+        Map<AssociationValue, Set<String>> result =
+                testSubject.findSagasForAssociations(StubSaga.class, new HashSet<>(asList(known, unknown)));
+
+        assertEquals(singleton("saga1"), result.get(known));
+        assertEquals(Collections.emptySet(), result.get(unknown));
+        verify(delegate).findSagasForAssociations(StubSaga.class, singleton(known));
+    }
+
+    @Test
+    public void testAllLookupsDelegatedWhenStoreCannotProvideAssociations() {
+        @SuppressWarnings("unchecked")
+        SagaStore<Object> store = mock(SagaStore.class);
+        doThrow(new UnsupportedOperationException()).when(store).forEachAssociationValue(any(), any());
+        when(store.findSagas(any(), any())).thenReturn(singleton("saga1"));
+        testSubject = new BloomFilteringSagaStore<>(store);
+
+        assertEquals(singleton("saga1"), testSubject.findSagas(StubSaga.class, new AssociationValue("key", "value")));
+        assertEquals(singleton("saga1"), testSubject.findSagas(StubSaga.class, new AssociationValue("key", "other")));
+        verify(store, times(1)).forEachAssociationValue(any(), any());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventhandling.saga.repository;
+
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SerializedSagaTrackerTest {
+
+    private final SerializedSagaTracker testSubject = new SerializedSagaTracker();
+
+    @After
+    public void tearDown() {
+        while (CurrentUnitOfWork.isStarted()) {
+            CurrentUnitOfWork.get().rollback();
+        }
+    }
+
+    @Test
+    public void testSagaComparedByContentOfSerializedForm() {
+        DefaultUnitOfWork.startAndGet(null);
+        testSubject.track("123", "saga".getBytes());
+
+        assertTrue(testSubject.isUnchanged("123", "saga".getBytes()));
+        assertFalse(testSubject.isUnchanged("123", "changed".getBytes()));
+        assertFalse(testSubject.isUnchanged("456", "saga".getBytes()));
+
+        testSubject.forget("123");
+        assertFalse(testSubject.isUnchanged("123", "saga".getBytes()));
+    }
+
+    @Test
+    public void testTrackedSagasAreScopedToUnitOfWork() {
+        DefaultUnitOfWork.startAndGet(null).execute(() -> testSubject.track("123", "saga".getBytes()));
+
+        DefaultUnitOfWork.startAndGet(null);
+        assertFalse(testSubject.isUnchanged("123", "saga".getBytes()));
+    }
+
+    @Test
+    public void testNothingTrackedOutsideOfUnitOfWork() {
+        testSubject.track("123", "saga".getBytes());
+
+        assertFalse(testSubject.isUnchanged("123", "saga".getBytes()));
+    }
+}
@@ -21,15 +21,21 @@
 import org.axonframework.eventhandling.saga.AssociationValuesImpl;
 import org.axonframework.eventhandling.saga.repository.SagaStore;
 import org.axonframework.eventhandling.saga.repository.StubSaga;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
 import org.hsqldb.jdbc.JDBCDataSource;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.reset;
@@ -99,4 +105,95 @@ public void testLoadSagaByAssociationValue() {
         Set<String> actual = testSubject.findSagas(StubSaga.class, new AssociationValue("key", "value"));
         assertEquals(singleton("123"), actual);
     }
+
+    @Test
+    public void testFindSagasForMultipleAssociations() {
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        AssociationValue otherKey = new AssociationValue("otherKey", "value1");
+        AssociationValue unknown = new AssociationValue("key", "unknown");
+        testSubject.insertSaga(StubSaga.class, "123", new StubSaga(), null, new HashSet<>(asList(value1, otherKey)));
+        testSubject.insertSaga(StubSaga.class, "456", new StubSaga(), null, singleton(value2));
+        testSubject.insertSaga(StubSaga.class, "789", new StubSaga(), null,
+                               singleton(new AssociationValue("otherKey", "value2")));
+
+        Map<AssociationValue, Set<String>> actual = testSubject.findSagasForAssociations(
+                StubSaga.class, new HashSet<>(asList(value1, value2, otherKey, unknown)));
+
+        assertEquals(4, actual.size());
+        assertEquals(singleton("123"), actual.get(value1));
+        assertEquals(singleton("456"), actual.get(value2));
+        assertEquals(singleton("123"), actual.get(otherKey));
+        assertEquals(emptySet(), actual.get(unknown));
+    }
+
+    @Test
+    public void testLoadMultipleSagas() {
+        Set<AssociationValue> associationValues = singleton(new AssociationValue("key", "value"));
+        testSubject.insertSaga(StubSaga.class, "123", new StubSaga(), null, associationValues);
+        testSubject.insertSaga(StubSaga.class, "456", new StubSaga(), null, emptySet());
+
+        Map<String, SagaStore.Entry<StubSaga>> actual =
+                testSubject.loadSagas(StubSaga.class, new HashSet<>(asList("123", "456", "789")));
+
+        assertEquals(2, actual.size());
+        assertNotNull(actual.get("123").saga());
+        assertEquals(associationValues, actual.get("123").associationValues());
+        assertNotNull(actual.get("456").saga());
+        assertEquals(emptySet(), actual.get("456").associationValues());
+    }
+
+    @Test
+    public void testReadAllAssociationValues() {
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        testSubject.insertSaga(StubSaga.class, "123", new StubSaga(), null, singleton(value1));
+        testSubject.insertSaga(StubSaga.class, "456", new StubSaga(), null, singleton(value2));
+
+        Set<AssociationValue> actual = new HashSet<>();
+        testSubject.forEachAssociationValue(StubSaga.class, actual::add);
+
+        assertEquals(new HashSet<>(asList(value1, value2)), actual);
+    }
+
+    @Test
+    public void testUpdateOfUnchangedSagaOnlyWritesAssociations() throws SQLException {
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        testSubject.insertSaga(StubSaga.class, "123", new StubSaga(), null, singleton(value1));
+        connection.createStatement().executeUpdate("UPDATE SagaEntry SET revision = 'marker'");
+
+        DefaultUnitOfWork.startAndGet(null).execute(() -> {
+            SagaStore.Entry<StubSaga> entry = testSubject.loadSaga(StubSaga.class, "123");
+            AssociationValues associationValues = new AssociationValuesImpl(entry.associationValues());
+            associationValues.add(value2);
+            testSubject.updateSaga(StubSaga.class, "123", entry.saga(), null, associationValues);
+        });
+
+        assertEquals("marker", readRevision("123"));
+        assertEquals(singleton("123"), testSubject.findSagas(StubSaga.class, value2));
+    }
+
+    @Test
+    public void testUpdateOfUnchangedSagaWrittenWhenSkippingIsDisabled() throws SQLException {
+        testSubject.setSkipUnchangedSagaUpdates(false);
+        testSubject.insertSaga(StubSaga.class, "123", new StubSaga(), null, emptySet());
+        connection.createStatement().executeUpdate("UPDATE SagaEntry SET revision = 'marker'");
+
+        DefaultUnitOfWork.startAndGet(null).execute(() -> {
+            SagaStore.Entry<StubSaga> entry = testSubject.loadSaga(StubSaga.class, "123");
+            testSubject.updateSaga(StubSaga.class, "123", entry.saga(), null,
+                                   new AssociationValuesImpl(entry.associationValues()));
+        });
+
+        assertNull(readRevision("123"));
+    }
+
+    private String readRevision(String sagaIdentifier) throws SQLException {
+        ResultSet resultSet = connection.createStatement()
+                                        .executeQuery("SELECT revision FROM SagaEntry WHERE sagaId = '"
+                                                              + sagaIdentifier + "'");
+        assertTrue(resultSet.next());
+        return resultSet.getString(1);
+    }
 }
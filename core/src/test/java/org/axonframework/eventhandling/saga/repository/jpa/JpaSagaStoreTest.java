@@ -20,8 +20,11 @@
 import org.axonframework.common.IdentifierFactory;
 import org.axonframework.common.jpa.SimpleEntityManagerProvider;
 import org.axonframework.eventhandling.saga.AssociationValue;
+import org.axonframework.eventhandling.saga.AssociationValues;
+import org.axonframework.eventhandling.saga.AssociationValuesImpl;
 import org.axonframework.eventhandling.saga.Saga;
 import org.axonframework.eventhandling.saga.repository.AnnotatedSagaRepository;
+import org.axonframework.eventhandling.saga.repository.SagaStore;
 import org.axonframework.eventhandling.saga.repository.StubSaga;
 import org.axonframework.messaging.Message;
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
@@ -43,8 +46,13 @@
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.junit.Assert.*;
 
 /**
@@ -241,5 +249,85 @@ protected Class<? extends SimpleSerializedObject<?>> serializedObjectType() {
         });
     }
 
+    @DirtiesContext
+    @Test
+    public void testFindAndLoadMultipleSagas() {
+        JpaSagaStore sagaStore = new JpaSagaStore(new SimpleEntityManagerProvider(entityManager));
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        AssociationValue otherKey = new AssociationValue("otherKey", "value2");
+        sagaStore.insertSaga(StubSaga.class, "123", new StubSaga(), null, singleton(value1));
+        sagaStore.insertSaga(StubSaga.class, "456", new StubSaga(), null, new HashSet<>(asList(value2, otherKey)));
+        // matches both the requested key and the requested value, but not as a pair
+        sagaStore.insertSaga(StubSaga.class, "789", new StubSaga(), null,
+                             singleton(new AssociationValue("otherKey", "value1")));
+        entityManager.clear();
+
+        Map<AssociationValue, Set<String>> associations =
+                sagaStore.findSagasForAssociations(StubSaga.class, new HashSet<>(asList(value1, otherKey)));
+        assertEquals(2, associations.size());
+        assertEquals(singleton("123"), associations.get(value1));
+        assertEquals(singleton("456"), associations.get(otherKey));
+
+        Map<String, SagaStore.Entry<StubSaga>> sagas =
+                sagaStore.loadSagas(StubSaga.class, new HashSet<>(asList("123", "456", "unknown")));
+        assertEquals(2, sagas.size());
+        assertNotNull(sagas.get("123").saga());
+        assertEquals(singleton(value1), sagas.get("123").associationValues());
+        assertEquals(new HashSet<>(asList(value2, otherKey)), sagas.get("456").associationValues());
+        assertEquals(emptySet(), sagaStore.loadSagas(StubSaga.class, singleton("unknown")).keySet());
+    }
+
+    @DirtiesContext
+    @Test
+    public void testReadAllAssociationValues() {
+        JpaSagaStore sagaStore = new JpaSagaStore(new SimpleEntityManagerProvider(entityManager));
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        sagaStore.insertSaga(StubSaga.class, "123", new StubSaga(), null, singleton(value1));
+        sagaStore.insertSaga(StubSaga.class, "456", new StubSaga(), null, singleton(value2));
+        entityManager.clear();
+
+        Set<AssociationValue> actual = new HashSet<>();
+        sagaStore.forEachAssociationValue(StubSaga.class, actual::add);
 
+        assertEquals(new HashSet<>(asList(value1, value2)), actual);
+    }
+
+    @DirtiesContext
+    @Test
+    public void testUpdateOfUnchangedSagaOnlyWritesAssociations() {
+        JpaSagaStore sagaStore = new JpaSagaStore(new SimpleEntityManagerProvider(entityManager));
+        AssociationValue value1 = new AssociationValue("key", "value1");
+        AssociationValue value2 = new AssociationValue("key", "value2");
+        sagaStore.insertSaga(StubSaga.class, "123", new StubSaga(), null, singleton(value1));
+        entityManager.createQuery("UPDATE SagaEntry se SET se.revision = 'marker'").executeUpdate();
+        entityManager.clear();
+
+        SagaStore.Entry<StubSaga> entry = sagaStore.loadSaga(StubSaga.class, "123");
+        AssociationValues associationValues = new AssociationValuesImpl(entry.associationValues());
+        associationValues.add(value2);
+        sagaStore.updateSaga(StubSaga.class, "123", entry.saga(), null, associationValues);
+        entityManager.clear();
+
+        assertEquals("marker", entityManager.find(SagaEntry.class, "123").getRevision());
+        assertEquals(singleton("123"), sagaStore.findSagas(StubSaga.class, value2));
+    }
+
+    @DirtiesContext
+    @Test
+    public void testUpdateOfUnchangedSagaWrittenWhenSkippingIsDisabled() {
+        JpaSagaStore sagaStore = new JpaSagaStore(new SimpleEntityManagerProvider(entityManager));
+        sagaStore.setSkipUnchangedSagaUpdates(false);
+        sagaStore.insertSaga(StubSaga.class, "123", new StubSaga(), null, emptySet());
+        entityManager.createQuery("UPDATE SagaEntry se SET se.revision = 'marker'").executeUpdate();
+        entityManager.clear();
+
+        SagaStore.Entry<StubSaga> entry = sagaStore.loadSaga(StubSaga.class, "123");
+        sagaStore.updateSaga(StubSaga.class, "123", entry.saga(), null,
+                             new AssociationValuesImpl(entry.associationValues()));
+        entityManager.clear();
+
+        assertNull(entityManager.find(SagaEntry.class, "123").getRevision());
+    }
 }
@@ -32,6 +32,7 @@
 import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.serialization.xml.XStreamSerializer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -116,6 +117,61 @@ public void testAggregatesRetrievedFromCache() throws Exception {
                      reloadedAggregate1.version());
     }
 
+    @Test
+    public void testAggregateRebuiltFromSnapshotCacheAndNewerEvents() throws Exception {
+        testSubject.setSnapshotCache(new OffHeapSnapshotCache(new XStreamSerializer(), 64 * 1024));
+
+        startAndGetUnitOfWork();
+        testSubject.newInstance(() -> new StubAggregate("aggregateId")).execute(StubAggregate::doSomething);
+        CurrentUnitOfWork.commit();
+
+        // an event appended after the cached version, for example by another instance of the application
+        startAndGetUnitOfWork();
+        mockEventStore.publish(new GenericDomainEventMessage<>("StubAggregate", "aggregateId", 1,
+                                                               new StubDomainEvent()));
+        CurrentUnitOfWork.commit();
+        ehCache.removeAll();
+
+        startAndGetUnitOfWork();
+        Aggregate<StubAggregate> reloadedAggregate = testSubject.load("aggregateId");
+        assertEquals(1L, (long) reloadedAggregate.version());
+        assertEquals("aggregateId", reloadedAggregate.invoke(StubAggregate::getIdentifier));
+        verify(mockEventStore).readEvents("aggregateId", 1L);
+        verify(mockEventStore, never()).readEvents("aggregateId");
+        CurrentUnitOfWork.commit();
+    }
+
+    @Test
+    public void testDeletedAggregateRemovedFromSnapshotCache() throws Exception {
+        OffHeapSnapshotCache snapshotCache = new OffHeapSnapshotCache(new XStreamSerializer(), 64 * 1024);
+        testSubject.setSnapshotCache(snapshotCache);
+
+        startAndGetUnitOfWork();
+        testSubject.newInstance(() -> new StubAggregate("aggregateId")).execute(StubAggregate::doSomething);
+        CurrentUnitOfWork.commit();
+        assertNotNull(snapshotCache.get("aggregateId"));
+
+        startAndGetUnitOfWork();
+        testSubject.load("aggregateId").execute(StubAggregate::delete);
+        CurrentUnitOfWork.commit();
+
+        assertNull(snapshotCache.get("aggregateId"));
+    }
+
+    @Test
+    public void testFailureOfSnapshotCacheDoesNotFailCommit() throws Exception {
+        OffHeapSnapshotCache snapshotCache = mock(OffHeapSnapshotCache.class);
+        doThrow(new MockException()).when(snapshotCache).put(any());
+        testSubject.setSnapshotCache(snapshotCache);
+
+        startAndGetUnitOfWork();
+        testSubject.newInstance(() -> new StubAggregate("aggregateId")).execute(StubAggregate::doSomething);
+        CurrentUnitOfWork.commit();
+
+        verify(snapshotCache).put(any());
+        assertEquals(1, mockEventStore.readEvents("aggregateId").asStream().count());
+    }
+
     @Test
     public void testLoadDeletedAggregate() throws Exception {
         String identifier = "aggregateId";
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.common.transaction.Transaction;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.axonframework.eventsourcing.eventstore.EventStoreTestUtils.createEvents;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CoalescingSnapshotterTest {
+
+    private EventStore mockEventStore;
+    private TransactionManager mockTransactionManager;
+    private Transaction mockTransaction;
+    private List<Runnable> scheduledTasks;
+    private CoalescingSnapshotter testSubject;
+
+    @Before
+    public void setUp() {
+        mockEventStore = mock(EventStore.class);
+        when(mockEventStore.readEvents(anyString()))
+                .thenAnswer(invocation -> DomainEventStream.of(createEvents(3)));
+        mockTransaction = mock(Transaction.class);
+        mockTransactionManager = mock(TransactionManager.class);
+        when(mockTransactionManager.startTransaction()).thenReturn(mockTransaction);
+        doCallRealMethod().when(mockTransactionManager).executeInTransaction(any(Runnable.class));
+        scheduledTasks = new ArrayList<>();
+        testSubject = new CoalescingSnapshotter(new StubSnapshotter(mockEventStore), scheduledTasks::add,
+                                                mockTransactionManager, 3, 2);
+    }
+
+    @Test
+    public void testRequestsForPendingAggregateAreCoalesced() {
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+
+        assertEquals(1, testSubject.getQueueDepth());
+        assertEquals(2, testSubject.getCoalescedCount());
+        assertEquals(1, scheduledTasks.size());
+
+        runScheduledTasks();
+
+        verify(mockEventStore, times(1)).readEvents("aggregate1");
+        verify(mockEventStore, times(1)).storeSnapshot(any(DomainEventMessage.class));
+        assertEquals(0, testSubject.getQueueDepth());
+        assertEquals(1, testSubject.getSnapshotCount());
+    }
+
+    @Test
+    public void testRequestAcceptedAgainAfterSnapshotIsCreated() {
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+        runScheduledTasks();
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+        runScheduledTasks();
+
+        verify(mockEventStore, times(2)).storeSnapshot(any(DomainEventMessage.class));
+        assertEquals(0, testSubject.getCoalescedCount());
+    }
+
+    @Test
+    public void testRequestsDroppedWhenQueueIsFull() {
+        for (int i = 0; i < 5; i++) {
+            testSubject.scheduleSnapshot(Object.class, "aggregate" + i);
+        }
+
+        assertEquals(3, testSubject.getQueueDepth());
+        assertEquals(2, testSubject.getDroppedCount());
+
+        runScheduledTasks();
+
+        verify(mockEventStore, times(3)).storeSnapshot(any(DomainEventMessage.class));
+        verify(mockEventStore, never()).readEvents("aggregate3");
+        verify(mockEventStore, never()).readEvents("aggregate4");
+    }
+
+    @Test
+    public void testSnapshotsStoredInBatches() {
+        for (int i = 0; i < 3; i++) {
+            testSubject.scheduleSnapshot(Object.class, "aggregate" + i);
+        }
+
+        runScheduledTasks();
+
+        verify(mockTransactionManager, times(2)).startTransaction();
+        verify(mockTransaction, times(2)).commit();
+        verify(mockEventStore, times(3)).storeSnapshot(any(DomainEventMessage.class));
+        assertEquals(3, testSubject.getSnapshotCount());
+        assertTrue(testSubject.getAverageSnapshotDuration(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testFailingSnapshotDoesNotPreventOthersInBatch() {
+        when(mockEventStore.readEvents("aggregate0")).thenThrow(new IllegalStateException("Mock"));
+        testSubject.scheduleSnapshot(Object.class, "aggregate0");
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+
+        runScheduledTasks();
+
+        verify(mockEventStore, times(1)).storeSnapshot(any(DomainEventMessage.class));
+        verify(mockTransaction).rollback();
+        verify(mockTransaction).commit();
+        assertEquals(2, testSubject.getSnapshotCount());
+    }
+
+    @Test
+    public void testFailingSnapshotRollsBackBatchAndOthersAreStoredSeparately() {
+        doThrow(new IllegalStateException("Mock")).when(mockEventStore).storeSnapshot(argThat(snapshotOf("aggregate1")));
+        testSubject.scheduleSnapshot(Object.class, "aggregate0");
+        testSubject.scheduleSnapshot(Object.class, "aggregate1");
+
+        runScheduledTasks();
+
+        verify(mockTransactionManager, times(2)).startTransaction();
+        verify(mockTransaction).rollback();
+        verify(mockTransaction).commit();
+        // stored once in the rolled back batch, and once in a transaction of its own
+        verify(mockEventStore, times(2)).storeSnapshot(argThat(snapshotOf("aggregate0")));
+        verify(mockEventStore, times(1)).readEvents("aggregate1");
+        assertEquals(2, testSubject.getSnapshotCount());
+    }
+
+    private ArgumentMatcher<DomainEventMessage> snapshotOf(String aggregateIdentifier) {
+        return snapshot -> aggregateIdentifier.equals(snapshot.getAggregateIdentifier());
+    }
+
+    private void runScheduledTasks() {
+        while (!scheduledTasks.isEmpty()) {
+            scheduledTasks.remove(0).run();
+        }
+    }
+
+    private static class StubSnapshotter extends AbstractSnapshotter {
+
+        private StubSnapshotter(EventStore eventStore) {
+            super(eventStore);
+        }
+
+        @Override
+        protected DomainEventMessage createSnapshot(Class<?> aggregateType, String aggregateIdentifier,
+                                                    DomainEventStream eventStream) {
+            DomainEventMessage<?> lastEvent = null;
+            while (eventStream.hasNext()) {
+                lastEvent = eventStream.next();
+            }
+            return new GenericDomainEventMessage<>("test", aggregateIdentifier, lastEvent.getSequenceNumber(),
+                                                   "snapshot");
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.serialization.SerializationAware;
+import org.axonframework.serialization.SerializedMessage;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+public class LoadCostSnapshotTriggerDefinitionTest {
+
+    private static final String AGGREGATE_IDENTIFIER = "aggregateIdentifier";
+
+    private Snapshotter mockSnapshotter;
+    private AtomicLong currentTime;
+    private LoadCostSnapshotTriggerDefinition testSubject;
+
+    @Before
+    public void setUp() {
+        while (CurrentUnitOfWork.isStarted()) {
+            CurrentUnitOfWork.get().rollback();
+        }
+        mockSnapshotter = mock(Snapshotter.class);
+        currentTime = new AtomicLong();
+        testSubject = new LoadCostSnapshotTriggerDefinition(mockSnapshotter, TimeUnit.MILLISECONDS.toNanos(100),
+                                                            currentTime::get);
+        DefaultUnitOfWork.startAndGet(new GenericMessage<>("test"));
+    }
+
+    @After
+    public void tearDown() {
+        while (CurrentUnitOfWork.isStarted()) {
+            CurrentUnitOfWork.get().rollback();
+        }
+    }
+
+    @Test
+    public void testSnapshotTriggeredWhenLoadingTakesTooLong() {
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(event(0));
+        currentTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        trigger.eventHandled(event(1));
+        trigger.initializationFinished();
+
+        verify(mockSnapshotter, never()).scheduleSnapshot(any(), any());
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter).scheduleSnapshot(Object.class, AGGREGATE_IDENTIFIER);
+    }
+
+    @Test
+    public void testSnapshotNotTriggeredWhenLoadingIsFast() {
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(event(0));
+        currentTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        trigger.initializationFinished();
+        // time spent handling commands doesn't count
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        trigger.eventHandled(event(1));
+
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter, never()).scheduleSnapshot(any(), any());
+    }
+
+    @Test
+    public void testSnapshotTriggeredWhenLoadedBytesExceedThreshold() {
+        XStreamSerializer serializer = new XStreamSerializer();
+        SerializedObject<byte[]> serializedPayload = serializer.serialize(String.format("%100s", ""), byte[].class);
+        testSubject.setByteThreshold(serializer, 2 * serializedPayload.getData().length);
+
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(serializedEvent(0, serializedPayload, serializer));
+        trigger.initializationFinished();
+        trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(serializedEvent(0, serializedPayload, serializer));
+        trigger.eventHandled(serializedEvent(1, serializedPayload, serializer));
+        trigger.initializationFinished();
+
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter, times(1)).scheduleSnapshot(Object.class, AGGREGATE_IDENTIFIER);
+    }
+
+    @Test
+    public void testSnapshotTriggeredOnceWhenMultipleThresholdsExceeded() {
+        testSubject.setEventCountThreshold(2);
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(event(0));
+        trigger.eventHandled(event(1));
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        trigger.initializationFinished();
+
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter, times(1)).scheduleSnapshot(Object.class, AGGREGATE_IDENTIFIER);
+    }
+
+    @Test
+    public void testSnapshotTriggeredWhenEventCountExceedsThreshold() {
+        testSubject.setEventCountThreshold(3);
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.initializationStarted();
+        trigger.eventHandled(event(0));
+        trigger.eventHandled(event(1));
+        trigger.initializationFinished();
+        trigger.eventHandled(event(2));
+
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter).scheduleSnapshot(Object.class, AGGREGATE_IDENTIFIER);
+    }
+
+    @Test
+    public void testLoadTimeMeasuredFromStartOfInitialization() {
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        currentTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        trigger.initializationStarted();
+        trigger.eventHandled(event(0));
+        currentTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        trigger.initializationFinished();
+
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter, never()).scheduleSnapshot(any(), any());
+    }
+
+    @Test
+    public void testEventsAppliedOnNewAggregateAreNotSerialized() {
+        XStreamSerializer serializer = new XStreamSerializer();
+        testSubject.setByteThreshold(serializer, 1);
+        DomainEventMessage<?> event = mock(DomainEventMessage.class,
+                                           withSettings().extraInterfaces(SerializationAware.class));
+        when(event.getAggregateIdentifier()).thenReturn(AGGREGATE_IDENTIFIER);
+
+        SnapshotTrigger trigger = testSubject.prepareTrigger(Object.class);
+        trigger.eventHandled(event);
+        trigger.eventHandled(event);
+
+        verify((SerializationAware) event, never()).serializePayload(any(), any());
+        CurrentUnitOfWork.commit();
+        verify(mockSnapshotter, never()).scheduleSnapshot(any(), any());
+    }
+
+    private DomainEventMessage<String> event(long sequenceNumber) {
+        return new GenericDomainEventMessage<>("type", AGGREGATE_IDENTIFIER, sequenceNumber, "payload");
+    }
+
+    private DomainEventMessage<Object> serializedEvent(long sequenceNumber, SerializedObject<byte[]> payload,
+                                                      XStreamSerializer serializer) {
+        SerializedObject<byte[]> metaData = serializer.serialize(MetaData.emptyInstance(), byte[].class);
+        SerializedMessage<Object> message = new SerializedMessage<>("id" + sequenceNumber, payload, metaData,
+                                                                    serializer);
+        return new GenericDomainEventMessage<>("type", AGGREGATE_IDENTIFIER, sequenceNumber, message,
+                                               GenericEventMessage.clock::instant);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.eventsourcing;
+
+import org.axonframework.commandhandling.StubAggregate;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OffHeapSnapshotCacheTest {
+
+    private OffHeapSnapshotCache testSubject;
+
+    @Before
+    public void setUp() {
+        testSubject = new OffHeapSnapshotCache(new XStreamSerializer(), 4096);
+    }
+
+    @Test
+    public void testStoredSnapshotIsReturnedAsCopy() {
+        StubAggregate aggregate = new StubAggregate("id1");
+        testSubject.put(snapshot("id1", 3, aggregate));
+
+        DomainEventMessage<?> actual = testSubject.get("id1");
+
+        assertNotNull(actual);
+        assertEquals("StubAggregate", actual.getType());
+        assertEquals("id1", actual.getAggregateIdentifier());
+        assertEquals(3, actual.getSequenceNumber());
+        assertNotSame(aggregate, actual.getPayload());
+        assertEquals("id1", ((StubAggregate) actual.getPayload()).getIdentifier());
+        assertNull(testSubject.get("id2"));
+    }
+
+    @Test
+    public void testOlderVersionDoesNotReplaceNewerVersion() {
+        testSubject.put(snapshot("id1", 5, new StubAggregate("id1")));
+        testSubject.put(snapshot("id1", 4, new StubAggregate("id1")));
+
+        assertEquals(5, testSubject.get("id1").getSequenceNumber());
+
+        testSubject.put(snapshot("id1", 6, new StubAggregate("id1")));
+        assertEquals(6, testSubject.get("id1").getSequenceNumber());
+        assertEquals(1, testSubject.size());
+    }
+
+    @Test
+    public void testOldestEntriesOverwrittenWhenCapacityIsExhausted() {
+        for (int i = 0; i < 100; i++) {
+            testSubject.put(snapshot("id" + i, 0, new StubAggregate("id" + i)));
+        }
+
+        assertNull(testSubject.get("id0"));
+        assertNotNull(testSubject.get("id99"));
+        assertEquals("id99", ((StubAggregate) testSubject.get("id99").getPayload()).getIdentifier());
+        assertTrue(testSubject.size() < 100);
+    }
+
+    @Test
+    public void testRemovedSnapshotIsNoLongerReturned() {
+        testSubject.put(snapshot("id1", 0, new StubAggregate("id1")));
+
+        testSubject.remove("id1");
+
+        assertNull(testSubject.get("id1"));
+    }
+
+    private static DomainEventMessage<?> snapshot(String aggregateIdentifier, long version, Object aggregate) {
+        return new GenericDomainEventMessage<>("StubAggregate", aggregateIdentifier, version, aggregate);
+    }
+}
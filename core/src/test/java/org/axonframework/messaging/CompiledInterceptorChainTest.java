@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.messaging;
+
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CompiledInterceptorChainTest {
+
+    private UnitOfWork<Message<?>> unitOfWork;
+    private MessageHandler<Message<?>> mockHandler;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("original"));
+        mockHandler = mock(MessageHandler.class);
+        when(mockHandler.handle(isA(Message.class))).thenReturn("Result");
+    }
+
+    @Test
+    public void testEmptyChainInvokesHandlerDirectly() throws Exception {
+        CompiledInterceptorChain<Message<?>> testSubject = CompiledInterceptorChain.compile(Collections.emptyList());
+
+        assertTrue(testSubject.isEmpty());
+        assertSame(CompiledInterceptorChain.empty(), testSubject);
+        assertEquals("Result", testSubject.proceed(unitOfWork, mockHandler));
+        verify(mockHandler).handle(unitOfWork.getMessage());
+    }
+
+    @Test
+    public void testInterceptorsInvokedInRegistrationOrder() throws Exception {
+        List<String> invocations = new ArrayList<>();
+        MessageHandlerInterceptor<Message<?>> interceptor1 = (uow, chain) -> {
+            invocations.add("first");
+            uow.transformMessage(m -> new GenericMessage<>("testing"));
+            return chain.proceed();
+        };
+        MessageHandlerInterceptor<Message<?>> interceptor2 = (uow, chain) -> {
+            invocations.add("second");
+            return chain.proceed();
+        };
+
+        CompiledInterceptorChain<Message<?>> testSubject =
+                CompiledInterceptorChain.compile(asList(interceptor1, interceptor2));
+
+        assertEquals("Result", testSubject.proceed(unitOfWork, mockHandler));
+        assertEquals(asList("first", "second"), invocations);
+        verify(mockHandler).handle(argThat(x -> (x != null) && x.getPayload().equals("testing")));
+    }
+
+    @Test
+    public void testInterceptorMayBlockHandlerInvocation() throws Exception {
+        CompiledInterceptorChain<Message<?>> testSubject =
+                CompiledInterceptorChain.<Message<?>>empty().with((uow, chain) -> "Intercepted");
+
+        assertEquals("Intercepted", testSubject.proceed(unitOfWork, mockHandler));
+        verify(mockHandler, never()).handle(any());
+    }
+
+    @Test
+    public void testChainIsImmutable() {
+        MessageHandlerInterceptor<Message<?>> interceptor1 = (uow, chain) -> chain.proceed();
+        MessageHandlerInterceptor<Message<?>> interceptor2 = (uow, chain) -> chain.proceed();
+        CompiledInterceptorChain<Message<?>> original = CompiledInterceptorChain.compile(asList(interceptor1));
+
+        CompiledInterceptorChain<Message<?>> extended = original.with(interceptor2);
+
+        assertEquals(asList(interceptor1), original.interceptors());
+        assertEquals(asList(interceptor1, interceptor2), extended.interceptors());
+        assertEquals(asList(interceptor2), extended.without(interceptor1).interceptors());
+        assertEquals(asList(interceptor1, interceptor2), extended.interceptors());
+        assertSame(original, original.without(interceptor2));
+        assertTrue(original.without(interceptor1).isEmpty());
+        assertTrue(extended.contains(interceptor2));
+        assertFalse(original.contains(interceptor2));
+    }
+}
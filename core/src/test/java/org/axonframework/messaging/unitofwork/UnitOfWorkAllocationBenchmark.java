@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.messaging.unitofwork;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.correlation.MessageOriginProvider;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the number of bytes allocated on the heap per processed message for the different Unit of Work
+ * implementations. Run this class before and after changes to the Unit of Work lifecycle to detect allocation
+ * regressions. It requires a JVM that supports {@code com.sun.management.ThreadMXBean}.
+ */
+public class UnitOfWorkAllocationBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final int BATCH_SIZE = 100;
+
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        EventMessage<?> message = GenericEventMessage.asEventMessage("payload");
+        List<EventMessage<?>> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(GenericEventMessage.asEventMessage("payload-" + i));
+        }
+
+        execute("DefaultUnitOfWork, no handlers", 1, () -> DefaultUnitOfWork.startAndGet(message).commit());
+        execute("DefaultUnitOfWork, handlers and resources", 1, () -> {
+            DefaultUnitOfWork<EventMessage<?>> uow = DefaultUnitOfWork.startAndGet(message);
+            uow.resources().put("key", "value");
+            uow.onCommit(u -> {
+            });
+            uow.onCleanup(u -> {
+            });
+            uow.commit();
+        });
+        execute("DefaultUnitOfWork, correlation data", 1, () -> {
+            DefaultUnitOfWork<EventMessage<?>> uow = DefaultUnitOfWork.startAndGet(message);
+            uow.registerCorrelationDataProvider(new MessageOriginProvider());
+            uow.getCorrelationData();
+            uow.commit();
+        });
+        execute("BatchingUnitOfWork", BATCH_SIZE, () -> {
+            BatchingUnitOfWork<EventMessage<?>> uow = new BatchingUnitOfWork<>(batch);
+            uow.execute(() -> uow.onCleanup(u -> {
+            }));
+        });
+    }
+
+    private static void execute(String description, int messagesPerIteration, Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS / messagesPerIteration; i++) {
+            task.run();
+        }
+        int iterations = ITERATIONS / messagesPerIteration;
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long duration = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long messages = (long) iterations * messagesPerIteration;
+        System.out.println(String.format("%-45s %8.1f bytes/message %8.1f ns/message", description,
+                                         (double) allocated / messages, (double) duration / messages));
+    }
+}
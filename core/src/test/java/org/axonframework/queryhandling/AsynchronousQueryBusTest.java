@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import org.axonframework.common.MockException;
+import org.axonframework.common.Registration;
+import org.axonframework.monitoring.MessageMonitor;
+import org.axonframework.queryhandling.responsetypes.ResponseTypes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AsynchronousQueryBusTest {
+
+    private CountDownLatch slowQueryLatch;
+    private AsynchronousQueryBus testSubject;
+
+    @Before
+    public void setUp() {
+        slowQueryLatch = new CountDownLatch(1);
+        testSubject = new AsynchronousQueryBus(new QueryBulkhead("default", 2, 10));
+        testSubject.subscribe("thread", String.class, message -> Thread.currentThread().getName());
+        testSubject.subscribe("slow", String.class, message -> {
+            slowQueryLatch.await();
+            return "slow " + message.getPayload();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        slowQueryLatch.countDown();
+        testSubject.shutdown();
+    }
+
+    @Test
+    public void testQueryExecutedByBulkheadThread() throws Exception {
+        String defaultThread = testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload();
+        assertTrue(defaultThread.startsWith("QueryBulkhead-default"));
+
+        QueryBulkhead bulkhead = new QueryBulkhead("custom", 1, 1);
+        Registration registration = testSubject.registerBulkhead(bulkhead, "thread");
+        String customThread = testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload();
+        assertTrue(customThread.startsWith("QueryBulkhead-custom"));
+
+        registration.cancel();
+        String thread = testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload();
+        assertTrue(thread.startsWith("QueryBulkhead-default"));
+    }
+
+    @Test
+    public void testSaturatedBulkheadDoesNotDelayOtherQueries() throws Exception {
+        QueryBulkhead slowBulkhead = new QueryBulkhead("slow", 1, 5);
+        testSubject.registerBulkhead(slowBulkhead, "slow");
+
+        CompletableFuture<QueryResponseMessage<String>> slowResult = testSubject.query(queryMessage("slow", "1"));
+        for (int i = 0; i < 5; i++) {
+            testSubject.query(queryMessage("slow", "queued"));
+        }
+        assertEquals(5, slowBulkhead.getQueueSize());
+
+        assertNotNull(testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload());
+        assertFalse(slowResult.isDone());
+
+        slowQueryLatch.countDown();
+        assertEquals("slow 1", slowResult.get(1, TimeUnit.SECONDS).getPayload());
+    }
+
+    @Test
+    public void testQueryRejectedWhenQueueIsFull() throws Exception {
+        QueryBulkhead slowBulkhead = new QueryBulkhead("slow", 1, 1);
+        testSubject.registerBulkhead(slowBulkhead, "slow");
+
+        CompletableFuture<QueryResponseMessage<String>> running = testSubject.query(queryMessage("slow", "1"));
+        CompletableFuture<QueryResponseMessage<String>> queued = testSubject.query(queryMessage("slow", "2"));
+        CompletableFuture<QueryResponseMessage<String>> rejected = testSubject.query(queryMessage("slow", "3"));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        assertFailedWith(RejectedExecutionException.class, rejected);
+        assertEquals(1, slowBulkhead.getRejectedCount());
+
+        slowQueryLatch.countDown();
+        assertEquals("slow 1", running.get(1, TimeUnit.SECONDS).getPayload());
+        assertEquals("slow 2", queued.get(1, TimeUnit.SECONDS).getPayload());
+    }
+
+    @Test
+    public void testCallerRunsQueryWhenQueueIsFull() throws Exception {
+        QueryBulkhead bulkhead = new QueryBulkhead("blocked", 1, 1, QueryBulkhead.RejectionPolicy.CALLER_RUNS, null);
+        testSubject.registerBulkhead(bulkhead, "slow", "thread");
+        testSubject.query(queryMessage("slow", "1"));
+        testSubject.query(queryMessage("slow", "2"));
+
+        CompletableFuture<QueryResponseMessage<String>> result = testSubject.query(queryMessage("thread", ""));
+        assertTrue(result.isDone());
+        assertEquals(Thread.currentThread().getName(), result.get().getPayload());
+        assertEquals(0, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void testOldestQueryDiscardedWhenQueueIsFull() throws Exception {
+        QueryBulkhead bulkhead = new QueryBulkhead("slow", 1, 1, QueryBulkhead.RejectionPolicy.DISCARD_OLDEST, null);
+        testSubject.registerBulkhead(bulkhead, "slow");
+
+        CompletableFuture<QueryResponseMessage<String>> running = testSubject.query(queryMessage("slow", "1"));
+        CompletableFuture<QueryResponseMessage<String>> oldest = testSubject.query(queryMessage("slow", "2"));
+        CompletableFuture<QueryResponseMessage<String>> newest = testSubject.query(queryMessage("slow", "3"));
+
+        assertFailedWith(RejectedExecutionException.class, oldest);
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        slowQueryLatch.countDown();
+        assertEquals("slow 1", running.get(1, TimeUnit.SECONDS).getPayload());
+        assertEquals("slow 3", newest.get(1, TimeUnit.SECONDS).getPayload());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBulkheadMonitorNotifiedOfQueryResults() throws Exception {
+        MessageMonitor<QueryMessage<?, ?>> monitor = mock(MessageMonitor.class);
+        MessageMonitor.MonitorCallback callback = mock(MessageMonitor.MonitorCallback.class);
+        when(monitor.onMessageIngested(any())).thenReturn(callback);
+        QueryBulkhead bulkhead = new QueryBulkhead("monitored", 1, 1, QueryBulkhead.RejectionPolicy.ABORT, monitor);
+        testSubject.subscribe("failing", String.class, message -> {
+            throw new MockException();
+        });
+        testSubject.registerBulkhead(bulkhead, "thread", "failing");
+
+        testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS);
+        assertFailedWith(MockException.class, testSubject.query(queryMessage("failing", "")));
+
+        verify(monitor, times(2)).onMessageIngested(any());
+        verify(callback).reportSuccess();
+        verify(callback).reportFailure(isA(MockException.class));
+    }
+
+    @Test
+    public void testDispatchInterceptorsInvokedOnCallingThread() throws Exception {
+        List<Thread> interceptingThreads = new CopyOnWriteArrayList<>();
+        testSubject.registerDispatchInterceptor(messages -> (index, message) -> {
+            interceptingThreads.add(Thread.currentThread());
+            return message;
+        });
+
+        String handlingThread = testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload();
+
+        assertTrue(handlingThread.startsWith("QueryBulkhead-default"));
+        assertEquals(singletonList(Thread.currentThread()), interceptingThreads);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testQueryWithoutHandlerFailsWithoutOccupyingBulkhead() throws Exception {
+        MessageMonitor<QueryMessage<?, ?>> monitor = mock(MessageMonitor.class);
+        QueryBulkhead bulkhead = new QueryBulkhead("monitored", 1, 1, QueryBulkhead.RejectionPolicy.ABORT, monitor);
+        testSubject.registerBulkhead(bulkhead, "unknown");
+
+        CompletableFuture<QueryResponseMessage<String>> result = testSubject.query(queryMessage("unknown", ""));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertFailedWith(NoHandlerForQueryException.class, result);
+        verifyZeroInteractions(monitor);
+    }
+
+    @Test
+    public void testErrorInQueryHandlerCompletesResult() throws Exception {
+        testSubject.subscribe("error", String.class, message -> {
+            throw new AssertionError("Mock error");
+        });
+
+        assertFailedWith(AssertionError.class, testSubject.query(queryMessage("error", "")));
+        assertNotNull(testSubject.query(queryMessage("thread", "")).get(1, TimeUnit.SECONDS).getPayload());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryNameAssignedToSingleBulkhead() {
+        testSubject.registerBulkhead(new QueryBulkhead("first", 1, 1), "slow");
+        testSubject.registerBulkhead(new QueryBulkhead("second", 1, 1), "slow");
+    }
+
+    private static void assertFailedWith(Class<? extends Throwable> expected, CompletableFuture<?> future)
+            throws Exception {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("Expected query to fail");
+        } catch (ExecutionException e) {
+            assertTrue(expected.isInstance(e.getCause()));
+        }
+    }
+
+    private QueryMessage<String, String> queryMessage(String queryName, String payload) {
+        return new GenericQueryMessage<>(payload, queryName, ResponseTypes.instanceOf(String.class));
+    }
+}
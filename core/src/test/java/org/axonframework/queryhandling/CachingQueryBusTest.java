@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.queryhandling;
+
+import org.axonframework.common.MockException;
+import org.axonframework.common.caching.BoundedCache;
+import org.axonframework.monitoring.MessageMonitor;
+import org.axonframework.queryhandling.responsetypes.ResponseTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CachingQueryBusTest {
+
+    private SimpleQueryBus delegate;
+    private MessageMonitor<QueryMessage<?, ?>> messageMonitor;
+    private MessageMonitor.MonitorCallback monitorCallback;
+    private AtomicLong currentTime;
+    private AtomicInteger invocationCount;
+    private CachingQueryBus testSubject;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        delegate = new SimpleQueryBus();
+        messageMonitor = mock(MessageMonitor.class);
+        monitorCallback = mock(MessageMonitor.MonitorCallback.class);
+        when(messageMonitor.onMessageIngested(any())).thenReturn(monitorCallback);
+        currentTime = new AtomicLong();
+        invocationCount = new AtomicInteger();
+        testSubject = new CachingQueryBus(delegate, delegate, new BoundedCache(100), messageMonitor,
+                                          currentTime::get);
+        testSubject.setTimeToLive("hello", 1, TimeUnit.SECONDS);
+        testSubject.subscribe("hello", String.class, message -> {
+            if ("fail".equals(message.getPayload())) {
+                throw new MockException();
+            }
+            return "Hello " + message.getPayload() + " " + invocationCount.incrementAndGet();
+        });
+    }
+
+    @Test
+    public void testRepeatedQueryAnsweredFromCache() throws Exception {
+        assertEquals("Hello world 1", query("hello", "world"));
+        assertEquals("Hello world 1", query("hello", "world"));
+        assertEquals("Hello axon 2", query("hello", "axon"));
+
+        assertEquals(2, invocationCount.get());
+        verify(monitorCallback, times(1)).reportSuccess();
+        verify(monitorCallback, times(2)).reportIgnored();
+    }
+
+    @Test
+    public void testQueryWithoutTimeToLiveNotCached() throws Exception {
+        testSubject.subscribe("other", String.class, message -> "Other " + invocationCount.incrementAndGet());
+
+        assertEquals("Other 1", query("other", "world"));
+        assertEquals("Other 2", query("other", "world"));
+        verifyZeroInteractions(messageMonitor);
+
+        testSubject.setDefaultTimeToLive(1, TimeUnit.SECONDS);
+        assertEquals("Other 3", query("other", "world"));
+        assertEquals("Other 3", query("other", "world"));
+    }
+
+    @Test
+    public void testCachedResponseExpires() throws Exception {
+        assertEquals("Hello world 1", query("hello", "world"));
+        currentTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("Hello world 1", query("hello", "world"));
+        currentTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("Hello world 2", query("hello", "world"));
+    }
+
+    @Test
+    public void testCachedResponseInvalidatedByMatchingUpdate() throws Exception {
+        assertEquals("Hello world 1", query("hello", "world"));
+        assertEquals("Hello axon 2", query("hello", "axon"));
+
+        testSubject.emit(String.class, "world"::equals, "update");
+        assertEquals("Hello world 3", query("hello", "world"));
+        assertEquals("Hello axon 2", query("hello", "axon"));
+
+        testSubject.complete(query -> "hello".equals(query.getQueryName()));
+        assertEquals("Hello world 4", query("hello", "world"));
+        assertEquals("Hello axon 5", query("hello", "axon"));
+    }
+
+    @Test
+    public void testCachedResponseInvalidatedByUpdateWithMatchingRoutingKey() throws Exception {
+        delegate.<String>registerRoutingKeyExtractor("hello", String::toUpperCase);
+        SubscriptionQueryResult<QueryResponseMessage<String>, SubscriptionQueryUpdateMessage<String>> result =
+                testSubject.subscriptionQuery(new GenericSubscriptionQueryMessage<>(
+                        "world", "hello", ResponseTypes.instanceOf(String.class),
+                        ResponseTypes.instanceOf(String.class)));
+        assertEquals("Hello world 1", query("hello", "world"));
+        assertEquals("Hello axon 2", query("hello", "axon"));
+
+        testSubject.emit("hello", "WORLD", "update");
+
+        assertEquals("update", result.updates().blockFirst().getPayload());
+        assertEquals("Hello world 3", query("hello", "world"));
+        assertEquals("Hello axon 2", query("hello", "axon"));
+    }
+
+    @Test
+    public void testResponseToQueryInFlightOnlyDiscardedWhenUpdateMatches() throws Exception {
+        testSubject.setTimeToLive("inFlight", 1, TimeUnit.SECONDS);
+        testSubject.subscribe("inFlight", String.class, message -> {
+            testSubject.emit(String.class, "world"::equals, "update");
+            return message.getPayload() + " " + invocationCount.incrementAndGet();
+        });
+
+        assertEquals("axon 1", query("inFlight", "axon"));
+        assertEquals("axon 1", query("inFlight", "axon"));
+        assertEquals("world 2", query("inFlight", "world"));
+        assertEquals("world 3", query("inFlight", "world"));
+    }
+
+    @Test
+    public void testResponseToQueryInFlightOnlyDiscardedWhenUpdateHasMatchingRoutingKey() throws Exception {
+        delegate.<String>registerRoutingKeyExtractor("inFlight", String::toUpperCase);
+        testSubject.setTimeToLive("inFlight", 1, TimeUnit.SECONDS);
+        testSubject.subscribe("inFlight", String.class, message -> {
+            testSubject.emit("inFlight", "WORLD", "update");
+            return message.getPayload() + " " + invocationCount.incrementAndGet();
+        });
+
+        assertEquals("axon 1", query("inFlight", "axon"));
+        assertEquals("axon 1", query("inFlight", "axon"));
+        assertEquals("world 2", query("inFlight", "world"));
+        assertEquals("world 3", query("inFlight", "world"));
+    }
+
+    @Test
+    public void testResponseCachedBeforeRoutingKeyExtractorRegistrationInvalidatedByRoutingKey() throws Exception {
+        assertEquals("Hello world 1", query("hello", "world"));
+        delegate.<String>registerRoutingKeyExtractor("hello", String::toUpperCase);
+
+        testSubject.emit("hello", "WORLD", "update");
+
+        assertEquals("Hello world 2", query("hello", "world"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateByRoutingKeyRequiresSimpleQueryBusAsEmitter() {
+        testSubject = new CachingQueryBus(delegate, mock(QueryUpdateEmitter.class), new BoundedCache(100));
+
+        testSubject.emit("hello", "WORLD", "update");
+    }
+
+    @Test
+    public void testUpdatesPassedToDelegateEmitter() {
+        SubscriptionQueryResult<QueryResponseMessage<String>, SubscriptionQueryUpdateMessage<String>> result =
+                testSubject.subscriptionQuery(new GenericSubscriptionQueryMessage<>(
+                        "world", "hello", ResponseTypes.instanceOf(String.class),
+                        ResponseTypes.instanceOf(String.class)));
+        testSubject.emit(String.class, "world"::equals, "update");
+        testSubject.complete(String.class, "world"::equals);
+
+        assertEquals("update", result.updates().blockFirst().getPayload());
+        assertTrue(delegate.activeSubscriptions().isEmpty());
+    }
+
+    @Test
+    public void testFailedQueryNotCached() {
+        assertTrue(testSubject.query(queryMessage("hello", "fail")).isCompletedExceptionally());
+        assertTrue(testSubject.query(queryMessage("hello", "fail")).isCompletedExceptionally());
+
+        verify(monitorCallback, times(2)).reportFailure(isA(MockException.class));
+    }
+
+    private String query(String queryName, String payload) throws Exception {
+        return testSubject.query(queryMessage(queryName, payload)).get().getPayload();
+    }
+
+    private QueryMessage<String, String> queryMessage(String queryName, String payload) {
+        return new GenericQueryMessage<>(payload, queryName, ResponseTypes.instanceOf(String.class));
+    }
+}
@@ -23,6 +23,7 @@
 import org.mockito.ArgumentMatcher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -58,6 +59,23 @@ public void testDispatchSingleResultQuery() throws Exception {
         verify(mockBus).query(argThat((ArgumentMatcher<QueryMessage<String, String>>) x -> "query".equals(x.getPayload())));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDispatchStreamingQuery() {
+        QueryResponseMessage<Flux<String>> streamingAnswer =
+                new GenericQueryResponseMessage<>(Flux.just("first", "second"));
+        when(mockBus.query(any())).thenAnswer(i -> CompletableFuture.completedFuture(streamingAnswer));
+
+        Flux<String> actual = testSubject.streamingQuery("query", String.class);
+        verify(mockBus, never()).query(any());
+
+        StepVerifier.create(actual)
+                    .expectNext("first", "second")
+                    .verifyComplete();
+        verify(mockBus).query(argThat((ArgumentMatcher<QueryMessage<String, Flux<String>>>) x ->
+                "query".equals(x.getPayload()) && x.getResponseType().equals(ResponseTypes.streamOf(String.class))));
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Test
     public void testDispatchMultiResultQuery() {
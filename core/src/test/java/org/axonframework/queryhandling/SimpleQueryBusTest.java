@@ -30,13 +30,20 @@
 import org.axonframework.queryhandling.responsetypes.ResponseTypes;
 import org.junit.Before;
 import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toSet;
@@ -88,6 +95,27 @@ public void testSubscribe() {
         assertEquals(2, testSubject.getSubscriptions().size());
     }
 
+    @Test
+    public void testResolvedHandlersReusedUntilSubscriptionsChange() throws Exception {
+        ResponseType<String> responseType = spy(ResponseTypes.instanceOf(String.class));
+        QueryMessage<String, String> testQueryMessage = new GenericQueryMessage<>("hello", "test", responseType);
+        Registration subscription = testSubject.subscribe("test", String.class, q -> "reply1");
+
+        assertEquals("reply1", testSubject.query(testQueryMessage).get().getPayload());
+        assertEquals("reply1", testSubject.query(testQueryMessage).get().getPayload());
+        verify(responseType, times(1)).matches(String.class);
+
+        testSubject.subscribe("test", Integer.class, q -> 2);
+        assertEquals("reply1", testSubject.query(testQueryMessage).get().getPayload());
+        verify(responseType, times(2)).matches(String.class);
+        verify(responseType, times(1)).matches(Integer.class);
+
+        subscription.cancel();
+        assertTrue(testSubject.query(testQueryMessage).isCompletedExceptionally());
+        testSubject.subscribe("test", String.class, q -> "reply3");
+        assertEquals("reply3", testSubject.query(testQueryMessage).get().getPayload());
+    }
+
     @Test
     public void testSubscribingSameHandlerTwiceInvokedOnce() throws Exception {
         AtomicInteger invocationCount = new AtomicInteger();
@@ -411,6 +439,37 @@ public void testScatterGatherOnArrayQueryHandlers() throws NoSuchMethodException
         verify(monitorCallback, times(3)).reportSuccess();
     }
 
+    @Test
+    public void testStreamingQueryConsumesHandlerResultOnDemand() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        testSubject.subscribe(String.class.getName(),
+                              methodOf(getClass(), "stringStreamQueryHandler").getGenericReturnType(),
+                              q -> Stream.iterate(0, i -> i + 1)
+                                         .map(i -> "item" + produced.incrementAndGet())
+                                         .onClose(closed::incrementAndGet));
+
+        QueryMessage<String, Flux<String>> testQueryMessage =
+                new GenericQueryMessage<>("hello", ResponseTypes.streamOf(String.class));
+        Flux<String> result = testSubject.query(testQueryMessage).get().getPayload();
+        assertEquals(0, produced.get());
+
+        StepVerifier.create(result, 2)
+                    .expectNext("item1", "item2")
+                    .thenRequest(1)
+                    .expectNext("item3")
+                    .thenCancel()
+                    .verify();
+        assertEquals(3, produced.get());
+        assertEquals(1, closed.get());
+        verify(monitorCallback).reportSuccess();
+    }
+
+    @SuppressWarnings("unused") // Used by 'testStreamingQueryConsumesHandlerResultOnDemand()' to generate response type
+    public Stream<String> stringStreamQueryHandler() {
+        return Stream.empty();
+    }
+
     @SuppressWarnings("unused")// Used by 'testScatterGatherOnArrayQueryHandlers' to generate queryHandler responseType
     public String[] stringArrayQueryHandler() {
         return new String[]{};
@@ -460,6 +519,77 @@ public void testScatterGatherWithTransactionRollsBackOnFailure() {
         verify(mockTx, times(1)).rollback();
     }
 
+    @Test
+    public void testScatterGatherInvokesHandlersConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        testSubject.setScatterGatherExecutor(executor);
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        for (int i = 0; i < 3; i++) {
+            String suffix = Integer.toString(i);
+            testSubject.subscribe(String.class.getName(), String.class, q -> {
+                barrier.await(5, TimeUnit.SECONDS);
+                return q.getPayload() + suffix;
+            });
+        }
+
+        QueryMessage<String, String> testQueryMessage = new GenericQueryMessage<>("Hello", singleStringResponse);
+        Set<String> results = testSubject.scatterGather(testQueryMessage, 10, TimeUnit.SECONDS)
+                                         .map(Message::getPayload)
+                                         .collect(toSet());
+
+        assertEquals(new HashSet<>(asList("Hello0", "Hello1", "Hello2")), results);
+        verify(monitorCallback, times(3)).reportSuccess();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testScatterGatherStreamsResponsesInOrderOfCompletion() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        testSubject.setScatterGatherExecutor(executor);
+        CountDownLatch slowHandlerLatch = new CountDownLatch(1);
+        testSubject.subscribe(String.class.getName(), String.class, q -> {
+            slowHandlerLatch.await(5, TimeUnit.SECONDS);
+            return "slow";
+        });
+        testSubject.subscribe(String.class.getName(), String.class, q -> "fast");
+
+        QueryMessage<String, String> testQueryMessage = new GenericQueryMessage<>("Hello", singleStringResponse);
+        Iterator<QueryResponseMessage<String>> results =
+                testSubject.scatterGather(testQueryMessage, 10, TimeUnit.SECONDS).iterator();
+
+        assertEquals("fast", results.next().getPayload());
+        slowHandlerLatch.countDown();
+        assertEquals("slow", results.next().getPayload());
+        assertFalse(results.hasNext());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testScatterGatherCancelsHandlersAtDeadline() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        testSubject.setScatterGatherExecutor(executor);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        testSubject.subscribe(String.class.getName(), String.class, q -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "slow";
+        });
+        testSubject.subscribe(String.class.getName(), String.class, q -> "fast");
+
+        QueryMessage<String, String> testQueryMessage = new GenericQueryMessage<>("Hello", singleStringResponse);
+        List<String> results = testSubject.scatterGather(testQueryMessage, 100, TimeUnit.MILLISECONDS)
+                                          .map(Message::getPayload)
+                                          .collect(Collectors.toList());
+
+        assertEquals(Collections.singletonList("fast"), results);
+        assertTrue("Expected slow handler to be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
     @Test
     public void testQueryFirstFromScatterGatherWillCommitUnitOfWork() {
         TransactionManager mockTxManager = mock(TransactionManager.class);
@@ -16,6 +16,7 @@
 
 package org.axonframework.queryhandling;
 
+import org.axonframework.common.Registration;
 import org.axonframework.messaging.Message;
 import org.axonframework.queryhandling.annotation.AnnotationQueryHandlerAdapter;
 import org.axonframework.queryhandling.responsetypes.ResponseTypes;
@@ -29,9 +30,11 @@
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for subscription query functionality.
@@ -340,6 +343,134 @@ public void testDoubleSubscriptionMessage() {
         queryBus.subscriptionQuery(queryMessage);
     }
 
+    @Test
+    public void testDoubleSubscriptionMessageAllowedAfterCompletion() {
+        SubscriptionQueryMessage<String, List<String>, String> queryMessage = new GenericSubscriptionQueryMessage<>(
+                "axonFrameworkCR",
+                "chatMessages",
+                ResponseTypes.multipleInstancesOf(String.class),
+                ResponseTypes.instanceOf(String.class));
+
+        queryBus.subscriptionQuery(queryMessage).cancel();
+        queryBus.subscriptionQuery(queryMessage);
+
+        assertEquals(1, queryBus.activeSubscriptions().size());
+    }
+
+    @Test
+    public void testEmittingAnUpdateByRoutingKey() {
+        // given
+        queryBus.registerRoutingKeyExtractor("chatMessages", Function.identity());
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result1 =
+                queryBus.subscriptionQuery(chatMessagesQuery("axonFrameworkCR"));
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result2 =
+                queryBus.subscriptionQuery(chatMessagesQuery("otherCR"));
+
+        // when
+        queryBus.emit("chatMessages", "axonFrameworkCR", "Update1");
+        queryBus.emit("chatMessages", "otherCR", "Update2");
+        queryBus.emit("chatMessages", "axonFrameworkCR", "Update3");
+        chatQueryHandler.emitter.complete(m -> true);
+
+        // then
+        StepVerifier.create(result1.updates().map(Message::getPayload))
+                    .expectNext("Update1", "Update3")
+                    .verifyComplete();
+        StepVerifier.create(result2.updates().map(Message::getPayload))
+                    .expectNext("Update2")
+                    .verifyComplete();
+        queryBus.emit("chatMessages", "axonFrameworkCR", "Update4");
+    }
+
+    @Test
+    public void testRoutingKeyExtractorIndexesOpenSubscriptionQueries() {
+        // given
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result =
+                queryBus.subscriptionQuery(chatMessagesQuery("axonFrameworkCR"));
+        Registration registration = queryBus.registerRoutingKeyExtractor("chatMessages", Function.identity());
+
+        // when
+        queryBus.emit("chatMessages", "axonFrameworkCR", "Update1");
+        registration.cancel();
+        try {
+            queryBus.emit("chatMessages", "axonFrameworkCR", "Update2");
+            fail("Expected emitting by routing key to fail without routing key extractor");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, "Update3");
+        chatQueryHandler.emitter.complete(String.class, "axonFrameworkCR"::equals);
+
+        // then
+        StepVerifier.create(result.updates().map(Message::getPayload))
+                    .expectNext("Update1", "Update3")
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testConflatingUpdatesToLatest() {
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result =
+                queryBus.subscriptionQuery(chatMessagesQuery("axonFrameworkCR"),
+                                           SubscriptionQueryBackpressure.conflatingToLatest(),
+                                           Queues.SMALL_BUFFER_SIZE);
+
+        for (int i = 1; i <= 5; i++) {
+            chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, "Update" + i);
+        }
+
+        // a single update is held for the subscriber, while the remaining updates are conflated
+        StepVerifier.create(result.updates().map(Message::getPayload), 0)
+                    .thenRequest(1)
+                    .expectNext("Update1")
+                    .then(() -> {
+                        chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, "Update6");
+                        chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, "Update7");
+                    })
+                    .thenRequest(2)
+                    .expectNext("Update5", "Update7")
+                    .then(() -> chatQueryHandler.emitter.complete(String.class, "axonFrameworkCR"::equals))
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testConflatingUpdatesByKeyWithMergeFunction() {
+        SubscriptionQueryBackpressure backpressure = SubscriptionQueryBackpressure.conflating(
+                update -> ((String) update.getPayload()).charAt(0),
+                (pending, update) -> GenericSubscriptionQueryUpdateMessage.asUpdateMessage(
+                        pending.getPayload() + "," + update.getPayload()));
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result =
+                queryBus.subscriptionQuery(chatMessagesQuery("axonFrameworkCR"), backpressure,
+                                           Queues.SMALL_BUFFER_SIZE);
+
+        for (String update : Arrays.asList("a1", "b1", "a2", "b2", "a3")) {
+            chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, update);
+        }
+        chatQueryHandler.emitter.complete(String.class, "axonFrameworkCR"::equals);
+
+        StepVerifier.create(result.updates().map(Message::getPayload))
+                    .expectNext("a1", "b1,b2", "a2,a3")
+                    .verifyComplete();
+        assertTrue(queryBus.activeSubscriptions().isEmpty());
+    }
+
+    @Test
+    public void testConflatingUpdatesFailsWhenTooManyKeysArePending() {
+        SubscriptionQueryResult<QueryResponseMessage<List<String>>, SubscriptionQueryUpdateMessage<String>> result =
+                queryBus.subscriptionQuery(chatMessagesQuery("axonFrameworkCR"),
+                                           SubscriptionQueryBackpressure.conflatingByKey(Message::getPayload),
+                                           2);
+
+        for (int i = 0; i < 4; i++) {
+            chatQueryHandler.emitter.emit(String.class, "axonFrameworkCR"::equals, "Update" + i);
+        }
+
+        StepVerifier.create(result.updates())
+                    .thenConsumeWhile(update -> true)
+                    .expectError(IllegalStateException.class)
+                    .verify();
+        assertTrue(queryBus.activeSubscriptions().isEmpty());
+    }
+
     @Test
     public void testBufferOverflow() {
         SubscriptionQueryMessage<String, List<String>, String> queryMessage = new GenericSubscriptionQueryMessage<>(
@@ -601,6 +732,13 @@ public void testSubscriptionQueryResultHandleWhenThereIsAnErrorOnUpdate() {
         assertTrue(updates.isEmpty());
     }
 
+    private SubscriptionQueryMessage<String, List<String>, String> chatMessagesQuery(String chatRoom) {
+        return new GenericSubscriptionQueryMessage<>(chatRoom,
+                                                     "chatMessages",
+                                                     ResponseTypes.multipleInstancesOf(String.class),
+                                                     ResponseTypes.instanceOf(String.class));
+    }
+
     @SuppressWarnings("unused")
     private class ChatQueryHandler {
 
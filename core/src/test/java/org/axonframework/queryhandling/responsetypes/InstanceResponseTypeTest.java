@@ -188,6 +188,14 @@ public void testConvertReturnsSingleResponseAsIs() {
         assertEquals(testResponse, result);
     }
 
+    @Test
+    public void testEqualWhenExpectingSameResponseType() {
+        assertEquals(new InstanceResponseType<>(QueryResponse.class), testSubject);
+        assertEquals(new InstanceResponseType<>(QueryResponse.class).hashCode(), testSubject.hashCode());
+        assertNotEquals(new InstanceResponseType<>(SubTypedQueryResponse.class), testSubject);
+        assertNotEquals(new MultipleInstancesResponseType<>(QueryResponse.class), testSubject);
+    }
+
     @Test
     public void testConvertReturnsSingleResponseAsIsForSubTypedResponse() {
         SubTypedQueryResponse testResponse = new SubTypedQueryResponse();
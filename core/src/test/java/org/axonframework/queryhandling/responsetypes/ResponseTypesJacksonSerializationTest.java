@@ -55,4 +55,16 @@ public void testSerDeserOfMultipleInstanceResponseType() throws IOException {
 
         assertEquals(stringResponseType.getExpectedResponseType(), deserialized.getExpectedResponseType());
     }
+
+    @Test
+    public void testSerDeserOfStreamingResponseType() throws IOException {
+        StreamingResponseType<String> stringResponseType = (StreamingResponseType<String>) ResponseTypes
+                .streamOf(String.class);
+
+        String serialized = objectMapper.writeValueAsString(stringResponseType);
+        StreamingResponseType<String> deserialized = objectMapper.readerFor(StreamingResponseType.class)
+                                                                 .readValue(serialized);
+
+        assertEquals(stringResponseType.getExpectedResponseType(), deserialized.getExpectedResponseType());
+    }
 }
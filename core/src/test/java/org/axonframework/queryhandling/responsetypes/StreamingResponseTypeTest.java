@@ -0,0 +1,112 @@
+package org.axonframework.queryhandling.responsetypes;
+
+import org.junit.*;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class StreamingResponseTypeTest
+        extends AbstractResponseTypeTest<Flux<AbstractResponseTypeTest.QueryResponse>> {
+
+    public StreamingResponseTypeTest() {
+        super(new StreamingResponseType<>(QueryResponse.class));
+    }
+
+    @Test
+    public void testMatchesReturnsFalseIfResponseTypeIsTheSame() throws NoSuchMethodException {
+        testMatches("someQuery", DOES_NOT_MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsTrueIfResponseTypeIsArrayOfProvidedType() throws NoSuchMethodException {
+        testMatches("someArrayQuery", MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsTrueIfResponseTypeIsListOfProvidedType() throws NoSuchMethodException {
+        testMatches("someListQuery", MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsTrueIfResponseTypeIsStreamOfProvidedType() throws NoSuchMethodException {
+        testMatches("someStreamQuery", MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsTrueIfResponseTypeIsPublisherOfProvidedType() throws NoSuchMethodException {
+        testMatches("someFluxQuery", MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsTrueIfResponseTypeIsPublisherOfSubTypedProvidedType() throws NoSuchMethodException {
+        testMatches("someSubTypedFluxQuery", MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsFalseIfResponseTypeIsPublisherOfSuperType() throws NoSuchMethodException {
+        testMatches("someSuperTypedFluxQuery", DOES_NOT_MATCHES);
+    }
+
+    @Test
+    public void testMatchesReturnsFalseIfResponseTypeIsMapOfProvidedType() throws NoSuchMethodException {
+        testMatches("someMapQuery", DOES_NOT_MATCHES);
+    }
+
+    @Test
+    public void testConvertConsumesStreamOnDemand() {
+        AtomicInteger produced = new AtomicInteger();
+        Stream<QueryResponse> response = Stream.generate(() -> {
+            produced.incrementAndGet();
+            return new QueryResponse();
+        }).limit(1000);
+
+        Flux<QueryResponse> result = testSubject.convert(response);
+        assertEquals(0, produced.get());
+
+        StepVerifier.create(result, 2)
+                    .expectNextCount(2)
+                    .thenCancel()
+                    .verify();
+        assertEquals(2, produced.get());
+    }
+
+    @Test
+    public void testConvertIterablesAndArrays() {
+        QueryResponse first = new QueryResponse();
+        QueryResponse second = new QueryResponse();
+
+        StepVerifier.create(testSubject.convert(Arrays.asList(first, second)))
+                    .expectNext(first, second)
+                    .verifyComplete();
+        StepVerifier.create(testSubject.convert(new QueryResponse[]{first, second}))
+                    .expectNext(first, second)
+                    .verifyComplete();
+        StepVerifier.create(testSubject.convert(null))
+                    .verifyComplete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConvertThrowsExceptionForSingleInstance() {
+        testSubject.convert(new QueryResponse());
+    }
+
+    @SuppressWarnings("unused")
+    public Flux<QueryResponse> someFluxQuery() {
+        return Flux.empty();
+    }
+
+    @SuppressWarnings("unused")
+    public Flux<SubTypedQueryResponse> someSubTypedFluxQuery() {
+        return Flux.empty();
+    }
+
+    @SuppressWarnings("unused")
+    public Flux<Object> someSuperTypedFluxQuery() {
+        return Flux.empty();
+    }
+}
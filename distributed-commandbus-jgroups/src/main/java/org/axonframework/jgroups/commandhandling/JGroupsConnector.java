@@ -52,6 +52,9 @@
  * <p>
  * After configuring the Connector, it needs to {@link #connect()}, before it can start dispatching messages to other
  * nodes. For a clean shutdown, connectors should {@link #disconnect()} to notify other nodes of the node leaving.
+ * <p>
+ * Commands routed to the local node are dispatched on the local segment directly, without being serialized and sent
+ * through the channel.
  */
 public class JGroupsConnector implements CommandRouter, Receiver, CommandBusConnector {
     private static final Logger logger = LoggerFactory.getLogger(JGroupsConnector.class);
@@ -333,7 +336,10 @@ private void processJoinMessage(final Message message, final JoinMessage joinMes
         if (channel.getView().containsMember(message.getSrc())) {
             int loadFactor = joinMessage.getLoadFactor();
             Predicate<? super CommandMessage<?>> commandFilter = joinMessage.messageFilter();
-            SimpleMember<Address> member = new SimpleMember<>(joinedMember, message.getSrc(), NON_LOCAL_MEMBER, s -> {
+            // our own join message is looped back, and must not replace the local member by a non-local one
+            boolean local = message.getSrc().equals(channel.getAddress());
+            SimpleMember<Address> member = new SimpleMember<>(joinedMember, message.getSrc(),
+                                                              local ? LOCAL_MEMBER : NON_LOCAL_MEMBER, s -> {
             });
 
             // this lock could be removed if versioning support is added to the consistent hash
@@ -435,14 +441,31 @@ protected ConsistentHash getConsistentHash() {
 
     @Override
     public <C> void send(Member destination, CommandMessage<? extends C> command) throws Exception {
-        channel.send(resolveAddress(destination), new JGroupsDispatchMessage(command, serializer, false));
+        if (destination.local()) {
+            try {
+                localSegment.dispatch(command);
+            } catch (Exception e) {
+                logger.error("Could not dispatch command", e);
+            }
+        } else {
+            channel.send(resolveAddress(destination), new JGroupsDispatchMessage(command, serializer, false));
+        }
     }
 
     @Override
     public <C, R> void send(Member destination, CommandMessage<C> command,
                             CommandCallback<? super C, R> callback) throws Exception {
-        callbackRepository.store(command.getIdentifier(), new CommandCallbackWrapper<>(destination, command, callback));
-        channel.send(resolveAddress(destination), new JGroupsDispatchMessage(command, serializer, true));
+        if (destination.local()) {
+            try {
+                localSegment.dispatch(command, callback);
+            } catch (Exception e) {
+                callback.onFailure(command, e);
+            }
+        } else {
+            callbackRepository.store(command.getIdentifier(),
+                                     new CommandCallbackWrapper<>(destination, command, callback));
+            channel.send(resolveAddress(destination), new JGroupsDispatchMessage(command, serializer, true));
+        }
     }
 
     @Override
@@ -0,0 +1,813 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.jgroups.queryhandling;
+
+import org.axonframework.common.AxonThreadFactory;
+import org.axonframework.common.IdentifierFactory;
+import org.axonframework.common.Registration;
+import org.axonframework.jgroups.commandhandling.ConnectionFailedException;
+import org.axonframework.jgroups.queryhandling.JGroupsQueryDispatchMessage.DispatchType;
+import org.axonframework.jgroups.queryhandling.JGroupsQueryReplyMessage.ReplyType;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.queryhandling.*;
+import org.axonframework.serialization.Serializer;
+import org.jgroups.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.MonoProcessor;
+import reactor.util.concurrent.Queues;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+import static java.util.Arrays.stream;
+import static org.axonframework.common.ObjectUtils.getOrDefault;
+
+/**
+ * A QueryBus that distributes queries over the members of a JGroups cluster. Each member advertises the names of the
+ * queries for which handlers are subscribed to its local segment, so that read models only need to be present on some
+ * of the members.
+ * <p>
+ * Point-to-point queries and subscription queries are sent to one of the members advertising the query name. Among
+ * them, the member with the fewest outstanding queries relative to its load factor (see {@link
+ * #updateLoadFactor(int)}) is chosen, preferring the local segment when loads are equal. Scatter-gather queries are
+ * sent to all members advertising the query name, and their responses are streamed as they arrive.
+ * <p>
+ * Updates to subscription queries are emitted on the member handling the subscription query, using the {@link
+ * QueryUpdateEmitter} of its local segment. They are forwarded to the member that sent the subscription query, where
+ * they are buffered according to the given {@link SubscriptionQueryBackpressure}. Conflating backpressure is applied
+ * as buffering, as updates are conflated by the emitting member only.
+ * <p>
+ * After configuring the query bus, it needs to {@link #connect()}, before it can start dispatching queries to other
+ * members. For a clean shutdown, it should {@link #disconnect()} to notify other members of the member leaving. The
+ * channel used must not be shared with a {@link org.axonframework.jgroups.commandhandling.JGroupsConnector}.
+ *
+ * @since 3.4
+ */
+public class JGroupsQueryBus implements QueryBus, Receiver {
+
+    /**
+     * The load factor with which members receive queries, unless configured otherwise.
+     */
+    public static final int DEFAULT_LOAD_FACTOR = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(JGroupsQueryBus.class);
+
+    private final Object monitor = new Object();
+
+    private final QueryBus localSegment;
+    private final JChannel channel;
+    private final String clusterName;
+    private final Serializer serializer;
+    private final Executor executor;
+    private final ConcurrentMap<String, AtomicInteger> localQueryNames = new ConcurrentHashMap<>();
+    private final AtomicInteger localOutstanding = new AtomicInteger();
+    private final Map<Address, QueryMember> members = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RemoteSubscription> remoteSubscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger membershipVersion = new AtomicInteger(0);
+    private final CountDownLatch joined = new CountDownLatch(1);
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+    private volatile View currentView;
+    private volatile int loadFactor = DEFAULT_LOAD_FACTOR;
+
+    /**
+     * Initialize the query bus using the given {@code localSegment} to handle queries on the local member, and the
+     * given {@code channel} to connect between members. A unique {@code clusterName} should be chosen to define which
+     * members can connect to each other. The given {@code serializer} is used to serialize messages when they are sent
+     * between members. Queries received from other members are handled by a cached thread pool.
+     *
+     * @param localSegment The QueryBus implementation that handles the local queries
+     * @param channel      The JGroups Channel used to communicate between members
+     * @param clusterName  The name of the Cluster
+     * @param serializer   The serializer to serialize Query Messages with
+     */
+    public JGroupsQueryBus(QueryBus localSegment, JChannel channel, String clusterName, Serializer serializer) {
+        this(localSegment, channel, clusterName, serializer,
+             Executors.newCachedThreadPool(new AxonThreadFactory("JGroupsQueryBus")));
+    }
+
+    /**
+     * Initialize the query bus using the given {@code localSegment} to handle queries on the local member, and the
+     * given {@code channel} to connect between members. A unique {@code clusterName} should be chosen to define which
+     * members can connect to each other. The given {@code serializer} is used to serialize messages when they are sent
+     * between members. Queries received from other members are handled using the given {@code executor}, so that slow
+     * query handlers don't delay the processing of messages received by the channel.
+     *
+     * @param localSegment The QueryBus implementation that handles the local queries
+     * @param channel      The JGroups Channel used to communicate between members
+     * @param clusterName  The name of the Cluster
+     * @param serializer   The serializer to serialize Query Messages with
+     * @param executor     The executor handling queries received from other members
+     */
+    public JGroupsQueryBus(QueryBus localSegment, JChannel channel, String clusterName, Serializer serializer,
+                           Executor executor) {
+        this.localSegment = localSegment;
+        this.channel = channel;
+        this.clusterName = clusterName;
+        this.serializer = serializer;
+        this.executor = executor;
+        this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, new AxonThreadFactory("JGroupsQueryBus-timeout"));
+        this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+        this.timeoutScheduler.setKeepAliveTime(1, TimeUnit.MINUTES);
+        this.timeoutScheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Connects this member to the cluster and shares the names of the queries it handles with the other members in the
+     * cluster.
+     * <p>
+     * The membership messages have been sent, but may not have been processed yet when the method returns. Before
+     * sending queries, await for the joining process to be completed (see {@link #awaitJoined(long, TimeUnit)}).
+     *
+     * @throws Exception when an error occurs connecting or communicating with the cluster
+     */
+    public void connect() throws Exception {
+        if (channel.getClusterName() != null && !clusterName.equals(channel.getClusterName())) {
+            throw new ConnectionFailedException("Already joined cluster: " + channel.getClusterName());
+        }
+        channel.setReceiver(this);
+        channel.connect(clusterName);
+    }
+
+    /**
+     * Disconnects from the cluster, preventing any queries from being routed to this member. Queries sent to other
+     * members that haven't been answered yet fail, and subscription queries sent to other members complete with an
+     * error.
+     */
+    public void disconnect() {
+        channel.disconnect();
+        new ArrayList<>(members.keySet()).forEach(this::memberLeft);
+    }
+
+    /**
+     * This method blocks until this member has successfully joined the other members, until the thread is interrupted,
+     * or when the given amount of time has passed.
+     *
+     * @param timeout  The amount of time to wait for the connection to complete
+     * @param timeUnit The time unit of the timeout
+     * @return {@code true} if the member successfully joined, otherwise {@code false}.
+     * @throws InterruptedException when the thread is interrupted while joining
+     */
+    public boolean awaitJoined(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        return joined.await(timeout, timeUnit);
+    }
+
+    /**
+     * Updates the load factor with which this member receives queries from the other members, and shares it with the
+     * cluster. Members with a higher load factor are sent a larger share of the queries. A load factor of {@code 0}
+     * prevents other members from sending queries to this member, while still allowing local queries to be sent to
+     * other members.
+     *
+     * @param loadFactor The load factor of this member
+     */
+    public void updateLoadFactor(int loadFactor) {
+        this.loadFactor = loadFactor;
+        broadcastMembership(false);
+    }
+
+    /**
+     * Returns the name of the current member, as it is known to the cluster.
+     *
+     * @return the name of the current member
+     */
+    public String getNodeName() {
+        return channel.getName();
+    }
+
+    @Override
+    public <R> Registration subscribe(String queryName, Type responseType,
+                                      MessageHandler<? super QueryMessage<?, R>> handler) {
+        Registration registration = localSegment.subscribe(queryName, responseType, handler);
+        localQueryNames.computeIfAbsent(queryName, name -> new AtomicInteger()).incrementAndGet();
+        broadcastMembership(false);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return () -> {
+            if (!cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            localQueryNames.computeIfPresent(queryName, (name, count) -> count.decrementAndGet() == 0 ? null : count);
+            broadcastMembership(false);
+            return registration.cancel();
+        };
+    }
+
+    @Override
+    public <Q, R> CompletableFuture<QueryResponseMessage<R>> query(QueryMessage<Q, R> query) {
+        QueryMember destination = selectMember(query.getQueryName());
+        if (destination == null || destination.isLocal()) {
+            localOutstanding.incrementAndGet();
+            return localSegment.query(query).whenComplete((response, error) -> localOutstanding.decrementAndGet());
+        }
+        String requestIdentifier = IdentifierFactory.getInstance().generateIdentifier();
+        PendingQuery<R> pendingQuery = new PendingQuery<>(destination.address);
+        pendingRequests.put(requestIdentifier, pendingQuery);
+        destination.outstanding.incrementAndGet();
+        CompletableFuture<QueryResponseMessage<R>> result =
+                pendingQuery.result.whenComplete((response, error) -> destination.outstanding.decrementAndGet());
+        dispatch(destination.address, requestIdentifier,
+                 () -> new JGroupsQueryDispatchMessage(requestIdentifier, DispatchType.QUERY, query, 0, serializer));
+        return result;
+    }
+
+    @Override
+    public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> query, long timeout,
+                                                               TimeUnit unit) {
+        Set<Address> destinations = members.values().stream()
+                                           .filter(member -> member.handles(query.getQueryName()))
+                                           .map(member -> member.address)
+                                           .collect(Collectors.toSet());
+        if (destinations.isEmpty()) {
+            return localSegment.scatterGather(query, timeout, unit);
+        }
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        String requestIdentifier = IdentifierFactory.getInstance().generateIdentifier();
+        PendingScatterGather<R> pendingScatterGather = new PendingScatterGather<>(destinations);
+        pendingRequests.put(requestIdentifier, pendingScatterGather);
+        // the stream may never be drained or closed, so the request is forgotten once no more responses are expected
+        ScheduledFuture<?> expiry = timeoutScheduler.schedule(
+                () -> pendingRequests.remove(requestIdentifier, pendingScatterGather), timeout, unit);
+        destinations.forEach(destination -> dispatch(destination, requestIdentifier, () -> new JGroupsQueryDispatchMessage(
+                requestIdentifier, DispatchType.SCATTER_GATHER, query, unit.toMillis(timeout), serializer)));
+
+        List<QueryResponseMessage<R>> localResponses = Collections.emptyList();
+        if (localQueryNames.containsKey(query.getQueryName())) {
+            try (Stream<QueryResponseMessage<R>> responses = localSegment.scatterGather(query, timeout, unit)) {
+                localResponses = responses.collect(Collectors.toList());
+            }
+        }
+        Runnable cleanUp = () -> {
+            expiry.cancel(false);
+            pendingRequests.remove(requestIdentifier, pendingScatterGather);
+        };
+        return Stream.concat(localResponses.stream(),
+                             StreamSupport.stream(pendingScatterGather.responses(deadline, cleanUp), false))
+                     .onClose(cleanUp);
+    }
+
+    @Override
+    public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>> subscriptionQuery(
+            SubscriptionQueryMessage<Q, I, U> query, SubscriptionQueryBackpressure backpressure, int updateBufferSize) {
+        QueryMember destination = selectMember(query.getQueryName());
+        if (destination == null || destination.isLocal()) {
+            return localSegment.subscriptionQuery(query, backpressure, updateBufferSize);
+        }
+        String requestIdentifier = IdentifierFactory.getInstance().generateIdentifier();
+        EmitterProcessor<SubscriptionQueryUpdateMessage<U>> updates = EmitterProcessor.create(updateBufferSize);
+        PendingSubscriptionQuery<I, U> pendingSubscriptionQuery = new PendingSubscriptionQuery<>(
+                destination.address, updates.sink(backpressure.getOverflowStrategy()));
+        pendingRequests.put(requestIdentifier, pendingSubscriptionQuery);
+        dispatch(destination.address, requestIdentifier, () -> new JGroupsQueryDispatchMessage(
+                requestIdentifier, DispatchType.SUBSCRIPTION_QUERY, query, 0, serializer));
+        return new DefaultSubscriptionQueryResult<>(pendingSubscriptionQuery.initialResult, updates, () -> {
+            if (pendingRequests.remove(requestIdentifier, pendingSubscriptionQuery)) {
+                send(destination.address, JGroupsQueryDispatchMessage.cancellation(requestIdentifier));
+                pendingSubscriptionQuery.updates.complete();
+            }
+            return true;
+        });
+    }
+
+    private QueryMember selectMember(String queryName) {
+        QueryMember selected = null;
+        if (localQueryNames.containsKey(queryName)) {
+            selected = new QueryMember(null, localQueryNames.keySet(), Math.max(loadFactor, 1), -1, localOutstanding);
+        }
+        for (QueryMember member : members.values()) {
+            if (member.handles(queryName) && (selected == null || member.load() < selected.load())) {
+                selected = member;
+            }
+        }
+        return selected;
+    }
+
+    private void dispatch(Address destination, String requestIdentifier,
+                          Callable<JGroupsQueryDispatchMessage> message) {
+        try {
+            channel.send(destination, message.call());
+        } catch (Exception e) {
+            memberFailed(requestIdentifier, destination, new QueryExecutionException(
+                    format("Could not send query to member [%s]", destination), e));
+        }
+    }
+
+    private void send(Address destination, Object message) {
+        try {
+            channel.send(destination, message);
+        } catch (Exception e) {
+            logger.warn("Could not send message to member [{}]", destination, e);
+        }
+    }
+
+    private void memberFailed(String requestIdentifier, Address member, Throwable cause) {
+        PendingRequest pendingRequest = pendingRequests.get(requestIdentifier);
+        if (pendingRequest != null && pendingRequest.onFailure(member, cause)) {
+            pendingRequests.remove(requestIdentifier, pendingRequest);
+        }
+    }
+
+    @Override
+    public void getState(OutputStream ostream) {
+    }
+
+    @Override
+    public void setState(InputStream istream) {
+    }
+
+    @Override
+    public synchronized void viewAccepted(View view) {
+        if (currentView == null) {
+            logger.info("Local segment ({}) joined the cluster. Broadcasting query names.", channel.getAddress());
+            broadcastMembership(true);
+            joined.countDown();
+        } else if (!view.equals(currentView)) {
+            Address[][] diff = View.diff(currentView, view);
+            Address[] joinedMembers = diff[0];
+            Address[] leftMembers = diff[1];
+            Address localAddress = channel.getAddress();
+
+            stream(leftMembers).forEach(this::memberLeft);
+            stream(joinedMembers).filter(member -> !member.equals(localAddress))
+                                 .forEach(member -> sendMembershipTo(member, true));
+        }
+        currentView = view;
+    }
+
+    @Override
+    public void suspect(Address suspectedMember) {
+        logger.warn("Member is suspect: {}", suspectedMember.toString());
+    }
+
+    @Override
+    public void block() {
+        //We are not going to block
+    }
+
+    @Override
+    public void unblock() {
+        //We are not going to block
+    }
+
+    @Override
+    public void receive(Message msg) {
+        Object message = msg.getObject();
+        if (message instanceof QueryMembershipMessage) {
+            processMembershipMessage(msg.getSrc(), (QueryMembershipMessage) message);
+        } else if (message instanceof JGroupsQueryDispatchMessage) {
+            processDispatchMessage(msg.getSrc(), (JGroupsQueryDispatchMessage) message);
+        } else if (message instanceof JGroupsQueryReplyMessage) {
+            processReplyMessage(msg.getSrc(), (JGroupsQueryReplyMessage) message);
+        } else {
+            logger.warn("Received unknown message: " + message.getClass().getName());
+        }
+    }
+
+    private void processMembershipMessage(Address source, QueryMembershipMessage message) {
+        if (source.equals(channel.getAddress())) {
+            return;
+        }
+        View view = channel.getView();
+        // the view isn't available yet while connecting, when members may already send their query names
+        if (view != null && !view.containsMember(source)) {
+            logger.warn("Received query names from '{}', but a connection with the sender has been lost.", source);
+            return;
+        }
+        synchronized (monitor) {
+            QueryMember current = members.get(source);
+            if (current != null && current.order > message.getOrder()) {
+                logger.info("Received outdated update. Discarding it.");
+            } else {
+                members.put(source, new QueryMember(source, message.getQueryNames(), message.getLoadFactor(),
+                                                    message.getOrder(),
+                                                    current == null ? new AtomicInteger() : current.outstanding));
+                logger.debug("{} handles queries {} with load factor: {}",
+                             source, message.getQueryNames(), message.getLoadFactor());
+            }
+        }
+        if (message.isExpectReply()) {
+            sendMembershipTo(source, false);
+        }
+    }
+
+    private void processDispatchMessage(Address source, JGroupsQueryDispatchMessage message) {
+        String requestIdentifier = message.getRequestIdentifier();
+        switch (message.getDispatchType()) {
+            case CANCEL:
+                RemoteSubscription cancelled = remoteSubscriptions.remove(requestIdentifier);
+                if (cancelled != null) {
+                    cancelled.cancel();
+                }
+                break;
+            case SUBSCRIPTION_QUERY:
+                // registered before handing off to the executor, so that a cancellation can't overtake it
+                RemoteSubscription subscription = new RemoteSubscription(source);
+                remoteSubscriptions.put(requestIdentifier, subscription);
+                executor.execute(() -> openSubscription(source, message, subscription));
+                break;
+            default:
+                executor.execute(() -> handleQuery(source, message));
+        }
+    }
+
+    private void handleQuery(Address source, JGroupsQueryDispatchMessage message) {
+        String requestIdentifier = message.getRequestIdentifier();
+        try {
+            QueryMessage<?, ?> query = message.getQueryMessage(serializer);
+            if (message.getDispatchType() == DispatchType.SCATTER_GATHER) {
+                try (Stream<? extends QueryResponseMessage<?>> responses =
+                             localSegment.scatterGather(query, message.getTimeout(), TimeUnit.MILLISECONDS)) {
+                    responses.forEach(response -> sendReply(source, requestIdentifier, ReplyType.RESPONSE, response));
+                }
+                send(source, JGroupsQueryReplyMessage.completed(requestIdentifier));
+            } else {
+                localSegment.query(query).whenComplete((response, error) -> {
+                    if (error == null) {
+                        sendReply(source, requestIdentifier, ReplyType.RESPONSE, response);
+                    } else {
+                        sendFailure(source, requestIdentifier, ReplyType.RESPONSE_FAILED, error);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            sendFailure(source, requestIdentifier, ReplyType.FAILED, e);
+        }
+    }
+
+    private void openSubscription(Address source, JGroupsQueryDispatchMessage message,
+                                  RemoteSubscription subscription) {
+        String requestIdentifier = message.getRequestIdentifier();
+        SubscriptionQueryResult<? extends QueryResponseMessage<?>, ? extends SubscriptionQueryUpdateMessage<?>> result;
+        try {
+            // updates are sent as they are emitted; backpressure is applied by the member that sent the query
+            result = localSegment.subscriptionQuery(
+                    (SubscriptionQueryMessage<?, ?, ?>) message.getQueryMessage(serializer),
+                    new SubscriptionQueryBackpressure(FluxSink.OverflowStrategy.BUFFER), Queues.SMALL_BUFFER_SIZE);
+        } catch (Exception e) {
+            remoteSubscriptions.remove(requestIdentifier, subscription);
+            sendFailure(source, requestIdentifier, ReplyType.FAILED, e);
+            return;
+        }
+        result.initialResult().subscribe(
+                response -> sendReply(source, requestIdentifier, ReplyType.RESPONSE, response),
+                error -> sendFailure(source, requestIdentifier, ReplyType.RESPONSE_FAILED, error));
+        Disposable updates = result.updates().subscribe(
+                update -> sendReply(source, requestIdentifier, ReplyType.UPDATE, update),
+                error -> {
+                    if (remoteSubscriptions.remove(requestIdentifier, subscription)) {
+                        sendFailure(source, requestIdentifier, ReplyType.FAILED, error);
+                    }
+                },
+                () -> {
+                    if (remoteSubscriptions.remove(requestIdentifier, subscription)) {
+                        send(source, JGroupsQueryReplyMessage.completed(requestIdentifier));
+                    }
+                });
+        subscription.open(result, updates);
+    }
+
+    private void sendReply(Address destination, String requestIdentifier, ReplyType replyType,
+                           org.axonframework.messaging.Message<?> message) {
+        JGroupsQueryReplyMessage reply;
+        try {
+            reply = new JGroupsQueryReplyMessage(requestIdentifier, replyType, message, serializer);
+        } catch (Exception e) {
+            logger.warn(format("Could not serialize query reply [%s]. Sending back the error.", message), e);
+            reply = JGroupsQueryReplyMessage.failed(requestIdentifier, e, serializer);
+        }
+        send(destination, reply);
+    }
+
+    private void sendFailure(Address destination, String requestIdentifier, ReplyType replyType, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        JGroupsQueryReplyMessage reply;
+        try {
+            reply = replyType == ReplyType.RESPONSE_FAILED
+                    ? JGroupsQueryReplyMessage.responseFailed(requestIdentifier, cause, serializer)
+                    : JGroupsQueryReplyMessage.failed(requestIdentifier, cause, serializer);
+        } catch (Exception e) {
+            logger.warn(format("Could not serialize query failure [%s]. Sending back its message.", cause), e);
+            QueryExecutionException replacement = new QueryExecutionException(cause.getMessage(), null);
+            reply = replyType == ReplyType.RESPONSE_FAILED
+                    ? JGroupsQueryReplyMessage.responseFailed(requestIdentifier, replacement, serializer)
+                    : JGroupsQueryReplyMessage.failed(requestIdentifier, replacement, serializer);
+        }
+        send(destination, reply);
+    }
+
+    private void processReplyMessage(Address source, JGroupsQueryReplyMessage reply) {
+        PendingRequest pendingRequest = pendingRequests.get(reply.getRequestIdentifier());
+        if (pendingRequest == null) {
+            logger.debug("Received a reply to a query that has either been completed or cancelled. Ignoring.");
+            return;
+        }
+        boolean done;
+        try {
+            done = pendingRequest.onReply(source, reply);
+        } catch (Exception e) {
+            done = pendingRequest.onFailure(source, e);
+        }
+        if (done) {
+            pendingRequests.remove(reply.getRequestIdentifier(), pendingRequest);
+        }
+    }
+
+    private void memberLeft(Address member) {
+        members.remove(member);
+        QueryExecutionException cause = new QueryExecutionException(
+                format("Member [%s] left the cluster before completing the query", member), null);
+        pendingRequests.forEach((requestIdentifier, pendingRequest) -> {
+            if (pendingRequest.awaits(member)) {
+                memberFailed(requestIdentifier, member, cause);
+            }
+        });
+        remoteSubscriptions.forEach((requestIdentifier, subscription) -> {
+            if (subscription.source.equals(member) && remoteSubscriptions.remove(requestIdentifier, subscription)) {
+                subscription.cancel();
+            }
+        });
+    }
+
+    private void broadcastMembership(boolean expectReply) {
+        if (channel.isConnected()) {
+            sendMembershipTo(null, expectReply);
+        }
+    }
+
+    private void sendMembershipTo(Address destination, boolean expectReply) {
+        try {
+            logger.info("Sending query names to {}.", getOrDefault(destination, "all members"));
+            Message message = new Message(destination, new QueryMembershipMessage(
+                    loadFactor, localQueryNames.keySet(), membershipVersion.getAndIncrement(), expectReply));
+            message.setFlag(Message.Flag.OOB);
+            channel.send(message);
+        } catch (Exception e) {
+            logger.warn("An exception occurred while sending query names to member: {}", destination, e);
+        }
+    }
+
+    private static final class QueryMember {
+
+        private final Address address;
+        private final Set<String> queryNames;
+        private final int loadFactor;
+        private final int order;
+        private final AtomicInteger outstanding;
+
+        private QueryMember(Address address, Set<String> queryNames, int loadFactor, int order,
+                            AtomicInteger outstanding) {
+            this.address = address;
+            this.queryNames = queryNames;
+            this.loadFactor = loadFactor;
+            this.order = order;
+            this.outstanding = outstanding;
+        }
+
+        private boolean isLocal() {
+            return address == null;
+        }
+
+        private boolean handles(String queryName) {
+            return loadFactor > 0 && queryNames.contains(queryName);
+        }
+
+        private double load() {
+            return (outstanding.get() + 1) / (double) loadFactor;
+        }
+    }
+
+    /**
+     * A query sent to other members, for which replies are expected.
+     */
+    private interface PendingRequest {
+
+        /**
+         * Processes a reply received from given {@code source}.
+         *
+         * @return {@code true} if no further replies are expected, otherwise {@code false}
+         */
+        boolean onReply(Address source, JGroupsQueryReplyMessage reply);
+
+        /**
+         * Processes the failure of given {@code member} to reply, for example because it left the cluster.
+         *
+         * @return {@code true} if no further replies are expected, otherwise {@code false}
+         */
+        boolean onFailure(Address member, Throwable cause);
+
+        boolean awaits(Address member);
+    }
+
+    private final class PendingQuery<R> implements PendingRequest {
+
+        private final Address destination;
+        private final CompletableFuture<QueryResponseMessage<R>> result = new CompletableFuture<>();
+
+        private PendingQuery(Address destination) {
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean onReply(Address source, JGroupsQueryReplyMessage reply) {
+            if (reply.getReplyType() == ReplyType.RESPONSE) {
+                result.complete(reply.getResponseMessage(serializer));
+            } else {
+                result.completeExceptionally(reply.getError(serializer));
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onFailure(Address member, Throwable cause) {
+            result.completeExceptionally(cause);
+            return true;
+        }
+
+        @Override
+        public boolean awaits(Address member) {
+            return destination.equals(member);
+        }
+    }
+
+    private final class PendingScatterGather<R> implements PendingRequest {
+
+        private final Set<Address> awaiting = ConcurrentHashMap.newKeySet();
+        private final BlockingQueue<Optional<QueryResponseMessage<R>>> responses = new LinkedBlockingQueue<>();
+        private final int memberCount;
+
+        private PendingScatterGather(Set<Address> destinations) {
+            this.awaiting.addAll(destinations);
+            this.memberCount = destinations.size();
+        }
+
+        @Override
+        public boolean onReply(Address source, JGroupsQueryReplyMessage reply) {
+            if (reply.getReplyType() == ReplyType.RESPONSE) {
+                responses.add(Optional.of(reply.getResponseMessage(serializer)));
+                return false;
+            }
+            if (reply.getReplyType() != ReplyType.COMPLETED) {
+                logger.warn("Member [{}] failed to handle scatter-gather query", source, reply.getError(serializer));
+            }
+            return memberDone(source);
+        }
+
+        @Override
+        public boolean onFailure(Address member, Throwable cause) {
+            logger.warn("Member [{}] failed to handle scatter-gather query", member, cause);
+            return memberDone(member);
+        }
+
+        @Override
+        public boolean awaits(Address member) {
+            return awaiting.contains(member);
+        }
+
+        private boolean memberDone(Address member) {
+            if (awaiting.remove(member)) {
+                // an empty element marks that one of the members won't send further responses
+                responses.add(Optional.empty());
+            }
+            return awaiting.isEmpty();
+        }
+
+        private Spliterator<QueryResponseMessage<R>> responses(long deadline, Runnable onEnd) {
+            return new Spliterators.AbstractSpliterator<QueryResponseMessage<R>>(Long.MAX_VALUE, Spliterator.NONNULL) {
+                private int remaining = memberCount;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super QueryResponseMessage<R>> action) {
+                    while (remaining > 0) {
+                        Optional<QueryResponseMessage<R>> response;
+                        try {
+                            response = responses.poll(Math.max(0, deadline - System.currentTimeMillis()),
+                                                      TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            response = null;
+                        }
+                        if (response == null) {
+                            remaining = 0;
+                        } else if (response.isPresent()) {
+                            action.accept(response.get());
+                            return true;
+                        } else {
+                            remaining--;
+                        }
+                    }
+                    onEnd.run();
+                    return false;
+                }
+            };
+        }
+    }
+
+    private final class PendingSubscriptionQuery<I, U> implements PendingRequest {
+
+        private final Address destination;
+        private final MonoProcessor<QueryResponseMessage<I>> initialResult = MonoProcessor.create();
+        private final FluxSink<SubscriptionQueryUpdateMessage<U>> updates;
+
+        private PendingSubscriptionQuery(Address destination, FluxSink<SubscriptionQueryUpdateMessage<U>> updates) {
+            this.destination = destination;
+            this.updates = updates;
+        }
+
+        @Override
+        public boolean onReply(Address source, JGroupsQueryReplyMessage reply) {
+            switch (reply.getReplyType()) {
+                case RESPONSE:
+                    initialResult.onNext(reply.getResponseMessage(serializer));
+                    return false;
+                case RESPONSE_FAILED:
+                    if (!initialResult.isTerminated()) {
+                        initialResult.onError(reply.getError(serializer));
+                    }
+                    return false;
+                case UPDATE:
+                    updates.next(reply.getUpdateMessage(serializer));
+                    return false;
+                case COMPLETED:
+                    updates.complete();
+                    return true;
+                default:
+                    return onFailure(source, reply.getError(serializer));
+            }
+        }
+
+        @Override
+        public boolean onFailure(Address member, Throwable cause) {
+            if (!initialResult.isTerminated()) {
+                initialResult.onError(cause);
+            }
+            updates.error(cause);
+            return true;
+        }
+
+        @Override
+        public boolean awaits(Address member) {
+            return destination.equals(member);
+        }
+    }
+
+    /**
+     * A subscription query handled by the local segment on behalf of another member.
+     */
+    private static final class RemoteSubscription {
+
+        private final Address source;
+        private SubscriptionQueryResult<?, ?> result;
+        private Disposable updates;
+        private boolean cancelled;
+
+        private RemoteSubscription(Address source) {
+            this.source = source;
+        }
+
+        private synchronized void open(SubscriptionQueryResult<?, ?> result, Disposable updates) {
+            this.result = result;
+            this.updates = updates;
+            if (cancelled) {
+                close();
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (result != null) {
+                close();
+            }
+        }
+
+        private void close() {
+            updates.dispose();
+            result.cancel();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.jgroups.queryhandling;
+
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryMessage;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.responsetypes.ResponseType;
+import org.axonframework.serialization.SerializedMetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.jgroups.util.Streamable;
+
+import java.io.*;
+
+import static org.axonframework.serialization.MessageSerializer.serializeMetaData;
+import static org.axonframework.serialization.MessageSerializer.serializePayload;
+
+/**
+ * JGroups message that contains a QueryMessage that needs to be handled by a remote query bus segment, or that cancels
+ * a subscription query sent earlier. This class implements the {@link Streamable} interface for faster
+ * JGroups-specific serialization, but also supports Java serialization by implementing the {@link Externalizable}
+ * interface.
+ *
+ * @since 3.4
+ */
+public class JGroupsQueryDispatchMessage implements Streamable, Externalizable {
+
+    private static final long serialVersionUID = 2318309372460385862L;
+    private static final String NULL = "_null";
+
+    /**
+     * The ways in which the remote segment is expected to handle a dispatched query.
+     */
+    public enum DispatchType {
+
+        /**
+         * The query is handled by a single handler, replying with a single response.
+         */
+        QUERY,
+
+        /**
+         * The query is handled by all handlers, replying with a response per handler, followed by a completion.
+         */
+        SCATTER_GATHER,
+
+        /**
+         * The query is handled as subscription query, replying with the initial response, followed by the updates
+         * and the completion of the subscription.
+         */
+        SUBSCRIPTION_QUERY,
+
+        /**
+         * The subscription query with the request identifier of the message is cancelled. The message doesn't contain
+         * a query.
+         */
+        CANCEL
+    }
+
+    private String requestIdentifier;
+    private DispatchType dispatchType;
+    private long timeout;
+    private String queryName;
+    private String messageIdentifier;
+    private String payloadType;
+    private String payloadRevision;
+    private byte[] serializedPayload;
+    private byte[] serializedMetaData;
+    private String responseType;
+    private String responseTypeRevision;
+    private byte[] serializedResponseType;
+    private String updateResponseType;
+    private String updateResponseTypeRevision;
+    private byte[] serializedUpdateResponseType;
+
+    /**
+     * Default constructor required by the {@link Streamable} and {@link Externalizable} interfaces. Do not use
+     * directly.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public JGroupsQueryDispatchMessage() {
+    }
+
+    /**
+     * Initialize a JGroupsQueryDispatchMessage for the given {@code queryMessage}, to be serialized using given {@code
+     * serializer}. The response types of the query are serialized using the serializer as well. When the given {@code
+     * queryMessage} is a {@link SubscriptionQueryMessage}, its update response type is included.
+     *
+     * @param requestIdentifier The identifier with which replies to this message are correlated
+     * @param dispatchType      The way in which the remote segment is expected to handle the query
+     * @param queryMessage      The message to send to the remote segment
+     * @param timeout           The time in milliseconds the remote segment may take to handle a scatter-gather
+     *                          query
+     * @param serializer        The serializer to serialize the message payload, meta data and response types with
+     */
+    public JGroupsQueryDispatchMessage(String requestIdentifier, DispatchType dispatchType,
+                                       QueryMessage<?, ?> queryMessage, long timeout, Serializer serializer) {
+        this.requestIdentifier = requestIdentifier;
+        this.dispatchType = dispatchType;
+        this.timeout = timeout;
+        this.queryName = queryMessage.getQueryName();
+        this.messageIdentifier = queryMessage.getIdentifier();
+        SerializedObject<byte[]> payload = serializePayload(queryMessage, serializer, byte[].class);
+        this.payloadType = payload.getType().getName();
+        this.payloadRevision = payload.getType().getRevision();
+        this.serializedPayload = payload.getData();
+        this.serializedMetaData = serializeMetaData(queryMessage, serializer, byte[].class).getData();
+        SerializedObject<byte[]> response = serializer.serialize(queryMessage.getResponseType(), byte[].class);
+        this.responseType = response.getType().getName();
+        this.responseTypeRevision = response.getType().getRevision();
+        this.serializedResponseType = response.getData();
+        if (queryMessage instanceof SubscriptionQueryMessage) {
+            SerializedObject<byte[]> update = serializer.serialize(
+                    ((SubscriptionQueryMessage<?, ?, ?>) queryMessage).getUpdateResponseType(), byte[].class);
+            this.updateResponseType = update.getType().getName();
+            this.updateResponseTypeRevision = update.getType().getRevision();
+            this.serializedUpdateResponseType = update.getData();
+        }
+    }
+
+    private JGroupsQueryDispatchMessage(String requestIdentifier) {
+        this.requestIdentifier = requestIdentifier;
+        this.dispatchType = DispatchType.CANCEL;
+    }
+
+    /**
+     * Creates a message cancelling the subscription query that was sent with given {@code requestIdentifier}.
+     *
+     * @param requestIdentifier The identifier of the request that opened the subscription query
+     * @return a message cancelling the subscription query
+     */
+    public static JGroupsQueryDispatchMessage cancellation(String requestIdentifier) {
+        return new JGroupsQueryDispatchMessage(requestIdentifier);
+    }
+
+    /**
+     * Returns the QueryMessage wrapped in this Message. For messages of {@link DispatchType#SUBSCRIPTION_QUERY}, this
+     * is a {@link SubscriptionQueryMessage}.
+     *
+     * @param serializer The serializer to deserialize message contents with
+     * @return the QueryMessage wrapped in this Message
+     */
+    @SuppressWarnings("unchecked")
+    public QueryMessage<?, ?> getQueryMessage(Serializer serializer) {
+        SimpleSerializedObject<byte[]> serializedObject =
+                new SimpleSerializedObject<>(serializedPayload, byte[].class, payloadType, payloadRevision);
+        Object payload = serializer.deserialize(serializedObject);
+        MetaData metaData = serializer.deserialize(new SerializedMetaData<>(serializedMetaData, byte[].class));
+        GenericMessage<Object> message = new GenericMessage<>(
+                messageIdentifier, (Class<Object>) serializer.classForType(serializedObject.getType()), payload,
+                metaData);
+        ResponseType<Object> response = serializer.deserialize(new SimpleSerializedObject<>(
+                serializedResponseType, byte[].class, responseType, responseTypeRevision));
+        if (updateResponseType == null) {
+            return new GenericQueryMessage<>(message, queryName, response);
+        }
+        ResponseType<Object> update = serializer.deserialize(new SimpleSerializedObject<>(
+                serializedUpdateResponseType, byte[].class, updateResponseType, updateResponseTypeRevision));
+        return new GenericSubscriptionQueryMessage<>(message, queryName, response, update);
+    }
+
+    /**
+     * Returns the identifier with which replies to this message are correlated.
+     *
+     * @return the identifier with which replies to this message are correlated
+     */
+    public String getRequestIdentifier() {
+        return requestIdentifier;
+    }
+
+    /**
+     * Returns the way in which the remote segment is expected to handle the query.
+     *
+     * @return the way in which the remote segment is expected to handle the query
+     */
+    public DispatchType getDispatchType() {
+        return dispatchType;
+    }
+
+    /**
+     * Returns the time in milliseconds the remote segment may take to handle a scatter-gather query.
+     *
+     * @return the time in milliseconds the remote segment may take to handle a scatter-gather query
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(requestIdentifier);
+        out.writeByte(dispatchType.ordinal());
+        if (dispatchType == DispatchType.CANCEL) {
+            return;
+        }
+        out.writeLong(timeout);
+        out.writeUTF(queryName);
+        out.writeUTF(messageIdentifier);
+        out.writeUTF(payloadType);
+        out.writeUTF(payloadRevision == null ? NULL : payloadRevision);
+        writeBytes(out, serializedPayload);
+        writeBytes(out, serializedMetaData);
+        out.writeUTF(responseType);
+        out.writeUTF(responseTypeRevision == null ? NULL : responseTypeRevision);
+        writeBytes(out, serializedResponseType);
+        out.writeBoolean(updateResponseType != null);
+        if (updateResponseType != null) {
+            out.writeUTF(updateResponseType);
+            out.writeUTF(updateResponseTypeRevision == null ? NULL : updateResponseTypeRevision);
+            writeBytes(out, serializedUpdateResponseType);
+        }
+    }
+
+    @Override
+    public void readFrom(DataInput in) throws IOException {
+        requestIdentifier = in.readUTF();
+        dispatchType = DispatchType.values()[in.readByte()];
+        if (dispatchType == DispatchType.CANCEL) {
+            return;
+        }
+        timeout = in.readLong();
+        queryName = in.readUTF();
+        messageIdentifier = in.readUTF();
+        payloadType = in.readUTF();
+        payloadRevision = readRevision(in);
+        serializedPayload = readBytes(in);
+        serializedMetaData = readBytes(in);
+        responseType = in.readUTF();
+        responseTypeRevision = readRevision(in);
+        serializedResponseType = readBytes(in);
+        if (in.readBoolean()) {
+            updateResponseType = in.readUTF();
+            updateResponseTypeRevision = readRevision(in);
+            serializedUpdateResponseType = readBytes(in);
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static String readRevision(DataInput in) throws IOException {
+        String revision = in.readUTF();
+        return NULL.equals(revision) ? null : revision;
+    }
+}
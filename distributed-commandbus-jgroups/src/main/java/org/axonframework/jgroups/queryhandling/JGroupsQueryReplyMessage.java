@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.jgroups.queryhandling;
+
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.queryhandling.GenericQueryResponseMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.QueryResponseMessage;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.axonframework.serialization.SerializedMetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.jgroups.util.Streamable;
+
+import java.io.*;
+
+import static org.axonframework.serialization.MessageSerializer.serializeMetaData;
+import static org.axonframework.serialization.MessageSerializer.serializePayload;
+
+/**
+ * JGroups Message representing a reply to a dispatched query: a response, an update to a subscription query, the
+ * completion of a scatter-gather or subscription query, or a failure.
+ *
+ * @since 3.4
+ */
+public class JGroupsQueryReplyMessage implements Streamable, Externalizable {
+
+    private static final long serialVersionUID = -3598224394729347127L;
+    private static final String NULL = "_null";
+
+    /**
+     * The kinds of replies sent to the member that dispatched a query.
+     */
+    public enum ReplyType {
+
+        /**
+         * The reply contains a response to the query, or the initial response to a subscription query.
+         */
+        RESPONSE,
+
+        /**
+         * The reply contains the error that occurred while producing the response to the query, or the initial
+         * response to a subscription query. Updates to a subscription query may still follow.
+         */
+        RESPONSE_FAILED,
+
+        /**
+         * The reply contains an update to a subscription query.
+         */
+        UPDATE,
+
+        /**
+         * The replying member won't send further responses or updates for the query.
+         */
+        COMPLETED,
+
+        /**
+         * The reply contains the error that occurred while handling the query, or while producing updates to a
+         * subscription query. No further replies are sent.
+         */
+        FAILED
+    }
+
+    private String requestIdentifier;
+    private ReplyType replyType;
+    private String messageIdentifier;
+    private String payloadType;
+    private String payloadRevision;
+    private byte[] serializedPayload;
+    private byte[] serializedMetaData;
+
+    /**
+     * Default constructor required by the {@link Streamable} and {@link Externalizable} interfaces. Do not use
+     * directly.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public JGroupsQueryReplyMessage() {
+    }
+
+    /**
+     * Initializes a JGroupsQueryReplyMessage of given {@code replyType} containing the given {@code message}, which is
+     * a response or an update. Its payload and meta data are serialized using given {@code serializer}.
+     *
+     * @param requestIdentifier The identifier of the request to which the message is a reply
+     * @param replyType         The kind of reply, either {@link ReplyType#RESPONSE} or {@link ReplyType#UPDATE}
+     * @param message           The response or update to send
+     * @param serializer        The serializer to serialize the message contents with
+     */
+    public JGroupsQueryReplyMessage(String requestIdentifier, ReplyType replyType, Message<?> message,
+                                    Serializer serializer) {
+        this.requestIdentifier = requestIdentifier;
+        this.replyType = replyType;
+        this.messageIdentifier = message.getIdentifier();
+        SerializedObject<byte[]> payload = serializePayload(message, serializer, byte[].class);
+        this.payloadType = payload.getType().getName();
+        this.payloadRevision = payload.getType().getRevision();
+        this.serializedPayload = payload.getData();
+        this.serializedMetaData = serializeMetaData(message, serializer, byte[].class).getData();
+    }
+
+    private JGroupsQueryReplyMessage(String requestIdentifier, ReplyType replyType, Throwable error,
+                                     Serializer serializer) {
+        this.requestIdentifier = requestIdentifier;
+        this.replyType = replyType;
+        if (error != null) {
+            SerializedObject<byte[]> payload = serializer.serialize(error, byte[].class);
+            this.payloadType = payload.getType().getName();
+            this.payloadRevision = payload.getType().getRevision();
+            this.serializedPayload = payload.getData();
+        }
+    }
+
+    /**
+     * Creates a reply indicating that no further responses or updates are sent for the request with given {@code
+     * requestIdentifier}.
+     *
+     * @param requestIdentifier The identifier of the request to which the message is a reply
+     * @return a reply indicating completion of the request
+     */
+    public static JGroupsQueryReplyMessage completed(String requestIdentifier) {
+        return new JGroupsQueryReplyMessage(requestIdentifier, ReplyType.COMPLETED, (Throwable) null, null);
+    }
+
+    /**
+     * Creates a reply containing the given {@code error} that occurred while handling the request with given {@code
+     * requestIdentifier}, serialized using given {@code serializer}.
+     *
+     * @param requestIdentifier The identifier of the request to which the message is a reply
+     * @param error             The error that occurred while handling the request
+     * @param serializer        The serializer to serialize the error with
+     * @return a reply indicating failure of the request
+     */
+    public static JGroupsQueryReplyMessage failed(String requestIdentifier, Throwable error, Serializer serializer) {
+        return new JGroupsQueryReplyMessage(requestIdentifier, ReplyType.FAILED, error, serializer);
+    }
+
+    /**
+     * Creates a reply containing the given {@code error} that occurred while producing the response to the request
+     * with given {@code requestIdentifier}, serialized using given {@code serializer}.
+     *
+     * @param requestIdentifier The identifier of the request to which the message is a reply
+     * @param error             The error that occurred while producing the response
+     * @param serializer        The serializer to serialize the error with
+     * @return a reply indicating failure to produce a response
+     */
+    public static JGroupsQueryReplyMessage responseFailed(String requestIdentifier, Throwable error,
+                                                          Serializer serializer) {
+        return new JGroupsQueryReplyMessage(requestIdentifier, ReplyType.RESPONSE_FAILED, error, serializer);
+    }
+
+    /**
+     * Returns the response contained in this reply, if it is of type {@link ReplyType#RESPONSE}.
+     *
+     * @param serializer The serializer to deserialize the message contents with
+     * @param <R>        The type of response expected
+     * @return the response contained in this reply
+     */
+    @SuppressWarnings("unchecked")
+    public <R> QueryResponseMessage<R> getResponseMessage(Serializer serializer) {
+        return new GenericQueryResponseMessage<>((Message<R>) deserializeMessage(serializer));
+    }
+
+    /**
+     * Returns the update contained in this reply, if it is of type {@link ReplyType#UPDATE}.
+     *
+     * @param serializer The serializer to deserialize the message contents with
+     * @param <U>        The type of update expected
+     * @return the update contained in this reply
+     */
+    @SuppressWarnings("unchecked")
+    public <U> SubscriptionQueryUpdateMessage<U> getUpdateMessage(Serializer serializer) {
+        Message<U> message = (Message<U>) deserializeMessage(serializer);
+        return new GenericSubscriptionQueryUpdateMessage<>(message.getPayloadType(), message.getPayload(),
+                                                           message.getMetaData());
+    }
+
+    /**
+     * Returns the error contained in this reply, if it is of type {@link ReplyType#FAILED} or
+     * {@link ReplyType#RESPONSE_FAILED}.
+     *
+     * @param serializer The serializer to deserialize the error with
+     * @return the error that occurred while handling the request
+     */
+    public Throwable getError(Serializer serializer) {
+        return serializer.deserialize(
+                new SimpleSerializedObject<>(serializedPayload, byte[].class, payloadType, payloadRevision));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<?> deserializeMessage(Serializer serializer) {
+        SimpleSerializedObject<byte[]> serializedObject =
+                new SimpleSerializedObject<>(serializedPayload, byte[].class, payloadType, payloadRevision);
+        Object payload = serializer.deserialize(serializedObject);
+        MetaData metaData = serializer.deserialize(new SerializedMetaData<>(serializedMetaData, byte[].class));
+        return new GenericMessage<>(messageIdentifier, (Class<Object>) serializer.classForType(
+                serializedObject.getType()), payload, metaData);
+    }
+
+    /**
+     * Returns the identifier of the request to which this message is a reply.
+     *
+     * @return the identifier of the request to which this message is a reply
+     */
+    public String getRequestIdentifier() {
+        return requestIdentifier;
+    }
+
+    /**
+     * Returns the kind of reply this message represents.
+     *
+     * @return the kind of reply this message represents
+     */
+    public ReplyType getReplyType() {
+        return replyType;
+    }
+
+    private boolean isFailure() {
+        return replyType == ReplyType.FAILED || replyType == ReplyType.RESPONSE_FAILED;
+    }
+
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(requestIdentifier);
+        out.writeByte(replyType.ordinal());
+        if (replyType == ReplyType.COMPLETED) {
+            return;
+        }
+        out.writeUTF(payloadType);
+        out.writeUTF(payloadRevision == null ? NULL : payloadRevision);
+        out.writeInt(serializedPayload.length);
+        out.write(serializedPayload);
+        if (!isFailure()) {
+            out.writeUTF(messageIdentifier);
+            out.writeInt(serializedMetaData.length);
+            out.write(serializedMetaData);
+        }
+    }
+
+    @Override
+    public void readFrom(DataInput in) throws IOException {
+        requestIdentifier = in.readUTF();
+        replyType = ReplyType.values()[in.readByte()];
+        if (replyType == ReplyType.COMPLETED) {
+            return;
+        }
+        payloadType = in.readUTF();
+        payloadRevision = in.readUTF();
+        if (NULL.equals(payloadRevision)) {
+            payloadRevision = null;
+        }
+        serializedPayload = new byte[in.readInt()];
+        in.readFully(serializedPayload);
+        if (!isFailure()) {
+            messageIdentifier = in.readUTF();
+            serializedMetaData = new byte[in.readInt()];
+            in.readFully(serializedMetaData);
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.jgroups.queryhandling;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This message represents a notification of a member of the {@link JGroupsQueryBus} advertising the names of the
+ * queries it is able to handle, and the {@code loadFactor} with which it wishes to receive them. Upon receiving this
+ * message, members should replace the query names they route to the sending member.
+ *
+ * @since 3.4
+ */
+public class QueryMembershipMessage implements Externalizable {
+
+    private static final long serialVersionUID = -4209482436457146617L;
+    private Set<String> queryNames;
+    private boolean expectReply;
+    private int loadFactor;
+    private int order;
+
+    /**
+     * Default constructor required by the {@link Externalizable} interface. Do not use directly.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public QueryMembershipMessage() {
+    }
+
+    /**
+     * Initializes a QueryMembershipMessage with the given {@code loadFactor} and {@code queryNames}.
+     *
+     * @param loadFactor  The loadFactor the member wishes to receive queries with
+     * @param queryNames  The names of the queries the member is able to handle
+     * @param order       The index of this update, allowing recipients to order them
+     * @param expectReply Indicates whether the sending member expects a reply with membership information
+     */
+    public QueryMembershipMessage(int loadFactor, Set<String> queryNames, int order, boolean expectReply) {
+        this.loadFactor = loadFactor;
+        this.queryNames = new HashSet<>(queryNames);
+        this.order = order;
+        this.expectReply = expectReply;
+    }
+
+    /**
+     * Returns the loadFactor the member wishes to receive queries with.
+     *
+     * @return the loadFactor the member wishes to receive queries with
+     */
+    public int getLoadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Returns the names of the queries the member is able to handle.
+     *
+     * @return the names of the queries the member is able to handle
+     */
+    public Set<String> getQueryNames() {
+        return Collections.unmodifiableSet(queryNames);
+    }
+
+    /**
+     * Indicates whether the sender of this message expects a reply
+     *
+     * @return whether the sender of this message expects a reply
+     */
+    public boolean isExpectReply() {
+        return expectReply;
+    }
+
+    /**
+     * The index of this message compared to others about the same sender.
+     *
+     * @return the relative order of this update
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(loadFactor);
+        out.writeInt(queryNames.size());
+        for (String queryName : queryNames) {
+            out.writeUTF(queryName);
+        }
+        out.writeInt(order);
+        out.writeBoolean(expectReply);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        loadFactor = in.readInt();
+        int queryNameCount = in.readInt();
+        queryNames = new HashSet<>(queryNameCount);
+        for (int i = 0; i < queryNameCount; i++) {
+            queryNames.add(in.readUTF());
+        }
+        order = in.readInt();
+        expectReply = in.readBoolean();
+    }
+}
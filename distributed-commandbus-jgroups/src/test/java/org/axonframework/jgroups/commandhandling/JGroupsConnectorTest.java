@@ -36,11 +36,13 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -325,10 +327,15 @@ public void testUnserializableResponseConvertedToNull() throws Exception {
             throw failureResponse;
         });
         connector1.connect();
+        connector2.connect();
+        assertTrue("Expected connector 1 to connect within 10 seconds", connector1.awaitJoined(10, TimeUnit.SECONDS));
+        assertTrue("Connector 2 failed to connect", connector2.awaitJoined());
+        waitForConnectorSync();
 
+        // responses are only serialized when commands are dispatched by another node
         FutureCallback<Object, Object> callback = new FutureCallback<>();
 
-        dcb1.dispatch(new GenericCommandMessage<>(1), callback);
+        dcb2.dispatch(new GenericCommandMessage<>(1), callback);
         try {
             callback.getResult();
             fail("Expected exception");
@@ -338,10 +345,58 @@ public void testUnserializableResponseConvertedToNull() throws Exception {
         verify(mockCommandBus1).dispatch(any(CommandMessage.class), isA(CommandCallback.class));
 
         callback = new FutureCallback<>();
-        dcb1.dispatch(new GenericCommandMessage<>("string"), callback);
+        dcb2.dispatch(new GenericCommandMessage<>("string"), callback);
         assertNull(callback.getResult());
     }
 
+    @Test
+    public void testCommandsForLocalNodeAreNotSerialized() throws Exception {
+        serializer = spy(new XStreamSerializer());
+        connector1 = new JGroupsConnector(mockCommandBus1, channel1, clusterName, serializer, routingStrategy);
+        dcb1 = new DistributedCommandBus(connector1, connector1);
+        dcb1.subscribe(String.class.getName(), c -> "ok");
+        connector1.connect();
+        assertTrue("Expected connector 1 to connect within 10 seconds", connector1.awaitJoined(10, TimeUnit.SECONDS));
+        reset(serializer);
+
+        CommandMessage<String> command = new GenericCommandMessage<>("local");
+        FutureCallback<Object, Object> callback = new FutureCallback<>();
+        dcb1.dispatch(command, callback);
+
+        assertEquals("ok", callback.getResult());
+        verify(mockCommandBus1).dispatch(same(command), isA(CommandCallback.class));
+        verify(serializer, never()).serialize(any(), any());
+    }
+
+    @Test
+    public void testCommandsForLocalNodeAreNotSerializedWithCustomCommandFilter() throws Exception {
+        serializer = spy(new XStreamSerializer());
+        connector1 = new JGroupsConnector(mockCommandBus1, channel1, clusterName, serializer, routingStrategy);
+        dcb1 = new DistributedCommandBus(connector1, connector1);
+        mockCommandBus1.subscribe(String.class.getName(), c -> "ok");
+        // a filter without equals causes our own looped back join message to replace the local member
+        connector1.updateMembership(100, new StringCommandFilter());
+        connector1.connect();
+        assertTrue("Expected connector 1 to connect within 10 seconds", connector1.awaitJoined(10, TimeUnit.SECONDS));
+        // the looped back join message of a membership update is always processed after the local registration
+        int version = connector1.getConsistentHash().version();
+        connector1.updateMembership(100, new StringCommandFilter());
+        int t = 0;
+        while (connector1.getConsistentHash().version() <= version) {
+            assertTrue("Own join message was not processed within 15 seconds", t++ < 300);
+            Thread.sleep(50);
+        }
+        reset(serializer);
+
+        CommandMessage<String> command = new GenericCommandMessage<>("local");
+        FutureCallback<Object, Object> callback = new FutureCallback<>();
+        dcb1.dispatch(command, callback);
+
+        assertEquals("ok", callback.getResult());
+        verify(mockCommandBus1).dispatch(same(command), isA(CommandCallback.class));
+        verify(serializer, never()).serialize(any(), any());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testConnectAndDispatchMessages_CustomCommandName() throws Exception {
@@ -409,6 +464,14 @@ private static JChannel createChannel() throws Exception {
         return new JChannel("org/axonframework/jgroups/commandhandling/tcp_static.xml");
     }
 
+    private static class StringCommandFilter implements Predicate<CommandMessage<?>>, Serializable {
+
+        @Override
+        public boolean test(CommandMessage<?> commandMessage) {
+            return String.class.getName().equals(commandMessage.getCommandName());
+        }
+    }
+
     private static class CountingCommandHandler implements MessageHandler<CommandMessage<?>> {
 
         private final AtomicInteger counter;
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2010-2018. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.jgroups.queryhandling;
+
+import org.axonframework.common.ReflectionUtils;
+import org.axonframework.queryhandling.*;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.jgroups.JChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.axonframework.queryhandling.responsetypes.ResponseTypes.instanceOf;
+import static org.junit.Assert.*;
+
+public class JGroupsQueryBusTest {
+
+    private JChannel channel1;
+    private JChannel channel2;
+    private SimpleQueryBus localSegment1;
+    private SimpleQueryBus localSegment2;
+    private JGroupsQueryBus queryBus1;
+    private JGroupsQueryBus queryBus2;
+
+    @Before
+    public void setUp() throws Exception {
+        channel1 = createChannel();
+        channel2 = createChannel();
+        localSegment1 = new SimpleQueryBus();
+        localSegment2 = new SimpleQueryBus();
+        String clusterName = "test-" + new Random().nextInt(Integer.MAX_VALUE);
+        Serializer serializer = new XStreamSerializer();
+        queryBus1 = new JGroupsQueryBus(localSegment1, channel1, clusterName, serializer);
+        queryBus2 = new JGroupsQueryBus(localSegment2, channel2, clusterName, serializer);
+    }
+
+    @After
+    public void tearDown() {
+        closeSilently(channel1);
+        closeSilently(channel2);
+    }
+
+    @Test(timeout = 30000)
+    public void testQueryIsRoutedToMemberHandlingIt() throws Exception {
+        queryBus2.subscribe("hello", String.class, q -> "Hello " + q.getPayload());
+        connect();
+
+        QueryResponseMessage<String> response = awaitRemoteHandler("hello");
+
+        assertEquals("Hello World", response.getPayload());
+        assertTrue(localSegment1.activeSubscriptions().isEmpty());
+    }
+
+    @Test(timeout = 30000)
+    public void testQueryFailureIsReportedToSender() throws Exception {
+        queryBus2.subscribe("hello", String.class, q -> {
+            throw new IllegalStateException("Mock exception");
+        });
+        queryBus2.subscribe("ping", String.class, q -> "pong");
+        connect();
+        awaitRemoteHandler("ping");
+
+        try {
+            queryBus1.query(new GenericQueryMessage<>("World", "hello", instanceOf(String.class))).get();
+            fail("Expected the remote failure to be reported");
+        } catch (ExecutionException e) {
+            assertEquals("Mock exception", e.getCause().getMessage());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testScatterGatherIncludesAllMembers() throws Exception {
+        queryBus1.subscribe("hello", String.class, q -> "Hello from 1");
+        queryBus2.subscribe("hello", String.class, q -> "Hello from 2");
+        queryBus2.subscribe("ping", String.class, q -> "pong");
+        connect();
+        awaitRemoteHandler("ping");
+
+        try (Stream<QueryResponseMessage<String>> responses = queryBus1.scatterGather(
+                new GenericQueryMessage<>("World", "hello", instanceOf(String.class)), 10, TimeUnit.SECONDS)) {
+            List<String> payloads = responses.map(QueryResponseMessage::getPayload).sorted()
+                                             .collect(Collectors.toList());
+            assertEquals(asList("Hello from 1", "Hello from 2"), payloads);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testPendingScatterGatherIsRemovedAtDeadlineWhenStreamIsAbandoned() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        queryBus1.subscribe("hello", String.class, q -> "Hello from 1");
+        queryBus2.subscribe("hello", String.class, q -> {
+            release.await();
+            return "Hello from 2";
+        });
+        queryBus2.subscribe("ping", String.class, q -> "pong");
+        connect();
+        awaitRemoteHandler("ping");
+
+        Optional<QueryResponseMessage<String>> first = queryBus1.scatterGather(
+                new GenericQueryMessage<>("World", "hello", instanceOf(String.class)), 200, TimeUnit.MILLISECONDS)
+                                                                .findFirst();
+        try {
+            assertEquals("Hello from 1", first.map(QueryResponseMessage::getPayload).orElse(null));
+            Map<?, ?> pendingRequests = ReflectionUtils.getFieldValue(
+                    JGroupsQueryBus.class.getDeclaredField("pendingRequests"), queryBus1);
+            awaitCondition(pendingRequests::isEmpty);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testSubscriptionQueryUpdatesAreStreamedFromHandlingMember() throws Exception {
+        queryBus2.subscribe("hello", String.class, q -> "Hello " + q.getPayload());
+        connect();
+        awaitRemoteHandler("hello");
+
+        SubscriptionQueryResult<QueryResponseMessage<String>, SubscriptionQueryUpdateMessage<String>> result =
+                queryBus1.subscriptionQuery(new GenericSubscriptionQueryMessage<>(
+                        "World", "hello", instanceOf(String.class), instanceOf(String.class)));
+        List<String> updates = new CopyOnWriteArrayList<>();
+        result.updates().subscribe(update -> updates.add(update.getPayload()));
+
+        assertEquals("Hello World", result.initialResult().block().getPayload());
+        awaitCondition(() -> !localSegment2.activeSubscriptions().isEmpty());
+        localSegment2.emit(String.class, q -> true, "update1");
+        localSegment2.emit(String.class, q -> true, "update2");
+        awaitCondition(() -> updates.size() == 2);
+        assertEquals(asList("update1", "update2"), updates);
+
+        result.cancel();
+        awaitCondition(() -> localSegment2.activeSubscriptions().isEmpty());
+    }
+
+    private void connect() throws Exception {
+        queryBus1.connect();
+        queryBus2.connect();
+        assertTrue("Expected query bus 1 to connect within 10 seconds", queryBus1.awaitJoined(10, TimeUnit.SECONDS));
+        assertTrue("Expected query bus 2 to connect within 10 seconds", queryBus2.awaitJoined(10, TimeUnit.SECONDS));
+    }
+
+    private QueryResponseMessage<String> awaitRemoteHandler(String queryName) throws InterruptedException {
+        while (true) {
+            try {
+                return queryBus1.query(new GenericQueryMessage<>("World", queryName, instanceOf(String.class))).get();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof NoHandlerForQueryException);
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static void closeSilently(JChannel channel) {
+        try {
+            channel.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    private static JChannel createChannel() throws Exception {
+        return new JChannel("org/axonframework/jgroups/commandhandling/tcp_static.xml");
+    }
+}